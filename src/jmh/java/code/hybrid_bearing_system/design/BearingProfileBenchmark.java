@@ -0,0 +1,54 @@
+package code.hybrid_bearing_system.design;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/// PhysicsEngine.update() reading the cached BearingProfile, against the same step with the
+/// profile invalidated before every step, which approximates the old per-step recomputation of
+/// stiffness, damping, magnetic force and bearing type comparisons.
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BearingProfileBenchmark {
+    @Param({"Magnetic", "Ceramic", "Hybrid"})
+    public String bearingType;
+
+    private BearingModel model;
+    private PhysicsEngine physics;
+
+    @Setup
+    public void setUp() {
+        SimulationJob job = new SimulationJob();
+        job.setBearingType(bearingType);
+        SimulationLoop loop = job.createLoop();
+        model = loop.getBearingModel();
+        physics = loop.getPhysicsEngine();
+    }
+
+    @Benchmark
+    public double cachedProfile() {
+        physics.update();
+        return physics.getRotorDisplacement();
+    }
+
+    @Benchmark
+    public double profileRebuiltEveryStep() {
+        model.setLoad(model.getLoad());
+        physics.update();
+        return physics.getRotorDisplacement();
+    }
+}
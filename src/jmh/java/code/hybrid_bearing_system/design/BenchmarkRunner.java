@@ -0,0 +1,29 @@
+package code.hybrid_bearing_system.design;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/// Runs the benchmark suite with the GC profiler (allocation rate per operation) and writes
+/// JSON results for tracking across releases. Arguments are include patterns, all benchmarks
+/// by default; -Djmh.result=file chooses the output file.
+/// src/jmh/run-benchmarks.sh PhysicsEngine ClosedLoop builds everything and runs it.
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException {
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(System.getProperty("jmh.result", "jmh-result.json"));
+        if (args.length == 0) {
+            options.include("code\\.hybrid_bearing_system\\.design\\..*Benchmark");
+        }
+        for (String pattern : args) {
+            options.include(pattern);
+        }
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,62 @@
+package code.hybrid_bearing_system.design;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/// One closed-loop step (physics, estimator, control law, control force) as the dashboard and
+/// HeadlessRunner run it, plus ControlSystem.update() on its own, for each controller.
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ClosedLoopBenchmark {
+    @Param({"Magnetic", "Ceramic", "Hybrid"})
+    public String bearingType;
+
+    @Param({"pid", "lqr"})
+    public String controller;
+
+    private SimulationLoop loop;
+    private ControlSystem controlSystem;
+    private double phase;
+
+    @Setup
+    public void setUp() {
+        SimulationJob job = new SimulationJob();
+        job.setBearingType(bearingType);
+        job.setController(ControllerType.parse(controller));
+        loop = job.createLoop();
+        controlSystem = new ControlSystem();
+        job.applyTo(controlSystem);
+        controlSystem.setControllerType(job.getController(), loop.getBearingModel());
+    }
+
+    @Benchmark
+    public double closedLoopStep() {
+        loop.step();
+        return loop.getPhysicsEngine().getControlForce();
+    }
+
+    /// Fed a slowly rotating synthetic measurement so the filter never settles into a fixed point
+    @Benchmark
+    public double controllerUpdate() {
+        phase += 0.01;
+        if (phase > 2 * Math.PI) {
+            phase -= 2 * Math.PI;
+        }
+        return controlSystem.update(0.001 * Math.sin(phase), 0.01 * Math.cos(phase), PhysicsEngine.TIME_STEP);
+    }
+}
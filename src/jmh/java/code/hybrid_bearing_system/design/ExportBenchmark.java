@@ -0,0 +1,102 @@
+package code.hybrid_bearing_system.design;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/// Cost per exported sample: the legacy append-per-sample CSV writer, recording into the
+/// binary telemetry ring, and offline conversion of a telemetry file to CSV.
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ExportBenchmark {
+    static final int CONVERT_SAMPLES = 10_000;
+
+    private Path directory;
+    private Path csvFile;
+    private Path telemetryFile;
+    private Path convertedFile;
+    private SimulationLoop loop;
+    private SimulationSnapshot snapshot;
+    private DataExporter dataExporter;
+    private TelemetryRecorder recorder;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("export-benchmark");
+        csvFile = directory.resolve("simulation_data.csv");
+        telemetryFile = directory.resolve("recorded.hbt");
+        convertedFile = directory.resolve("converted.csv");
+        loop = new SimulationJob().createLoop();
+        for (int i = 0; i < 100; i++) {
+            loop.step();
+        }
+        snapshot = new SimulationSnapshot(loop, 1.0, 100.0);
+        dataExporter = new DataExporter();
+        recorder = new TelemetryRecorder(directory.resolve("benchmark.hbt"), Arrays.asList(OutputChannel.values()));
+
+        SimulationLoop source = new SimulationJob().createLoop();
+        try (TelemetryRecorder fixture = new TelemetryRecorder(telemetryFile, Arrays.asList(OutputChannel.values()))) {
+            for (int i = 0; i < CONVERT_SAMPLES; i++) {
+                source.step();
+                while (!fixture.record(source.getTime(), source.getPhysicsEngine())) {
+                    Thread.onSpinWait();
+                }
+            }
+        }
+    }
+
+    /// Keeps the appended CSV from growing across iterations
+    @Setup(Level.Iteration)
+    public void truncateCsv() throws IOException {
+        Files.deleteIfExists(csvFile);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        recorder.close();
+        try (var files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public void csvExportPerSample() {
+        dataExporter.exportToCSV(snapshot, csvFile.toString());
+    }
+
+    /// Samples dropped because the writer fell behind still count as operations here;
+    /// compare with the recorder's dropped counter when reading the result.
+    @Benchmark
+    public boolean telemetryRecordPerSample() {
+        return recorder.record(loop.getTime(), loop.getPhysicsEngine());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CONVERT_SAMPLES)
+    public long telemetryConvertPerSample() throws IOException {
+        return dataExporter.convertTelemetryToCSV(telemetryFile, convertedFile);
+    }
+}
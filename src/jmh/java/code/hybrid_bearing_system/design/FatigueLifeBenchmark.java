@@ -0,0 +1,71 @@
+package code.hybrid_bearing_system.design;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/// FatigueLife.add() on a contact stress that swings with the load and carries random noise of a
+/// few levels, so most calls move the rainflow residue and some close cycles; and the report
+/// that follows a run, Miner damage plus the modified rating life.
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+public class FatigueLifeBenchmark {
+    /// Silicon nitride, E / (1 - ν²) (Pa)
+    private static final double EFFECTIVE_MODULUS = 3.3e11;
+    /// Rainflow full scale (Pa) above the stress signal below
+    private static final double STRESS_FULL_SCALE = 5e9;
+    private static final int SAMPLES = 4096;
+
+    @Param({"128", "512"})
+    public int levels;
+
+    private FatigueLife fatigue;
+    private final double[] stress = new double[SAMPLES];
+    private final double[] load = new double[SAMPLES];
+    private int index;
+
+    @Setup
+    public void setUp() {
+        fatigue = new FatigueLife(new LoadDistribution(), levels, STRESS_FULL_SCALE);
+        fatigue.setEffectiveModulus(EFFECTIVE_MODULUS);
+        fatigue.setSpindleSpeed(20000);
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < SAMPLES; i++) {
+            double swing = Math.sin(2 * Math.PI * i / 256.0);
+            load[i] = 2000.0 + 1500.0 * swing + 50.0 * random.nextGaussian();
+            stress[i] = 2.5e9 + 1.0e9 * swing + 5.0e7 * random.nextGaussian();
+        }
+        for (int i = 0; i < 100 * SAMPLES; i++) {
+            fatigue.add(stress[i % SAMPLES], load[i % SAMPLES], 1e-4);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public double add() {
+        int i = index++ & (SAMPLES - 1);
+        fatigue.add(stress[i], load[i], 1e-4);
+        return fatigue.getTime();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public double report() {
+        return fatigue.getDamage() + fatigue.getModifiedRatingLife();
+    }
+}
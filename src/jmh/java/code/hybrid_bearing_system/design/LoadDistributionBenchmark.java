@@ -0,0 +1,61 @@
+package code.hybrid_bearing_system.design;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/// LoadDistribution.solve() for a 12-ball bearing with and without clearance: warm, under a load
+/// that turns 0.1° and changes by up to 1% per call as between physics steps, and cold from a
+/// centred ring for each call.
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+public class LoadDistributionBenchmark {
+    /// Silicon nitride, E / (1 - ν²) (Pa)
+    private static final double EFFECTIVE_MODULUS = 3.3e11;
+
+    @Param({"0", "2e-5"})
+    public double clearance;
+
+    private LoadDistribution distribution;
+    private long step;
+
+    @Setup
+    public void setUp() {
+        distribution = new LoadDistribution(LoadDistribution.DEFAULT_BALL_COUNT, LoadDistribution.DEFAULT_BALL_DIAMETER,
+                LoadDistribution.DEFAULT_PITCH_DIAMETER, LoadDistribution.DEFAULT_CONTACT_ANGLE, clearance);
+        distribution.setEffectiveModulus(EFFECTIVE_MODULUS);
+        distribution.solve(500.0, 0.0);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public double warmSolve() {
+        step++;
+        double angle = Math.toRadians(0.1) * step;
+        double force = 500.0 + 5.0 * Math.sin(0.01 * step);
+        distribution.solve(force * Math.cos(angle), force * Math.sin(angle));
+        return distribution.getMaxPressure();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public double coldSolve() {
+        distribution.reset();
+        distribution.solve(500.0, 0.0);
+        return distribution.getMaxPressure();
+    }
+}
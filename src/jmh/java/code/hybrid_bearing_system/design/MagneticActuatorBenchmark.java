@@ -0,0 +1,117 @@
+package code.hybrid_bearing_system.design;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/// One actuator force evaluation from the tabulated force map, against solving both magnets'
+/// circuits directly. Displacement and current sweep the table so lookups hit different cells;
+/// the sweep is precomputed so its sines do not swamp the lookups.
+///
+/// The *Step benchmarks give the actuator's share of one RK4 step: the force at four stages
+/// within micrometres of the step's starting displacement, then the flux at its end, from the
+/// force map against the constant-current calculateMagneticForce() the engine called at every
+/// stage before BearingProfile. The steps follow a rotor orbit, as a simulated rotor
+/// does, instead of jumping across the table. The closed form is still the cheaper of the two,
+/// which is why it remains the default (see BearingModel.getActuator()).
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MagneticActuatorBenchmark {
+    /// Force evaluations of one RK4 step: the start, twice the midpoint and the end
+    private static final int STAGES = 4;
+    /// Stage displacement offset (m), a velocity of 1e-4 m/s over half a 0.01 s step
+    private static final double STAGE_OFFSET = 5e-7;
+    /// The closed form's constants, as PhysicsEngine had them
+    private static final double MU0 = 4 * Math.PI * 1e-7;
+    private static final double COIL_TURNS = 100;
+    private static final double COIL_CURRENT = 10.0;
+    private static final double COIL_RADIUS = 0.05;
+
+    /// Points of the precomputed sweep, a power of two
+    private static final int POINTS = 1024;
+
+    private MagneticActuator actuator;
+    /// Not final, so the closed form's name comparison is not folded away
+    private String bearingType = "Hybrid";
+    private double fieldStrength;
+    private final double[] displacements = new double[POINTS];
+    private final double[] currents = new double[POINTS];
+    private final double[] orbitDisplacements = new double[POINTS];
+    private final double[] orbitCurrents = new double[POINTS];
+    private int index;
+
+    @Setup
+    public void setUp() {
+        actuator = MagneticActuator.standard();
+        for (int i = 0; i < POINTS; i++) {
+            displacements[i] = 0.009 * Math.sin(i * 0.37);
+            currents[i] = 4.5 * Math.cos(i * 0.11);
+            orbitDisplacements[i] = 0.009 * Math.sin(i * 2 * Math.PI / POINTS);
+            orbitCurrents[i] = 4.5 * Math.cos(i * 2 * Math.PI / POINTS);
+        }
+    }
+
+    private double displacement() {
+        return displacements[index & (POINTS - 1)];
+    }
+
+    private double current() {
+        return currents[index & (POINTS - 1)];
+    }
+
+    @Benchmark
+    public double tabulatedForce() {
+        index++;
+        return actuator.force(displacement(), current());
+    }
+
+    @Benchmark
+    public double solvedForce() {
+        index++;
+        return actuator.solvePairForce(displacement(), current());
+    }
+
+    @Benchmark
+    public double lookupStep() {
+        index++;
+        double x = orbitDisplacements[index & (POINTS - 1)];
+        double current = orbitCurrents[index & (POINTS - 1)];
+        double force = actuator.force(x, current) + actuator.force(x + STAGE_OFFSET, current)
+                + actuator.force(x + STAGE_OFFSET, current) + actuator.force(x + 2 * STAGE_OFFSET, current);
+        return force + actuator.fluxDensity(x + 2 * STAGE_OFFSET, current);
+    }
+
+    @Benchmark
+    public double closedFormStep() {
+        index++;
+        double controlForce = orbitCurrents[index & (POINTS - 1)] * actuator.getCurrentGain();
+        double force = closedFormForce() + closedFormForce() + closedFormForce() + closedFormForce();
+        return force + STAGES * controlForce + fieldStrength;
+    }
+
+    /// PhysicsEngine.calculateMagneticForce() before BearingProfile, string comparisons included
+    private double closedFormForce() {
+        if (bearingType.equals("Magnetic") || bearingType.equals("Hybrid")) {
+            fieldStrength = MU0 * COIL_TURNS * COIL_CURRENT / (2 * COIL_RADIUS);
+            double force = fieldStrength * COIL_CURRENT * 0.01;
+            if (Double.isNaN(force) || Double.isInfinite(force)) {
+                return -1000;
+            }
+            return Math.max(-1000, Math.min(1000, force));
+        }
+        return 0.0;
+    }
+}
@@ -0,0 +1,59 @@
+package code.hybrid_bearing_system.design;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/// Open-loop PhysicsEngine.update() for each bearing type: single-step latency distribution
+/// and long-run throughput in steps per second.
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+public class PhysicsEngineBenchmark {
+    /// 100 simulated seconds at the default 0.01 s time step
+    static final int LONG_RUN_STEPS = 10_000;
+
+    @Param({"Magnetic", "Ceramic", "Hybrid"})
+    public String bearingType;
+
+    private PhysicsEngine physics;
+
+    @Setup
+    public void setUp() {
+        SimulationJob job = new SimulationJob();
+        job.setBearingType(bearingType);
+        physics = job.createLoop().getPhysicsEngine();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public double singleStep() {
+        physics.update();
+        return physics.getRotorDisplacement();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @OperationsPerInvocation(LONG_RUN_STEPS)
+    public double longRun() {
+        physics.reset();
+        for (int i = 0; i < LONG_RUN_STEPS; i++) {
+            physics.update();
+        }
+        return physics.getTemperature();
+    }
+}
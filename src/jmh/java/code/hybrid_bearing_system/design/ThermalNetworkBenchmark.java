@@ -0,0 +1,73 @@
+package code.hybrid_bearing_system.design;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/// One implicit ThermalNetwork step on square grids of side nodes per side, numbered at random so
+/// the reverse Cuthill-McKee reordering has to recover the band. Factorization happens in setup.
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+public class ThermalNetworkBenchmark {
+    @Param({"3", "10", "20"})
+    public int side;
+
+    private ThermalNetwork network;
+
+    @Setup
+    public void setUp() {
+        int nodes = side * side;
+        int[] shuffled = new int[nodes];
+        for (int i = 0; i < nodes; i++) {
+            shuffled[i] = i;
+        }
+        Random random = new Random(1);
+        for (int i = nodes - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = shuffled[i];
+            shuffled[i] = shuffled[j];
+            shuffled[j] = swap;
+        }
+        network = new ThermalNetwork();
+        for (int i = 0; i < nodes; i++) {
+            network.addNode("n" + i, 100.0);
+        }
+        for (int y = 0; y < side; y++) {
+            for (int x = 0; x < side; x++) {
+                int node = shuffled[y * side + x];
+                if (x + 1 < side) {
+                    network.connect(node, shuffled[y * side + x + 1], 5.0);
+                }
+                if (y + 1 < side) {
+                    network.connect(node, shuffled[(y + 1) * side + x], 5.0);
+                }
+            }
+        }
+        network.connectAmbient(shuffled[0], 10.0);
+        network.setHeatShare(shuffled[nodes - 1], 1.0);
+        network.distributeHeat(100.0);
+        network.step(1.0);
+        network.step(1.0);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public double step() {
+        network.step(1.0);
+        return network.getSensorTemperature();
+    }
+}
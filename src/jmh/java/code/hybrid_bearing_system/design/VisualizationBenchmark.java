@@ -0,0 +1,67 @@
+package code.hybrid_bearing_system.design;
+
+import javafx.application.Platform;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/// Cost of the Visualization2D draw calls for one dashboard frame. The canvas is never shown,
+/// so this measures recording the drawing commands, not rasterization on the render thread.
+/// Needs a display, or -Dglass.platform=Monocle -Dmonocle.platform=Headless with Monocle on the class path.
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class VisualizationBenchmark {
+    private Canvas canvas;
+    private GraphicsContext gc;
+    private Visualization2D visualization2D;
+    private SimulationLoop loop;
+    private SimulationSnapshot snapshot;
+
+    @Setup
+    public void setUp() {
+        try {
+            Platform.startup(() -> { });
+        } catch (IllegalStateException alreadyStarted) {
+            /// Toolkit already running in this fork
+        }
+        canvas = new Canvas(900, 500);
+        gc = canvas.getGraphicsContext2D();
+        visualization2D = new Visualization2D();
+        loop = new SimulationJob().createLoop();
+        snapshot = new SimulationSnapshot(loop, 1.0, 100.0);
+    }
+
+    /// Same sequence as SimulationDashboard.renderDashboard(). The full-canvas fill also lets the
+    /// canvas discard the previous frame's commands, so the buffer does not grow.
+    @Benchmark
+    public GraphicsContext drawFrame() {
+        loop.step();
+        snapshot = new SimulationSnapshot(loop, 1.0, 100.0);
+        gc.setFill(Color.web("#1E1E1E"));
+        gc.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        visualization2D.drawFrictionGauge(gc, snapshot.getFrictionForce());
+        visualization2D.drawEnergyLossGauge(gc, snapshot.getEnergyLoss());
+        visualization2D.drawTemperatureGauge(gc, snapshot.getTemperature());
+        visualization2D.drawRotorDynamics(gc, snapshot.getRotorDisplacement());
+        visualization2D.drawMagneticField(gc, snapshot.getMagneticFieldStrength());
+        visualization2D.drawStressMap(gc, snapshot.getStress());
+        visualization2D.drawTimingReadout(gc, snapshot.getTime(), snapshot.getRealTimeFactor(), snapshot.getStepsPerSecond());
+        return gc;
+    }
+}
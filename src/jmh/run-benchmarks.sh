@@ -0,0 +1,67 @@
+#!/usr/bin/env bash
+# Builds the main classes and the JMH benchmarks in src/jmh/java, then runs BenchmarkRunner.
+#
+#   src/jmh/run-benchmarks.sh [patterns...]
+#
+# Needs a JDK (javac and java on PATH, or JAVA_HOME). JMH 1.37 and JavaFX are fetched from
+# Maven Central into build/jmh/lib on first use; set JAVAFX_LIB to a JavaFX SDK's lib directory
+# to use that instead. Patterns and -Djmh.result (via JAVA_OPTS) are passed to BenchmarkRunner.
+set -euo pipefail
+
+ROOT="$(cd "$(dirname "$0")/../.." && pwd)"
+BUILD="$ROOT/build/jmh"
+LIB="$BUILD/lib"
+JMH_VERSION=1.37
+JAVAFX_VERSION=21.0.5
+MAVEN=https://repo1.maven.org/maven2
+
+JAVA_BIN="${JAVA_HOME:+$JAVA_HOME/bin/}"
+
+fetch() {
+    local path="$1" file="$LIB/$(basename "$1")"
+    if [ ! -f "$file" ]; then
+        echo "Downloading $(basename "$1")"
+        curl -sSfL -o "$file.part" "$MAVEN/$path" && mv "$file.part" "$file"
+    fi
+    CLASSPATH_JARS="$CLASSPATH_JARS:$file"
+}
+
+mkdir -p "$LIB"
+CLASSPATH_JARS=""
+fetch "org/openjdk/jmh/jmh-core/$JMH_VERSION/jmh-core-$JMH_VERSION.jar"
+fetch "org/openjdk/jmh/jmh-generator-annprocess/$JMH_VERSION/jmh-generator-annprocess-$JMH_VERSION.jar"
+fetch "net/sf/jopt-simple/jopt-simple/5.0.4/jopt-simple-5.0.4.jar"
+fetch "org/apache/commons/commons-math3/3.6.1/commons-math3-3.6.1.jar"
+
+if [ -n "${JAVAFX_LIB:-}" ]; then
+    for jar in "$JAVAFX_LIB"/*.jar; do
+        CLASSPATH_JARS="$CLASSPATH_JARS:$jar"
+    done
+else
+    case "$(uname -s)-$(uname -m)" in
+        Linux-aarch64) PLATFORM=linux-aarch64 ;;
+        Linux-*) PLATFORM=linux ;;
+        Darwin-arm64) PLATFORM=mac-aarch64 ;;
+        Darwin-*) PLATFORM=mac ;;
+        *) PLATFORM=win ;;
+    esac
+    for module in base graphics controls fxml; do
+        fetch "org/openjfx/javafx-$module/$JAVAFX_VERSION/javafx-$module-$JAVAFX_VERSION-$PLATFORM.jar"
+    done
+fi
+CLASSPATH_JARS="${CLASSPATH_JARS#:}"
+
+# The main classes go on the class path, not the module path, as for headless runs
+rm -rf "$BUILD/classes" "$BUILD/benchmarks"
+mkdir -p "$BUILD/classes" "$BUILD/benchmarks"
+find "$ROOT/src/main/java" -name '*.java' ! -name module-info.java > "$BUILD/main-sources.txt"
+"${JAVA_BIN}javac" -encoding UTF-8 -cp "$CLASSPATH_JARS" -d "$BUILD/classes" @"$BUILD/main-sources.txt"
+cp -r "$ROOT/src/main/resources/." "$BUILD/classes/"
+
+# The JMH annotation processor generates the benchmark stubs and META-INF/BenchmarkList
+find "$ROOT/src/jmh/java" -name '*.java' > "$BUILD/jmh-sources.txt"
+"${JAVA_BIN}javac" -encoding UTF-8 -cp "$BUILD/classes:$CLASSPATH_JARS" -d "$BUILD/benchmarks" @"$BUILD/jmh-sources.txt"
+
+# JMH forks its benchmark JVMs with this JVM's class path
+exec "${JAVA_BIN}java" ${JAVA_OPTS:-} -cp "$BUILD/benchmarks:$BUILD/classes:$CLASSPATH_JARS" \
+    code.hybrid_bearing_system.design.BenchmarkRunner "$@"
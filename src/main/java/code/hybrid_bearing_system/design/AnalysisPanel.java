@@ -1,25 +1,54 @@
 package code.hybrid_bearing_system.design;
 
+import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TextField;
 import javafx.scene.control.TitledPane;
+import javafx.scene.layout.GridPane;
 import javafx.scene.layout.VBox;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.paint.Color;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
 
 public class AnalysisPanel {
     private VBox pane;
     private Canvas comparisonCanvas;
     private BearingModel bearingModel;
     private PhysicsEngine physicsEngine;
+    private ControlSystem controlSystem;
     private Label resultLabel;
+    private TextField sweepTypesField, sweepSpeedField, sweepLoadField, sweepModulusField;
+    private TextField sweepKpField, sweepKiField, sweepKdField, sweepDurationField;
+    private TableView<SweepResult> sweepTable;
+    private Label sweepStatusLabel;
+    /// Compare, sweep and Campbell jobs run here; listeners are called on the FX thread
+    private final AnalysisScheduler scheduler;
+    private AnalysisScheduler.Job<?> compareJob;
+    private AnalysisScheduler.Job<?> sweepJob;
+    private AnalysisScheduler.Job<?> campbellJob;
+    private int activeSweepCases;
+    /// Filled by compute threads, drained into the table on progress updates
+    private final ConcurrentLinkedQueue<SweepResult> pendingSweepResults = new ConcurrentLinkedQueue<>();
+    private TextField campbellMinSpeedField, campbellMaxSpeedField, campbellPointsField, campbellModesField;
+    private Canvas campbellCanvas;
+    private Label campbellStatusLabel;
 
-    public AnalysisPanel(BearingModel bearingModel, PhysicsEngine physicsEngine) {
+    public AnalysisPanel(BearingModel bearingModel, PhysicsEngine physicsEngine, ControlSystem controlSystem,
+            AnalysisScheduler scheduler) {
         this.bearingModel = bearingModel;
+        this.scheduler = scheduler;
         this.physicsEngine = physicsEngine;
+        this.controlSystem = controlSystem;
         pane = new VBox(10);
         pane.setPadding(new Insets(10));
         pane.setStyle("-fx-background-color: #1E1E1E;");
@@ -32,26 +61,373 @@ public class AnalysisPanel {
         VBox comparisonBox = new VBox(10, comparisonCanvas, resultLabel, compareButton);
         comparisonBox.setAlignment(Pos.CENTER);
         comparisonPane.setContent(comparisonBox);
-        pane.getChildren().add(comparisonPane);
+
+        /// Parameter sweep
+        TitledPane sweepPane = new TitledPane();
+        sweepPane.setText("Parameter Sweep");
+        GridPane sweepGrid = new GridPane();
+        sweepGrid.setHgap(10);
+        sweepGrid.setVgap(10);
+        sweepGrid.setPadding(new Insets(10));
+        sweepTypesField = new TextField("Magnetic,Ceramic,Hybrid");
+        sweepSpeedField = new TextField("5000:20000:8");
+        sweepLoadField = new TextField("100:1000:10");
+        sweepModulusField = new TextField("200,300,380");
+        sweepKpField = new TextField("1000");
+        sweepKiField = new TextField("10");
+        sweepKdField = new TextField("50");
+        sweepDurationField = new TextField("1");
+        sweepGrid.add(new Label("Bearing Types:"), 0, 0);
+        sweepGrid.add(sweepTypesField, 1, 0);
+        sweepGrid.add(new Label("Speed (RPM):"), 2, 0);
+        sweepGrid.add(sweepSpeedField, 3, 0);
+        sweepGrid.add(new Label("Load (N):"), 0, 1);
+        sweepGrid.add(sweepLoadField, 1, 1);
+        sweepGrid.add(new Label("Young's Modulus (GPa):"), 2, 1);
+        sweepGrid.add(sweepModulusField, 3, 1);
+        sweepGrid.add(new Label("Kp:"), 0, 2);
+        sweepGrid.add(sweepKpField, 1, 2);
+        sweepGrid.add(new Label("Ki:"), 2, 2);
+        sweepGrid.add(sweepKiField, 3, 2);
+        sweepGrid.add(new Label("Kd:"), 0, 3);
+        sweepGrid.add(sweepKdField, 1, 3);
+        sweepGrid.add(new Label("Duration (s):"), 2, 3);
+        sweepGrid.add(sweepDurationField, 3, 3);
+        Button runSweepButton = new Button("Run Sweep");
+        runSweepButton.setOnAction(e -> runSweep());
+        Button cancelSweepButton = new Button("Cancel Sweep");
+        cancelSweepButton.setOnAction(e -> cancelSweep());
+        sweepGrid.add(runSweepButton, 0, 4);
+        sweepGrid.add(cancelSweepButton, 1, 4);
+        sweepStatusLabel = new Label("Lists: a,b,c  Ranges: start:end:count");
+        sweepTable = new TableView<>();
+        sweepTable.setPrefHeight(250);
+        addSweepColumn("Case", SweepResult::getCaseIndex);
+        addSweepColumn("Type", r -> r.getJob().getBearingType());
+        addSweepColumn("Speed", r -> String.format("%.0f", r.getJob().getSpindleSpeed()));
+        addSweepColumn("Load", r -> String.format("%.0f", r.getJob().getLoad()));
+        addSweepColumn("E (GPa)", r -> String.format("%.0f", r.getJob().getYoungsModulus()));
+        addSweepColumn("Kp/Ki/Kd", r -> String.format("%.0f/%.0f/%.0f", r.getJob().getKp(), r.getJob().getKi(), r.getJob().getKd()));
+        addSweepColumn("Peak Disp. (mm)", r -> String.format("%.4f", r.getSummary().getPeakDisplacement() * 1000));
+        addSweepColumn("Temp (°C)", r -> String.format("%.2f", r.getSummary().getFinalTemperature()));
+        addSweepColumn("Energy Loss (J)", r -> String.format("%.2f", r.getSummary().getEnergyLoss()));
+        addSweepColumn("Stress (MPa)", r -> String.format("%.2f", r.getSummary().getPeakStress() / 1e6));
+        VBox sweepBox = new VBox(10, sweepGrid, sweepStatusLabel, sweepTable);
+        sweepPane.setContent(sweepBox);
+
+        /// Campbell diagram of the finite-element spindle on the current bearings
+        TitledPane campbellPane = new TitledPane();
+        campbellPane.setText("Campbell Diagram");
+        GridPane campbellGrid = new GridPane();
+        campbellGrid.setHgap(10);
+        campbellGrid.setVgap(10);
+        campbellGrid.setPadding(new Insets(10));
+        campbellMinSpeedField = new TextField("0");
+        campbellMaxSpeedField = new TextField("100000");
+        campbellPointsField = new TextField("500");
+        campbellModesField = new TextField("4");
+        campbellGrid.add(new Label("Min Speed (RPM):"), 0, 0);
+        campbellGrid.add(campbellMinSpeedField, 1, 0);
+        campbellGrid.add(new Label("Max Speed (RPM):"), 2, 0);
+        campbellGrid.add(campbellMaxSpeedField, 3, 0);
+        campbellGrid.add(new Label("Speed Points:"), 0, 1);
+        campbellGrid.add(campbellPointsField, 1, 1);
+        campbellGrid.add(new Label("Modes per Direction:"), 2, 1);
+        campbellGrid.add(campbellModesField, 3, 1);
+        Button runCampbellButton = new Button("Compute Campbell Diagram");
+        runCampbellButton.setOnAction(e -> runCampbell());
+        Button cancelCampbellButton = new Button("Cancel");
+        cancelCampbellButton.setOnAction(e -> {
+            if (campbellJob != null) {
+                campbellJob.cancel();
+            }
+        });
+        campbellGrid.add(runCampbellButton, 0, 2);
+        campbellGrid.add(cancelCampbellButton, 1, 2);
+        campbellCanvas = new Canvas(600, 350);
+        campbellStatusLabel = new Label("Whirl frequencies of a 400 mm spindle on the configured bearings");
+        VBox campbellBox = new VBox(10, campbellGrid, campbellCanvas, campbellStatusLabel);
+        campbellPane.setContent(campbellBox);
+        pane.getChildren().addAll(comparisonPane, sweepPane, campbellPane);
+    }
+
+    private void addSweepColumn(String title, Function<SweepResult, Object> value) {
+        TableColumn<SweepResult, Object> column = new TableColumn<>(title);
+        column.setCellValueFactory(data -> new ReadOnlyObjectWrapper<>(value.apply(data.getValue())));
+        sweepTable.getColumns().add(column);
+    }
+
+    private void runSweep() {
+        if (sweepJob != null) {
+            return;
+        }
+        ParameterSweep sweep = new ParameterSweep();
+        sweep.setCache(ResultCache.getDefault());
+        try {
+            sweep.setBearingTypes(ParameterSweep.parseBearingTypes(sweepTypesField.getText()));
+            sweep.setSpindleSpeeds(ParameterSweep.parseValues(sweepSpeedField.getText()));
+            sweep.setLoads(ParameterSweep.parseValues(sweepLoadField.getText()));
+            sweep.setYoungsModuli(ParameterSweep.parseValues(sweepModulusField.getText()));
+            sweep.setKpValues(ParameterSweep.parseValues(sweepKpField.getText()));
+            sweep.setKiValues(ParameterSweep.parseValues(sweepKiField.getText()));
+            sweep.setKdValues(ParameterSweep.parseValues(sweepKdField.getText()));
+            sweep.setDuration(Double.parseDouble(sweepDurationField.getText()));
+            activeSweepCases = sweep.getCaseCount();
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            sweepStatusLabel.setText("Error: " + e.getMessage());
+            return;
+        }
+        pendingSweepResults.clear();
+        sweepTable.getItems().clear();
+        sweepStatusLabel.setText(String.format("Running %d cases...", activeSweepCases));
+        /// One compute task per case at low priority, so comparisons and Campbell diagrams
+        /// started meanwhile overtake the remaining cases
+        List<Callable<Void>> cases = new ArrayList<>();
+        for (int i = 0; i < activeSweepCases; i++) {
+            int index = i;
+            cases.add(() -> {
+                pendingSweepResults.add(sweep.runCase(index));
+                return null;
+            });
+        }
+        long start = System.nanoTime();
+        sweepJob = scheduler.submit("sweep", AnalysisScheduler.Priority.LOW, context -> context.computeAll(cases),
+                new AnalysisScheduler.Listener<List<Void>>() {
+                    @Override
+                    public void progress(double fraction, String message) {
+                        drainSweepResults();
+                        sweepStatusLabel.setText(String.format("Running: %d/%d cases", sweepTable.getItems().size(),
+                                activeSweepCases));
+                    }
+
+                    @Override
+                    public void succeeded(List<Void> result) {
+                        drainSweepResults();
+                        double seconds = (System.nanoTime() - start) / 1e9;
+                        sweepStatusLabel.setText(String.format("Finished %d cases in %.2f s (%.1f cases/s on %d workers)",
+                                activeSweepCases, seconds, activeSweepCases / seconds, scheduler.getComputeThreads()));
+                        sweepJob = null;
+                    }
+
+                    @Override
+                    public void failed(Throwable error) {
+                        drainSweepResults();
+                        sweepStatusLabel.setText("Error: " + error.getMessage());
+                        sweepJob = null;
+                    }
+
+                    @Override
+                    public void cancelled() {
+                        drainSweepResults();
+                        sweepStatusLabel.setText(String.format("Cancelled after %d/%d cases", sweepTable.getItems().size(),
+                                activeSweepCases));
+                        sweepJob = null;
+                    }
+                });
+    }
+
+    private void cancelSweep() {
+        if (sweepJob != null) {
+            sweepJob.cancel();
+        }
+    }
+
+    private void drainSweepResults() {
+        List<SweepResult> batch = new ArrayList<>();
+        SweepResult result;
+        while ((result = pendingSweepResults.poll()) != null) {
+            batch.add(result);
+        }
+        sweepTable.getItems().addAll(batch);
+    }
+
+    private void runCampbell() {
+        if (campbellJob != null) {
+            return;
+        }
+        CampbellDiagram diagram;
+        try {
+            diagram = new CampbellDiagram(RotorModel.standard(bearingModel, 40));
+            diagram.setSpeedRange(Double.parseDouble(campbellMinSpeedField.getText()),
+                    Double.parseDouble(campbellMaxSpeedField.getText()),
+                    Integer.parseInt(campbellPointsField.getText()));
+            diagram.setModes(Integer.parseInt(campbellModesField.getText()));
+        } catch (IllegalArgumentException e) {
+            campbellStatusLabel.setText("Error: " + e.getMessage());
+            return;
+        }
+        campbellStatusLabel.setText(String.format("Solving %d speeds...", diagram.getSpeedCount()));
+        campbellJob = scheduler.submit("campbell", AnalysisScheduler.Priority.NORMAL, context -> {
+            /// One banded factorization, cheap enough for the coordinator; the speed blocks are the work
+            CampbellDiagram.Computation computation = diagram.prepare();
+            List<Callable<Void>> blocks = new ArrayList<>();
+            for (int b = 0; b < computation.getBlockCount(); b++) {
+                int block = b;
+                blocks.add(() -> {
+                    computation.solveBlock(block);
+                    return null;
+                });
+            }
+            context.computeAll(blocks);
+            return computation.finish(scheduler.getComputeThreads());
+        }, new AnalysisScheduler.Listener<CampbellDiagram.Result>() {
+            @Override
+            public void progress(double fraction, String message) {
+                campbellStatusLabel.setText(String.format("Solving %d speeds: %.0f %%", diagram.getSpeedCount(),
+                        100 * fraction));
+            }
+
+            @Override
+            public void succeeded(CampbellDiagram.Result result) {
+                drawCampbell(diagram, result);
+                StringBuilder critical = new StringBuilder();
+                for (double speed : result.getCriticalSpeeds()) {
+                    critical.append(critical.length() == 0 ? "" : ", ").append(String.format("%.0f", speed));
+                }
+                campbellStatusLabel.setText(String.format("%d speeds in %.2f s on %d workers. Critical speeds (RPM): %s",
+                        result.getSpeedCount(), result.getElapsedNanos() / 1e9, result.getParallelism(),
+                        critical.length() == 0 ? "none in range" : critical));
+                campbellJob = null;
+            }
+
+            @Override
+            public void failed(Throwable error) {
+                campbellStatusLabel.setText("Error: " + error.getMessage());
+                campbellJob = null;
+            }
+
+            @Override
+            public void cancelled() {
+                campbellStatusLabel.setText("Campbell diagram cancelled");
+                campbellJob = null;
+            }
+        });
+    }
+
+    /// Forward whirl branches in green, backward in blue, the 1X line in grey and critical
+    /// speeds as red markers.
+    private void drawCampbell(CampbellDiagram diagram, CampbellDiagram.Result result) {
+        GraphicsContext gc = campbellCanvas.getGraphicsContext2D();
+        double x = 60;
+        double y = 20;
+        double width = campbellCanvas.getWidth() - 80;
+        double height = campbellCanvas.getHeight() - 60;
+        gc.setFill(Color.web("#1E1E1E"));
+        gc.fillRect(0, 0, campbellCanvas.getWidth(), campbellCanvas.getHeight());
+        double minSpeed = diagram.getMinSpeed();
+        double speedSpan = Math.max(diagram.getMaxSpeed() - minSpeed, 1e-9);
+        double maxFrequency = 0.0;
+        for (int p = 0; p < result.getSpeedCount(); p++) {
+            for (double frequency : result.getFrequencies(p)) {
+                maxFrequency = Math.max(maxFrequency, Math.abs(frequency));
+            }
+        }
+        if (!(maxFrequency > 0)) {
+            return;
+        }
+        double frequencyScale = height / (1.1 * maxFrequency);
+        gc.setStroke(Color.web("#555555"));
+        gc.setLineWidth(1);
+        gc.strokeRect(x, y, width, height);
+        /// 1X line up to the top of the chart
+        double lineEnd = Math.min(diagram.getMaxSpeed(), 60 * 1.1 * maxFrequency);
+        if (lineEnd > minSpeed) {
+            gc.setStroke(Color.web("#AAAAAA"));
+            gc.strokeLine(x, y + height - minSpeed / 60 * frequencyScale,
+                    x + width * (lineEnd - minSpeed) / speedSpan, y + height - lineEnd / 60 * frequencyScale);
+        }
+        for (int branch = 0; branch < diagram.getModes(); branch++) {
+            gc.setStroke(Color.web("#00FF00"));
+            strokeBranch(gc, result, branch, true, x, y + height, width / speedSpan, frequencyScale, minSpeed);
+            gc.setStroke(Color.web("#00BFFF"));
+            strokeBranch(gc, result, branch, false, x, y + height, width / speedSpan, frequencyScale, minSpeed);
+        }
+        gc.setFill(Color.RED);
+        for (double speed : result.getCriticalSpeeds()) {
+            gc.fillOval(x + width * (speed - minSpeed) / speedSpan - 4, y + height - speed / 60 * frequencyScale - 4, 8, 8);
+        }
+        gc.setFill(Color.WHITE);
+        gc.fillText(String.format("%.0f Hz", 1.1 * maxFrequency), 5, y + 10);
+        gc.fillText("0 Hz", 5, y + height);
+        gc.fillText(String.format("%.0f RPM", minSpeed), x, y + height + 15);
+        gc.fillText(String.format("%.0f RPM", diagram.getMaxSpeed()), x + width - 70, y + height + 15);
+        gc.setFill(Color.web("#00FF00"));
+        gc.fillText("Forward whirl", x, y + height + 35);
+        gc.setFill(Color.web("#00BFFF"));
+        gc.fillText("Backward whirl", x + 110, y + height + 35);
+        gc.setFill(Color.web("#AAAAAA"));
+        gc.fillText("1X", x + 220, y + height + 35);
+        gc.setFill(Color.RED);
+        gc.fillText("Critical speed", x + 250, y + height + 35);
     }
 
+    private static void strokeBranch(GraphicsContext gc, CampbellDiagram.Result result, int branch, boolean forward,
+                                     double x0, double y0, double speedScale, double frequencyScale, double minSpeed) {
+        boolean drawing = false;
+        gc.beginPath();
+        for (int p = 0; p < result.getSpeedCount(); p++) {
+            double frequency = forward ? result.getForwardFrequency(p, branch) : result.getBackwardFrequency(p, branch);
+            if (Double.isNaN(frequency)) {
+                drawing = false;
+                continue;
+            }
+            double px = x0 + (result.getSpeed(p) - minSpeed) * speedScale;
+            double py = y0 - frequency * frequencyScale;
+            if (drawing) {
+                gc.lineTo(px, py);
+            } else {
+                gc.moveTo(px, py);
+                drawing = true;
+            }
+        }
+        gc.stroke();
+    }
+
+    /// Runs 100 closed-loop steps of the current configuration as each bearing type on its own
+    /// loop at high priority, leaving the live simulation untouched; unchanged configurations
+    /// come from the cache.
     private void compareConfigurations() {
-        double[] energyLosses = new double[3];
-        double[] rigidities = new double[3];
-        double[] frictions = new double[3];
+        if (compareJob != null) {
+            return;
+        }
         String[] types = {"Magnetic", "Ceramic", "Hybrid"};
-        String originalType = bearingModel.getBearingType();
-        for (int i = 0; i < 3; i++) {
-            bearingModel.setBearingType(types[i]);
-            physicsEngine.reset();
-            for (int j = 0; j < 100; j++) {
-                physicsEngine.update();
-            }
-            energyLosses[i] = physicsEngine.getEnergyLoss();
-            rigidities[i] = bearingModel.getYoungsModulus() * 1e9 * 0.01;
-            frictions[i] = physicsEngine.getFrictionForce();
+        ResultCache cache = ResultCache.getDefault();
+        List<Callable<RunSummary>> runs = new ArrayList<>();
+        for (String type : types) {
+            SimulationJob job = SimulationJob.of(bearingModel, controlSystem);
+            job.setBearingType(type);
+            job.setTimeStep(physicsEngine.getTimeStep());
+            job.setDuration(100 * physicsEngine.getTimeStep());
+            runs.add(() -> cache.summarize(job));
+        }
+        resultLabel.setText("Comparing configurations...");
+        long start = System.nanoTime();
+        compareJob = scheduler.submit("compare", AnalysisScheduler.Priority.HIGH, context -> context.computeAll(runs),
+                new AnalysisScheduler.Listener<List<RunSummary>>() {
+                    @Override
+                    public void succeeded(List<RunSummary> summaries) {
+                        drawComparison(types, summaries, System.nanoTime() - start);
+                        compareJob = null;
+                    }
+
+                    @Override
+                    public void failed(Throwable error) {
+                        resultLabel.setText("Error: " + error.getMessage());
+                        compareJob = null;
+                    }
+
+                    @Override
+                    public void cancelled() {
+                        compareJob = null;
+                    }
+                });
+    }
+
+    private void drawComparison(String[] types, List<RunSummary> summaries, long elapsedNanos) {
+        double[] energyLosses = new double[types.length];
+        for (int i = 0; i < types.length; i++) {
+            energyLosses[i] = summaries.get(i).getEnergyLoss();
         }
-        bearingModel.setBearingType(originalType);
         GraphicsContext gc = comparisonCanvas.getGraphicsContext2D();
         gc.setFill(Color.web("#1E1E1E"));
         gc.fillRect(0, 0, comparisonCanvas.getWidth(), comparisonCanvas.getHeight());
@@ -62,8 +438,8 @@ public class AnalysisPanel {
             gc.setFill(Color.WHITE);
             gc.fillText(types[i], 100 + i * 150, 370);
         }
-        resultLabel.setText(String.format("Energy Loss (J): Magnetic: %.2f, Ceramic: %.2f, Hybrid: %.2f",
-                energyLosses[0], energyLosses[1], energyLosses[2]));
+        resultLabel.setText(String.format("Energy Loss (J): Magnetic: %.2f, Ceramic: %.2f, Hybrid: %.2f (%.1f ms)",
+                energyLosses[0], energyLosses[1], energyLosses[2], elapsedNanos / 1e6));
     }
 
     public VBox getPane() {
@@ -0,0 +1,303 @@
+package code.hybrid_bearing_system.design;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/// Runs analysis jobs (configuration comparisons, sweeps, Campbell diagrams) off the UI thread.
+///
+/// Each job is coordinated by its own daemon thread, which may block freely while it waits; only
+/// a handful of jobs are ever active, so plain platform threads serve and the tree runs on JDK 17.
+/// The computation itself is split by the job into tasks that run on a bounded pool of platform
+/// threads, one per core; queued tasks are ordered by job priority and then submission order,
+/// so a high-priority job overtakes a long low-priority sweep as soon as a worker frees up.
+///
+/// Cancellation is cooperative: queued tasks of a cancelled job are dropped and running ones
+/// should poll Context.isCancelled(). Progress is published by the coordinator at most every
+/// 100 ms, and every listener callback runs on the callback executor (Platform::runLater for
+/// the dashboard), so the UI thread receives a bounded stream of updates whatever the job does.
+public final class AnalysisScheduler implements AutoCloseable {
+    public enum Priority { HIGH, NORMAL, LOW }
+
+    private static final long PROGRESS_INTERVAL_NANOS = 100_000_000L;
+
+    private final ThreadPoolExecutor computePool;
+    private final Executor callbackExecutor;
+    private final AtomicLong submissions = new AtomicLong();
+    private final Set<Job<?>> activeJobs = ConcurrentHashMap.newKeySet();
+
+    /// Scheduler with computeThreads workers that calls listeners through callbackExecutor
+    public AnalysisScheduler(int computeThreads, Executor callbackExecutor) {
+        int threads = Math.max(1, computeThreads);
+        AtomicInteger count = new AtomicInteger();
+        computePool = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS, new PriorityBlockingQueue<>(),
+                task -> {
+                    Thread thread = new Thread(task, "analysis-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    /// Below the UI and physics threads where the OS honours Java priorities
+                    thread.setPriority(Thread.NORM_PRIORITY - 1);
+                    return thread;
+                });
+        computePool.allowCoreThreadTimeOut(true);
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    /// Work of one job, run on its coordinator thread; heavy parts go through context.compute().
+    @FunctionalInterface
+    public interface Task<T> {
+        T run(Context context) throws Exception;
+    }
+
+    /// Callbacks of one job, all invoked on the scheduler's callback executor
+    public interface Listener<T> {
+        /// Fraction in [0, 1] of the tasks submitted so far that have finished, and the job's message
+        default void progress(double fraction, String message) {
+        }
+
+        default void succeeded(T result) {
+        }
+
+        default void failed(Throwable error) {
+        }
+
+        default void cancelled() {
+        }
+    }
+
+    /// Starts a job and returns its handle.
+    public <T> Job<T> submit(String name, Priority priority, Task<T> task, Listener<T> listener) {
+        if (computePool.isShutdown()) {
+            throw new IllegalStateException("Analysis scheduler is closed");
+        }
+        Job<T> job = new Job<>(name, priority, task, listener);
+        activeJobs.add(job);
+        job.coordinator.start();
+        return job;
+    }
+
+    /// Cancels every job and stops the workers
+    @Override
+    public void close() {
+        for (Job<?> job : activeJobs) {
+            job.cancel();
+        }
+        computePool.shutdown();
+    }
+
+    public int getActiveJobCount() { return activeJobs.size(); }
+    public int getComputeThreads() { return computePool.getMaximumPoolSize(); }
+    public int getQueuedTasks() { return computePool.getQueue().size(); }
+
+    public final class Job<T> {
+        private final String name;
+        private final Priority priority;
+        private final long order = submissions.getAndIncrement();
+        private final Task<T> task;
+        private final Listener<T> listener;
+        private final Context context = new Context(this);
+        private final Thread coordinator;
+        private final List<ComputeTask<?>> pending = new CopyOnWriteArrayList<>();
+        private final AtomicLong submitted = new AtomicLong();
+        private final AtomicLong finished = new AtomicLong();
+        private volatile String message = "";
+        private volatile boolean cancelled;
+        private volatile boolean done;
+        private long lastPublished;
+        private long lastPublishedFinished = -1;
+        private String lastPublishedMessage = "";
+
+        private Job(String name, Priority priority, Task<T> task, Listener<T> listener) {
+            this.name = name;
+            this.priority = priority;
+            this.task = task;
+            this.listener = listener;
+            this.coordinator = new Thread(this::coordinate, "analysis-job-" + name);
+            coordinator.setDaemon(true);
+        }
+
+        private void coordinate() {
+            try {
+                context.checkCancelled();
+                T result = task.run(context);
+                context.checkCancelled();
+                callbackExecutor.execute(() -> listener.succeeded(result));
+            } catch (CancellationException | InterruptedException e) {
+                callbackExecutor.execute(listener::cancelled);
+            } catch (Throwable e) {
+                if (cancelled) {
+                    callbackExecutor.execute(listener::cancelled);
+                } else {
+                    callbackExecutor.execute(() -> listener.failed(e));
+                }
+            } finally {
+                for (ComputeTask<?> computeTask : pending) {
+                    computeTask.cancel(false);
+                    computePool.remove(computeTask);
+                }
+                done = true;
+                activeJobs.remove(this);
+            }
+        }
+
+        /// Drops the job's queued tasks and wakes its coordinator; running tasks finish or
+        /// notice through Context.isCancelled().
+        public void cancel() {
+            if (done || cancelled) {
+                return;
+            }
+            cancelled = true;
+            for (ComputeTask<?> computeTask : pending) {
+                computeTask.cancel(false);
+                computePool.remove(computeTask);
+            }
+            coordinator.interrupt();
+        }
+
+        /// Publishes progress if it changed and the last update is at least an interval old
+        private void publishProgress(boolean force) {
+            long now = System.nanoTime();
+            long finishedNow = finished.get();
+            String messageNow = message;
+            if (finishedNow == lastPublishedFinished && messageNow.equals(lastPublishedMessage)
+                    || !force && now - lastPublished < PROGRESS_INTERVAL_NANOS) {
+                return;
+            }
+            lastPublished = now;
+            lastPublishedFinished = finishedNow;
+            lastPublishedMessage = messageNow;
+            long total = submitted.get();
+            double fraction = total > 0 ? (double) finishedNow / total : 0.0;
+            callbackExecutor.execute(() -> listener.progress(fraction, messageNow));
+        }
+
+        public String getName() { return name; }
+        public Priority getPriority() { return priority; }
+        public boolean isCancelled() { return cancelled; }
+        public boolean isDone() { return done; }
+        public long getFinishedTasks() { return finished.get(); }
+        public long getSubmittedTasks() { return submitted.get(); }
+    }
+
+    /// What a running task sees of its job
+    public final class Context {
+        private final Job<?> job;
+
+        private Context(Job<?> job) {
+            this.job = job;
+        }
+
+        public boolean isCancelled() {
+            return job.cancelled;
+        }
+
+        /// Throws CancellationException once the job has been cancelled
+        public void checkCancelled() {
+            if (job.cancelled) {
+                throw new CancellationException(job.name + " cancelled");
+            }
+        }
+
+        /// Status text passed along with the next progress update
+        public void setMessage(String message) {
+            job.message = message;
+        }
+
+        /// Runs one task on the compute pool and waits for it
+        public <R> R compute(Callable<R> task) throws Exception {
+            return computeAll(List.of(task)).get(0);
+        }
+
+        /// Runs the tasks on the compute pool at the job's priority and returns their results in
+        /// order, publishing progress while waiting. Remaining tasks are dropped as soon as one
+        /// fails or the job is cancelled; the failure is rethrown as thrown by the task.
+        public <R> List<R> computeAll(List<? extends Callable<R>> tasks) throws Exception {
+            List<ComputeTask<R>> submitted = new ArrayList<>(tasks.size());
+            for (Callable<R> task : tasks) {
+                checkCancelled();
+                ComputeTask<R> computeTask = new ComputeTask<>(job, submitted.size(), () -> {
+                    checkCancelled();
+                    R result = task.call();
+                    job.finished.incrementAndGet();
+                    return result;
+                });
+                submitted.add(computeTask);
+                job.pending.add(computeTask);
+                job.submitted.incrementAndGet();
+                computePool.execute(computeTask);
+            }
+            try {
+                List<R> results = new ArrayList<>(submitted.size());
+                for (ComputeTask<R> computeTask : submitted) {
+                    results.add(await(computeTask));
+                    job.publishProgress(false);
+                }
+                job.publishProgress(true);
+                return results;
+            } finally {
+                for (ComputeTask<R> computeTask : submitted) {
+                    if (computeTask.cancel(false)) {
+                        computePool.remove(computeTask);
+                    }
+                }
+                job.pending.removeAll(submitted);
+            }
+        }
+
+        private <R> R await(ComputeTask<R> computeTask) throws Exception {
+            while (true) {
+                try {
+                    return computeTask.get(PROGRESS_INTERVAL_NANOS, TimeUnit.NANOSECONDS);
+                } catch (TimeoutException e) {
+                    job.publishProgress(false);
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                    throw (Exception) cause;
+                } catch (InterruptedException | CancellationException e) {
+                    checkCancelled();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /// Pool entry ordered by priority, then job submission, then position within the job
+    private static final class ComputeTask<R> extends FutureTask<R> implements Comparable<ComputeTask<?>> {
+        private final int priority;
+        private final long order;
+        private final int index;
+
+        ComputeTask(Job<?> job, int index, Callable<R> callable) {
+            super(callable);
+            this.priority = job.priority.ordinal();
+            this.order = job.order;
+            this.index = index;
+        }
+
+        @Override
+        public int compareTo(ComputeTask<?> other) {
+            if (priority != other.priority) {
+                return Integer.compare(priority, other.priority);
+            }
+            if (order != other.order) {
+                return Long.compare(order, other.order);
+            }
+            return Integer.compare(index, other.index);
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package code.hybrid_bearing_system.design;
+
+/// Square matrix that is zero outside a band of lower and upper diagonals, stored row by row.
+/// Finite-element matrices of a shaft discretized along its axis have this structure, so
+/// products cost O(n·bandwidth) and an LU factorization O(n·bandwidth²) instead of O(n³).
+public final class BandMatrix {
+    private final int size;
+    private final int lower;
+    private final int upper;
+    private final int width;
+    /// data[i * width + (j - i + lower)] holds element (i, j)
+    private final double[] data;
+
+    public BandMatrix(int size, int lower, int upper) {
+        if (size < 1 || lower < 0 || upper < 0) {
+            throw new IllegalArgumentException("Band matrix needs a positive size and non-negative bandwidths");
+        }
+        this.size = size;
+        this.lower = lower;
+        this.upper = upper;
+        this.width = lower + upper + 1;
+        this.data = new double[size * width];
+    }
+
+    public double get(int row, int column) {
+        int offset = column - row + lower;
+        return offset >= 0 && offset < width ? data[row * width + offset] : 0.0;
+    }
+
+    public void add(int row, int column, double value) {
+        int offset = column - row + lower;
+        if (offset < 0 || offset >= width) {
+            throw new IllegalArgumentException("Element (" + row + ", " + column + ") is outside the band");
+        }
+        data[row * width + offset] += value;
+    }
+
+    /// y = A·x
+    public void multiply(double[] x, double[] y) {
+        for (int i = 0; i < size; i++) {
+            int first = Math.max(0, i - lower);
+            int last = Math.min(size - 1, i + upper);
+            int base = i * width - i + lower;
+            double sum = 0.0;
+            for (int j = first; j <= last; j++) {
+                sum += data[base + j] * x[j];
+            }
+            y[i] = sum;
+        }
+    }
+
+    /// a·A + b·B, with the band wide enough for both
+    public static BandMatrix combine(double a, BandMatrix first, double b, BandMatrix second) {
+        if (first.size != second.size) {
+            throw new IllegalArgumentException("Matrix sizes differ: " + first.size + " and " + second.size);
+        }
+        BandMatrix result = new BandMatrix(first.size, Math.max(first.lower, second.lower), Math.max(first.upper, second.upper));
+        result.addScaled(a, first);
+        result.addScaled(b, second);
+        return result;
+    }
+
+    private void addScaled(double scale, BandMatrix other) {
+        if (scale == 0.0) {
+            return;
+        }
+        for (int i = 0; i < size; i++) {
+            int first = Math.max(0, i - other.lower);
+            int last = Math.min(size - 1, i + other.upper);
+            for (int j = first; j <= last; j++) {
+                data[i * width + j - i + lower] += scale * other.data[i * other.width + j - i + other.lower];
+            }
+        }
+    }
+
+    /// LU factorization with partial pivoting. Row interchanges widen the upper band of U to
+    /// upper + lower, so the factor is stored with that extra room.
+    public Factorization factorize() {
+        return new Factorization(this);
+    }
+
+    /// Cholesky factorization L·Lᵀ of a symmetric positive definite matrix with equal bandwidths.
+    /// It needs no pivoting, so L keeps the lower band and a solve costs about half the LU's.
+    public Cholesky choleskyFactorize() {
+        return new Cholesky(this);
+    }
+
+    public int getSize() { return size; }
+    public int getLowerBandwidth() { return lower; }
+    public int getUpperBandwidth() { return upper; }
+
+    public static final class Factorization {
+        private final int size;
+        private final int lower;
+        private final int upper;
+        private final int width;
+        private final double[] lu;
+        private final int[] pivots;
+
+        private Factorization(BandMatrix matrix) {
+            size = matrix.size;
+            lower = matrix.lower;
+            upper = matrix.upper + matrix.lower;
+            width = lower + upper + 1;
+            lu = new double[size * width];
+            pivots = new int[size];
+            for (int i = 0; i < size; i++) {
+                System.arraycopy(matrix.data, i * matrix.width, lu, i * width, matrix.width);
+            }
+            double scale = 0.0;
+            for (double value : matrix.data) {
+                scale = Math.max(scale, Math.abs(value));
+            }
+            for (int k = 0; k < size; k++) {
+                int lastRow = Math.min(size - 1, k + lower);
+                int lastColumn = Math.min(size - 1, k + upper);
+                int pivot = k;
+                double largest = Math.abs(lu[index(k, k)]);
+                for (int i = k + 1; i <= lastRow; i++) {
+                    double candidate = Math.abs(lu[index(i, k)]);
+                    if (candidate > largest) {
+                        largest = candidate;
+                        pivot = i;
+                    }
+                }
+                if (!(largest > 1e-14 * scale)) {
+                    throw new IllegalArgumentException("Matrix is singular at column " + k);
+                }
+                pivots[k] = pivot;
+                if (pivot != k) {
+                    for (int j = k; j <= lastColumn; j++) {
+                        double swap = lu[index(k, j)];
+                        lu[index(k, j)] = lu[index(pivot, j)];
+                        lu[index(pivot, j)] = swap;
+                    }
+                }
+                double diagonal = lu[index(k, k)];
+                for (int i = k + 1; i <= lastRow; i++) {
+                    double factor = lu[index(i, k)] / diagonal;
+                    lu[index(i, k)] = factor;
+                    if (factor != 0.0) {
+                        for (int j = k + 1; j <= lastColumn; j++) {
+                            lu[index(i, j)] -= factor * lu[index(k, j)];
+                        }
+                    }
+                }
+            }
+        }
+
+        private int index(int row, int column) {
+            return row * width + column - row + lower;
+        }
+
+        /// Solves A·x = b in place: b is overwritten with x.
+        public void solve(double[] b) {
+            for (int k = 0; k < size; k++) {
+                int pivot = pivots[k];
+                if (pivot != k) {
+                    double swap = b[k];
+                    b[k] = b[pivot];
+                    b[pivot] = swap;
+                }
+                double value = b[k];
+                if (value != 0.0) {
+                    int lastRow = Math.min(size - 1, k + lower);
+                    for (int i = k + 1; i <= lastRow; i++) {
+                        b[i] -= lu[index(i, k)] * value;
+                    }
+                }
+            }
+            for (int i = size - 1; i >= 0; i--) {
+                int lastColumn = Math.min(size - 1, i + upper);
+                double sum = b[i];
+                for (int j = i + 1; j <= lastColumn; j++) {
+                    sum -= lu[index(i, j)] * b[j];
+                }
+                b[i] = sum / lu[index(i, i)];
+            }
+        }
+
+        public int getSize() { return size; }
+    }
+
+    public static final class Cholesky {
+        private final int size;
+        private final int band;
+        private final int width;
+        /// l[i * width + (j - i + band)] holds L(i, j) for i - band <= j <= i
+        private final double[] l;
+
+        private Cholesky(BandMatrix matrix) {
+            if (matrix.lower != matrix.upper) {
+                throw new IllegalArgumentException("Cholesky factorization needs a symmetric band");
+            }
+            size = matrix.size;
+            band = matrix.lower;
+            width = band + 1;
+            l = new double[size * width];
+            for (int i = 0; i < size; i++) {
+                System.arraycopy(matrix.data, i * matrix.width, l, i * width, width);
+            }
+            for (int i = 0; i < size; i++) {
+                int first = Math.max(0, i - band);
+                for (int j = first; j <= i; j++) {
+                    double sum = l[i * width + j - i + band];
+                    int start = Math.max(first, j - band);
+                    for (int k = start; k < j; k++) {
+                        sum -= l[i * width + k - i + band] * l[j * width + k - j + band];
+                    }
+                    if (j < i) {
+                        l[i * width + j - i + band] = sum / l[j * width + band];
+                    } else if (sum > 0) {
+                        l[i * width + band] = Math.sqrt(sum);
+                    } else {
+                        throw new IllegalArgumentException("Matrix is not positive definite at row " + i);
+                    }
+                }
+            }
+        }
+
+        /// Solves A·x = b in place: b is overwritten with x.
+        public void solve(double[] b) {
+            for (int i = 0; i < size; i++) {
+                int first = Math.max(0, i - band);
+                int base = i * width - i + band;
+                double sum = b[i];
+                for (int j = first; j < i; j++) {
+                    sum -= l[base + j] * b[j];
+                }
+                b[i] = sum / l[i * width + band];
+            }
+            /// Lᵀ·x = y by columns of L, which are the rows as stored
+            for (int i = size - 1; i >= 0; i--) {
+                int first = Math.max(0, i - band);
+                int base = i * width - i + band;
+                double value = b[i] / l[i * width + band];
+                b[i] = value;
+                for (int j = first; j < i; j++) {
+                    b[j] -= l[base + j] * value;
+                }
+            }
+        }
+
+        public int getSize() { return size; }
+    }
+}
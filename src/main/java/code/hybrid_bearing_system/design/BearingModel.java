@@ -1,5 +1,9 @@
 package code.hybrid_bearing_system.design;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 public class BearingModel {
     private String bearingType = "Hybrid";
     private double spindleSpeed = 10000;
@@ -9,33 +13,124 @@ public class BearingModel {
     private double specificHeat = 900;
     private double bearingY = 100;
     private double rotorY = 160;
+    private String material = MaterialDatabase.DEFAULT_MATERIAL;
+    private MagneticActuator actuator;
+    /// Bumped by every setter that affects the physics; the profile is rebuilt at the same time
+    private volatile long version;
+    private volatile BearingProfile profile = new BearingProfile(this, 0);
+
+    /// Change counter for the physics parameters, so consumers can cheaply detect edits
+    public long getVersion() {
+        return version;
+    }
+
+    /// Immutable constants derived from the current parameters
+    public BearingProfile getProfile() {
+        return profile;
+    }
+
+    private void changed() {
+        long next = version + 1;
+        profile = new BearingProfile(this, next);
+        version = next;
+    }
+
     public String getBearingType() {
         return bearingType;
     }
     public void setBearingType(String bearingType) {
+        BearingType.parse(bearingType);
         this.bearingType = bearingType;
+        changed();
     }
     public double getSpindleSpeed() {
         return spindleSpeed;
     }
     public void setSpindleSpeed(double spindleSpeed) {
         this.spindleSpeed = spindleSpeed;
+        changed();
     }
     public double getLoad() {
         return load;
     }
     public void setLoad(double load) {
         this.load = load;
+        changed();
     }
     public double getYoungsModulus() {
         return youngsModulus;
     }
     public void setYoungsModulus(double youngsModulus) {
         this.youngsModulus = youngsModulus;
+        changed();
+    }
+    public String getMaterial() {
+        return material;
+    }
+    /// Rolling element material, a MaterialDatabase id or alias
+    public void setMaterial(String material) {
+        MaterialDatabase.getDefault().getId(material);
+        this.material = material;
+        changed();
+    }
+    /// Tabulated electromagnet pair used by magnetic and hybrid bearings, or null for the closed-form
+    /// coil (constant current, see BearingProfile). The closed form stays the default because its
+    /// force is a constant per configuration, cheaper per step than any table lookup.
+    public MagneticActuator getActuator() {
+        return actuator;
+    }
+    public void setActuator(MagneticActuator actuator) {
+        this.actuator = actuator;
+        changed();
     }
     public double getMass() {
         return mass;
     }
+    public void setMass(double mass) {
+        if (!(mass > 0)) {
+            throw new IllegalArgumentException("Rotor mass must be positive: " + mass);
+        }
+        this.mass = mass;
+        changed();
+    }
+    /// True when a tabulated actuator (e.g. from a force map file) replaces the closed-form coil
+    public boolean hasCustomActuator() {
+        return actuator != null;
+    }
+
+    /// Physics parameters in SimulationCheckpoint order. A tabulated actuator is not written; the
+    /// checkpoint header records that one was in use.
+    void writeParameters(DataOutput out) throws IOException {
+        out.writeUTF(bearingType);
+        out.writeDouble(spindleSpeed);
+        out.writeDouble(load);
+        out.writeDouble(youngsModulus);
+        out.writeDouble(mass);
+        out.writeUTF(material);
+    }
+
+    /// Reads what writeParameters() wrote and rebuilds the profile once.
+    void readParameters(DataInput in) throws IOException {
+        String type = in.readUTF();
+        double speed = in.readDouble();
+        double loadValue = in.readDouble();
+        double modulus = in.readDouble();
+        double massValue = in.readDouble();
+        String materialName = in.readUTF();
+        BearingType.parse(type);
+        MaterialDatabase.getDefault().getId(materialName);
+        if (!(massValue > 0)) {
+            throw new IllegalArgumentException("Rotor mass must be positive: " + massValue);
+        }
+        bearingType = type;
+        spindleSpeed = speed;
+        load = loadValue;
+        youngsModulus = modulus;
+        mass = massValue;
+        material = materialName;
+        changed();
+    }
+
     public double getSpecificHeat() {
         return specificHeat;
     }
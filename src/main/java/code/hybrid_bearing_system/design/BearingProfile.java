@@ -0,0 +1,116 @@
+package code.hybrid_bearing_system.design;
+
+/// Constants derived from a BearingModel that the physics step needs. Built once per model change
+/// (see BearingModel.getProfile()) so the step loop reads precomputed values instead of
+/// recomputing square roots and comparing bearing type strings several times per step.
+public final class BearingProfile {
+    /// Contact patch radius (m) used for the Hertzian contact estimate
+    public static final double CONTACT_RADIUS = 0.01;
+    /// Closed-form electromagnet: coil current (A), turns, pole radius (m)
+    public static final double COIL_CURRENT = 10.0;
+    public static final double COIL_TURNS = 100;
+    public static final double COIL_RADIUS = 0.05;
+    private static final double MU0 = 4 * Math.PI * 1e-7;
+    /// Eddy current path: resistivity (Ω·m) and conducting volume (m³)
+    private static final double RESISTIVITY = 1e-6;
+    private static final double EDDY_VOLUME = 0.001;
+
+    private final long version;
+    private final BearingType bearingType;
+    private final double mass;
+    private final double inverseMass;
+    private final double stiffness;
+    private final double damping;
+    private final double gyroscopicCoefficient;
+    private final double effectiveModulus;
+    private final double contactArea;
+    private final double load;
+    private final double frictionForce;
+    private final double stress;
+    private final MagneticActuator actuator;
+    private final double fieldStrength;
+    private final double magneticForce;
+    private final double heatCapacity;
+    private final MaterialDatabase materials;
+    private final int materialId;
+
+    BearingProfile(BearingModel model, long version) {
+        this.version = version;
+        this.bearingType = BearingType.parse(model.getBearingType());
+        this.materials = MaterialDatabase.getDefault();
+        this.materialId = materials.getId(model.getMaterial());
+        this.mass = model.getMass();
+        this.inverseMass = 1.0 / mass;
+        this.stiffness = clamp(model.getYoungsModulus() * 1e9 * 0.01, 1e6, 1e9);
+        this.damping = 0.05 * Math.sqrt(stiffness * mass);
+        this.gyroscopicCoefficient = 0.01 * model.getSpindleSpeed();
+        /// Effective modulus accounts for material properties (E) and the material's Poisson's ratio
+        double poissonRatio = materials.get(materialId, MaterialDatabase.Property.POISSON_RATIO, 20.0);
+        this.effectiveModulus = model.getYoungsModulus() * 1e9 / (1 - poissonRatio * poissonRatio);
+        this.contactArea = Math.PI * Math.pow(CONTACT_RADIUS, 2);
+        double contactForce = model.getLoad();
+        this.load = contactForce;
+        this.frictionForce = clamp(0.05 * contactForce * (model.getSpindleSpeed() / 10000), 0, 1000);
+        this.stress = clamp(contactForce / contactArea, 0, 1e9);
+        this.actuator = bearingType.isMagnetic() ? model.getActuator() : null;
+        if (bearingType.isMagnetic() && actuator == null) {
+            /// Steady coil field and the constant force it gives
+            double field = MU0 * COIL_TURNS * COIL_CURRENT / (2 * COIL_RADIUS);
+            this.fieldStrength = field;
+            this.magneticForce = clamp(field * COIL_CURRENT * 0.01, -1000, 1000);
+        } else {
+            this.fieldStrength = 0.0;
+            this.magneticForce = 0.0;
+        }
+        this.heatCapacity = model.getSpecificHeat() * model.getMass();
+    }
+
+    /// Eddy current energy loss per step for the given air gap flux density (T)
+    public static double eddyLoss(double fluxDensity) {
+        return clamp((fluxDensity * fluxDensity * EDDY_VOLUME) / RESISTIVITY * 0.01, 0, 1000);
+    }
+
+    /// Eddy current heating rate (W) for the given air gap flux density (T)
+    public static double eddyHeat(double fluxDensity) {
+        return clamp(0.1 * fluxDensity * fluxDensity, 0, 1000);
+    }
+
+    private static double clamp(double value, double min, double max) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return min;
+        }
+        return Math.max(min, Math.min(max, value));
+    }
+
+    /// BearingModel version this profile was built from
+    public long getVersion() { return version; }
+    public BearingType getBearingType() { return bearingType; }
+    public boolean isMagnetic() { return bearingType.isMagnetic(); }
+    public boolean hasRollingElements() { return bearingType.hasRollingElements(); }
+    /// Static radial load (N)
+    public double getLoad() { return load; }
+    public double getMass() { return mass; }
+    public double getInverseMass() { return inverseMass; }
+    public double getStiffness() { return stiffness; }
+    public double getDamping() { return damping; }
+    public double getGyroscopicCoefficient() { return gyroscopicCoefficient; }
+    public double getEffectiveModulus() { return effectiveModulus; }
+    public double getContactArea() { return contactArea; }
+    public double getFrictionForce() { return frictionForce; }
+    public double getStress() { return stress; }
+    /// Tabulated electromagnet pair of a magnetic or hybrid bearing, null for ceramic bearings and
+    /// for the closed-form coil
+    public MagneticActuator getActuator() { return actuator; }
+    /// Closed-form coil's flux density (T) and constant force (N); zero with a tabulated actuator
+    /// and on ceramic bearings
+    public double getFieldStrength() { return fieldStrength; }
+    public double getMagneticForce() { return magneticForce; }
+    /// Thermal mass m·c_p (J/K)
+    public double getHeatCapacity() { return heatCapacity; }
+    public MaterialDatabase getMaterials() { return materials; }
+    public int getMaterialId() { return materialId; }
+    /// Conductivity of the bearing material at the given temperature (°C), interpolated per call
+    public double getThermalConductivity(double temperature) {
+        return materials.get(materialId, MaterialDatabase.Property.THERMAL_CONDUCTIVITY, temperature);
+    }
+}
@@ -0,0 +1,41 @@
+package code.hybrid_bearing_system.design;
+
+public enum BearingType {
+    MAGNETIC("Magnetic", true),
+    CERAMIC("Ceramic", false),
+    HYBRID("Hybrid", true);
+
+    private final String label;
+    private final boolean magnetic;
+
+    BearingType(String label, boolean magnetic) {
+        this.label = label;
+        this.magnetic = magnetic;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /// Magnetic and hybrid bearings carry an electromagnet: levitation force, field and eddy losses
+    public boolean isMagnetic() {
+        return magnetic;
+    }
+
+    /// Ceramic and hybrid bearings carry their load on balls; magnetic ones levitate the rotor
+    public boolean hasRollingElements() {
+        return this != MAGNETIC;
+    }
+
+    public static BearingType parse(String name) {
+        if (name != null) {
+            String key = name.trim();
+            for (BearingType type : values()) {
+                if (type.label.equalsIgnoreCase(key) || type.name().equalsIgnoreCase(key)) {
+                    return type;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Bearing type must be Magnetic, Ceramic or Hybrid: " + name);
+    }
+}
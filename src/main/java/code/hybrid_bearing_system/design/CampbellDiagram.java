@@ -0,0 +1,340 @@
+package code.hybrid_bearing_system.design;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+/// Campbell diagram of a RotorModel: undamped whirl frequencies against spin speed, and the
+/// critical speeds where a forward whirl branch crosses the synchronous (1×) excitation line.
+///
+/// Bearings are isotropic, so in the complex coordinate r = x + i·y the two bending planes
+/// collapse into one real symmetric problem (K + Ω·ω·G - ω²·M)·φ = 0 over the planar DOFs, in
+/// which positive ω is forward and negative ω backward whirl. With ψ = ω·φ it becomes the
+/// symmetric-definite pencil [-Ω·G M; M 0]·z = (1/ω)·[K 0; 0 M]·z for z = [φ; ψ], and Lanczos
+/// in the blockdiag(K, M) inner product finds the largest |1/ω|, i.e. the lowest frequencies of
+/// both directions. One factorization of K serves every speed.
+///
+/// Speeds are split into fixed blocks solved on a fork/join pool. Within a block each speed
+/// starts Lanczos from the sum of the previous speed's mode shapes, which converges in fewer
+/// steps than a random start; the block layout does not depend on the number of threads.
+public class CampbellDiagram {
+    /// Consecutive speeds solved by one fork/join task, each warm-started from the previous one
+    private static final int SPEEDS_PER_TASK = 25;
+
+    private final LanczosEigenSolver solver = new LanczosEigenSolver();
+    private RotorModel rotor;
+    private double minSpeed = 0.0;
+    private double maxSpeed = 100000.0;
+    private int speedCount = 500;
+    private int modes = 4;
+
+    public CampbellDiagram(RotorModel rotor) {
+        this.rotor = rotor;
+    }
+
+    /// Reads the bearings from the SimulationJob keys and elements, minSpeed, maxSpeed (RPM),
+    /// speedPoints and modes (whirl branches per direction).
+    public static CampbellDiagram fromProperties(Properties properties) {
+        SimulationJob job = SimulationJob.fromProperties(properties);
+        BearingModel model = new BearingModel();
+        job.applyTo(model);
+        int elements = parseInt(properties, "elements", 40);
+        if (elements < 1) {
+            throw new IllegalArgumentException("At least one shaft element is required: " + elements);
+        }
+        CampbellDiagram diagram = new CampbellDiagram(RotorModel.standard(model, elements));
+        diagram.setSpeedRange(parse(properties, "minSpeed", diagram.minSpeed),
+                parse(properties, "maxSpeed", diagram.maxSpeed),
+                parseInt(properties, "speedPoints", diagram.speedCount));
+        diagram.setModes(parseInt(properties, "modes", diagram.modes));
+        return diagram;
+    }
+
+    private static double parse(Properties properties, String key, double defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid numeric value for " + key + ": " + value);
+        }
+    }
+
+    private static int parseInt(Properties properties, String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid integer value for " + key + ": " + value);
+        }
+    }
+
+    /// Solves every speed and returns the whirl frequencies and critical speeds.
+    public Result run(int parallelism) {
+        Computation computation = prepare();
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, parallelism));
+        try {
+            pool.invoke(new BlockRange(computation, 0, computation.getBlockCount()));
+        } finally {
+            pool.shutdown();
+        }
+        return computation.finish(pool.getParallelism());
+    }
+
+    /// Factorizes the rotor and sets up a computation whose blocks the caller solves, e.g. on
+    /// an AnalysisScheduler. Later changes to this diagram's settings do not affect it.
+    public Computation prepare() {
+        return new Computation(new Matrices(rotor), speeds(), modes);
+    }
+
+    private double[] speeds() {
+        double[] speeds = new double[speedCount];
+        for (int p = 0; p < speedCount; p++) {
+            speeds[p] = speedCount == 1 ? minSpeed : minSpeed + (maxSpeed - minSpeed) * p / (speedCount - 1);
+        }
+        return speeds;
+    }
+
+    /// Speeds (RPM) where a forward branch meets the 1× line, by linear interpolation between
+    /// neighbouring points. Backward whirl is not excited by unbalance on isotropic bearings.
+    private static List<Double> criticalSpeeds(double[] speeds, double[][] frequencies, int modes) {
+        List<Double> critical = new ArrayList<>();
+        for (int branch = 0; branch < modes; branch++) {
+            for (int p = 1; p < speeds.length; p++) {
+                double before = forward(frequencies[p - 1], branch) - speeds[p - 1] / 60;
+                double after = forward(frequencies[p], branch) - speeds[p] / 60;
+                if (before > 0 && after <= 0) {
+                    critical.add(speeds[p - 1] + (speeds[p] - speeds[p - 1]) * before / (before - after));
+                }
+            }
+        }
+        critical.sort(null);
+        return critical;
+    }
+
+    /// The branch-th lowest forward frequency among signed frequencies, NaN if not tracked
+    private static double forward(double[] signed, int branch) {
+        int first = 0;
+        while (first < signed.length && signed[first] <= 0) {
+            first++;
+        }
+        return first + branch < signed.length ? signed[first + branch] : Double.NaN;
+    }
+
+    /// The branch-th lowest backward frequency (as a positive value), NaN if not tracked
+    private static double backward(double[] signed, int branch) {
+        int last = signed.length - 1;
+        while (last >= 0 && signed[last] > 0) {
+            last--;
+        }
+        return last - branch >= 0 ? -signed[last - branch] : Double.NaN;
+    }
+
+    /// Planar matrices and the factorization of K shared read-only by every task
+    private static final class Matrices {
+        private final BandMatrix stiffness;
+        private final BandMatrix mass;
+        private final BandMatrix gyroscopic;
+        private final BandMatrix.Factorization factorization;
+
+        Matrices(RotorModel rotor) {
+            stiffness = rotor.planarStiffnessMatrix();
+            mass = rotor.planarMassMatrix();
+            gyroscopic = rotor.planarGyroscopicMatrix();
+            try {
+                factorization = stiffness.factorize();
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Campbell diagram needs a rotor supported by bearings: "
+                        + e.getMessage());
+            }
+        }
+    }
+
+    /// The pencil operator at one spin speed Ω (rad/s): S·[φ; ψ] = [K⁻¹·(M·ψ - Ω·G·φ); φ],
+    /// self-adjoint in the blockdiag(K, M) inner product. Scratch buffers make it single-threaded.
+    private static final class WhirlOperator implements LanczosEigenSolver.Operator {
+        private final Matrices matrices;
+        private final int planar;
+        private final double[] part;
+        private final double[] product;
+        private double spin;
+
+        WhirlOperator(Matrices matrices) {
+            this.matrices = matrices;
+            this.planar = matrices.stiffness.getSize();
+            this.part = new double[planar];
+            this.product = new double[planar];
+        }
+
+        @Override
+        public int getSize() { return 2 * planar; }
+
+        @Override
+        public void apply(double[] x, double[] weighted, double[] out) {
+            System.arraycopy(x, 0, part, 0, planar);
+            matrices.gyroscopic.multiply(part, product);
+            for (int i = 0; i < planar; i++) {
+                out[i] = weighted[planar + i] - spin * product[i];
+            }
+            matrices.factorization.solve(out);
+            System.arraycopy(x, 0, out, planar, planar);
+        }
+
+        @Override
+        public void weight(double[] x, double[] out) {
+            System.arraycopy(x, 0, part, 0, planar);
+            matrices.stiffness.multiply(part, product);
+            System.arraycopy(product, 0, out, 0, planar);
+            System.arraycopy(x, planar, part, 0, planar);
+            matrices.mass.multiply(part, product);
+            System.arraycopy(product, 0, out, planar, planar);
+        }
+    }
+
+    /// One diagram split into blocks of consecutive speeds. Blocks may be solved in any order
+    /// and on any threads, each exactly once; finish() collects the result after the last one.
+    public final class Computation {
+        private final Matrices matrices;
+        private final double[] speeds;
+        private final int modes;
+        private final double[][] frequencies;
+        private final AtomicLong steps = new AtomicLong();
+        private final long start = System.nanoTime();
+
+        private Computation(Matrices matrices, double[] speeds, int modes) {
+            int size = 2 * matrices.stiffness.getSize();
+            if (2 * modes > size) {
+                throw new IllegalArgumentException("The rotor has only " + size / 2 + " modes per direction");
+            }
+            this.matrices = matrices;
+            this.speeds = speeds;
+            this.modes = modes;
+            this.frequencies = new double[speeds.length][];
+        }
+
+        public int getBlockCount() {
+            return (speeds.length + SPEEDS_PER_TASK - 1) / SPEEDS_PER_TASK;
+        }
+
+        /// Solves the speeds of one block, each warm-started from the previous one
+        public void solveBlock(int block) {
+            WhirlOperator operator = new WhirlOperator(matrices);
+            double[] startVector = null;
+            long blockSteps = 0;
+            for (int p = block * SPEEDS_PER_TASK; p < Math.min((block + 1) * SPEEDS_PER_TASK, speeds.length); p++) {
+                operator.spin = speeds[p] * 2 * Math.PI / 60;
+                LanczosEigenSolver.Result result = solver.solveLargest(operator, 2 * modes, startVector);
+                blockSteps += result.getLanczosSteps();
+                double[] signed = new double[2 * modes];
+                startVector = new double[operator.getSize()];
+                for (int k = 0; k < signed.length; k++) {
+                    signed[k] = 1 / (2 * Math.PI * result.getEigenvalue(k));
+                    LanczosEigenSolver.axpy(1.0, result.getEigenvector(k), startVector);
+                }
+                Arrays.sort(signed);
+                frequencies[p] = signed;
+            }
+            steps.addAndGet(blockSteps);
+        }
+
+        /// Whirl frequencies and critical speeds once every block is solved
+        public Result finish(int parallelism) {
+            for (double[] solved : frequencies) {
+                if (solved == null) {
+                    throw new IllegalStateException("Not every speed block has been solved");
+                }
+            }
+            return new Result(speeds, frequencies, criticalSpeeds(speeds, frequencies, modes), steps.get(),
+                    System.nanoTime() - start, parallelism);
+        }
+    }
+
+    /// Solves blocks [from, to) of a computation on a fork/join pool
+    private static class BlockRange extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        /// Fork/join tasks are Serializable by inheritance but never serialized
+        private final transient Computation computation;
+        private final int from;
+        private final int to;
+
+        BlockRange(Computation computation, int from, int to) {
+            this.computation = computation;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                computation.solveBlock(from);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new BlockRange(computation, from, middle), new BlockRange(computation, middle, to));
+        }
+    }
+
+    public static class Result {
+        private final double[] speeds;
+        private final double[][] frequencies;
+        private final List<Double> criticalSpeeds;
+        private final long lanczosSteps;
+        private final long elapsedNanos;
+        private final int parallelism;
+
+        Result(double[] speeds, double[][] frequencies, List<Double> criticalSpeeds, long lanczosSteps,
+               long elapsedNanos, int parallelism) {
+            this.speeds = speeds;
+            this.frequencies = frequencies;
+            this.criticalSpeeds = List.copyOf(criticalSpeeds);
+            this.lanczosSteps = lanczosSteps;
+            this.elapsedNanos = elapsedNanos;
+            this.parallelism = parallelism;
+        }
+
+        public int getSpeedCount() { return speeds.length; }
+        /// Spin speed of point p (RPM)
+        public double getSpeed(int point) { return speeds[point]; }
+        /// Whirl frequencies at point p (Hz) in ascending order: backward negative, forward positive
+        public double[] getFrequencies(int point) { return frequencies[point].clone(); }
+        /// The branch-th lowest forward whirl frequency at point p (Hz), NaN if not among the solved modes
+        public double getForwardFrequency(int point, int branch) { return forward(frequencies[point], branch); }
+        /// The branch-th lowest backward whirl frequency at point p (Hz), NaN if not among the solved modes
+        public double getBackwardFrequency(int point, int branch) { return backward(frequencies[point], branch); }
+        /// Speeds (RPM) where forward whirl meets the 1× line, ascending
+        public List<Double> getCriticalSpeeds() { return criticalSpeeds; }
+        public double getAverageLanczosSteps() { return (double) lanczosSteps / speeds.length; }
+        public long getElapsedNanos() { return elapsedNanos; }
+        public int getParallelism() { return parallelism; }
+    }
+
+    public RotorModel getRotor() { return rotor; }
+    public void setRotor(RotorModel rotor) { this.rotor = rotor; }
+    public double getMinSpeed() { return minSpeed; }
+    public double getMaxSpeed() { return maxSpeed; }
+    public int getSpeedCount() { return speedCount; }
+    public void setSpeedRange(double minSpeed, double maxSpeed, int speedCount) {
+        if (!(minSpeed >= 0) || !(maxSpeed >= minSpeed) || speedCount < 1) {
+            throw new IllegalArgumentException("Speed range needs 0 <= minSpeed <= maxSpeed and at least one point");
+        }
+        this.minSpeed = minSpeed;
+        this.maxSpeed = maxSpeed;
+        this.speedCount = speedCount;
+    }
+    public int getModes() { return modes; }
+    public void setModes(int modes) {
+        if (modes < 1) {
+            throw new IllegalArgumentException("At least one mode per whirl direction is required: " + modes);
+        }
+        this.modes = modes;
+    }
+}
@@ -0,0 +1,85 @@
+package code.hybrid_bearing_system.design;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/// Writes SimulationCheckpoints to one file on a background thread, so the simulation only pays
+/// for the in-memory capture. Only the newest pending checkpoint matters: one offered while an
+/// older one is still waiting replaces it. close() writes whatever is pending and stops.
+public final class CheckpointWriter implements AutoCloseable {
+    private final Path path;
+    private final AtomicReference<SimulationCheckpoint> pending = new AtomicReference<>();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong superseded = new AtomicLong();
+    private final Thread thread;
+    private volatile boolean closing;
+    private volatile IOException failure;
+
+    public CheckpointWriter(Path path) {
+        this.path = path;
+        this.thread = new Thread(this::run, "checkpoint-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /// Queues a checkpoint for writing and returns immediately
+    public void offer(SimulationCheckpoint checkpoint) {
+        if (closing) {
+            throw new IllegalStateException("Checkpoint writer is closed");
+        }
+        if (pending.getAndSet(checkpoint) != null) {
+            superseded.incrementAndGet();
+        }
+        LockSupport.unpark(thread);
+    }
+
+    private void run() {
+        while (true) {
+            boolean finishing = closing;
+            SimulationCheckpoint next = pending.getAndSet(null);
+            if (next != null) {
+                try {
+                    next.write(path);
+                    written.incrementAndGet();
+                } catch (IOException e) {
+                    failure = e;
+                    System.err.println("Could not write checkpoint " + path + ": " + e.getMessage());
+                }
+            } else if (finishing) {
+                return;
+            } else {
+                LockSupport.park(this);
+            }
+        }
+    }
+
+    /// Writes the pending checkpoint, stops the thread and rethrows the last write failure.
+    @Override
+    public void close() {
+        closing = true;
+        LockSupport.unpark(thread);
+        boolean interrupted = false;
+        while (thread.isAlive()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) {
+            throw new UncheckedIOException("Could not write checkpoint " + path, failure);
+        }
+    }
+
+    public Path getPath() { return path; }
+    public long getWrittenCount() { return written.get(); }
+    /// Checkpoints replaced by a newer one before the thread got to them
+    public long getSupersededCount() { return superseded.get(); }
+}
@@ -14,6 +14,7 @@ import javafx.scene.input.MouseEvent;
 public class ConfigurationPanel {
     private VBox pane;
     private ComboBox<String> bearingTypeCombo;
+    private ComboBox<String> materialCombo;
     private TextField speedField, loadField, materialField;
     private Canvas assemblyCanvas;
     private BearingModel bearingModel;
@@ -67,6 +68,10 @@ public class ConfigurationPanel {
         loadField.setTooltip(new Tooltip("Load (100-1000 N)"));
         materialField = new TextField("380");
         materialField.setTooltip(new Tooltip("Young's Modulus (100-500 GPa)"));
+        materialCombo = new ComboBox<>();
+        materialCombo.getItems().addAll(MaterialDatabase.getDefault().getKeys());
+        materialCombo.setValue(MaterialDatabase.DEFAULT_MATERIAL);
+        materialCombo.setTooltip(new Tooltip("Rolling element material (temperature-dependent properties)"));
 
         paramsGrid.add(new Label("Bearing Type:"), 0, 0);
         paramsGrid.add(bearingTypeCombo, 1, 0);
@@ -76,6 +81,8 @@ public class ConfigurationPanel {
         paramsGrid.add(loadField, 1, 2);
         paramsGrid.add(new Label("Young's Modulus (GPa):"), 0, 3);
         paramsGrid.add(materialField, 1, 3);
+        paramsGrid.add(new Label("Material:"), 0, 4);
+        paramsGrid.add(materialCombo, 1, 4);
 
         paramsPane.setContent(paramsGrid);
 
@@ -319,6 +326,7 @@ public class ConfigurationPanel {
             bearingModel.setSpindleSpeed(speed);
             bearingModel.setLoad(load);
             bearingModel.setYoungsModulus(youngsModulus);
+            bearingModel.setMaterial(materialCombo.getValue());
 
             statusLabel.setText("Configuration Applied" + (paused ? " (Paused)" : ""));
             manager.resetSimulation();
@@ -1,57 +1,71 @@
 package code.hybrid_bearing_system.design;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/// The loop's controller slot: runs the selected Controller (PID unless changed) and keeps the
+/// PID's gains available to the sliders and jobs whichever controller is active.
 public class ControlSystem {
-    private double kp = 1000.0;
-    private double ki = 10.0;
-    private double kd = 50.0;
-    private double integral = 0.0;
-    private double previousError = 0.0;
-    private double estimatedDisplacement = 0.0;
-    private double estimatedVelocity = 0.0;
-    private double covariance = 1.0;
-    private double processNoise = 0.01;
-    private double measurementNoise = 0.1;
-
-    public double update(double measuredDisplacement, double measuredVelocity) {
-        if (Double.isNaN(measuredDisplacement) || Double.isNaN(measuredVelocity)) {
-            return 0.0;
-        }
+    /// Gain ranges accepted by the setters, and the limit (N) of the control force command
+    public static final double MAX_KP = 2000.0;
+    public static final double MAX_KI = 50.0;
+    public static final double MAX_KD = 100.0;
+    public static final double MAX_FORCE = 1000.0;
+
+    private final PidController pid = new PidController();
+    private Controller controller = pid;
+    private ControllerType controllerType = ControllerType.PID;
 
-        double predictedDisplacement = estimatedDisplacement + 0.01 * estimatedVelocity;
-        double predictedCovariance = covariance + processNoise;
-        double kalmanGain = predictedCovariance / (predictedCovariance + measurementNoise);
-        estimatedDisplacement = predictedDisplacement + kalmanGain * (measuredDisplacement - predictedDisplacement);
-        estimatedVelocity = estimatedVelocity + kalmanGain * (measuredVelocity - estimatedVelocity);
-        covariance = (1 - kalmanGain) * predictedCovariance;
-
-        double setpoint = 0.0;
-        double error = clamp(setpoint - estimatedDisplacement, -0.01, 0.01);
-        if (Math.abs(error) > 0.005) {
-            integral = 0.0;
+    public double update(double measuredDisplacement, double measuredVelocity, double dt) {
+        if (!Instrumentation.ENABLED) {
+            return controller.update(measuredDisplacement, measuredVelocity, dt);
         }
-        integral += error * 0.01;
-        integral = clamp(integral, -100, 100);
-        double derivative = clamp((error - previousError) / 0.01, -100, 100);
-        previousError = error;
+        long start = System.nanoTime();
+        double control = controller.update(measuredDisplacement, measuredVelocity, dt);
+        Instrumentation.CONTROL_UPDATE.recordSince(start);
+        return control;
+    }
 
-        double control = kp * error + ki * integral + kd * derivative;
-        return clamp(control, -1000, 1000);
+    /// Switches the feedback law. PID returns to the kept gains and memory; other controllers
+    /// start fresh, designed for the bearing.
+    public void setControllerType(ControllerType type, BearingModel bearingModel) {
+        if (type != controllerType) {
+            controller = type == ControllerType.PID ? pid : type.create(bearingModel);
+            controllerType = type;
+        }
     }
 
+    public ControllerType getControllerType() { return controllerType; }
+    public Controller getController() { return controller; }
+
     public void setKp(double kp) {
-        this.kp = clamp(kp, 0, 2000);
+        pid.setKp(kp);
     }
     public void setKi(double ki) {
-        this.ki = clamp(ki, 0, 50);
+        pid.setKi(ki);
     }
     public void setKd(double kd) {
-        this.kd = clamp(kd, 0, 100);
+        pid.setKd(kd);
+    }
+
+    public double getKp() { return pid.getKp(); }
+    public double getKi() { return pid.getKi(); }
+    public double getKd() { return pid.getKd(); }
+
+    /// PID gains and memory, then the active controller's state if it is another one, in
+    /// SimulationCheckpoint order. The controller type is part of the checkpoint header.
+    void writeState(DataOutput out) throws IOException {
+        pid.writeState(out);
+        if (controller != pid) {
+            controller.writeState(out);
+        }
     }
 
-    private double clamp(double value, double min, double max) {
-        if (Double.isNaN(value) || Double.isInfinite(value)) {
-            return min;
+    void readState(DataInput in) throws IOException {
+        pid.readState(in);
+        if (controller != pid) {
+            controller.readState(in);
         }
-        return Math.max(min, Math.min(max, value));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,22 @@
+package code.hybrid_bearing_system.design;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/// Feedback law run by ControlSystem once per control period: measured rotor displacement (m)
+/// and velocity (m/s) in, control force command (N) out. Implementations keep their working
+/// memory in preallocated fields, so update() allocates nothing.
+public interface Controller {
+    double update(double measuredDisplacement, double measuredVelocity, double dt);
+
+    /// Forgets estimates and integrator memory; tuning is kept
+    void reset();
+
+    String getName();
+
+    /// Step-to-step state in SimulationCheckpoint order, as exact bit patterns
+    void writeState(DataOutput out) throws IOException;
+
+    void readState(DataInput in) throws IOException;
+}
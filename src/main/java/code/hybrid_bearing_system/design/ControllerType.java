@@ -0,0 +1,36 @@
+package code.hybrid_bearing_system.design;
+
+/// Controllers selectable per run by name.
+public enum ControllerType {
+    PID("pid") {
+        @Override
+        public Controller create(BearingModel bearingModel) { return new PidController(); }
+    },
+    LQR("lqr") {
+        @Override
+        public Controller create(BearingModel bearingModel) { return new LqrController(bearingModel); }
+    };
+
+    private final String key;
+
+    ControllerType(String key) {
+        this.key = key;
+    }
+
+    /// New controller for the bearing, with default tuning
+    public abstract Controller create(BearingModel bearingModel);
+
+    public String getKey() {
+        return key;
+    }
+
+    public static ControllerType parse(String name) {
+        String key = name.trim();
+        for (ControllerType type : values()) {
+            if (type.key.equalsIgnoreCase(key) || type.name().equalsIgnoreCase(key)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown controller: " + name);
+    }
+}
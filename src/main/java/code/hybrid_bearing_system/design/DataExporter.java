@@ -1,25 +1,101 @@
 package code.hybrid_bearing_system.design;
 
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 public class DataExporter {
-    public void exportToCSV(PhysicsEngine physics, String filename) {
+    public void exportToCSV(SimulationSnapshot snapshot, String filename) {
+        long start = Instrumentation.ENABLED ? System.nanoTime() : 0L;
         try (FileWriter writer = new FileWriter(filename, true)) {
+            String header = "";
             if (new java.io.File(filename).length() == 0) {
-                writer.write("Time,Displacement,Velocity,Friction,EnergyLoss,Temperature,Stress,MagneticField\n");
+                header = "Time,Displacement,Velocity,Friction,EnergyLoss,Temperature,Stress,MagneticField\n";
+                writer.write(header);
             }
-            writer.write(String.format("%.2f,%.4f,%.4f,%.4f,%.4f,%.4f,%.4f,%.4f\n",
+            String row = String.format("%.2f,%.4f,%.4f,%.4f,%.4f,%.4f,%.4f,%.4f\n",
                     System.currentTimeMillis() / 1000.0,
-                    physics.getRotorDisplacement(),
-                    physics.getRotorVelocity(),
-                    physics.getFrictionForce(),
-                    physics.getEnergyLoss(),
-                    physics.getTemperature(),
-                    physics.getStress(),
-                    physics.getMagneticFieldStrength()));
+                    snapshot.getRotorDisplacement(),
+                    snapshot.getRotorVelocity(),
+                    snapshot.getFrictionForce(),
+                    snapshot.getEnergyLoss(),
+                    snapshot.getTemperature(),
+                    snapshot.getStress(),
+                    snapshot.getMagneticFieldStrength());
+            writer.write(row);
+            if (Instrumentation.ENABLED) {
+                Instrumentation.exportedBytes(header.length() + row.length());
+            }
         } catch (IOException e) {
             System.err.println("Error writing CSV: " + e.getMessage());
         }
+        if (Instrumentation.ENABLED) {
+            Instrumentation.CSV_EXPORT.recordSince(start);
+        }
+    }
+
+    /// Offline conversion of a TelemetryRecorder file into CSV, one row per sample.
+    /// Returns the number of samples converted.
+    public long convertTelemetryToCSV(Path telemetryFile, Path csvFile) throws IOException {
+        long start = Instrumentation.ENABLED ? System.nanoTime() : 0L;
+        long samples = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(telemetryFile), 1 << 16));
+             Writer writer = Files.newBufferedWriter(csvFile, StandardCharsets.UTF_8)) {
+            if (in.readInt() != TelemetryRecorder.MAGIC) {
+                throw new IOException("Not a telemetry file: " + telemetryFile);
+            }
+            int version = in.readInt();
+            if (version != TelemetryRecorder.VERSION) {
+                throw new IOException("Unsupported telemetry version " + version);
+            }
+            int width = in.readInt();
+            StringBuilder line = new StringBuilder(256);
+            for (int c = 0; c < width; c++) {
+                byte[] label = new byte[in.readShort()];
+                in.readFully(label);
+                line.append(c == 0 ? "" : ",").append(new String(label, StandardCharsets.UTF_8));
+            }
+            writer.write(line.append('\n').toString());
+            double[] block = new double[0];
+            while (true) {
+                int count;
+                try {
+                    count = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                if (block.length < count * width) {
+                    block = new double[count * width];
+                }
+                for (int c = 0; c < width; c++) {
+                    for (int i = 0; i < count; i++) {
+                        block[i * width + c] = in.readDouble();
+                    }
+                }
+                long bytes = 0;
+                for (int i = 0; i < count; i++) {
+                    line.setLength(0);
+                    for (int c = 0; c < width; c++) {
+                        line.append(c == 0 ? "" : ",").append(block[i * width + c]);
+                    }
+                    writer.write(line.append('\n').toString());
+                    bytes += line.length();
+                }
+                if (Instrumentation.ENABLED) {
+                    Instrumentation.exportedBytes(bytes);
+                }
+                samples += count;
+            }
+        }
+        if (Instrumentation.ENABLED) {
+            Instrumentation.CSV_EXPORT.recordSince(start);
+        }
+        return samples;
     }
-}
\ No newline at end of file
+}
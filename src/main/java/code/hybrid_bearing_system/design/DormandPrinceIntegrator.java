@@ -0,0 +1,251 @@
+package code.hybrid_bearing_system.design;
+
+/// Embedded Runge-Kutta 4(5) pair of Dormand and Prince with error control and dense output.
+/// step() covers the requested interval with as many internal steps as the tolerances need;
+/// the proposed step size carries over between calls, so once the rotor settles each interval
+/// is crossed in a single large step. Rejected steps are retried with a smaller size.
+///
+/// An observer sees every accepted step and can sample the solution inside it with interpolate(),
+/// which is how a caller taking long steps still gets values on a fine grid.
+public class DormandPrinceIntegrator implements Integrator {
+    private static final double C2 = 1.0 / 5, C3 = 3.0 / 10, C4 = 4.0 / 5, C5 = 8.0 / 9;
+    private static final double A21 = 1.0 / 5;
+    private static final double A31 = 3.0 / 40, A32 = 9.0 / 40;
+    private static final double A41 = 44.0 / 45, A42 = -56.0 / 15, A43 = 32.0 / 9;
+    private static final double A51 = 19372.0 / 6561, A52 = -25360.0 / 2187, A53 = 64448.0 / 6561, A54 = -212.0 / 729;
+    private static final double A61 = 9017.0 / 3168, A62 = -355.0 / 33, A63 = 46732.0 / 5247, A64 = 49.0 / 176,
+            A65 = -5103.0 / 18656;
+    private static final double A71 = 35.0 / 384, A73 = 500.0 / 1113, A74 = 125.0 / 192, A75 = -2187.0 / 6784,
+            A76 = 11.0 / 84;
+    /// Difference between the 5th and embedded 4th order weights
+    private static final double E1 = 71.0 / 57600, E3 = -71.0 / 16695, E4 = 71.0 / 1920, E5 = -17253.0 / 339200,
+            E6 = 22.0 / 525, E7 = -1.0 / 40;
+    /// Continuous extension coefficients (Hairer, Norsett & Wanner)
+    private static final double D1 = -12715105075.0 / 11282082432.0, D3 = 87487479700.0 / 32700410799.0,
+            D4 = -10690763975.0 / 1880347072.0, D5 = 701980252875.0 / 199316789632.0,
+            D6 = -1453857185.0 / 822651844.0, D7 = 69997945.0 / 29380423.0;
+    private static final double SAFETY = 0.9;
+    private static final double MIN_FACTOR = 0.2;
+    private static final double MAX_FACTOR = 10.0;
+
+    /// Called after every accepted step, once the state holds its end value
+    @FunctionalInterface
+    public interface StepObserver {
+        void accepted(DormandPrinceIntegrator integrator);
+    }
+
+    private final double relativeTolerance;
+    private final double absoluteTolerance;
+    private double proposedStep = 0.0;
+    private long acceptedSteps;
+    private long rejectedSteps;
+    private long evaluations;
+    private double time;
+    private double lastStepStart;
+    private double lastStepSize;
+    private StepObserver observer;
+
+    private double[] k1 = new double[0], k2 = k1, k3 = k1, k4 = k1, k5 = k1, k6 = k1, k7 = k1;
+    private double[] stage = k1, candidate = k1;
+    private double[] dense1 = k1, dense2 = k1, dense3 = k1, dense4 = k1, dense5 = k1;
+
+    public DormandPrinceIntegrator() {
+        this(1e-6, 1e-9);
+    }
+
+    public DormandPrinceIntegrator(double relativeTolerance, double absoluteTolerance) {
+        if (!(relativeTolerance > 0) || !(absoluteTolerance > 0)) {
+            throw new IllegalArgumentException("Tolerances must be positive");
+        }
+        this.relativeTolerance = relativeTolerance;
+        this.absoluteTolerance = absoluteTolerance;
+    }
+
+    @Override
+    public void step(StateDerivative system, double[] state, double dt) {
+        int n = state.length;
+        if (k1.length != n) {
+            allocate(n);
+        }
+        /// The system may change between calls (e.g. a new control force), so FSAL
+        /// reuse is only valid inside one interval and k1 is evaluated afresh here
+        system.evaluate(state, k1);
+        evaluations++;
+        if (proposedStep <= 0) {
+            proposedStep = initialStep(state, dt);
+        }
+        double end = time + dt;
+        double minStep = Math.ulp(end) * 16;
+        while (end - time > minStep) {
+            double h = Math.min(proposedStep, end - time);
+            boolean lastInInterval = h >= end - time;
+            double error = attempt(system, state, h);
+            double factor = error == 0 ? MAX_FACTOR
+                    : Math.max(MIN_FACTOR, Math.min(MAX_FACTOR, SAFETY * Math.pow(error, -0.2)));
+            if (error <= 1.0 || h <= minStep) {
+                acceptedSteps++;
+                prepareDenseOutput(state, h);
+                lastStepStart = time;
+                lastStepSize = h;
+                System.arraycopy(candidate, 0, state, 0, n);
+                double[] swap = k1;
+                k1 = k7;
+                k7 = swap;
+                time = lastInInterval ? end : time + h;
+                /// A step clipped to the interval end says nothing about the next one
+                if (!lastInInterval || h * factor > proposedStep) {
+                    proposedStep = h * factor;
+                }
+                if (observer != null) {
+                    observer.accepted(this);
+                }
+            } else {
+                rejectedSteps++;
+                proposedStep = h * Math.min(1.0, factor);
+            }
+        }
+    }
+
+    /// Computes the 5th order candidate for a step of size h and returns its scaled error norm.
+    private double attempt(StateDerivative system, double[] y, double h) {
+        int n = y.length;
+        for (int i = 0; i < n; i++) {
+            stage[i] = y[i] + h * A21 * k1[i];
+        }
+        system.evaluate(stage, k2);
+        for (int i = 0; i < n; i++) {
+            stage[i] = y[i] + h * (A31 * k1[i] + A32 * k2[i]);
+        }
+        system.evaluate(stage, k3);
+        for (int i = 0; i < n; i++) {
+            stage[i] = y[i] + h * (A41 * k1[i] + A42 * k2[i] + A43 * k3[i]);
+        }
+        system.evaluate(stage, k4);
+        for (int i = 0; i < n; i++) {
+            stage[i] = y[i] + h * (A51 * k1[i] + A52 * k2[i] + A53 * k3[i] + A54 * k4[i]);
+        }
+        system.evaluate(stage, k5);
+        for (int i = 0; i < n; i++) {
+            stage[i] = y[i] + h * (A61 * k1[i] + A62 * k2[i] + A63 * k3[i] + A64 * k4[i] + A65 * k5[i]);
+        }
+        system.evaluate(stage, k6);
+        for (int i = 0; i < n; i++) {
+            candidate[i] = y[i] + h * (A71 * k1[i] + A73 * k3[i] + A74 * k4[i] + A75 * k5[i] + A76 * k6[i]);
+        }
+        system.evaluate(candidate, k7);
+        evaluations += 6;
+        double sum = 0.0;
+        for (int i = 0; i < n; i++) {
+            double estimate = h * (E1 * k1[i] + E3 * k3[i] + E4 * k4[i] + E5 * k5[i] + E6 * k6[i] + E7 * k7[i]);
+            double scale = absoluteTolerance + relativeTolerance * Math.max(Math.abs(y[i]), Math.abs(candidate[i]));
+            double ratio = estimate / scale;
+            sum += ratio * ratio;
+        }
+        double error = Math.sqrt(sum / n);
+        return Double.isNaN(error) ? Double.POSITIVE_INFINITY : error;
+    }
+
+    private void prepareDenseOutput(double[] y, double h) {
+        for (int i = 0; i < y.length; i++) {
+            double difference = candidate[i] - y[i];
+            double slope = h * k1[i] - difference;
+            dense1[i] = y[i];
+            dense2[i] = difference;
+            dense3[i] = slope;
+            dense4[i] = difference - h * k7[i] - slope;
+            dense5[i] = h * (D1 * k1[i] + D3 * k3[i] + D4 * k4[i] + D5 * k5[i] + D6 * k6[i] + D7 * k7[i]);
+        }
+    }
+
+    /// Evaluates the 4th order continuous extension of the last accepted step at absolute time t,
+    /// which must lie in [getLastStepStart(), getLastStepStart() + getLastStepSize()].
+    public void interpolate(double t, double[] out) {
+        double theta = lastStepSize > 0 ? (t - lastStepStart) / lastStepSize : 1.0;
+        double theta1 = 1.0 - theta;
+        for (int i = 0; i < out.length; i++) {
+            out[i] = dense1[i] + theta * (dense2[i] + theta1 * (dense3[i] + theta * (dense4[i] + theta1 * dense5[i])));
+        }
+    }
+
+    private double initialStep(double[] y, double dt) {
+        double stateNorm = 0.0;
+        double slopeNorm = 0.0;
+        for (int i = 0; i < y.length; i++) {
+            double scale = absoluteTolerance + relativeTolerance * Math.abs(y[i]);
+            stateNorm += (y[i] / scale) * (y[i] / scale);
+            slopeNorm += (k1[i] / scale) * (k1[i] / scale);
+        }
+        stateNorm = Math.sqrt(stateNorm / y.length);
+        slopeNorm = Math.sqrt(slopeNorm / y.length);
+        double h = (stateNorm < 1e-5 || slopeNorm < 1e-5) ? 1e-6 : 0.01 * stateNorm / slopeNorm;
+        return Math.min(h, dt);
+    }
+
+    private void allocate(int n) {
+        k1 = new double[n];
+        k2 = new double[n];
+        k3 = new double[n];
+        k4 = new double[n];
+        k5 = new double[n];
+        k6 = new double[n];
+        k7 = new double[n];
+        stage = new double[n];
+        candidate = new double[n];
+        dense1 = new double[n];
+        dense2 = new double[n];
+        dense3 = new double[n];
+        dense4 = new double[n];
+        dense5 = new double[n];
+    }
+
+    @Override
+    public void reset() {
+        proposedStep = 0.0;
+        acceptedSteps = 0;
+        rejectedSteps = 0;
+        evaluations = 0;
+        time = 0.0;
+        lastStepStart = 0.0;
+        lastStepSize = 0.0;
+    }
+
+    /// Step size proposal, interval clock and counters; the clock is part of the trajectory
+    /// because each interval's last step is clipped against it
+    @Override
+    public double[] getHistory() {
+        return new double[] {proposedStep, time, lastStepStart, lastStepSize, acceptedSteps, rejectedSteps, evaluations};
+    }
+
+    @Override
+    public void setHistory(double[] history) {
+        if (history.length != 7) {
+            throw new IllegalArgumentException("Expected 7 history values but got " + history.length);
+        }
+        proposedStep = history[0];
+        time = history[1];
+        lastStepStart = history[2];
+        lastStepSize = history[3];
+        acceptedSteps = (long) history[4];
+        rejectedSteps = (long) history[5];
+        evaluations = (long) history[6];
+    }
+
+    @Override
+    public String getName() {
+        return String.format("Dormand-Prince 4(5), rtol %.0e, atol %.0e", relativeTolerance, absoluteTolerance);
+    }
+
+    /// Observer of accepted steps, or null for none
+    public void setObserver(StepObserver observer) {
+        this.observer = observer;
+    }
+
+    public long getAcceptedSteps() { return acceptedSteps; }
+    public long getRejectedSteps() { return rejectedSteps; }
+    public long getEvaluations() { return evaluations; }
+    public double getTime() { return time; }
+    public double getLastStepStart() { return lastStepStart; }
+    public double getLastStepSize() { return lastStepSize; }
+    public double getRelativeTolerance() { return relativeTolerance; }
+    public double getAbsoluteTolerance() { return absoluteTolerance; }
+}
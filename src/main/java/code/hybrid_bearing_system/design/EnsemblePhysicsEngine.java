@@ -0,0 +1,375 @@
+package code.hybrid_bearing_system.design;
+
+import java.util.Arrays;
+
+/// Structure-of-arrays counterpart of PhysicsEngine that advances N independent bearings per step.
+/// State and per-bearing constants live in primitive arrays and are stepped in one tight loop the JIT
+/// can unroll. Per bearing it follows the same equations, constants and evaluation order as
+/// PhysicsEngine.update(), except that dividing by mass is replaced by a precomputed reciprocal.
+/// Results therefore differ from PhysicsEngine's in the last bits, and a moving rotor carries the
+/// difference along: on soft bearings (1000 kg, modulus 0.1 GPa) released from up to 1 mm, 1000
+/// steps leave displacements within 3e-15 and velocities within 2e-12 of the largest value. The
+/// ensemble mode of HeadlessRunner checks a tolerance of 1e-9.
+///
+/// Magnetic bearings with a tabulated actuator do not call it in the loop. Each distinct actuator's
+/// force map is copied once into shared force and flux tables, and a bearing only keeps the index
+/// of its actuator's table; the bilinear lookup is repeated here on those arrays, so the values
+/// are ForceMap's own.
+public class EnsemblePhysicsEngine {
+    private final int size;
+
+    /// State
+    private final double[] displacement;
+    private final double[] velocity;
+    private final double[] temperature;
+    private final double[] energyLoss;
+    private final double[] magneticField;
+    private final double[] controlForce;
+    private final double[] controlCurrent;
+    /// Table index of the control current's column in the bearing's force map and its fraction
+    /// towards the next column, resolved whenever the control force or the configuration changes
+    private final int[] currentColumn;
+    private final double[] currentFraction;
+
+    /// Constants derived from each bearing's configuration
+    private final double[] inverseMass;
+    private final double[] stiffness;
+    private final double[] damping;
+    private final double[] gyroscopicCoefficient;
+    /// Index of each magnetic bearing's actuator table; -1 for ceramic bearings and the closed form
+    private final int[] actuatorTable;
+    /// Closed-form coil force and field (see BearingProfile), zero otherwise
+    private final double[] magneticForce;
+    private final double[] fieldStrength;
+    private final double[] frictionForce;
+    private final double[] stress;
+    private final double[] heatCapacity;
+    /// Thermal conductivity table of each bearing's material: offset of its first row in
+    /// conductivityTable, index of its last row, first temperature and rows per °C
+    private final int[] conductivityOffset;
+    private final int[] conductivityLastRow;
+    private final double[] conductivityFirstTemperature;
+    private final double[] conductivityInverseSpacing;
+
+    /// Conductivity rows of every material in the database, resolved once and shared
+    private final double[] conductivityTable;
+    private final int[] materialOffset;
+
+    /// Force maps of the actuators configured so far, one table each, concatenated. A table keeps
+    /// its offset, grid and the actuator's current gain and limit; tables live as long as the
+    /// engine, and an actuator configured again reuses its table.
+    private MagneticActuator[] tableActuators = new MagneticActuator[0];
+    private double[] forceTable = new double[0];
+    private double[] fluxTable = new double[0];
+    private int[] tableOffset = new int[0];
+    private int[] tableCurrentPoints = new int[0];
+    private int[] tableLastPosition = new int[0];
+    private int[] tableLastCurrent = new int[0];
+    private double[] tableMinPosition = new double[0];
+    private double[] tableInversePositionSpacing = new double[0];
+    private double[] tablePositionSpacing = new double[0];
+    private double[] tableMinCurrent = new double[0];
+    private double[] tableInverseCurrentSpacing = new double[0];
+    private double[] tableCurrentGain = new double[0];
+    private double[] tableMaxControlCurrent = new double[0];
+
+    public EnsemblePhysicsEngine(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Ensemble size must be at least 1: " + size);
+        }
+        this.size = size;
+        displacement = new double[size];
+        velocity = new double[size];
+        temperature = new double[size];
+        energyLoss = new double[size];
+        magneticField = new double[size];
+        controlForce = new double[size];
+        controlCurrent = new double[size];
+        currentColumn = new int[size];
+        currentFraction = new double[size];
+        inverseMass = new double[size];
+        stiffness = new double[size];
+        damping = new double[size];
+        gyroscopicCoefficient = new double[size];
+        actuatorTable = new int[size];
+        magneticForce = new double[size];
+        fieldStrength = new double[size];
+        frictionForce = new double[size];
+        stress = new double[size];
+        heatCapacity = new double[size];
+        conductivityOffset = new int[size];
+        conductivityLastRow = new int[size];
+        conductivityFirstTemperature = new double[size];
+        conductivityInverseSpacing = new double[size];
+        MaterialDatabase materials = MaterialDatabase.getDefault();
+        materialOffset = new int[materials.size() + 1];
+        for (int id = 0; id < materials.size(); id++) {
+            materialOffset[id + 1] = materialOffset[id] + materials.getTable(id, MaterialDatabase.Property.THERMAL_CONDUCTIVITY).length;
+        }
+        conductivityTable = new double[materialOffset[materials.size()]];
+        for (int id = 0; id < materials.size(); id++) {
+            double[] rows = materials.getTable(id, MaterialDatabase.Property.THERMAL_CONDUCTIVITY);
+            System.arraycopy(rows, 0, conductivityTable, materialOffset[id], rows.length);
+        }
+        BearingModel defaults = new BearingModel();
+        for (int i = 0; i < size; i++) {
+            configure(i, defaults);
+        }
+        reset();
+    }
+
+    /// Captures the bearing's parameters; call again after the model changes.
+    public void configure(int index, BearingModel model) {
+        BearingProfile profile = model.getProfile();
+        inverseMass[index] = profile.getInverseMass();
+        stiffness[index] = profile.getStiffness();
+        damping[index] = profile.getDamping();
+        gyroscopicCoefficient[index] = profile.getGyroscopicCoefficient();
+        actuatorTable[index] = profile.getActuator() != null ? tableOf(profile.getActuator()) : -1;
+        magneticForce[index] = profile.getMagneticForce();
+        fieldStrength[index] = profile.getFieldStrength();
+        frictionForce[index] = profile.getFrictionForce();
+        stress[index] = profile.getStress();
+        heatCapacity[index] = profile.getHeatCapacity();
+        int material = profile.getMaterialId();
+        conductivityOffset[index] = materialOffset[material];
+        conductivityLastRow[index] = materialOffset[material + 1] - materialOffset[material] - 1;
+        conductivityFirstTemperature[index] = profile.getMaterials().getFirstTemperature(material);
+        conductivityInverseSpacing[index] = profile.getMaterials().getInverseTemperatureSpacing(material);
+        resolveCurrent(index);
+    }
+
+    /// MagneticActuator.controlCurrentFor() and ForceMap's clamping along the current axis, done
+    /// once per control force rather than once per step
+    private void resolveCurrent(int index) {
+        int table = actuatorTable[index];
+        if (table < 0) {
+            controlCurrent[index] = 0.0;
+            return;
+        }
+        double limit = tableMaxControlCurrent[table];
+        double current = clamp(controlForce[index] / tableCurrentGain[table], -limit, limit);
+        int lastCurrent = tableLastCurrent[table];
+        double c = (current - tableMinCurrent[table]) * tableInverseCurrentSpacing[table];
+        c = c > 0 ? (c < lastCurrent ? c : lastCurrent) : 0.0;
+        int ci = c < lastCurrent ? (int) c : lastCurrent - 1;
+        controlCurrent[index] = current;
+        currentColumn[index] = tableOffset[table] + ci;
+        currentFraction[index] = c - ci;
+    }
+
+    /// Index of the actuator's table, copying its force map in on first use
+    private int tableOf(MagneticActuator actuator) {
+        for (int t = 0; t < tableActuators.length; t++) {
+            if (tableActuators[t] == actuator) {
+                return t;
+            }
+        }
+        ForceMap map = actuator.getForceMap();
+        int t = tableActuators.length;
+        int offset = forceTable.length;
+        double[] force = map.getForceTable();
+        double[] flux = map.getFluxTable();
+        tableActuators = Arrays.copyOf(tableActuators, t + 1);
+        tableActuators[t] = actuator;
+        forceTable = Arrays.copyOf(forceTable, offset + force.length);
+        System.arraycopy(force, 0, forceTable, offset, force.length);
+        fluxTable = Arrays.copyOf(fluxTable, offset + flux.length);
+        System.arraycopy(flux, 0, fluxTable, offset, flux.length);
+        tableOffset = Arrays.copyOf(tableOffset, t + 1);
+        tableOffset[t] = offset;
+        tableCurrentPoints = Arrays.copyOf(tableCurrentPoints, t + 1);
+        tableCurrentPoints[t] = map.getCurrentPoints();
+        tableLastPosition = Arrays.copyOf(tableLastPosition, t + 1);
+        tableLastPosition[t] = map.getPositionPoints() - 1;
+        tableLastCurrent = Arrays.copyOf(tableLastCurrent, t + 1);
+        tableLastCurrent[t] = map.getCurrentPoints() - 1;
+        /// The same spacing expressions as ForceMap's constructor, so lookups round identically
+        tableMinPosition = Arrays.copyOf(tableMinPosition, t + 1);
+        tableMinPosition[t] = map.getMinPosition();
+        tableInversePositionSpacing = Arrays.copyOf(tableInversePositionSpacing, t + 1);
+        tableInversePositionSpacing[t] = (map.getPositionPoints() - 1) / (map.getMaxPosition() - map.getMinPosition());
+        tablePositionSpacing = Arrays.copyOf(tablePositionSpacing, t + 1);
+        tablePositionSpacing[t] = 1 / tableInversePositionSpacing[t];
+        tableMinCurrent = Arrays.copyOf(tableMinCurrent, t + 1);
+        tableMinCurrent[t] = map.getMinCurrent();
+        tableInverseCurrentSpacing = Arrays.copyOf(tableInverseCurrentSpacing, t + 1);
+        tableInverseCurrentSpacing[t] = (map.getCurrentPoints() - 1) / (map.getMaxCurrent() - map.getMinCurrent());
+        tableCurrentGain = Arrays.copyOf(tableCurrentGain, t + 1);
+        tableCurrentGain[t] = actuator.getCurrentGain();
+        tableMaxControlCurrent = Arrays.copyOf(tableMaxControlCurrent, t + 1);
+        tableMaxControlCurrent[t] = actuator.getMaxControlCurrent();
+        return t;
+    }
+
+    /// One pass over all bearings per step: the four RK4 stages of a bearing are evaluated back to back
+    /// in registers, followed by its energy and single-node thermal balance, so each state and
+    /// parameter array is streamed through the cache once per step instead of once per stage.
+    ///
+    /// A magnetic bearing's control current is resolved to a table column when its control force is
+    /// applied, and its stage displacements rarely leave one table cell, inside which the bilinear
+    /// table is linear in displacement. So the force cell around the step's starting displacement is resolved once and its force line
+    /// folds into the stiffness and an offset, keeping the lookup off the stages' dependency chain.
+    /// A stage outside the cell takes the full lookup. A ceramic or closed-form bearing is the same
+    /// with an unbounded cell and the coil's constant plus the control force as offset.
+    public void update() {
+        double dt = PhysicsEngine.TIME_STEP;
+        double[] x = displacement;
+        double[] v = velocity;
+        for (int i = 0; i < size; i++) {
+            int table = actuatorTable[i];
+            double x1 = x[i];
+            double v1 = v[i];
+            /// Displacement range of the resolved cell; the bearing's stiffness and force inside it
+            double cellLow = Double.NEGATIVE_INFINITY;
+            double cellHigh = Double.POSITIVE_INFINITY;
+            double cellStiffness = stiffness[i];
+            double cellForce = magneticForce[i] + controlForce[i];
+            /// Table index of the cell's lower corner
+            int cellBase = 0;
+            if (table >= 0) {
+                /// ForceMap's clamping along the displacement axis; the current axis is already resolved
+                int lastPosition = tableLastPosition[table];
+                double minPosition = tableMinPosition[table];
+                double positionScale = tableInversePositionSpacing[table];
+                double g = (x1 - minPosition) * positionScale;
+                g = g > 0 ? (g < lastPosition ? g : lastPosition) : 0.0;
+                int gi = g < lastPosition ? (int) g : lastPosition - 1;
+                cellLow = minPosition + gi * tablePositionSpacing[table];
+                cellHigh = cellLow + tablePositionSpacing[table];
+                cellBase = currentColumn[i] + gi * tableCurrentPoints[table];
+                /// Force at the cell's lower edge plus slope × (x - cellLow), as offset + slope × x
+                double fraction = currentFraction[i];
+                double low = interpolate(forceTable, cellBase, fraction);
+                double slope = (interpolate(forceTable, cellBase + tableCurrentPoints[table], fraction) - low) * positionScale;
+                cellStiffness -= slope;
+                cellForce = low - slope * cellLow;
+            }
+            double a1 = x1 >= cellLow && x1 < cellHigh ? acceleration(i, cellStiffness, cellForce, x1, v1)
+                    : acceleration(i, stiffness[i], lookup(forceTable, i, table, x1), x1, v1);
+            double x2 = x1 + dt * v1 / 2;
+            double v2 = v1 + dt * a1 / 2;
+            double a2 = x2 >= cellLow && x2 < cellHigh ? acceleration(i, cellStiffness, cellForce, x2, v2)
+                    : acceleration(i, stiffness[i], lookup(forceTable, i, table, x2), x2, v2);
+            double x3 = x1 + dt * v2 / 2;
+            double v3 = v1 + dt * a2 / 2;
+            double a3 = x3 >= cellLow && x3 < cellHigh ? acceleration(i, cellStiffness, cellForce, x3, v3)
+                    : acceleration(i, stiffness[i], lookup(forceTable, i, table, x3), x3, v3);
+            double x4 = x1 + dt * v3;
+            double v4 = v1 + dt * a3;
+            double a4 = x4 >= cellLow && x4 < cellHigh ? acceleration(i, cellStiffness, cellForce, x4, v4)
+                    : acceleration(i, stiffness[i], lookup(forceTable, i, table, x4), x4, v4);
+            double newVelocity = clamp(v1 + (dt / 6) * (a1 + 2 * a2 + 2 * a3 + a4), -10.0, 10.0);
+            double newDisplacement = clamp(x1 + (dt / 6) * (v1 + 2 * v2 + 2 * v3 + v4), -0.01, 0.01);
+            x[i] = newDisplacement;
+            v[i] = newVelocity;
+
+            double field = fieldStrength[i];
+            if (table >= 0) {
+                /// The flux is needed once, at the new displacement, usually still in the force cell
+                double flux;
+                if (newDisplacement >= cellLow && newDisplacement < cellHigh) {
+                    double fraction = currentFraction[i];
+                    double low = interpolate(fluxTable, cellBase, fraction);
+                    double high = interpolate(fluxTable, cellBase + tableCurrentPoints[table], fraction);
+                    flux = low + (newDisplacement - cellLow) * tableInversePositionSpacing[table] * (high - low);
+                } else {
+                    flux = lookup(fluxTable, i, table, newDisplacement);
+                }
+                field = clamp(flux, 0, 10.0);
+            }
+            magneticField[i] = field;
+            double speed = Math.abs(newVelocity);
+            double loss = energyLoss[i] + frictionForce[i] * speed * dt;
+            /// BearingProfile.eddyLoss() and eddyHeat() inlined; the field is clamped finite above
+            energyLoss[i] = clamp(loss + clamp(field * field * 0.001 / 1e-6 * 0.01, 0, 1000), 0, 1e6);
+            double heatGeneration = frictionForce[i] * speed + clamp(0.1 * field * field, 0, 1000);
+            double rise = temperature[i] - 20.0;
+            double conductivity = conductivity(i, temperature[i]);
+            double heatDissipation = clamp(25.0 * 0.01 * rise + conductivity * 0.01 * rise / 0.01, 0, 10000);
+            temperature[i] = clamp(temperature[i] + (heatGeneration - heatDissipation) * dt / heatCapacity[i], 20.0, 500.0);
+        }
+    }
+
+    /// ForceMap's bilinear lookup on one of the flattened tables at the bearing's resolved current,
+    /// with the same clamping and rounding
+    private double lookup(double[] values, int i, int table, double displacement) {
+        int lastPosition = tableLastPosition[table];
+        double g = (displacement - tableMinPosition[table]) * tableInversePositionSpacing[table];
+        g = g > 0 ? (g < lastPosition ? g : lastPosition) : 0.0;
+        int gi = g < lastPosition ? (int) g : lastPosition - 1;
+        int base = currentColumn[i] + gi * tableCurrentPoints[table];
+        double low = interpolate(values, base, currentFraction[i]);
+        return low + (g - gi) * (interpolate(values, base + tableCurrentPoints[table], currentFraction[i]) - low);
+    }
+
+    /// Along the current axis between values[base] and values[base + 1]
+    private static double interpolate(double[] values, int base, double fraction) {
+        return values[base] + fraction * (values[base + 1] - values[base]);
+    }
+
+    /// Stiffness and force are the bearing's own and the actuator force, or the cell's folded ones
+    private double acceleration(int i, double stiffness, double force, double displacement, double velocity) {
+        double gyroscopicForce = clamp(gyroscopicCoefficient[i] * velocity, -1000, 1000);
+        double acceleration = (-stiffness * displacement - damping[i] * velocity + force - gyroscopicForce) * inverseMass[i];
+        if (!(Math.abs(acceleration) <= Double.MAX_VALUE)) {
+            acceleration = 0.0;
+        }
+        return clamp(acceleration, -1000, 1000);
+    }
+
+    /// MaterialDatabase.get() for the bearing's conductivity, read from the resolved table
+    private double conductivity(int i, double temperature) {
+        int offset = conductivityOffset[i];
+        int last = conductivityLastRow[i];
+        double position = (temperature - conductivityFirstTemperature[i]) * conductivityInverseSpacing[i];
+        if (!(position > 0)) {
+            return conductivityTable[offset];
+        }
+        if (position >= last) {
+            return conductivityTable[offset + last];
+        }
+        int row = (int) position;
+        double fraction = position - row;
+        return conductivityTable[offset + row] + fraction * (conductivityTable[offset + row + 1] - conductivityTable[offset + row]);
+    }
+
+    /// Places a bearing's rotor at a displacement (m) and velocity (m/s), limited like
+    /// PhysicsEngine.setRotorState()
+    public void setRotorState(int index, double displacement, double velocity) {
+        this.displacement[index] = clamp(displacement, -0.01, 0.01);
+        this.velocity[index] = clamp(velocity, -10.0, 10.0);
+    }
+
+    public void applyControlForce(int index, double force) {
+        controlForce[index] = clamp(force, -1000, 1000);
+        resolveCurrent(index);
+    }
+
+    public void reset() {
+        for (int i = 0; i < size; i++) {
+            displacement[i] = 0.0;
+            velocity[i] = 0.0;
+            temperature[i] = 20.0;
+            energyLoss[i] = 0.0;
+            magneticField[i] = 0.0;
+            controlForce[i] = 0.0;
+            resolveCurrent(i);
+        }
+    }
+
+    /// Every value clamped here is finite (accelerations are NaN-guarded first), so this cheaper
+    /// compare form saturates exactly like PhysicsEngine.clamp and compiles to conditional moves.
+    private static double clamp(double value, double min, double max) {
+        return value < min ? min : (value > max ? max : value);
+    }
+
+    public int size() { return size; }
+    public double getRotorDisplacement(int index) { return displacement[index]; }
+    public double getRotorVelocity(int index) { return velocity[index]; }
+    public double getFrictionForce(int index) { return frictionForce[index]; }
+    public double getEnergyLoss(int index) { return energyLoss[index]; }
+    public double getTemperature(int index) { return temperature[index]; }
+    public double getMagneticFieldStrength(int index) { return magneticField[index]; }
+    public double getStress(int index) { return stress[index]; }
+}
@@ -0,0 +1,332 @@
+package code.hybrid_bearing_system.design;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/// Rolling contact fatigue accumulated over a run, fed once per physics step in one pass and
+/// constant memory. Two estimates are kept side by side:
+///
+/// - Stress cycles: a RainflowCounter on the contact stress feeds Miner's rule, D = Σ n/N. The
+///   S-N curve is the one ISO 281 implies for point contact. Life falls with the ninth power of
+///   the pressure range, since it falls with the cube of load and load grows with the cube of
+///   pressure. It is one million cycles at p_C, the contact pressure under the dynamic load
+///   rating C, and cycles with ranges below the 1500 MPa fatigue limit do no damage.
+/// - Load spectrum: revolutions are counted against the radial load on the rolling elements, in
+///   levels from 0 to 2·C. The ISO 281 modified rating life L10m = a_ISO·(C/P)³ (90 %
+///   reliability) is combined over the levels by the Palmgren-Miner rule, so a_ISO is taken at
+///   each level's load rather than only at the equivalent load. The fatigue load limit Cu is the
+///   load that raises the peak contact pressure to 1500 MPa.
+///
+/// The stress is rainflow-counted from 0 to a full scale fixed at construction, normally
+/// stressFullScale() of the bearing: a range sized to the stress it can actually report, so that
+/// a level is a small fraction of it.
+///
+/// p_C and Cu come from a LoadDistribution of the bearing's geometry at the current contact
+/// modulus and are recomputed only when it changes. add() is a handful of arithmetic operations;
+/// damage and lives are summed over the levels when asked for.
+public class FatigueLife {
+    public static final int DEFAULT_LEVELS = 512;
+    /// ISO 281 contamination factor e_C (normal cleanliness) and viscosity ratio κ
+    public static final double DEFAULT_CONTAMINATION = 0.5;
+    public static final double DEFAULT_VISCOSITY_RATIO = 1.0;
+    /// Contact pressure (Pa) at the fatigue load limit, ISO 281 Annex B
+    public static final double FATIGUE_LIMIT_PRESSURE = 1.5e9;
+    /// Revolutions of the basic rating life at the dynamic load rating
+    private static final double RATING_LIFE = 1e6;
+    private static final double STRESS_LIFE_EXPONENT = 9.0;
+    private static final double MAX_LIFE_MODIFICATION = 50.0;
+
+    private final LoadDistribution contact;
+    private final int levels;
+    private final RainflowCounter rainflow;
+    private final double dynamicLoadRating;
+    private final double loadWidth;
+    /// Revolutions and Σ revolutions·P³ per load level, for each level's equivalent load
+    private final double[] revolutions;
+    private final double[] cubedLoads;
+    private double totalRevolutions;
+    private double time;
+    private double contamination = DEFAULT_CONTAMINATION;
+    private double viscosityRatio = DEFAULT_VISCOSITY_RATIO;
+    private double revolutionsPerSecond;
+    private double effectiveModulus = Double.NaN;
+    /// Modulus that ratingPressure and fatigueLoadLimit were computed for
+    private double contactModulus = Double.NaN;
+    private double ratingPressure;
+    private double fatigueLoadLimit;
+
+    public FatigueLife(LoadDistribution geometry, double stressFullScale) {
+        this(geometry, DEFAULT_LEVELS, stressFullScale);
+    }
+
+    /// Only the geometry is taken from the given solver, which is left untouched. Contact stress
+    /// is rainflow-counted in levels from 0 to stressFullScale (Pa).
+    public FatigueLife(LoadDistribution geometry, int levels, double stressFullScale) {
+        this.contact = geometry.copy();
+        this.levels = levels;
+        this.rainflow = new RainflowCounter(0.0, stressFullScale, levels);
+        this.dynamicLoadRating = contact.getDynamicLoadRating();
+        this.loadWidth = 2 * dynamicLoadRating / levels;
+        this.revolutions = new double[levels];
+        this.cubedLoads = new double[levels];
+    }
+
+    /// Twice the largest contact stress (Pa) the bearing reports: the peak Hertz pressure p_C under
+    /// C when a load distribution of this geometry gives the stress (hertzian), otherwise the
+    /// profile's load over contact area.
+    public static double stressFullScale(LoadDistribution geometry, BearingProfile profile, boolean hertzian) {
+        double stress = profile.getStress();
+        if (hertzian && profile.hasRollingElements()) {
+            LoadDistribution contact = geometry.copy();
+            contact.setEffectiveModulus(profile.getEffectiveModulus());
+            contact.solve(contact.getDynamicLoadRating(), 0.0);
+            stress = contact.getMaxPressure();
+        }
+        /// An unloaded bearing counts no cycles at any scale
+        return stress > 0 ? 2 * stress : 1.0;
+    }
+
+    /// Contact modulus E' (Pa) of the bearing's material, see BearingProfile.getEffectiveModulus()
+    public void setEffectiveModulus(double effectiveModulus) {
+        if (!(effectiveModulus > 0)) {
+            throw new IllegalArgumentException("Effective modulus must be positive: " + effectiveModulus);
+        }
+        this.effectiveModulus = effectiveModulus;
+    }
+
+    public void setSpindleSpeed(double rpm) {
+        this.revolutionsPerSecond = Math.abs(rpm) / 60.0;
+    }
+
+    /// ISO 281 contamination factor e_C, from 0 (severe contamination) to 1 (extreme cleanliness)
+    public void setContamination(double contamination) {
+        if (!(contamination >= 0) || contamination > 1) {
+            throw new IllegalArgumentException("Contamination factor must be between 0 and 1: " + contamination);
+        }
+        this.contamination = contamination;
+    }
+
+    /// Viscosity ratio κ of the lubricant, actual over required viscosity; clamped to ISO 281's 0.1..4
+    public void setViscosityRatio(double viscosityRatio) {
+        if (!(viscosityRatio > 0) || Double.isInfinite(viscosityRatio)) {
+            throw new IllegalArgumentException("Viscosity ratio must be positive: " + viscosityRatio);
+        }
+        this.viscosityRatio = viscosityRatio;
+    }
+
+    /// One step of dt seconds with the given contact stress (Pa) and radial load (N) on the rolling
+    /// elements, turning at the spindle speed.
+    public void add(double stress, double load, double dt) {
+        rainflow.add(stress);
+        time += dt;
+        double turns = revolutionsPerSecond * dt;
+        double magnitude = Math.abs(load);
+        if (turns > 0 && magnitude < Double.POSITIVE_INFINITY) {
+            int level = (int) Math.min(levels - 1, magnitude / loadWidth);
+            revolutions[level] += turns;
+            cubedLoads[level] += turns * magnitude * magnitude * magnitude;
+            totalRevolutions += turns;
+        }
+    }
+
+    public void reset() {
+        rainflow.reset();
+        Arrays.fill(revolutions, 0.0);
+        Arrays.fill(cubedLoads, 0.0);
+        totalRevolutions = 0.0;
+        time = 0.0;
+    }
+
+    /// Level count, stress full scale, rainflow state, then time, revolutions and the occupied load levels
+    void writeState(DataOutput out) throws IOException {
+        out.writeInt(levels);
+        out.writeDouble(rainflow.getMax());
+        rainflow.writeState(out);
+        out.writeDouble(time);
+        out.writeDouble(totalRevolutions);
+        int occupied = 0;
+        for (double value : revolutions) {
+            occupied += value > 0 ? 1 : 0;
+        }
+        out.writeInt(occupied);
+        for (int level = 0; level < levels; level++) {
+            if (revolutions[level] > 0) {
+                out.writeInt(level);
+                out.writeDouble(revolutions[level]);
+                out.writeDouble(cubedLoads[level]);
+            }
+        }
+    }
+
+    void readState(DataInput in) throws IOException {
+        int stored = in.readInt();
+        if (stored != levels) {
+            throw new IllegalArgumentException("Checkpoint fatigue state has " + stored
+                    + " levels but the simulation counts " + levels);
+        }
+        double fullScale = in.readDouble();
+        if (fullScale != rainflow.getMax()) {
+            throw new IllegalArgumentException("Checkpoint fatigue state counts stress up to " + fullScale
+                    + " Pa but the simulation up to " + rainflow.getMax());
+        }
+        reset();
+        rainflow.readState(in);
+        time = in.readDouble();
+        totalRevolutions = in.readDouble();
+        int occupied = in.readInt();
+        for (int i = 0; i < occupied; i++) {
+            int level = in.readInt();
+            if (level < 0 || level >= levels) {
+                throw new IOException("Load level " + level + " outside 0.." + (levels - 1));
+            }
+            revolutions[level] = in.readDouble();
+            cubedLoads[level] = in.readDouble();
+        }
+    }
+
+    /// p_C and Cu for the current modulus, by solving the load distribution at C and iterating
+    /// F ← F·(1500 MPa / p(F))³, which is exact in one step without clearance (p ∝ F^(1/3))
+    private void updateContact() {
+        if (effectiveModulus == contactModulus || Double.isNaN(effectiveModulus)) {
+            return;
+        }
+        contact.setEffectiveModulus(effectiveModulus);
+        ratingPressure = pressureAt(dynamicLoadRating);
+        double load = dynamicLoadRating;
+        for (int i = 0; i < 20; i++) {
+            double next = load * Math.pow(FATIGUE_LIMIT_PRESSURE / pressureAt(load), 3);
+            boolean converged = Math.abs(next - load) <= 1e-9 * load;
+            load = next;
+            if (converged) {
+                break;
+            }
+        }
+        fatigueLoadLimit = load;
+        contactModulus = effectiveModulus;
+    }
+
+    private double pressureAt(double load) {
+        contact.reset();
+        contact.solve(load, 0.0);
+        return contact.getMaxPressure();
+    }
+
+    /// Miner's sum over rainflow cycles: closed cycles by range, plus half a cycle for each pair
+    /// of the residue. Zero until a modulus is set.
+    public double getDamage() {
+        updateContact();
+        if (Double.isNaN(contactModulus)) {
+            return 0.0;
+        }
+        double damage = 0.0;
+        for (int range = 1; range < levels; range++) {
+            long cycles = rainflow.getFullCycles(range);
+            if (cycles > 0) {
+                damage += cycles * cycleDamage(rainflow.getRange(range));
+            }
+        }
+        for (int i = 1; i < rainflow.getResidueSize(); i++) {
+            damage += 0.5 * cycleDamage(Math.abs(rainflow.getResidue(i) - rainflow.getResidue(i - 1)));
+        }
+        return damage;
+    }
+
+    private double cycleDamage(double range) {
+        return range > FATIGUE_LIMIT_PRESSURE
+                ? Math.pow(range / ratingPressure, STRESS_LIFE_EXPONENT) / RATING_LIFE : 0.0;
+    }
+
+    /// Time (s) until Miner's sum reaches 1 at the rate accumulated so far
+    public double getStressCycleLife() {
+        double damage = getDamage();
+        return damage > 0 ? time / damage : Double.POSITIVE_INFINITY;
+    }
+
+    /// Equivalent dynamic load P (N) of the spectrum, the cube-mean load over revolutions
+    public double getEquivalentLoad() {
+        double sum = 0.0;
+        for (double value : cubedLoads) {
+            sum += value;
+        }
+        return totalRevolutions > 0 ? Math.cbrt(sum / totalRevolutions) : 0.0;
+    }
+
+    /// Basic rating life L10 (revolutions) at the equivalent load
+    public double getRatingLife() {
+        double load = getEquivalentLoad();
+        return load > 0 ? RATING_LIFE * Math.pow(dynamicLoadRating / load, 3) : Double.POSITIVE_INFINITY;
+    }
+
+    /// Modified rating life L10m (revolutions): Palmgren-Miner over the load levels, each at its
+    /// own equivalent load and life modification factor
+    public double getModifiedRatingLife() {
+        updateContact();
+        if (Double.isNaN(contactModulus)) {
+            return getRatingLife();
+        }
+        double damage = 0.0;
+        double rating = dynamicLoadRating * dynamicLoadRating * dynamicLoadRating;
+        for (int level = 0; level < levels; level++) {
+            if (revolutions[level] > 0 && cubedLoads[level] > 0) {
+                double load = Math.cbrt(cubedLoads[level] / revolutions[level]);
+                damage += cubedLoads[level] / (RATING_LIFE * lifeModification(load) * rating);
+            }
+        }
+        return damage > 0 ? totalRevolutions / damage : Double.POSITIVE_INFINITY;
+    }
+
+    /// Overall a_ISO of the spectrum, L10m / L10
+    public double getLifeModificationFactor() {
+        double basic = getRatingLife();
+        return basic < Double.POSITIVE_INFINITY ? getModifiedRatingLife() / basic : Double.NaN;
+    }
+
+    /// ISO 281 life modification factor a_ISO of ball bearings at a load P (N)
+    private double lifeModification(double load) {
+        double kappa = clamp(viscosityRatio, 0.1, 4.0);
+        double lubrication;
+        if (kappa < 0.4) {
+            lubrication = 2.5671 - 2.2649 / Math.pow(kappa, 0.054381);
+        } else if (kappa < 1.0) {
+            lubrication = 2.5671 - 1.9987 / Math.pow(kappa, 0.19087);
+        } else {
+            lubrication = 2.5671 - 1.9987 / Math.pow(kappa, 0.071739);
+        }
+        double margin = 1 - Math.pow(Math.max(0.0, lubrication), 0.83)
+                * Math.cbrt(contamination * fatigueLoadLimit / load);
+        return margin > 0 ? Math.min(MAX_LIFE_MODIFICATION, 0.1 * Math.pow(margin, -9.3)) : MAX_LIFE_MODIFICATION;
+    }
+
+    /// Converts revolutions to seconds at the run's mean speed so far
+    public double toSeconds(double revolutions) {
+        return totalRevolutions > 0 ? revolutions * time / totalRevolutions : Double.POSITIVE_INFINITY;
+    }
+
+    private double clamp(double value, double min, double max) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return min;
+        }
+        return Math.max(min, Math.min(max, value));
+    }
+
+    public RainflowCounter getRainflow() { return rainflow; }
+    public int getLevels() { return levels; }
+    /// Basic dynamic load rating C (N) of the geometry
+    public double getDynamicLoadRating() { return dynamicLoadRating; }
+    /// Fatigue load limit Cu (N), NaN before a modulus is set
+    public double getFatigueLoadLimit() {
+        updateContact();
+        return Double.isNaN(contactModulus) ? Double.NaN : fatigueLoadLimit;
+    }
+    /// Peak contact pressure p_C (Pa) under the dynamic load rating, NaN before a modulus is set
+    public double getRatingPressure() {
+        updateContact();
+        return Double.isNaN(contactModulus) ? Double.NaN : ratingPressure;
+    }
+    public double getContamination() { return contamination; }
+    public double getViscosityRatio() { return viscosityRatio; }
+    public double getTotalRevolutions() { return totalRevolutions; }
+    public double getTime() { return time; }
+}
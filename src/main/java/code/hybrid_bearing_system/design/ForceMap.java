@@ -0,0 +1,194 @@
+package code.hybrid_bearing_system.design;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.TreeSet;
+
+/// Force and flux density tabulated on a regular position × coil current grid and evaluated by
+/// bilinear interpolation. For a single electromagnet the position is its air gap; MagneticActuator
+/// also uses it for the whole differential pair over rotor displacement and control current.
+/// Lookups clamp to the table edges and allocate nothing.
+public final class ForceMap {
+    private static final int MAGIC = 0x48424D46;
+    private static final int VERSION = 2;
+
+    private final double minPosition;
+    private final double maxPosition;
+    private final double minCurrent;
+    private final double maxCurrent;
+    private final int positionPoints;
+    private final int currentPoints;
+    private final double inversePositionSpacing;
+    private final double inverseCurrentSpacing;
+    /// Row-major by position: force[positionIndex * currentPoints + currentIndex]
+    private final double[] force;
+    private final double[] flux;
+
+    /// Both axes are evenly spaced from their minimum to their maximum.
+    public ForceMap(double minPosition, double maxPosition, double minCurrent, double maxCurrent,
+                    int positionPoints, int currentPoints, double[] force, double[] flux) {
+        if (!(maxPosition > minPosition) || !(maxCurrent > minCurrent)) {
+            throw new IllegalArgumentException("Force map axes need minimum < maximum");
+        }
+        if (positionPoints < 2 || currentPoints < 2 || force.length != positionPoints * currentPoints
+                || flux.length != force.length) {
+            throw new IllegalArgumentException("Force map needs at least a 2 x 2 grid with one value per point");
+        }
+        this.minPosition = minPosition;
+        this.maxPosition = maxPosition;
+        this.minCurrent = minCurrent;
+        this.maxCurrent = maxCurrent;
+        this.positionPoints = positionPoints;
+        this.currentPoints = currentPoints;
+        this.inversePositionSpacing = (positionPoints - 1) / (maxPosition - minPosition);
+        this.inverseCurrentSpacing = (currentPoints - 1) / (maxCurrent - minCurrent);
+        this.force = force;
+        this.flux = flux;
+    }
+
+    public double force(double position, double current) {
+        return interpolate(force, position, current);
+    }
+
+    public double fluxDensity(double position, double current) {
+        return interpolate(flux, position, current);
+    }
+
+    private double interpolate(double[] table, double position, double current) {
+        double g = (position - minPosition) * inversePositionSpacing;
+        double c = (current - minCurrent) * inverseCurrentSpacing;
+        /// Clamp to the grid; the compare form also maps NaN to the lower edge
+        int lastPosition = positionPoints - 1;
+        int lastCurrent = currentPoints - 1;
+        g = g > 0 ? (g < lastPosition ? g : lastPosition) : 0.0;
+        c = c > 0 ? (c < lastCurrent ? c : lastCurrent) : 0.0;
+        int gi = g < lastPosition ? (int) g : lastPosition - 1;
+        int ci = c < lastCurrent ? (int) c : lastCurrent - 1;
+        double fg = g - gi;
+        double fc = c - ci;
+        int base = gi * currentPoints + ci;
+        double low = table[base] + fc * (table[base + 1] - table[base]);
+        double high = table[base + currentPoints] + fc * (table[base + currentPoints + 1] - table[base + currentPoints]);
+        return low + fg * (high - low);
+    }
+
+    public void save(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeDouble(minPosition);
+            out.writeDouble(maxPosition);
+            out.writeDouble(minCurrent);
+            out.writeDouble(maxCurrent);
+            out.writeInt(positionPoints);
+            out.writeInt(currentPoints);
+            for (double value : force) {
+                out.writeDouble(value);
+            }
+            for (double value : flux) {
+                out.writeDouble(value);
+            }
+        }
+    }
+
+    public static ForceMap load(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a force map file: " + file);
+            }
+            double minPosition = in.readDouble();
+            double maxPosition = in.readDouble();
+            double minCurrent = in.readDouble();
+            double maxCurrent = in.readDouble();
+            int positionPoints = in.readInt();
+            int currentPoints = in.readInt();
+            if (positionPoints < 2 || currentPoints < 2 || (long) positionPoints * currentPoints > 1 << 24) {
+                throw new IOException("Corrupt force map grid in " + file);
+            }
+            double[] force = new double[positionPoints * currentPoints];
+            double[] flux = new double[force.length];
+            for (int i = 0; i < force.length; i++) {
+                force[i] = in.readDouble();
+            }
+            for (int i = 0; i < flux.length; i++) {
+                flux[i] = in.readDouble();
+            }
+            return new ForceMap(minPosition, maxPosition, minCurrent, maxCurrent, positionPoints, currentPoints, force, flux);
+        }
+    }
+
+    /// Reads user-supplied single-magnet data, one "gap,current,force,flux" row per grid point
+    /// (m, A, N, T), in any order. The points must cover a full, evenly spaced grid.
+    public static ForceMap fromCsv(Path file) throws IOException {
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        TreeSet<Double> gaps = new TreeSet<>();
+        TreeSet<Double> currents = new TreeSet<>();
+        double[][] rows = new double[lines.size()][];
+        int count = 0;
+        for (String line : lines) {
+            String text = line.trim();
+            if (text.isEmpty() || text.startsWith("#") || Character.isLetter(text.charAt(0))) {
+                continue;
+            }
+            String[] fields = text.split(",");
+            if (fields.length != 4) {
+                throw new IllegalArgumentException("Expected gap,current,force,flux but got: " + line);
+            }
+            double[] row = new double[4];
+            try {
+                for (int f = 0; f < 4; f++) {
+                    row[f] = Double.parseDouble(fields[f].trim());
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid number in force map row: " + line);
+            }
+            gaps.add(row[0]);
+            currents.add(row[1]);
+            rows[count++] = row;
+        }
+        int gapPoints = gaps.size();
+        int currentPoints = currents.size();
+        if (gapPoints < 2 || currentPoints < 2 || count != gapPoints * currentPoints) {
+            throw new IllegalArgumentException("Force map rows must form a full grid of at least 2 x 2 points");
+        }
+        double minGap = gaps.first();
+        double maxGap = gaps.last();
+        double minCurrent = currents.first();
+        double maxCurrent = currents.last();
+        double gapSpacing = (maxGap - minGap) / (gapPoints - 1);
+        double currentSpacing = (maxCurrent - minCurrent) / (currentPoints - 1);
+        double[] force = new double[count];
+        double[] flux = new double[count];
+        boolean[] seen = new boolean[count];
+        for (int r = 0; r < count; r++) {
+            double g = (rows[r][0] - minGap) / gapSpacing;
+            double c = (rows[r][1] - minCurrent) / currentSpacing;
+            int gi = (int) Math.round(g);
+            int ci = (int) Math.round(c);
+            if (Math.abs(g - gi) > 1e-6 || Math.abs(c - ci) > 1e-6 || seen[gi * currentPoints + ci]) {
+                throw new IllegalArgumentException("Force map grid must be evenly spaced without duplicates");
+            }
+            seen[gi * currentPoints + ci] = true;
+            force[gi * currentPoints + ci] = rows[r][2];
+            flux[gi * currentPoints + ci] = rows[r][3];
+        }
+        return new ForceMap(minGap, maxGap, minCurrent, maxCurrent, gapPoints, currentPoints, force, flux);
+    }
+
+    /// Copies of the tables, row-major by position, for callers that interpolate themselves
+    public double[] getForceTable() { return force.clone(); }
+    public double[] getFluxTable() { return flux.clone(); }
+    public double getMinPosition() { return minPosition; }
+    public double getMaxPosition() { return maxPosition; }
+    public double getMinCurrent() { return minCurrent; }
+    public double getMaxCurrent() { return maxCurrent; }
+    public int getPositionPoints() { return positionPoints; }
+    public int getCurrentPoints() { return currentPoints; }
+}
@@ -0,0 +1,60 @@
+package code.hybrid_bearing_system.design;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+/// mode=campbell of HeadlessRunner: critical speeds from a CampbellDiagram.
+final class HeadlessCampbell {
+    /// Prints the critical speeds of the standard spindle; output=file.csv writes every speed's
+    /// forward and backward whirl frequencies.
+    static void run(CampbellDiagram diagram, Properties properties) throws IOException {
+        int threads = Integer.parseInt(properties.getProperty("threads",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        CampbellDiagram.Result result = diagram.run(threads);
+        System.out.printf("Campbell diagram: %d speeds from %.0f to %.0f RPM, %d modes per direction, %d DOFs,"
+                        + " on %d workers in %.3f s (%.1f Lanczos steps per speed)%n",
+                result.getSpeedCount(), diagram.getMinSpeed(), diagram.getMaxSpeed(), diagram.getModes(),
+                diagram.getRotor().getDegreesOfFreedom(), result.getParallelism(), result.getElapsedNanos() / 1e9,
+                result.getAverageLanczosSteps());
+        if (result.getCriticalSpeeds().isEmpty()) {
+            System.out.println("No forward whirl branch crosses the 1X line in this speed range");
+        }
+        for (double speed : result.getCriticalSpeeds()) {
+            System.out.printf("Critical speed: %.0f RPM (%.2f Hz)%n", speed, speed / 60);
+        }
+        String outputFile = properties.getProperty("output");
+        if (outputFile != null && !outputFile.isBlank() && !outputFile.equals("-")) {
+            try (Writer writer = Files.newBufferedWriter(Path.of(outputFile), StandardCharsets.UTF_8)) {
+                StringBuilder line = new StringBuilder("Speed (RPM)");
+                for (int k = 1; k <= diagram.getModes(); k++) {
+                    line.append(",Forward ").append(k).append(" (Hz)");
+                }
+                for (int k = 1; k <= diagram.getModes(); k++) {
+                    line.append(",Backward ").append(k).append(" (Hz)");
+                }
+                writer.write(line.append('\n').toString());
+                for (int p = 0; p < result.getSpeedCount(); p++) {
+                    line.setLength(0);
+                    line.append(result.getSpeed(p));
+                    for (int k = 0; k < diagram.getModes(); k++) {
+                        double frequency = result.getForwardFrequency(p, k);
+                        line.append(',').append(Double.isNaN(frequency) ? "" : String.valueOf(frequency));
+                    }
+                    for (int k = 0; k < diagram.getModes(); k++) {
+                        double frequency = result.getBackwardFrequency(p, k);
+                        line.append(',').append(Double.isNaN(frequency) ? "" : String.valueOf(frequency));
+                    }
+                    writer.write(line.append('\n').toString());
+                }
+            }
+            System.out.println("Whirl frequencies written to " + outputFile);
+        }
+    }
+
+    private HeadlessCampbell() {
+    }
+}
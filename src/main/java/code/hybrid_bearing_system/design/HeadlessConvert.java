@@ -0,0 +1,23 @@
+package code.hybrid_bearing_system.design;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Properties;
+
+/// mode=convert of HeadlessRunner: a telemetry file converted to CSV.
+final class HeadlessConvert {
+    static void run(Properties properties) throws IOException {
+        String input = properties.getProperty("input");
+        String output = properties.getProperty("output");
+        if (input == null || output == null || output.equals("-")) {
+            throw new IllegalArgumentException("mode=convert needs input=file.hbt and output=file.csv");
+        }
+        long start = System.nanoTime();
+        long samples = new DataExporter().convertTelemetryToCSV(Path.of(input), Path.of(output));
+        System.out.printf("Converted %d samples from %s to %s in %.3f s%n", samples, input, output,
+                (System.nanoTime() - start) / 1e9);
+    }
+
+    private HeadlessConvert() {
+    }
+}
@@ -0,0 +1,88 @@
+package code.hybrid_bearing_system.design;
+
+import java.util.Properties;
+
+/// mode=ensemble of HeadlessRunner: an EnsemblePhysicsEngine, optionally checked against PhysicsEngine.
+final class HeadlessEnsemble {
+    /// Steps N bearings, cycling through the sweep grid's configurations, with the structure-of-arrays
+    /// engine. With verify=true the same bearings are also stepped as individual PhysicsEngine
+    /// objects, and the speedup and largest deviation are reported.
+    static void run(ParameterSweep grid, Properties properties) {
+        int bearings = Integer.parseInt(properties.getProperty("bearings", "100000"));
+        boolean verify = Boolean.parseBoolean(properties.getProperty("verify", "true"));
+        double offset = Double.parseDouble(properties.getProperty("offset", "0.001"));
+        double tolerance = Double.parseDouble(properties.getProperty("tolerance", "1e-9"));
+        long steps = Math.round(grid.getDuration() / PhysicsEngine.TIME_STEP);
+        BearingModel[] models = new BearingModel[grid.getCaseCount()];
+        for (int c = 0; c < models.length; c++) {
+            models[c] = new BearingModel();
+            grid.getCase(c).applyTo(models[c]);
+        }
+        EnsemblePhysicsEngine ensemble = new EnsemblePhysicsEngine(bearings);
+        for (int i = 0; i < bearings; i++) {
+            ensemble.configure(i, models[i % models.length]);
+            ensemble.setRotorState(i, initialDisplacement(i, offset), 0.0);
+        }
+        long start = System.nanoTime();
+        for (long s = 0; s < steps; s++) {
+            ensemble.update();
+        }
+        long ensembleNanos = System.nanoTime() - start;
+        System.out.printf("Ensemble: %d bearings x %d steps in %.3f s (%.3g bearing-steps/s)%n",
+                bearings, steps, ensembleNanos / 1e9, bearings * (double) steps * 1e9 / ensembleNanos);
+        if (!verify) {
+            return;
+        }
+        PhysicsEngine[] engines = new PhysicsEngine[bearings];
+        for (int i = 0; i < bearings; i++) {
+            engines[i] = new PhysicsEngine(models[i % models.length]);
+            engines[i].setRotorState(initialDisplacement(i, offset), 0.0);
+        }
+        start = System.nanoTime();
+        for (long s = 0; s < steps; s++) {
+            for (PhysicsEngine engine : engines) {
+                engine.update();
+            }
+        }
+        long scalarNanos = System.nanoTime() - start;
+        /// Each quantity's largest difference relative to its largest magnitude across the ensemble,
+        /// so a displacement of micrometres is not judged against a tolerance of one metre
+        double[] differences = new double[5];
+        double[] magnitudes = new double[5];
+        for (int i = 0; i < bearings; i++) {
+            PhysicsEngine engine = engines[i];
+            compare(differences, magnitudes, 0, ensemble.getRotorDisplacement(i), engine.getRotorDisplacement());
+            compare(differences, magnitudes, 1, ensemble.getRotorVelocity(i), engine.getRotorVelocity());
+            compare(differences, magnitudes, 2, ensemble.getTemperature(i), engine.getTemperature());
+            compare(differences, magnitudes, 3, ensemble.getEnergyLoss(i), engine.getEnergyLoss());
+            compare(differences, magnitudes, 4, ensemble.getStress(i), engine.getStress());
+        }
+        double[] deviations = new double[5];
+        double maxDeviation = 0.0;
+        for (int q = 0; q < deviations.length; q++) {
+            deviations[q] = magnitudes[q] > 0 ? differences[q] / magnitudes[q] : differences[q];
+            maxDeviation = Math.max(maxDeviation, deviations[q]);
+        }
+        System.out.printf("Scalar:   %d PhysicsEngine objects in %.3f s, ensemble speedup %.1fx%n",
+                bearings, scalarNanos / 1e9, (double) scalarNanos / ensembleNanos);
+        System.out.printf("Relative deviation: displacement %.2e, velocity %.2e, temperature %.2e, energy loss %.2e, "
+                + "stress %.2e; %s tolerance %.0e%n", deviations[0], deviations[1], deviations[2], deviations[3],
+                deviations[4], maxDeviation <= tolerance ? "within" : "EXCEEDS", tolerance);
+        if (maxDeviation > tolerance) {
+            System.exit(3);
+        }
+    }
+
+    /// Bearing i starts displaced by one of eleven levels spread evenly over ±offset
+    private static double initialDisplacement(int index, double offset) {
+        return offset * ((index % 11) - 5) / 5.0;
+    }
+
+    private static void compare(double[] differences, double[] magnitudes, int quantity, double actual, double expected) {
+        differences[quantity] = Math.max(differences[quantity], Math.abs(actual - expected));
+        magnitudes[quantity] = Math.max(magnitudes[quantity], Math.abs(expected));
+    }
+
+    private HeadlessEnsemble() {
+    }
+}
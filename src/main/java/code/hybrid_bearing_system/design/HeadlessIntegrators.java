@@ -0,0 +1,65 @@
+package code.hybrid_bearing_system.design;
+
+/// mode=integrators of HeadlessRunner: adaptive Dormand-Prince against fixed-step RK4 of equal accuracy.
+final class HeadlessIntegrators {
+    /// Runs the job with Dormand-Prince at the job's tolerances, then with fixed-step RK4 substepped
+    /// 1, 2, 4, ... times per period until it is at least as accurate. Accuracy is the largest
+    /// displacement deviation from a tight-tolerance Dormand-Prince reference, sampled every period.
+    static void run(SimulationJob job) {
+        long steps = job.getStepCount();
+        double[] reference = trajectory(job, new DormandPrinceIntegrator(1e-10, 1e-13), steps).displacement;
+        DormandPrinceIntegrator adaptive = new DormandPrinceIntegrator(job.getRelativeTolerance(), job.getAbsoluteTolerance());
+        trajectory(job, adaptive, steps);
+        Trajectory adaptiveRun = trajectory(job, adaptive, steps);
+        double adaptiveError = maxDeviation(adaptiveRun.displacement, reference);
+        System.out.printf("%s: %d accepted, %d rejected, %d evaluations, max error %.3e m, %.3f ms%n",
+                adaptive.getName(), adaptive.getAcceptedSteps(), adaptive.getRejectedSteps(), adaptive.getEvaluations(),
+                adaptiveError, adaptiveRun.elapsedNanos / 1e6);
+        for (int substeps = 1; substeps <= 1 << 16; substeps *= 2) {
+            Integrator fixed = new SubsteppingIntegrator(new RungeKutta4Integrator(), substeps);
+            trajectory(job, fixed, steps);
+            Trajectory fixedRun = trajectory(job, fixed, steps);
+            double error = maxDeviation(fixedRun.displacement, reference);
+            if (error <= adaptiveError || substeps == 1 << 16) {
+                System.out.printf("RK4 fixed step %.3e s: %d steps, %d evaluations, max error %.3e m, %.3f ms (%.2fx adaptive)%n",
+                        job.getTimeStep() / substeps, steps * substeps, 4 * steps * substeps, error,
+                        fixedRun.elapsedNanos / 1e6, (double) fixedRun.elapsedNanos / adaptiveRun.elapsedNanos);
+                break;
+            }
+        }
+    }
+
+    private static Trajectory trajectory(SimulationJob job, Integrator integrator, long steps) {
+        SimulationLoop loop = job.createLoop();
+        integrator.reset();
+        loop.getPhysicsEngine().setIntegrator(integrator);
+        double[] displacement = new double[(int) steps];
+        long start = System.nanoTime();
+        for (int i = 0; i < steps; i++) {
+            loop.step();
+            displacement[i] = loop.getPhysicsEngine().getRotorDisplacement();
+        }
+        return new Trajectory(displacement, System.nanoTime() - start);
+    }
+
+    private static double maxDeviation(double[] values, double[] reference) {
+        double max = 0.0;
+        for (int i = 0; i < values.length; i++) {
+            max = Math.max(max, Math.abs(values[i] - reference[i]));
+        }
+        return max;
+    }
+
+    private static class Trajectory {
+        final double[] displacement;
+        final long elapsedNanos;
+
+        Trajectory(double[] displacement, long elapsedNanos) {
+            this.displacement = displacement;
+            this.elapsedNanos = elapsedNanos;
+        }
+    }
+
+    private HeadlessIntegrators() {
+    }
+}
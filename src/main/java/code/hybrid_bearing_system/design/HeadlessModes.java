@@ -0,0 +1,30 @@
+package code.hybrid_bearing_system.design;
+
+import java.util.Properties;
+
+/// mode=modes of HeadlessRunner: natural frequencies of the finite-element spindle.
+final class HeadlessModes {
+    /// Natural frequencies of the job's bearings on the standard finite-element spindle at rest.
+    static void run(SimulationJob job, Properties properties) {
+        int count = Integer.parseInt(properties.getProperty("modes", "6"));
+        int elements = Integer.parseInt(properties.getProperty("elements", "40"));
+        BearingModel model = new BearingModel();
+        job.applyTo(model);
+        RotorModel rotor = RotorModel.standard(model, elements);
+        long start = System.nanoTime();
+        LanczosEigenSolver.Result modes = new ModalAnalysis().solveModes(rotor, count);
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("Rotor: %d elements, %d DOFs (%d per bending plane), %s bearings %.3g N/m%n",
+                rotor.getElementCount(), rotor.getDegreesOfFreedom(), rotor.getDegreesOfFreedom() / 2,
+                job.getBearingType(), model.getProfile().getStiffness());
+        System.out.printf("Shift-invert Lanczos: %d modes in %d steps, %.3f s%n",
+                modes.getCount(), modes.getLanczosSteps(), elapsed / 1e9);
+        for (int i = 0; i < modes.getCount(); i++) {
+            double frequency = Math.sqrt(Math.max(modes.getEigenvalue(i), 0.0)) / (2 * Math.PI);
+            System.out.printf("Mode %d: %.2f Hz (%.0f RPM)%n", i + 1, frequency, 60 * frequency);
+        }
+    }
+
+    private HeadlessModes() {
+    }
+}
@@ -0,0 +1,55 @@
+package code.hybrid_bearing_system.design;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+/// mode=montecarlo of HeadlessRunner: output statistics of a MonteCarloAnalysis.
+final class HeadlessMonteCarlo {
+    /// Prints mean, standard deviation and quantiles of every output. With output=file.csv, also
+    /// writes a histogram per output between its observed minimum and maximum.
+    static void run(MonteCarloAnalysis analysis, Properties properties) throws IOException {
+        int threads = Integer.parseInt(properties.getProperty("threads",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        int bins = Integer.parseInt(properties.getProperty("bins", "50"));
+        MonteCarloAnalysis.Result result = analysis.run(threads);
+        System.out.printf("Monte Carlo: %d samples (seed %d) on %d workers in %.3f s: %.1f samples/s, %.0f steps/s%n",
+                result.getSamples(), analysis.getSeed(), result.getParallelism(), result.getElapsedNanos() / 1e9,
+                result.getSamplesPerSecond(), result.getStepsPerSecond());
+        System.out.printf("Tolerances (1 sigma): load %.1f %%, modulus %.1f %%, mass %.1f %%, speed %.1f %%%n",
+                100 * analysis.getLoadTolerance(), 100 * analysis.getModulusTolerance(),
+                100 * analysis.getMassTolerance(), 100 * analysis.getSpeedTolerance());
+        System.out.printf("%-18s %12s %12s %12s %12s %12s %12s %12s%n",
+                "Output", "Mean", "StdDev", "Min", "P5", "P50", "P95", "Max");
+        for (MonteCarloAnalysis.Output output : MonteCarloAnalysis.Output.values()) {
+            StreamingStatistics statistics = result.get(output);
+            System.out.printf("%-18s %12.5g %12.5g %12.5g %12.5g %12.5g %12.5g %12.5g%s%n",
+                    output.getLabel() + " (" + output.getUnit() + ")", statistics.getMean(),
+                    statistics.getStandardDeviation(), statistics.getMin(), statistics.getQuantile(0.05),
+                    statistics.getQuantile(0.5), statistics.getQuantile(0.95), statistics.getMax(),
+                    statistics.getInvalidCount() > 0 ? "  (" + statistics.getInvalidCount() + " non-finite)" : "");
+        }
+        String outputFile = properties.getProperty("output");
+        if (outputFile != null && !outputFile.isBlank() && !outputFile.equals("-")) {
+            try (Writer writer = Files.newBufferedWriter(Path.of(outputFile), StandardCharsets.UTF_8)) {
+                writer.write("Output,BinStart,BinEnd,Count\n");
+                for (MonteCarloAnalysis.Output output : MonteCarloAnalysis.Output.values()) {
+                    StreamingStatistics statistics = result.get(output);
+                    long[] histogram = statistics.histogram(bins);
+                    double width = (statistics.getMax() - statistics.getMin()) / bins;
+                    for (int b = 0; b < histogram.length; b++) {
+                        writer.write(output.getLabel() + "," + (statistics.getMin() + b * width) + ","
+                                + (statistics.getMin() + (b + 1) * width) + "," + histogram[b] + "\n");
+                    }
+                }
+            }
+            System.out.println("Histograms (" + bins + " bins) written to " + outputFile);
+        }
+    }
+
+    private HeadlessMonteCarlo() {
+    }
+}
@@ -0,0 +1,112 @@
+package code.hybrid_bearing_system.design;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Properties;
+
+/// mode=multirate of HeadlessRunner: a MultiRateSimulation, timed against the uniform fine step.
+final class HeadlessMultiRate {
+    /// Untimed mechanical steps per run before a multi-rate comparison, 1 s at the default 20 µs
+    private static final long WARM_UP_STEPS = 50_000;
+
+    /// Runs the job as a multi-rate co-simulation, writing the job's channels every sample spacing,
+    /// then (unless compare=false) the same job at the uniform fine step for the speedup. Both
+    /// share the engine and integrator code, so for a fair speedup both are first warmed up on
+    /// throwaway copies; otherwise the first run timed pays the JIT compilation of the second.
+    static void run(MultiRateSimulation simulation, Properties properties) throws IOException {
+        SimulationJob job = simulation.getJob();
+        boolean compare = Boolean.parseBoolean(properties.getProperty("compare", "true"));
+        if (compare) {
+            warmUp(simulation.copy());
+            warmUp(simulation.uniform());
+        }
+        boolean csvToStdout = !job.getOutputChannels().isEmpty()
+                && (job.getOutputFile() == null || job.getOutputFile().equals("-"));
+        long elapsed;
+        if (job.getOutputChannels().isEmpty()) {
+            elapsed = simulate(simulation, null);
+        } else if (csvToStdout) {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+            elapsed = simulate(simulation, writer);
+            writer.flush();
+        } else {
+            try (Writer writer = Files.newBufferedWriter(Path.of(job.getOutputFile()), StandardCharsets.UTF_8)) {
+                elapsed = simulate(simulation, writer);
+            }
+        }
+        PrintStream out = csvToStdout ? System.err : System.out;
+        print(out, "Multi-rate", simulation, elapsed);
+        if (!compare) {
+            return;
+        }
+        MultiRateSimulation uniform = simulation.uniform();
+        long uniformElapsed = simulate(uniform, null);
+        print(out, "Uniform fine step", uniform, uniformElapsed);
+        PhysicsEngine physics = simulation.getPhysicsEngine();
+        PhysicsEngine reference = uniform.getPhysicsEngine();
+        out.printf("Speedup %.2fx; differences: temperature %.3g °C, energy loss %.3g J, RMS displacement %.3g m%n",
+                (double) uniformElapsed / elapsed, physics.getTemperature() - reference.getTemperature(),
+                physics.getEnergyLoss() - reference.getEnergyLoss(),
+                simulation.getRmsDisplacement() - uniform.getRmsDisplacement());
+    }
+
+    private static void warmUp(MultiRateSimulation simulation) {
+        long steps = Math.min(simulation.getDurationSteps(), WARM_UP_STEPS);
+        for (long i = 0; i < steps; i++) {
+            simulation.step();
+        }
+    }
+
+    private static long simulate(MultiRateSimulation simulation, Writer output) throws IOException {
+        List<OutputChannel> channels = simulation.getJob().getOutputChannels();
+        long steps = simulation.getDurationSteps();
+        long sampleSteps = simulation.getSampleSteps();
+        StringBuilder line = new StringBuilder(128);
+        if (output != null) {
+            line.append("Time");
+            for (OutputChannel channel : channels) {
+                line.append(',').append(channel.getLabel());
+            }
+            output.write(line.append('\n').toString());
+        }
+        long start = System.nanoTime();
+        for (long i = 1; i <= steps; i++) {
+            simulation.step();
+            if (output != null && i % sampleSteps == 0) {
+                line.setLength(0);
+                line.append(simulation.getTime());
+                for (OutputChannel channel : channels) {
+                    line.append(',').append(channel.read(simulation.getPhysicsEngine()));
+                }
+                output.write(line.append('\n').toString());
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static void print(PrintStream out, String label, MultiRateSimulation simulation, long elapsed) {
+        PhysicsEngine physics = simulation.getPhysicsEngine();
+        out.printf("%s: %.6g s simulated in %.3f s (%.3g simulated s/s)%n", label, simulation.getTime(), elapsed / 1e9,
+                simulation.getTime() * 1e9 / elapsed);
+        out.printf("  %d mechanical steps of %.3g s (%s), %d %s updates every %.3g s, %d thermal updates every %.3g s%n",
+                simulation.getStepCount(), simulation.getMechanicalStep(), physics.getIntegrator().getName(),
+                simulation.getControlUpdates(), simulation.getControlSystem().getController().getName(),
+                simulation.getControlPeriod(), simulation.getThermalUpdates(),
+                simulation.getThermalStep());
+        out.printf("  Temperature %.4f °C, energy loss %.6g J, peak displacement %.4g m, RMS displacement %.4g m%n",
+                physics.getTemperature(), physics.getEnergyLoss(), simulation.getPeakDisplacement(),
+                simulation.getRmsDisplacement());
+        HeadlessRunner.printThermalNetwork(out, physics);
+        HeadlessRunner.printLoadDistribution(out, physics);
+    }
+
+    private HeadlessMultiRate() {
+    }
+}
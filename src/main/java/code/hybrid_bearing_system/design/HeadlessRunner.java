@@ -0,0 +1,394 @@
+package code.hybrid_bearing_system.design;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+/// Command-line entry point that runs the physics/control loop without JavaFX.
+/// Run it on the class path so the JavaFX modules are never resolved:
+/// java -cp classes code.hybrid_bearing_system.design.HeadlessRunner --job=job.properties duration=60
+/// It parses the arguments and runs mode=run itself; every other mode lives in its own Headless*
+/// class (HeadlessSweep, HeadlessEnsemble, ...).
+public class HeadlessRunner {
+    public static void main(String[] args) {
+        if (args.length == 1 && (args[0].equals("--help") || args[0].equals("-h"))) {
+            printUsage(System.out);
+            return;
+        }
+        Properties properties;
+        try {
+            properties = parseArguments(args);
+        } catch (IllegalArgumentException | IOException e) {
+            System.err.println("Error: " + e.getMessage());
+            printUsage(System.err);
+            System.exit(1);
+            return;
+        }
+        Instrumentation.start();
+        String mode = properties.getProperty("mode", "run");
+        try {
+            switch (mode) {
+                case "run":
+                    runJob(SimulationJob.fromProperties(properties));
+                    break;
+                case "sweep":
+                    HeadlessSweep.run(ParameterSweep.fromProperties(properties), properties);
+                    break;
+                case "integrators":
+                    HeadlessIntegrators.run(SimulationJob.fromProperties(properties));
+                    break;
+                case "ensemble":
+                    HeadlessEnsemble.run(ParameterSweep.fromProperties(properties), properties);
+                    break;
+                case "convert":
+                    HeadlessConvert.run(properties);
+                    break;
+                case "modes":
+                    HeadlessModes.run(SimulationJob.fromProperties(properties), properties);
+                    break;
+                case "campbell":
+                    HeadlessCampbell.run(CampbellDiagram.fromProperties(properties), properties);
+                    break;
+                case "multirate":
+                    HeadlessMultiRate.run(MultiRateSimulation.fromProperties(properties), properties);
+                    break;
+                case "tune":
+                    HeadlessTuner.run(PidAutoTuner.fromProperties(properties), properties);
+                    break;
+                case "montecarlo":
+                    HeadlessMonteCarlo.run(MonteCarloAnalysis.fromProperties(properties), properties);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown mode: " + mode);
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            printUsage(System.err);
+            System.exit(1);
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("Error writing output: " + e.getMessage());
+            System.exit(2);
+        }
+    }
+
+    private static void runJob(SimulationJob job) throws IOException {
+        boolean csvToStdout = !job.getOutputChannels().isEmpty()
+                && (job.getOutputFile() == null || job.getOutputFile().equals("-"));
+        RunReport result;
+        if (job.getOutputChannels().isEmpty()) {
+            result = run(job, null);
+        } else if (csvToStdout) {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+            result = run(job, writer);
+            writer.flush();
+        } else {
+            try (Writer writer = Files.newBufferedWriter(Path.of(job.getOutputFile()), StandardCharsets.UTF_8)) {
+                result = run(job, writer);
+            }
+        }
+        result.print(csvToStdout ? System.err : System.out);
+        if (Instrumentation.ENABLED) {
+            System.err.println(Instrumentation.summary());
+        }
+    }
+
+    static Properties parseArguments(String[] args) throws IOException {
+        Properties properties = new Properties();
+        for (String arg : args) {
+            if (arg.startsWith("--job=")) {
+                try (var reader = Files.newBufferedReader(Path.of(arg.substring("--job=".length())))) {
+                    properties.load(reader);
+                }
+            } else {
+                int separator = arg.indexOf('=');
+                if (separator <= 0) {
+                    throw new IllegalArgumentException("Expected key=value but got: " + arg);
+                }
+                properties.setProperty(arg.substring(0, separator), arg.substring(separator + 1));
+            }
+        }
+        return properties;
+    }
+
+    /// Final rolling-element loads of the engine's load distribution, if it has one
+    static void printLoadDistribution(PrintStream out, PhysicsEngine physics) {
+        LoadDistribution loads = physics.getLoadDistribution();
+        if (loads == null) {
+            return;
+        }
+        int peak = 0;
+        for (int j = 1; j < loads.getBallCount(); j++) {
+            if (loads.getLoad(j) > loads.getLoad(peak)) {
+                peak = j;
+            }
+        }
+        out.printf("Rolling elements: %d of %d loaded, max load %.1f N, contact ellipse %.3f x %.3f mm, "
+                        + "max pressure %.3f GPa, %.2f Newton iterations/step%n",
+                loads.getLoadedBalls(), loads.getBallCount(), loads.getMaxLoad(), loads.getSemiMajorAxis(peak) * 1e3,
+                loads.getSemiMinorAxis(peak) * 1e3, loads.getMaxPressure() / 1e9, loads.getMeanIterations());
+    }
+
+    /// Node temperatures of the engine's thermal network, if it has one
+    static void printThermalNetwork(PrintStream out, PhysicsEngine physics) {
+        ThermalNetwork network = physics.getThermalNetwork();
+        if (network == null) {
+            return;
+        }
+        StringBuilder nodes = new StringBuilder();
+        for (int i = 0; i < network.getNodeCount(); i++) {
+            nodes.append(String.format(" %s%s %.2f", network.getNodeName(i), i == network.getSensor() ? "*" : "",
+                    network.getTemperature(i)));
+        }
+        out.printf("Thermal network (°C, * sensor, bandwidth %d):%s%n", network.getBandwidth(), nodes);
+    }
+
+    /// Runs the job to completion as fast as possible. When output is non-null, every
+    /// sampleInterval-th step is written as a CSV row of the job's output channels.
+    /// When the job names a telemetry file, every step is also recorded there on all channels.
+    /// If the job sets a spectrum window, the rotor displacement is also spectrum-analyzed,
+    /// and if it sets fatigue levels, stress cycles and load spectrum are counted for life.
+    public static RunReport run(SimulationJob job, Writer output) throws IOException {
+        SimulationLoop loop = job.createLoop();
+        if (job.getSpectrumWindow() > 0) {
+            loop.setSpectrumAnalyzer(new SpectrumAnalyzer(job.getSpectrumWindow(),
+                    1.0 / loop.getPhysicsEngine().getTimeStep(), SpectrumAnalyzer.DEFAULT_HARMONICS));
+        }
+        loop.setFatigueLife(job.createFatigueLife(loop.getBearingModel().getProfile()));
+        if (job.getRestoreFile() != null) {
+            SimulationCheckpoint checkpoint;
+            try {
+                checkpoint = SimulationCheckpoint.read(Path.of(job.getRestoreFile()));
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Cannot read checkpoint " + job.getRestoreFile() + ": " + e.getMessage());
+            }
+            checkpoint.restore(loop);
+        }
+        CheckpointWriter checkpoints = job.getCheckpointFile() == null ? null
+                : new CheckpointWriter(Path.of(job.getCheckpointFile()));
+        if (checkpoints != null) {
+            loop.setCheckpointWriter(checkpoints, job.getCheckpointInterval());
+        }
+        List<OutputChannel> channels = job.getOutputChannels();
+        /// A restored run continues to the job's total duration
+        long steps = Math.max(0, job.getStepCount() - loop.getStepCount());
+        int sampleInterval = job.getSampleInterval();
+        StringBuilder line = new StringBuilder(128);
+        if (output != null) {
+            line.append("Time");
+            for (OutputChannel channel : channels) {
+                line.append(',').append(channel.getLabel());
+            }
+            output.write(line.append('\n').toString());
+        }
+        TelemetryRecorder recorder = job.getTelemetryFile() == null ? null
+                : new TelemetryRecorder(Path.of(job.getTelemetryFile()), Arrays.asList(OutputChannel.values()));
+        long halfway = steps / 2;
+        long allocatedAtHalfway = 0;
+        long start = System.nanoTime();
+        for (long i = 0; i < steps; i++) {
+            if (i == halfway) {
+                allocatedAtHalfway = allocatedBytes();
+            }
+            loop.step();
+            if (recorder != null) {
+                recorder.record(loop.getTime(), loop.getPhysicsEngine());
+            }
+            if (output != null && (i + 1) % sampleInterval == 0) {
+                line.setLength(0);
+                line.append(loop.getTime());
+                for (OutputChannel channel : channels) {
+                    line.append(',').append(channel.read(loop.getPhysicsEngine()));
+                }
+                output.write(line.append('\n').toString());
+                if (Instrumentation.ENABLED) {
+                    Instrumentation.exportedBytes(line.length());
+                }
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        /// Steady-state allocation is measured over the second half of the run, after warm-up
+        double bytesPerStep = steps - halfway > 0 && allocatedAtHalfway >= 0
+                ? (double) (allocatedBytes() - allocatedAtHalfway) / (steps - halfway) : Double.NaN;
+        if (recorder != null) {
+            recorder.close();
+        }
+        if (checkpoints != null) {
+            loop.setCheckpointWriter(null, 0);
+            checkpoints.offer(SimulationCheckpoint.capture(loop));
+            checkpoints.close();
+        }
+        return new RunReport(job, loop, steps, elapsed, bytesPerStep, recorder);
+    }
+
+    /// Bytes allocated so far by the calling thread, or -1 when the JVM cannot report it.
+    static long allocatedBytes() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+
+    private static void printUsage(PrintStream out) {
+        out.println("Usage: HeadlessRunner [--job=file.properties] [mode=run|sweep|ensemble|montecarlo|tune|multirate|modes|campbell|integrators|convert] [key=value ...]");
+        out.println("Keys: bearingType (Magnetic|Ceramic|Hybrid), spindleSpeed, load, youngsModulus, mass, material,");
+        out.println("      kp, ki, kd, duration (s), channels (comma separated), output (file or -), sampleInterval,");
+        out.println("      integrator (rk4|euler|verlet|dopri5), timeStep (s), rtol, atol, controller (pid|lqr),");
+        out.println("      telemetry (binary .hbt file recording every step on all channels),");
+        out.println("      actuator (closedForm, the default, or tabulated for the saturating electromagnet pair),");
+        out.println("      forceMap (CSV of gap,current,force,flux for one actuator magnet on a regular grid, implies tabulated),");
+        out.println("      spectrumWindow (samples per displacement FFT window, power of two, e.g. 256; 0, the default, disables),");
+        out.println("      checkpoint (.hbc file), checkpointInterval (simulated s), restore (.hbc file to resume from),");
+        out.println("      thermalNetwork (bearing for the 7-node bearing network, or a .properties file of node.<name>,");
+        out.println("      link.<a>.<b>, ambient.<name>, heat.<name> and sensor entries; solved implicitly),");
+        out.println("      loadDistribution=true (Hertzian stress from per-ball loads) with ballCount, ballDiameter (m),");
+        out.println("      pitchDiameter (m), contactAngle (degrees), clearance (diametral, m); the geometry also sets the");
+        out.println("      ISO 281 load rating for the fatigue estimate: fatigueLevels (rainflow and load spectrum levels,");
+        out.println("      e.g. 512; 0, the default, disables), contamination (e_C, 0..1), viscosityRatio (kappa)");
+        out.println("Convert: mode=convert input=file.hbt output=file.csv converts a telemetry file to CSV");
+        out.println("Integrators: mode=integrators compares dopri5 at rtol/atol with fixed-step RK4 of equal accuracy");
+        out.println("Sweep: mode=sweep threads=N; bearingType and numeric keys take lists a,b,c or ranges start:end:count;");
+        out.println("      cache=true reuses results of identical cases from earlier runs (see -Dhybrid.bearing.cache)");
+        out.println("Ensemble: mode=ensemble bearings=N verify=true|false, configurations cycle through the sweep grid;");
+        out.println("      rotors start spread over +-offset (m, default 0.001) and verify=true exits with status 3");
+        out.println("      unless every quantity matches PhysicsEngine to tolerance (relative to its largest magnitude, default 1e-9)");
+        out.println("Monte Carlo: mode=montecarlo samples=N seed=S threads=N output=histograms.csv bins=N,");
+        out.println("      loadTolerance, modulusTolerance, massTolerance, speedTolerance (relative 1 sigma, below 0.333)");
+        out.println("Tune: mode=tune population=N generations=N seed=S offset=m threads=N searches kp/ki/kd by differential");
+        out.println("      evolution on a disturbance rejection run of duration s (default 2) from the rotor displaced by offset,");
+        out.println("      with fixed-step integrators at a timeStep of at most 1e-4 s; keeps the starting gains unless 1 % better;");
+        out.println("      settlingWeight, overshootWeight, effortWeight, rmsWeight weigh the cost terms");
+        out.println("Multi-rate: mode=multirate mechanicalStep=s controlPeriod=s thermalStep=s compare=true|false advances the");
+        out.println("      rotor with dopri5 over each control period (or subcycles it at mechanicalStep with a fixed-step");
+        out.println("      integrator), holds the control force per control period and updates temperature every thermal step;");
+        out.println("      compare=true also runs every subsystem at a 20 us RK4 step and reports the speedup");
+        out.println("Modes: mode=modes modes=N elements=N solves the finite-element spindle's lowest natural frequencies");
+        out.println("Campbell: mode=campbell minSpeed=RPM maxSpeed=RPM speedPoints=N modes=N elements=N threads=N");
+        out.println("      output=whirl.csv, reports the critical speeds where forward whirl crosses the 1X line");
+        out.println("Instrumentation: -Dhybrid.bearing.instrumentation=true records hot-path latencies (JMX),");
+        out.println("      -Dhybrid.bearing.instrumentation.log=N also logs a summary to stderr every N seconds");
+        out.println("Materials: " + String.join(", ", MaterialDatabase.getDefault().getKeys()));
+        out.print("Channels:");
+        for (OutputChannel channel : OutputChannel.values()) {
+            out.print(" " + channel.getLabel());
+        }
+        out.println();
+    }
+
+    public static class RunReport {
+        private final SimulationJob job;
+        private final SimulationLoop loop;
+        private final long steps;
+        private final long elapsedNanos;
+        private final double bytesPerStep;
+        private final TelemetryRecorder telemetry;
+
+        RunReport(SimulationJob job, SimulationLoop loop, long steps, long elapsedNanos, double bytesPerStep,
+                  TelemetryRecorder telemetry) {
+            this.job = job;
+            this.loop = loop;
+            this.steps = steps;
+            this.elapsedNanos = elapsedNanos;
+            this.bytesPerStep = bytesPerStep;
+            this.telemetry = telemetry;
+        }
+
+        public double getStepsPerSecond() {
+            return elapsedNanos > 0 ? steps * 1e9 / elapsedNanos : 0.0;
+        }
+
+        public void print(PrintStream out) {
+            PhysicsEngine physics = loop.getPhysicsEngine();
+            out.printf("Bearing: %s, %.0f RPM, %.0f N, %.0f GPa, %s%n",
+                    job.getBearingType(), job.getSpindleSpeed(), job.getLoad(), job.getYoungsModulus(), job.getMaterial());
+            out.printf("Simulated %.2f s in %d steps (%s, %s), wall time %.3f s, %.0f steps/s%n",
+                    loop.getTime(), steps, loop.getPhysicsEngine().getIntegrator().getName(),
+                    loop.getControlSystem().getController().getName(),
+                    elapsedNanos / 1e9, getStepsPerSecond());
+            if (loop.getPhysicsEngine().getIntegrator() instanceof DormandPrinceIntegrator) {
+                DormandPrinceIntegrator adaptive = (DormandPrinceIntegrator) loop.getPhysicsEngine().getIntegrator();
+                out.printf("Adaptive steps: %d accepted, %d rejected, %d evaluations%n",
+                        adaptive.getAcceptedSteps(), adaptive.getRejectedSteps(), adaptive.getEvaluations());
+            }
+            out.printf("Steady-state allocation: %.1f bytes/step%s%n", bytesPerStep,
+                    job.getOutputChannels().isEmpty() ? "" : " (includes CSV output)");
+            if (telemetry != null) {
+                out.printf("Telemetry: %d samples recorded, %d dropped, %d backpressure events, %d blocks (%.1f MB) written to %s%n",
+                        telemetry.getRecordedSamples(), telemetry.getDroppedSamples(), telemetry.getBackpressureEvents(),
+                        telemetry.getWrittenBlocks(), telemetry.getWrittenBytes() / 1e6, job.getTelemetryFile());
+            }
+            SpectrumAnalyzer spectrum = loop.getSpectrumAnalyzer();
+            if (spectrum != null) {
+                printSpectrum(out, spectrum);
+            }
+            out.printf("Final: displacement %.6f m, temperature %.2f °C, energy loss %.2f J, stress %.2f MPa%n",
+                    physics.getRotorDisplacement(), physics.getTemperature(), physics.getEnergyLoss(), physics.getStress() / 1e6);
+            printThermalNetwork(out, physics);
+            printLoadDistribution(out, physics);
+            FatigueLife fatigue = loop.getFatigueLife();
+            if (fatigue != null) {
+                printFatigue(out, fatigue);
+            }
+        }
+
+        private static void printFatigue(PrintStream out, FatigueLife fatigue) {
+            RainflowCounter rainflow = fatigue.getRainflow();
+            out.printf("Rainflow: %.1f stress cycles (%d open), Miner damage %.3g, stress-cycle life %.4g h%n",
+                    rainflow.getCycleCount(), rainflow.getResidueSize(), fatigue.getDamage(),
+                    fatigue.getStressCycleLife() / 3600);
+            if (fatigue.getTotalRevolutions() == 0) {
+                out.println("Rating life: no revolutions under load");
+                return;
+            }
+            if (fatigue.getEquivalentLoad() == 0) {
+                out.println("Rating life: no load on the rolling elements");
+                return;
+            }
+            double rating = fatigue.getRatingLife();
+            double modified = fatigue.getModifiedRatingLife();
+            out.printf("Rating life: P %.1f N, C %.0f N, Cu %.0f N, a_ISO %.3g, L10 %.4g h, L10m %.4g h (%.4g million revolutions)%n",
+                    fatigue.getEquivalentLoad(), fatigue.getDynamicLoadRating(), fatigue.getFatigueLoadLimit(),
+                    fatigue.getLifeModificationFactor(), fatigue.toSeconds(rating) / 3600,
+                    fatigue.toSeconds(modified) / 3600, modified / 1e6);
+        }
+
+        private static void printSpectrum(PrintStream out, SpectrumAnalyzer spectrum) {
+            if (spectrum.getFrameCount() == 0) {
+                out.printf("Spectrum: run shorter than one %d-sample window%n", spectrum.getWindowSize());
+                return;
+            }
+            StringBuilder peaks = new StringBuilder();
+            for (int p = 0; p < spectrum.getPeakCount(); p++) {
+                peaks.append(String.format(" %.3f Hz (%.3g m)", spectrum.getPeakFrequency(p), spectrum.getPeakAmplitude(p)));
+            }
+            out.printf("Spectrum: %d-sample window, %.3f Hz bins, %d frames; peaks:%s%n", spectrum.getWindowSize(),
+                    spectrum.getBinWidth(), spectrum.getFrameCount(), peaks.length() > 0 ? peaks : " none");
+            StringBuilder harmonics = new StringBuilder();
+            for (int h = 0; h < spectrum.getHarmonicCount(); h++) {
+                harmonics.append(String.format(" %dX %.2f Hz", h + 1, spectrum.getHarmonicFrequency(h)));
+                if (spectrum.isAliased(h)) {
+                    harmonics.append(String.format(" (aliased to %.2f Hz)", spectrum.getTrackedFrequency(h)));
+                }
+                harmonics.append(String.format(" %.3g m;", spectrum.getHarmonicAmplitude(h)));
+            }
+            out.println("Spindle harmonics:" + harmonics);
+        }
+
+        public SimulationJob getJob() { return job; }
+        public SimulationLoop getLoop() { return loop; }
+        public long getSteps() { return steps; }
+        public long getElapsedNanos() { return elapsedNanos; }
+        public double getBytesPerStep() { return bytesPerStep; }
+        public TelemetryRecorder getTelemetry() { return telemetry; }
+    }
+}
@@ -0,0 +1,62 @@
+package code.hybrid_bearing_system.design;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+/// mode=sweep of HeadlessRunner: a ParameterSweep whose cases are written out as they finish.
+final class HeadlessSweep {
+    /// Streams one CSV row per finished case to the output file (or stdout) while the sweep runs.
+    static void run(ParameterSweep sweep, Properties properties) throws IOException {
+        int threads = Integer.parseInt(properties.getProperty("threads",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        String outputFile = properties.getProperty("output", "-");
+        boolean toStdout = outputFile.equals("-");
+        if (Boolean.parseBoolean(properties.getProperty("cache", "false"))) {
+            sweep.setCache(ResultCache.getDefault());
+        }
+        Writer writer = toStdout
+                ? new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16)
+                : Files.newBufferedWriter(Path.of(outputFile), StandardCharsets.UTF_8);
+        ParameterSweep.Statistics statistics;
+        try {
+            writer.write(SweepResult.CSV_HEADER + "\n");
+            statistics = sweep.run(threads, result -> {
+                synchronized (writer) {
+                    try {
+                        writer.write(result.toCsvRow() + "\n");
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            });
+        } finally {
+            if (toStdout) {
+                writer.flush();
+            } else {
+                writer.close();
+            }
+        }
+        PrintStream report = toStdout ? System.err : System.out;
+        report.printf("Swept %d cases on %d workers in %.3f s: %.1f cases/s, %.0f steps/s%n",
+                statistics.getCases(), statistics.getParallelism(), statistics.getElapsedNanos() / 1e9,
+                statistics.getCasesPerSecond(), statistics.getStepsPerSecond());
+        if (statistics.getCachedCases() > 0) {
+            report.printf("%d of them from the cache; steps/s counts only the %d steps integrated for the rest%n",
+                    statistics.getCachedCases(), statistics.getSteps());
+        }
+        if (sweep.getCache() != null) {
+            report.println(sweep.getCache().summary());
+        }
+    }
+
+    private HeadlessSweep() {
+    }
+}
@@ -0,0 +1,34 @@
+package code.hybrid_bearing_system.design;
+
+import java.util.Properties;
+
+/// mode=tune of HeadlessRunner: PID gains found by a PidAutoTuner.
+final class HeadlessTuner {
+    /// Differential evolution over the PID gains; prints the best gains with their metrics.
+    static void run(PidAutoTuner tuner, Properties properties) {
+        int threads = Integer.parseInt(properties.getProperty("threads",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        PidAutoTuner.Result result = tuner.run(threads);
+        PidAutoTuner.Score best = result.getBest();
+        System.out.printf("Tuned %d candidates (%d generations of %d, seed %d) on %d workers in %.3f s%n",
+                result.getEvaluations(), tuner.getGenerations(), tuner.getPopulation(), tuner.getSeed(),
+                result.getParallelism(), result.getElapsedNanos() / 1e9);
+        System.out.printf("Early termination: %d candidates aborted, %.1f %% of simulation steps skipped%n",
+                result.getAbortedEvaluations(), 100 * result.getSavedFraction());
+        if (result.isImproved()) {
+            System.out.printf("Best gains: kp=%.4g ki=%.4g kd=%.4g (cost %.5g)%n", best.getKp(), best.getKi(),
+                    best.getKd(), best.getCost());
+        } else {
+            System.out.printf("No improvement: no candidate costs %.0f %% less than the starting gains, keeping them%n",
+                    100 * PidAutoTuner.MIN_IMPROVEMENT);
+        }
+        System.out.printf("Settling time %.3f s, overshoot %.1f %%, effort %.4g, RMS displacement %.4g m%n",
+                best.getSettlingTime(), 100 * best.getOvershoot(), best.getEffort(), best.getRmsDisplacement());
+        PidAutoTuner.Score nominal = result.getNominal();
+        System.out.printf("Starting gains kp=%.4g ki=%.4g kd=%.4g: cost %.5g (candidates run at a %.3g s step)%n",
+                nominal.getKp(), nominal.getKi(), nominal.getKd(), nominal.getCost(), tuner.getEvaluationStep());
+    }
+
+    private HeadlessTuner() {
+    }
+}
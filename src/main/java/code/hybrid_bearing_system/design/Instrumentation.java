@@ -0,0 +1,141 @@
+package code.hybrid_bearing_system.design;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/// Opt-in latency and throughput instrumentation of the hot paths: physics and control steps,
+/// dashboard frames and CSV export. Enabled with -Dhybrid.bearing.instrumentation=true; the
+/// flag is a static final constant, so with it off the JIT removes every guarded call site and
+/// the hot paths run exactly as uninstrumented code.
+///
+/// start() publishes the histograms and counters as JMX MBeans and samples rates once a second;
+/// -Dhybrid.bearing.instrumentation.log=N also prints a summary line to stderr every N seconds.
+public final class Instrumentation implements InstrumentationMXBean {
+    public static final boolean ENABLED = Boolean.getBoolean("hybrid.bearing.instrumentation");
+    public static final String DOMAIN = "code.hybrid_bearing_system.design";
+    /// Nominal display refresh period; a frame arriving more than 1.5 periods late counts the
+    /// missed periods as dropped frames
+    private static final long FRAME_PERIOD_NANOS = 1_000_000_000L / 60;
+
+    public static final LatencyHistogram PHYSICS_UPDATE = new LatencyHistogram("PhysicsUpdate");
+    public static final LatencyHistogram CONTROL_UPDATE = new LatencyHistogram("ControlUpdate");
+    public static final LatencyHistogram RENDER = new LatencyHistogram("Render");
+    public static final LatencyHistogram CSV_EXPORT = new LatencyHistogram("CsvExport");
+    private static final List<LatencyHistogram> HISTOGRAMS = List.of(PHYSICS_UPDATE, CONTROL_UPDATE, RENDER, CSV_EXPORT);
+
+    private static final Instrumentation INSTANCE = new Instrumentation();
+    private static final AtomicBoolean STARTED = new AtomicBoolean();
+
+    private final LongAdder droppedFrames = new LongAdder();
+    private final LongAdder exportBytes = new LongAdder();
+    /// Only touched by the JavaFX thread
+    private long lastFrameNanos;
+    /// Rates from the most recent one-second sample, written by the sampling thread
+    private volatile double stepsPerSecond;
+    private volatile double framesPerSecond;
+    private volatile double exportBytesPerSecond;
+    private long sampleNanos;
+    private long sampleSteps;
+    private long sampleFrames;
+    private long sampleBytes;
+
+    private Instrumentation() {
+    }
+
+    /// Registers the MBeans and starts the sampling thread; does nothing when disabled or
+    /// already started.
+    public static void start() {
+        if (!ENABLED || !STARTED.compareAndSet(false, true)) {
+            return;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.registerMBean(INSTANCE, new ObjectName(DOMAIN + ":type=Instrumentation"));
+            for (LatencyHistogram histogram : HISTOGRAMS) {
+                server.registerMBean(histogram, new ObjectName(DOMAIN + ":type=Latency,name=" + histogram.getName()));
+            }
+        } catch (JMException e) {
+            System.err.println("Could not register instrumentation MBeans: " + e.getMessage());
+        }
+        long logSeconds = Long.getLong("hybrid.bearing.instrumentation.log", 0L);
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "instrumentation");
+            thread.setDaemon(true);
+            return thread;
+        });
+        INSTANCE.sample();
+        sampler.scheduleAtFixedRate(INSTANCE::sample, 1, 1, TimeUnit.SECONDS);
+        if (logSeconds > 0) {
+            sampler.scheduleAtFixedRate(() -> System.err.println(summary()), logSeconds, logSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    /// Called by the dashboard once per rendered frame with the AnimationTimer timestamp and the
+    /// time spent rendering.
+    public static void frameRendered(long frameNanos, long renderNanos) {
+        RENDER.record(renderNanos);
+        long last = INSTANCE.lastFrameNanos;
+        INSTANCE.lastFrameNanos = frameNanos;
+        if (last != 0 && frameNanos - last > FRAME_PERIOD_NANOS * 3 / 2) {
+            INSTANCE.droppedFrames.add((frameNanos - last + FRAME_PERIOD_NANOS / 2) / FRAME_PERIOD_NANOS - 1);
+        }
+    }
+
+    public static void exportedBytes(long bytes) {
+        INSTANCE.exportBytes.add(bytes);
+    }
+
+    /// Rates and latency percentiles on one line
+    public static String summary() {
+        StringBuilder line = new StringBuilder(String.format(
+                "Instrumentation: %.0f steps/s, %.1f frames/s (%d dropped), export %.0f B/s",
+                INSTANCE.stepsPerSecond, INSTANCE.framesPerSecond, INSTANCE.getDroppedFrames(),
+                INSTANCE.exportBytesPerSecond));
+        for (LatencyHistogram histogram : HISTOGRAMS) {
+            if (histogram.getCount() > 0) {
+                line.append("; ").append(histogram.summary());
+            }
+        }
+        return line.toString();
+    }
+
+    private void sample() {
+        long now = System.nanoTime();
+        long steps = getSteps();
+        long frames = getFrames();
+        long bytes = getExportBytes();
+        if (sampleNanos != 0) {
+            double seconds = (now - sampleNanos) / 1e9;
+            stepsPerSecond = (steps - sampleSteps) / seconds;
+            framesPerSecond = (frames - sampleFrames) / seconds;
+            exportBytesPerSecond = (bytes - sampleBytes) / seconds;
+        }
+        sampleNanos = now;
+        sampleSteps = steps;
+        sampleFrames = frames;
+        sampleBytes = bytes;
+    }
+
+    @Override
+    public double getStepsPerSecond() { return stepsPerSecond; }
+    @Override
+    public double getFramesPerSecond() { return framesPerSecond; }
+    @Override
+    public double getExportBytesPerSecond() { return exportBytesPerSecond; }
+    @Override
+    public long getSteps() { return PHYSICS_UPDATE.getCount(); }
+    @Override
+    public long getFrames() { return RENDER.getCount(); }
+    @Override
+    public long getDroppedFrames() { return droppedFrames.sum(); }
+    @Override
+    public long getExportBytes() { return exportBytes.sum(); }
+}
@@ -0,0 +1,13 @@
+package code.hybrid_bearing_system.design;
+
+/// JMX view of the hot-path throughput counters, registered as
+/// code.hybrid_bearing_system.design:type=Instrumentation. Rates cover the last sampling second.
+public interface InstrumentationMXBean {
+    double getStepsPerSecond();
+    double getFramesPerSecond();
+    double getExportBytesPerSecond();
+    long getSteps();
+    long getFrames();
+    long getDroppedFrames();
+    long getExportBytes();
+}
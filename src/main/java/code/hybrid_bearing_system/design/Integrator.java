@@ -0,0 +1,23 @@
+package code.hybrid_bearing_system.design;
+
+/// Advances a state vector in place. Implementations keep their stage buffers between calls, so
+/// steady-state stepping allocates nothing. Second-order integrators expect the state laid out as
+/// [positions..., velocities...] with the derivative of the velocities being the accelerations.
+public interface Integrator {
+    void step(StateDerivative system, double[] state, double dt);
+
+    /// Forgets any history carried between steps (e.g. adaptive step size proposals).
+    default void reset() {
+    }
+
+    /// History carried between steps as exact values, for checkpoints; empty when there is none.
+    default double[] getHistory() {
+        return new double[0];
+    }
+
+    /// Restores history returned by getHistory() of an integrator with the same name.
+    default void setHistory(double[] history) {
+    }
+
+    String getName();
+}
@@ -0,0 +1,43 @@
+package code.hybrid_bearing_system.design;
+
+/// Integrators selectable per run by name.
+public enum IntegratorType {
+    RK4("rk4") {
+        @Override
+        public Integrator create() { return new RungeKutta4Integrator(); }
+    },
+    SEMI_IMPLICIT_EULER("euler") {
+        @Override
+        public Integrator create() { return new SemiImplicitEulerIntegrator(); }
+    },
+    VELOCITY_VERLET("verlet") {
+        @Override
+        public Integrator create() { return new VelocityVerletIntegrator(); }
+    },
+    DORMAND_PRINCE("dopri5") {
+        @Override
+        public Integrator create() { return new DormandPrinceIntegrator(); }
+    };
+
+    private final String key;
+
+    IntegratorType(String key) {
+        this.key = key;
+    }
+
+    public abstract Integrator create();
+
+    public String getKey() {
+        return key;
+    }
+
+    public static IntegratorType parse(String name) {
+        String key = name.trim();
+        for (IntegratorType type : values()) {
+            if (type.key.equalsIgnoreCase(key) || type.name().equalsIgnoreCase(key)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown integrator: " + name);
+    }
+}
@@ -0,0 +1,153 @@
+package code.hybrid_bearing_system.design;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/// Discrete linear Kalman filter with full covariance: n states, m measurements, p inputs,
+///
+///     x⁻ = Ad·x + Bd·u,      P⁻ = Ad·P·Adᵀ + Q
+///     S = H·P⁻·Hᵀ + R,       K = P⁻·Hᵀ·S⁻¹
+///     x = x⁻ + K·(z - H·x⁻), P = P⁻ - K·H·P⁻
+///
+/// All matrices and the scratch for every intermediate product are allocated up front, and S is
+/// solved by Cholesky factorization instead of being inverted, so predict() and correct()
+/// allocate nothing.
+public final class KalmanFilter {
+    private final int n;
+    private final int m;
+    private final int p;
+    private final double[] ad;
+    private final double[] bd;
+    private final double[] h;
+    private final double[] q;
+    private final double[] r;
+    private final double[] initialCovariance;
+    private final double[] state;
+    private final double[] covariance;
+    private final double[] predicted;
+    private final double[] product;
+    private final double[] hp;
+    private final double[] gain;
+    private final double[] s;
+    private final double[] innovation;
+
+    /// Matrices are row-major and copied; the state starts at zero with initialCovariance.
+    public KalmanFilter(double[] ad, double[] bd, double[] h, double[] q, double[] r, double[] initialCovariance,
+            int n, int m, int p) {
+        if (ad.length != n * n || bd.length != n * p || h.length != m * n || q.length != n * n
+                || r.length != m * m || initialCovariance.length != n * n) {
+            throw new IllegalArgumentException("Kalman filter matrices do not match " + n + " states, "
+                    + m + " measurements and " + p + " inputs");
+        }
+        this.n = n;
+        this.m = m;
+        this.p = p;
+        this.ad = ad.clone();
+        this.bd = bd.clone();
+        this.h = h.clone();
+        this.q = q.clone();
+        this.r = r.clone();
+        this.initialCovariance = initialCovariance.clone();
+        this.state = new double[n];
+        this.covariance = initialCovariance.clone();
+        this.predicted = new double[n];
+        this.product = new double[n * n];
+        this.hp = new double[m * n];
+        this.gain = new double[m * n];
+        this.s = new double[m * m];
+        this.innovation = new double[m];
+    }
+
+    /// Time update over one period with input u held constant
+    public void predict(double[] u) {
+        Matrices.multiplyVector(ad, state, predicted, n, n);
+        for (int i = 0; i < n; i++) {
+            double sum = predicted[i];
+            for (int j = 0; j < p; j++) {
+                sum += bd[i * p + j] * u[j];
+            }
+            state[i] = sum;
+        }
+        Matrices.multiply(ad, covariance, product, n, n, n);
+        Matrices.multiplyTransposed(product, ad, covariance, n, n, n);
+        for (int i = 0; i < covariance.length; i++) {
+            covariance[i] += q[i];
+        }
+    }
+
+    /// Measurement update with z; returns false, leaving the prediction, if S is not positive
+    /// definite.
+    public boolean correct(double[] z) {
+        Matrices.multiply(h, covariance, hp, m, n, n);
+        Matrices.multiplyTransposed(hp, h, s, m, n, m);
+        for (int i = 0; i < s.length; i++) {
+            s[i] += r[i];
+        }
+        Matrices.multiplyVector(h, state, innovation, m, n);
+        for (int i = 0; i < m; i++) {
+            innovation[i] = z[i] - innovation[i];
+        }
+        /// gain becomes S⁻¹·H·P⁻, which is Kᵀ because P⁻ and S are symmetric
+        System.arraycopy(hp, 0, gain, 0, gain.length);
+        if (!Matrices.choleskySolve(s, gain, m, n)) {
+            return false;
+        }
+        for (int i = 0; i < n; i++) {
+            double sum = 0.0;
+            for (int k = 0; k < m; k++) {
+                sum += gain[k * n + i] * innovation[k];
+            }
+            state[i] += sum;
+        }
+        /// P -= K·(H·P⁻)
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                double sum = 0.0;
+                for (int k = 0; k < m; k++) {
+                    sum += gain[k * n + i] * hp[k * n + j];
+                }
+                covariance[i * n + j] -= sum;
+            }
+        }
+        Matrices.symmetrize(covariance, n);
+        return true;
+    }
+
+    public void reset() {
+        Arrays.fill(state, 0.0);
+        System.arraycopy(initialCovariance, 0, covariance, 0, covariance.length);
+    }
+
+    /// Takes over the estimate of another filter of the same size, e.g. after a redesign
+    public void copyStateFrom(KalmanFilter other) {
+        System.arraycopy(other.state, 0, state, 0, n);
+        System.arraycopy(other.covariance, 0, covariance, 0, covariance.length);
+    }
+
+    void writeState(DataOutput out) throws IOException {
+        for (double value : state) {
+            out.writeDouble(value);
+        }
+        for (double value : covariance) {
+            out.writeDouble(value);
+        }
+    }
+
+    void readState(DataInput in) throws IOException {
+        for (int i = 0; i < n; i++) {
+            state[i] = in.readDouble();
+        }
+        for (int i = 0; i < covariance.length; i++) {
+            covariance[i] = in.readDouble();
+        }
+    }
+
+    /// Current estimate; the array is live and must not be modified
+    public double[] getState() { return state; }
+    public double getState(int index) { return state[index]; }
+    public double getCovariance(int row, int column) { return covariance[row * n + column]; }
+    public int getStateCount() { return n; }
+    public int getMeasurementCount() { return m; }
+}
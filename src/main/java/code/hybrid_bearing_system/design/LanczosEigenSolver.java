@@ -0,0 +1,308 @@
+package code.hybrid_bearing_system.design;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/// Eigenvalues of the symmetric generalized problem K·x = λ·M·x closest to a shift σ, by
+/// shift-invert Lanczos. (K - σM) is factored once, and each Lanczos step applies
+/// (K - σM)⁻¹·M with one banded solve, so the eigenvalues nearest σ converge first and the
+/// cost grows linearly with the number of degrees of freedom. Lanczos vectors are
+/// M-orthonormal and fully reorthogonalized; Ritz values are checked for convergence at
+/// growing intervals, and the run stops as soon as the requested pairs have converged.
+///
+/// The same iteration runs on any Operator that is self-adjoint in a positive definite inner
+/// product, optionally started from eigenvectors of a nearby problem.
+public class LanczosEigenSolver {
+    private static final double TOLERANCE = 1e-10;
+    private static final long START_SEED = 0x5EEDL;
+    /// Fewest Lanczos steps between two convergence checks
+    private static final int CHECK_INTERVAL = 5;
+    /// Weight of the random component added to a warm start, relative to the start vector
+    private static final double START_PERTURBATION = 0.01;
+
+    /// Linear operator S that is self-adjoint in the inner product xᵀ·W·y of a symmetric
+    /// positive definite W.
+    public interface Operator {
+        int getSize();
+
+        /// out = S·x, given x and weighted = W·x
+        void apply(double[] x, double[] weighted, double[] out);
+
+        /// out = W·x
+        void weight(double[] x, double[] out);
+    }
+
+    /// Returns the count eigenpairs nearest shift, ordered by eigenvalue. K and M must be
+    /// symmetric and M positive definite.
+    public Result solve(BandMatrix stiffness, BandMatrix mass, double shift, int count) {
+        int n = stiffness.getSize();
+        if (mass.getSize() != n) {
+            throw new IllegalArgumentException("Stiffness and mass matrices differ in size");
+        }
+        BandMatrix.Factorization factorization = BandMatrix.combine(1.0, stiffness, -shift, mass).factorize();
+        Operator operator = new Operator() {
+            @Override
+            public int getSize() { return n; }
+
+            @Override
+            public void apply(double[] x, double[] weighted, double[] out) {
+                System.arraycopy(weighted, 0, out, 0, n);
+                factorization.solve(out);
+            }
+
+            @Override
+            public void weight(double[] x, double[] out) { mass.multiply(x, out); }
+        };
+        /// Largest |θ| of (K - σM)⁻¹·M are nearest σ: λ = σ + 1/θ, listed in ascending order
+        Result ritz = solveLargest(operator, count, null);
+        Integer[] order = new Integer[count];
+        for (int k = 0; k < count; k++) {
+            order[k] = k;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(1 / ritz.getEigenvalue(a), 1 / ritz.getEigenvalue(b)));
+        double[] eigenvalues = new double[count];
+        double[][] eigenvectors = new double[count][];
+        for (int k = 0; k < count; k++) {
+            eigenvalues[k] = shift + 1 / ritz.getEigenvalue(order[k]);
+            eigenvectors[k] = ritz.getEigenvector(order[k]);
+        }
+        return new Result(eigenvalues, eigenvectors, ritz.getLanczosSteps());
+    }
+
+    /// Returns the count eigenpairs of the operator with the largest magnitude, in order of
+    /// decreasing magnitude, with W-normalized eigenvectors. The Krylov space grows from start,
+    /// or from a random vector when start is null; a combination of eigenvectors of a nearby
+    /// problem converges in fewer steps.
+    public Result solveLargest(Operator operator, int count, double[] start) {
+        int n = operator.getSize();
+        if (count < 1 || count > n) {
+            throw new IllegalArgumentException("Requested mode count must be between 1 and " + n + ": " + count);
+        }
+        List<double[]> basis = new ArrayList<>();
+        List<double[]> weightedBasis = new ArrayList<>();
+        double[] alpha = new double[n];
+        double[] beta = new double[n];
+        double[] q = startVector(operator, start);
+        double[] wq = new double[n];
+        operator.weight(q, wq);
+        basis.add(q);
+        weightedBasis.add(wq);
+        int m = 0;
+        int nextCheck = count;
+        while (true) {
+            double[] w = new double[n];
+            operator.apply(basis.get(m), weightedBasis.get(m), w);
+            alpha[m] = dot(weightedBasis.get(m), w);
+            /// Full reorthogonalization against every previous vector, done twice
+            for (int pass = 0; pass < 2; pass++) {
+                for (int i = 0; i <= m; i++) {
+                    axpy(-dot(weightedBasis.get(i), w), basis.get(i), w);
+                }
+            }
+            double[] ww = new double[n];
+            operator.weight(w, ww);
+            double b = Math.sqrt(Math.max(dot(w, ww), 0.0));
+            beta[m] = b;
+            m++;
+            boolean exhausted = b <= 1e-14 * Math.abs(alpha[m - 1]) || m == n;
+            if (exhausted || m >= nextCheck) {
+                Result result = ritzPairs(basis, alpha, beta, m, count, exhausted);
+                if (result != null) {
+                    return result;
+                }
+                if (exhausted) {
+                    throw new IllegalStateException("Lanczos found only " + m + " of " + count + " modes");
+                }
+                nextCheck = m + Math.max(CHECK_INTERVAL, m / 4);
+            }
+            scale(w, 1 / b);
+            scale(ww, 1 / b);
+            basis.add(w);
+            weightedBasis.add(ww);
+        }
+    }
+
+    /// W-normalized start: the given vector plus a small random component, so that no wanted
+    /// eigenvector is missing from the Krylov space, or a random vector alone.
+    private static double[] startVector(Operator operator, double[] start) {
+        int n = operator.getSize();
+        double[] random = new double[n];
+        SplittableRandom generator = new SplittableRandom(START_SEED);
+        for (int i = 0; i < n; i++) {
+            random[i] = generator.nextDouble() - 0.5;
+        }
+        normalize(operator, random);
+        if (start == null) {
+            return random;
+        }
+        double[] q = start.clone();
+        normalize(operator, q);
+        axpy(START_PERTURBATION, random, q);
+        normalize(operator, q);
+        return q;
+    }
+
+    private static void normalize(Operator operator, double[] x) {
+        double[] wx = new double[x.length];
+        operator.weight(x, wx);
+        double norm = Math.sqrt(dot(x, wx));
+        if (!(norm > 0)) {
+            throw new IllegalArgumentException("Start vector has no component in the inner product");
+        }
+        scale(x, 1 / norm);
+    }
+
+    /// Eigen-decomposes the tridiagonal T of the first m steps and returns the count Ritz pairs
+    /// of largest magnitude, or null while any of them has not converged.
+    private static Result ritzPairs(List<double[]> basis, double[] alpha, double[] beta, int m, int count,
+                                    boolean exhausted) {
+        if (m < count) {
+            return null;
+        }
+        double[] diagonal = Arrays.copyOf(alpha, m);
+        double[] offDiagonal = new double[m];
+        for (int i = 1; i < m; i++) {
+            offDiagonal[i] = beta[i - 1];
+        }
+        double[][] vectors = new double[m][m];
+        for (int i = 0; i < m; i++) {
+            vectors[i][i] = 1.0;
+        }
+        tridiagonalEigen(diagonal, offDiagonal, vectors);
+        Integer[] order = new Integer[m];
+        for (int i = 0; i < m; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(Math.abs(diagonal[b]), Math.abs(diagonal[a])));
+        double lastBeta = beta[m - 1];
+        for (int k = 0; k < count; k++) {
+            int i = order[k];
+            if (!exhausted && Math.abs(lastBeta * vectors[m - 1][i]) > TOLERANCE * Math.abs(diagonal[i])) {
+                return null;
+            }
+        }
+        int n = basis.get(0).length;
+        double[] eigenvalues = new double[count];
+        double[][] eigenvectors = new double[count][];
+        for (int k = 0; k < count; k++) {
+            int i = order[k];
+            eigenvalues[k] = diagonal[i];
+            double[] x = new double[n];
+            for (int j = 0; j < m; j++) {
+                axpy(vectors[j][i], basis.get(j), x);
+            }
+            eigenvectors[k] = x;
+        }
+        return new Result(eigenvalues, eigenvectors, m);
+    }
+
+    /// Symmetric tridiagonal QL with implicit shifts (after the EISPACK tql2 routine). On entry
+    /// d holds the diagonal and e[1..n-1] the subdiagonal; on exit d holds the eigenvalues and
+    /// the columns of v the eigenvectors (v must start as the identity).
+    static void tridiagonalEigen(double[] d, double[] e, double[][] v) {
+        int n = d.length;
+        for (int i = 1; i < n; i++) {
+            e[i - 1] = e[i];
+        }
+        e[n - 1] = 0.0;
+        double f = 0.0;
+        double tst1 = 0.0;
+        double eps = Math.ulp(1.0);
+        for (int l = 0; l < n; l++) {
+            tst1 = Math.max(tst1, Math.abs(d[l]) + Math.abs(e[l]));
+            int m = l;
+            while (m < n - 1 && Math.abs(e[m]) > eps * tst1) {
+                m++;
+            }
+            if (m > l) {
+                do {
+                    double g = d[l];
+                    double p = (d[l + 1] - g) / (2.0 * e[l]);
+                    double r = Math.hypot(p, 1.0);
+                    if (p < 0) {
+                        r = -r;
+                    }
+                    d[l] = e[l] / (p + r);
+                    d[l + 1] = e[l] * (p + r);
+                    double dl1 = d[l + 1];
+                    double h = g - d[l];
+                    for (int i = l + 2; i < n; i++) {
+                        d[i] -= h;
+                    }
+                    f += h;
+                    p = d[m];
+                    double c = 1.0;
+                    double c2 = c;
+                    double c3 = c;
+                    double el1 = e[l + 1];
+                    double s = 0.0;
+                    double s2 = 0.0;
+                    for (int i = m - 1; i >= l; i--) {
+                        c3 = c2;
+                        c2 = c;
+                        s2 = s;
+                        g = c * e[i];
+                        h = c * p;
+                        r = Math.hypot(p, e[i]);
+                        e[i + 1] = s * r;
+                        s = e[i] / r;
+                        c = p / r;
+                        p = c * d[i] - s * g;
+                        d[i + 1] = h + s * (c * g + s * d[i]);
+                        for (int k = 0; k < n; k++) {
+                            h = v[k][i + 1];
+                            v[k][i + 1] = s * v[k][i] + c * h;
+                            v[k][i] = c * v[k][i] - s * h;
+                        }
+                    }
+                    p = -s * s2 * c3 * el1 * e[l] / dl1;
+                    e[l] = s * p;
+                    d[l] = c * p;
+                } while (Math.abs(e[l]) > eps * tst1);
+            }
+            d[l] += f;
+            e[l] = 0.0;
+        }
+    }
+
+    static double dot(double[] a, double[] b) {
+        double sum = 0.0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    /// y += a·x
+    static void axpy(double a, double[] x, double[] y) {
+        for (int i = 0; i < y.length; i++) {
+            y[i] += a * x[i];
+        }
+    }
+
+    static void scale(double[] x, double factor) {
+        for (int i = 0; i < x.length; i++) {
+            x[i] *= factor;
+        }
+    }
+
+    public static class Result {
+        private final double[] eigenvalues;
+        private final double[][] eigenvectors;
+        private final int lanczosSteps;
+
+        Result(double[] eigenvalues, double[][] eigenvectors, int lanczosSteps) {
+            this.eigenvalues = eigenvalues;
+            this.eigenvectors = eigenvectors;
+            this.lanczosSteps = lanczosSteps;
+        }
+
+        public int getCount() { return eigenvalues.length; }
+        public double getEigenvalue(int mode) { return eigenvalues[mode]; }
+        /// M-normalized eigenvector; the array is shared, not copied
+        public double[] getEigenvector(int mode) { return eigenvectors[mode]; }
+        public int getLanczosSteps() { return lanczosSteps; }
+    }
+}
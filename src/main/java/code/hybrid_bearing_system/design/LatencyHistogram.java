@@ -0,0 +1,117 @@
+package code.hybrid_bearing_system.design;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/// Lock-free latency histogram with HDR-style log-linear buckets: values below 256 ns are
+/// counted exactly, larger ones in 128 linear sub-buckets per power of two, so any recorded
+/// latency from nanoseconds to hours is kept within 0.8 % in a fixed array. Any number of
+/// threads may record concurrently while others read percentiles.
+public final class LatencyHistogram implements LatencyHistogramMXBean {
+    private static final int SUB_BUCKET_BITS = 8;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int HALF = SUB_BUCKETS / 2;
+    /// Exact buckets, then HALF buckets for each power of two up to 2^62
+    private static final int BUCKETS = SUB_BUCKETS + (63 - SUB_BUCKET_BITS) * HALF;
+
+    private final String name;
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    /// Records one latency in nanoseconds; negative values count as zero.
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0L);
+        counts.incrementAndGet(index(value));
+        sum.addAndGet(value);
+        if (value > max.get()) {
+            max.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    /// Records the time elapsed since a System.nanoTime() reading.
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+        return SUB_BUCKETS + (shift - 1) * HALF + (int) (value >>> shift) - HALF;
+    }
+
+    /// Midpoint of the values counted in bucket index
+    static long midpoint(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) / HALF + 1;
+        long lowest = (long) ((index - SUB_BUCKETS) % HALF + HALF) << shift;
+        return lowest + (1L << shift) / 2;
+    }
+
+    /// Latency (ns) at quantile q in [0, 1], 0 when nothing was recorded
+    public long getValueAtQuantile(double q) {
+        long count = getCount();
+        if (count == 0) {
+            return 0L;
+        }
+        long rank = Math.max(1L, (long) Math.ceil(Math.min(Math.max(q, 0.0), 1.0) * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(midpoint(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0L);
+        }
+        sum.set(0L);
+        max.set(0L);
+    }
+
+    /// One-line summary in microseconds
+    public String summary() {
+        return String.format("%s n=%d mean %.2f p50 %.2f p99 %.2f p99.9 %.2f max %.2f us", name, getCount(),
+                getMeanMicros(), getP50Micros(), getP99Micros(), getP999Micros(), getMaxMicros());
+    }
+
+    @Override
+    public String getName() { return name; }
+    /// Sum of the buckets rather than a separate counter, so recording costs one atomic less
+    @Override
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+    @Override
+    public double getMeanMicros() {
+        long count = getCount();
+        return count > 0 ? sum.get() / 1e3 / count : 0.0;
+    }
+    @Override
+    public double getMaxMicros() { return max.get() / 1e3; }
+    @Override
+    public double getP50Micros() { return getValueAtQuantile(0.5) / 1e3; }
+    @Override
+    public double getP90Micros() { return getValueAtQuantile(0.9) / 1e3; }
+    @Override
+    public double getP99Micros() { return getValueAtQuantile(0.99) / 1e3; }
+    @Override
+    public double getP999Micros() { return getValueAtQuantile(0.999) / 1e3; }
+}
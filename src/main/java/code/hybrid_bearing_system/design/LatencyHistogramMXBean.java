@@ -0,0 +1,15 @@
+package code.hybrid_bearing_system.design;
+
+/// JMX view of one LatencyHistogram, registered as
+/// code.hybrid_bearing_system.design:type=Latency,name=...
+public interface LatencyHistogramMXBean {
+    String getName();
+    long getCount();
+    double getMeanMicros();
+    double getMaxMicros();
+    double getP50Micros();
+    double getP90Micros();
+    double getP99Micros();
+    double getP999Micros();
+    void reset();
+}
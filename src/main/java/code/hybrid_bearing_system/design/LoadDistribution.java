@@ -0,0 +1,434 @@
+package code.hybrid_bearing_system.design;
+
+import java.util.Properties;
+
+/// Radial load distribution over the rolling elements of a ball bearing with a fixed contact
+/// angle and diametral clearance. For an inner ring displacement (x, y) ball j at azimuth ψj is
+/// compressed along its contact normal by
+///
+///     δj = (x·cos ψj + y·sin ψj - c/2)·cos α
+///
+/// and carries the Hertzian load Qj = K·δj^1.5 while δj > 0, K combining the inner and outer raceway
+/// contacts in series. solve() finds the displacement at which the balls balance an applied radial
+/// force by Newton iteration on the 2×2 equilibrium, starting from the previous solution; between
+/// physics steps the load moves little and one or two iterations suffice. Equilibrium minimizes
+/// the convex potential energy, so steps are halved until the energy falls, which keeps the
+/// iteration converging while balls enter and leave contact. With a single ball loaded the
+/// Jacobian is singular, and the step across that ball's normal goes straight to the next ball's
+/// contact instead.
+///
+/// Contact constants use the Brewe-Hamrock approximations for the ellipticity and elliptic
+/// integrals, so the ellipse semi-axes and maximum pressure of each ball scale as Qj^(1/3) with
+/// coefficients computed once per modulus. They are reported for the more heavily stressed
+/// raceway. Deflections and loads live in primitive arrays indexed by ball, and the pass over the
+/// balls in each iteration is branch-free.
+public class LoadDistribution {
+    public static final int DEFAULT_BALL_COUNT = 12;
+    /// Ball and pitch diameters (m), contact angle (degrees) and diametral clearance (m)
+    public static final double DEFAULT_BALL_DIAMETER = 0.008;
+    public static final double DEFAULT_PITCH_DIAMETER = 0.05;
+    public static final double DEFAULT_CONTACT_ANGLE = 15.0;
+    public static final double DEFAULT_CLEARANCE = 5e-6;
+    /// Raceway groove radius over ball diameter
+    private static final double INNER_CONFORMITY = 0.52;
+    private static final double OUTER_CONFORMITY = 0.53;
+    /// Force residual relative to the applied force at which Newton iteration stops
+    private static final double TOLERANCE = 1e-10;
+    private static final int MAX_ITERATIONS = 50;
+    private static final int MAX_BACKTRACKS = 10;
+    /// ISO 281 factor f_c of single-row radial ball bearings, tabulated against
+    /// γ = D_w·cos α / D_pw, and the rating factor b_m
+    private static final double[] RATING_GAMMA = {
+            0.0, 0.01, 0.02, 0.03, 0.04, 0.05, 0.06, 0.07, 0.08, 0.09, 0.10, 0.12, 0.14,
+            0.16, 0.18, 0.20, 0.22, 0.24, 0.26, 0.28, 0.30, 0.32, 0.34, 0.36, 0.38, 0.40};
+    private static final double[] RATING_FACTOR = {
+            0.0, 29.1, 35.8, 40.3, 43.8, 46.7, 49.1, 51.1, 52.8, 54.3, 55.5, 57.5, 58.8,
+            59.6, 59.9, 59.9, 59.6, 59.0, 58.2, 57.1, 56.0, 54.6, 53.2, 51.7, 50.0, 48.4};
+    private static final double RATING_MATERIAL_FACTOR = 1.3;
+
+    private final int ballCount;
+    private final double ballDiameter;
+    private final double pitchDiameter;
+    private final double contactAngle;
+    private final double clearance;
+    /// Radial components of the contact normals, cos α·(cos ψj, sin ψj)
+    private final double[] normalX;
+    private final double[] normalY;
+    /// Clearance taken up along the normal before a ball is loaded, c/2·cos α
+    private final double offset;
+    private final double[] deflection;
+    private final double[] load;
+
+    private double effectiveModulus = Double.NaN;
+    /// Load-deflection constant K (N/m^1.5) of the inner and outer contacts in series
+    private double stiffness;
+    /// Semi-axes (m) and maximum pressure (Pa) of the reported raceway contact per N^(1/3) of load
+    private double majorCoefficient;
+    private double minorCoefficient;
+    private double pressureCoefficient;
+
+    /// Inner ring displacement (m) of the last solution, the next solve()'s starting point
+    private double displacementX;
+    private double displacementY;
+    private int iterations;
+    private long totalIterations;
+    private long solves;
+    private double maxLoad;
+    private double maxPressure;
+    private int loadedBalls;
+
+    /// Default geometry: a 12-ball bearing of 8 mm balls on a 50 mm pitch circle
+    public LoadDistribution() {
+        this(DEFAULT_BALL_COUNT, DEFAULT_BALL_DIAMETER, DEFAULT_PITCH_DIAMETER, DEFAULT_CONTACT_ANGLE, DEFAULT_CLEARANCE);
+    }
+
+    /// contactAngle in degrees, clearance diametral (m)
+    public LoadDistribution(int ballCount, double ballDiameter, double pitchDiameter, double contactAngle,
+                            double clearance) {
+        if (ballCount < 3) {
+            throw new IllegalArgumentException("A bearing needs at least 3 rolling elements: " + ballCount);
+        }
+        if (!(ballDiameter > 0) || !(pitchDiameter > ballDiameter)) {
+            throw new IllegalArgumentException("Ball diameter must be positive and below the pitch diameter: "
+                    + ballDiameter + ", " + pitchDiameter);
+        }
+        if (!(contactAngle >= 0) || !(contactAngle < 90)) {
+            throw new IllegalArgumentException("Contact angle must be at least 0 and below 90 degrees: " + contactAngle);
+        }
+        if (!(clearance >= 0) || Double.isInfinite(clearance)) {
+            throw new IllegalArgumentException("Clearance must be finite and not negative: " + clearance);
+        }
+        this.ballCount = ballCount;
+        this.ballDiameter = ballDiameter;
+        this.pitchDiameter = pitchDiameter;
+        this.contactAngle = Math.toRadians(contactAngle);
+        this.clearance = clearance;
+        double cosine = Math.cos(this.contactAngle);
+        normalX = new double[ballCount];
+        normalY = new double[ballCount];
+        for (int j = 0; j < ballCount; j++) {
+            double azimuth = 2 * Math.PI * j / ballCount;
+            normalX[j] = cosine * Math.cos(azimuth);
+            normalY[j] = cosine * Math.sin(azimuth);
+        }
+        offset = 0.5 * clearance * cosine;
+        deflection = new double[ballCount];
+        load = new double[ballCount];
+    }
+
+    /// Reads ballCount, ballDiameter (m), pitchDiameter (m), contactAngle (degrees) and clearance
+    /// (diametral, m), each defaulting to the DEFAULT_ constants.
+    public static LoadDistribution fromProperties(Properties properties) {
+        return new LoadDistribution((int) parse(properties, "ballCount", DEFAULT_BALL_COUNT),
+                parse(properties, "ballDiameter", DEFAULT_BALL_DIAMETER),
+                parse(properties, "pitchDiameter", DEFAULT_PITCH_DIAMETER),
+                parse(properties, "contactAngle", DEFAULT_CONTACT_ANGLE),
+                parse(properties, "clearance", DEFAULT_CLEARANCE));
+    }
+
+    private static double parse(Properties properties, String key, double defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid numeric value for " + key + ": " + value);
+        }
+    }
+
+    /// Fresh solver for the same geometry, without a modulus or warm start
+    public LoadDistribution copy() {
+        return new LoadDistribution(ballCount, ballDiameter, pitchDiameter, getContactAngle(), clearance);
+    }
+
+    /// Sets the contact modulus E' = E / (1 - ν²) (Pa), see BearingProfile.getEffectiveModulus(),
+    /// and recomputes the Hertz constants if it changed.
+    public void setEffectiveModulus(double effectiveModulus) {
+        if (!(effectiveModulus > 0)) {
+            throw new IllegalArgumentException("Effective modulus must be positive: " + effectiveModulus);
+        }
+        if (effectiveModulus == this.effectiveModulus) {
+            return;
+        }
+        this.effectiveModulus = effectiveModulus;
+        double gamma = ballDiameter * Math.cos(contactAngle) / pitchDiameter;
+        double radius = 0.5 * ballDiameter;
+        double[] inner = contact(radius * (1 - gamma), INNER_CONFORMITY * ballDiameter / (2 * INNER_CONFORMITY - 1));
+        double[] outer = contact(radius * (1 + gamma), OUTER_CONFORMITY * ballDiameter / (2 * OUTER_CONFORMITY - 1));
+        stiffness = Math.pow(Math.pow(inner[0], -2.0 / 3) + Math.pow(outer[0], -2.0 / 3), -1.5);
+        double[] reported = inner[3] >= outer[3] ? inner : outer;
+        majorCoefficient = reported[1];
+        minorCoefficient = reported[2];
+        pressureCoefficient = reported[3];
+    }
+
+    /// Point contact of rolling and transverse radii rx < ry: {K, a, b, p_max}, the last three per
+    /// N^(1/3). Ellipticity k, elliptic integral E and F by Brewe and Hamrock's fits.
+    private double[] contact(double rx, double ry) {
+        double ratio = ry / rx;
+        double ellipticity = 1.0339 * Math.pow(ratio, 0.636);
+        double secondIntegral = 1.0003 + 0.5968 / ratio;
+        double firstIntegral = 1.5277 + 0.6023 * Math.log(ratio);
+        double radius = rx * ry / (rx + ry);
+        double k = Math.PI * ellipticity * effectiveModulus * Math.sqrt(2 * secondIntegral * radius / 9)
+                / Math.pow(firstIntegral, 1.5);
+        double a = Math.cbrt(6 * ellipticity * ellipticity * secondIntegral * radius / (Math.PI * effectiveModulus));
+        double b = Math.cbrt(6 * secondIntegral * radius / (Math.PI * ellipticity * effectiveModulus));
+        return new double[]{k, a, b, 3 / (2 * Math.PI * a * b)};
+    }
+
+    /// Equilibrium under a radial force (N) on the inner ring; returns the Newton iterations taken.
+    /// A zero force leaves every ball unloaded and the ring centred.
+    public int solve(double forceX, double forceY) {
+        if (Double.isNaN(effectiveModulus)) {
+            throw new IllegalStateException("Set the effective modulus before solving");
+        }
+        double force = Math.sqrt(forceX * forceX + forceY * forceY);
+        solves++;
+        if (!(force > 0) || Double.isInfinite(force)) {
+            displacementX = 0.0;
+            displacementY = 0.0;
+            iterations = 0;
+            clearLoads();
+            return 0;
+        }
+        double tolerance = TOLERANCE * force;
+        /// Scale of the solution, set once the warm start turns out not to be one
+        double reach = 0.0;
+        double x = displacementX;
+        double y = displacementY;
+        double stepX = 0.0;
+        double stepY = 0.0;
+        double lastEnergy = Double.POSITIVE_INFINITY;
+        /// Longest step allowed: twice the last accepted one, so a step that had to be halved is
+        /// not followed by another that overshoots as far
+        double radius = 0.0;
+        int backtracks = 0;
+        int iteration = 0;
+        while (true) {
+            /// Residual Σ Qj·nj - F, Jacobian Σ 1.5·K·√δj·nj·njᵀ and potential energy
+            /// Σ 0.4·K·δj^2.5 - F·u at (x, y); the residual is the energy's gradient
+            double energy = -(forceX * x + forceY * y);
+            double residualX = -forceX;
+            double residualY = -forceY;
+            double jxx = 0.0;
+            double jxy = 0.0;
+            double jyy = 0.0;
+            int contact = -1;
+            int contacts = 0;
+            for (int j = 0; j < ballCount; j++) {
+                double nx = normalX[j];
+                double ny = normalY[j];
+                double d = Math.max(0.0, x * nx + y * ny - offset);
+                double root = Math.sqrt(d);
+                double q = stiffness * d * root;
+                double slope = 1.5 * stiffness * root;
+                deflection[j] = d;
+                load[j] = q;
+                energy += 0.4 * q * d;
+                residualX += q * nx;
+                residualY += q * ny;
+                jxx += slope * nx * nx;
+                jxy += slope * nx * ny;
+                jyy += slope * ny * ny;
+                contact = d > 0 ? j : contact;
+                contacts += d > 0 ? 1 : 0;
+            }
+            double norm = Math.sqrt(residualX * residualX + residualY * residualY);
+            if (norm <= tolerance || iteration == MAX_ITERATIONS) {
+                break;
+            }
+            iteration++;
+            if (iteration == 1) {
+                reach = reach(force);
+                radius = reach;
+            }
+            if (iteration == 1 && norm > force) {
+                /// The load changed so much since the last solution that its warm start is worse
+                /// than none; start over from the Stribeck estimate
+                double start = coldStart(forceX, forceY, reach) / force;
+                stepX = forceX * start - x;
+                stepY = forceY * start - y;
+                x += stepX;
+                y += stepY;
+                lastEnergy = Double.POSITIVE_INFINITY;
+                continue;
+            }
+            /// The energy is convex and a Newton step points downhill, so a step that raises it
+            /// (beyond rounding) overshot: go back half of it
+            if (energy > lastEnergy + 16 * Math.ulp(lastEnergy) && backtracks < MAX_BACKTRACKS) {
+                stepX *= 0.5;
+                stepY *= 0.5;
+                x -= stepX;
+                y -= stepY;
+                backtracks++;
+                continue;
+            }
+            double accepted = Math.hypot(stepX, stepY);
+            if (accepted > 0) {
+                radius = 2 * accepted;
+            }
+            backtracks = 0;
+            lastEnergy = energy;
+            double trace = jxx + jyy;
+            if (!(trace > 0)) {
+                /// No ball in contact: restart from the Stribeck estimate
+                double start = coldStart(forceX, forceY, reach) / force;
+                stepX = forceX * start - x;
+                stepY = forceY * start - y;
+                lastEnergy = Double.POSITIVE_INFINITY;
+            } else if (contacts == 1) {
+                /// One loaded ball leaves J singular across its normal n, and the energy falls
+                /// linearly that way until another ball touches. Take the Newton step along n,
+                /// and across it go to the first ball in the way plus the deflection that lets
+                /// that ball carry the remaining residual.
+                double nx = normalX[contact];
+                double ny = normalY[contact];
+                double squared = nx * nx + ny * ny;
+                double along = (residualX * nx + residualY * ny) / squared;
+                double acrossX = residualX - along * nx;
+                double acrossY = residualY - along * ny;
+                double across = Math.hypot(acrossX, acrossY);
+                double tx = -acrossX / across;
+                double ty = -acrossY / across;
+                double travel = Double.POSITIVE_INFINITY;
+                for (int j = 0; j < ballCount && across > tolerance; j++) {
+                    double approach = tx * normalX[j] + ty * normalY[j];
+                    if (j != contact && approach > 0) {
+                        double gap = offset - (x * normalX[j] + y * normalY[j]);
+                        double carry = across / (approach * stiffness);
+                        travel = Math.min(travel, (Math.max(0.0, gap) + Math.cbrt(carry * carry)) / approach);
+                    }
+                }
+                double normalStep = -along / (1.5 * stiffness * Math.sqrt(deflection[contact]));
+                stepX = normalStep * nx;
+                stepY = normalStep * ny;
+                if (travel < Double.POSITIVE_INFINITY) {
+                    stepX += travel * tx;
+                    stepY += travel * ty;
+                }
+            } else {
+                /// A ball barely in contact adds almost no stiffness, and J can be nearly singular.
+                /// The Levenberg-Marquardt term |r| / reach keeps that step within about the reach
+                /// and vanishes with the residual, so convergence stays quadratic.
+                double damping = norm / reach;
+                double axx = jxx + damping;
+                double ayy = jyy + damping;
+                double determinant = axx * ayy - jxy * jxy;
+                stepX = -(ayy * residualX - jxy * residualY) / determinant;
+                stepY = -(axx * residualY - jxy * residualX) / determinant;
+                double length = Math.hypot(stepX, stepY);
+                if (length > radius) {
+                    stepX *= radius / length;
+                    stepY *= radius / length;
+                }
+            }
+            x += stepX;
+            y += stepY;
+        }
+        displacementX = x;
+        displacementY = y;
+        iterations = iteration;
+        totalIterations += iteration;
+        contactGeometry();
+        return iteration;
+    }
+
+    /// Ring displacement that puts Stribeck's estimate Q_max ≈ 5·F / (Z·cos α) of the most loaded
+    /// ball's load on a ball in line with the force
+    private double reach(double force) {
+        double cosine = Math.cos(contactAngle);
+        double peak = 5 * force / (ballCount * cosine);
+        return (Math.cbrt(peak * peak / (stiffness * stiffness)) + offset) / cosine;
+    }
+
+    /// Distance along the force at which the ball nearest its direction reaches the displacement
+    /// reach has along its own normal
+    private double coldStart(double forceX, double forceY, double reach) {
+        double pitch = 2 * Math.PI / ballCount;
+        double angle = Math.atan2(forceY, forceX);
+        double offBall = angle - pitch * Math.rint(angle / pitch);
+        return reach / Math.cos(offBall);
+    }
+
+    /// Peak load and pressure; per-ball ellipses are computed only when asked for
+    private void contactGeometry() {
+        double peakLoad = 0.0;
+        int loaded = 0;
+        for (int j = 0; j < ballCount; j++) {
+            peakLoad = Math.max(peakLoad, load[j]);
+            loaded += load[j] > 0 ? 1 : 0;
+        }
+        maxLoad = peakLoad;
+        maxPressure = pressureCoefficient * Math.cbrt(peakLoad);
+        loadedBalls = loaded;
+    }
+
+    private void clearLoads() {
+        for (int j = 0; j < ballCount; j++) {
+            deflection[j] = 0.0;
+            load[j] = 0.0;
+        }
+        maxLoad = 0.0;
+        maxPressure = 0.0;
+        loadedBalls = 0;
+    }
+
+    /// Basic dynamic radial load rating C (N) by ISO 281: the load a bearing of this geometry
+    /// carries for a rating life of one million revolutions,
+    /// C = b_m·f_c·cos α^0.7·Z^(2/3)·D_w^1.8 (D_w in mm, 3.647·D_w^1.4 above 25.4 mm).
+    /// Depends on the geometry only; ISO 281 assumes steel throughout.
+    public double getDynamicLoadRating() {
+        double cosine = Math.cos(contactAngle);
+        double gamma = Math.min(ballDiameter * cosine / pitchDiameter, RATING_GAMMA[RATING_GAMMA.length - 1]);
+        int upper = 1;
+        while (RATING_GAMMA[upper] < gamma) {
+            upper++;
+        }
+        double fraction = (gamma - RATING_GAMMA[upper - 1]) / (RATING_GAMMA[upper] - RATING_GAMMA[upper - 1]);
+        double factor = RATING_FACTOR[upper - 1] + fraction * (RATING_FACTOR[upper] - RATING_FACTOR[upper - 1]);
+        double millimetres = ballDiameter * 1e3;
+        double diameterTerm = millimetres <= 25.4 ? Math.pow(millimetres, 1.8) : 3.647 * Math.pow(millimetres, 1.4);
+        return RATING_MATERIAL_FACTOR * factor * Math.pow(cosine, 0.7) * Math.cbrt(ballCount * ballCount) * diameterTerm;
+    }
+
+    /// Forgets the warm start and statistics; the next solve() starts from the centred ring.
+    public void reset() {
+        displacementX = 0.0;
+        displacementY = 0.0;
+        iterations = 0;
+        totalIterations = 0;
+        solves = 0;
+        clearLoads();
+    }
+
+    public void setDisplacement(double displacementX, double displacementY) {
+        this.displacementX = displacementX;
+        this.displacementY = displacementY;
+    }
+
+    public int getBallCount() { return ballCount; }
+    public double getBallDiameter() { return ballDiameter; }
+    public double getPitchDiameter() { return pitchDiameter; }
+    /// Contact angle in degrees
+    public double getContactAngle() { return Math.toDegrees(contactAngle); }
+    public double getClearance() { return clearance; }
+    public double getEffectiveModulus() { return effectiveModulus; }
+    public double getStiffness() { return stiffness; }
+    public double getDisplacementX() { return displacementX; }
+    public double getDisplacementY() { return displacementY; }
+    public double getDeflection(int ball) { return deflection[ball]; }
+    public double getLoad(int ball) { return load[ball]; }
+    /// Contact ellipse semi-axes (m): transverse to rolling (major) and along it (minor)
+    public double getSemiMajorAxis(int ball) { return majorCoefficient * Math.cbrt(load[ball]); }
+    public double getSemiMinorAxis(int ball) { return minorCoefficient * Math.cbrt(load[ball]); }
+    public double getMaxPressure(int ball) { return pressureCoefficient * Math.cbrt(load[ball]); }
+    public double getMaxLoad() { return maxLoad; }
+    /// Highest contact pressure (Pa) over all balls
+    public double getMaxPressure() { return maxPressure; }
+    public int getLoadedBalls() { return loadedBalls; }
+    public int getIterations() { return iterations; }
+    public double getMeanIterations() { return solves > 0 ? (double) totalIterations / solves : 0.0; }
+}
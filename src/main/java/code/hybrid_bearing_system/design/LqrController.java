@@ -0,0 +1,220 @@
+package code.hybrid_bearing_system.design;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/// Discrete linear-quadratic regulator on a Kalman estimate of [displacement, velocity].
+///
+/// The gain is designed offline from StateSpaceModel.linearize() discretized at the control
+/// period: the discrete algebraic Riccati equation is solved by the structure-preserving doubling
+/// algorithm, which converges quadratically and needs no inverse of Ad. Weights follow Bryson's
+/// rule, Q = diag(1/x_max², 1/v_max²) and R = 1/F_max². The KalmanFilter measures both states,
+/// with process noise entering as a force disturbance through Bd.
+///
+/// The design is redone, keeping the estimate, when the period or the bearing model changes;
+/// every other update() is a fixed sequence of small matrix kernels that allocates nothing.
+public class LqrController implements Controller {
+    public static final double DEFAULT_MAX_DISPLACEMENT = 1e-5;
+    public static final double DEFAULT_MAX_VELOCITY = 1e-2;
+    /// Filter noise: force disturbance (N), displacement (m) and velocity (m/s) sensor noise, 1σ
+    public static final double DEFAULT_FORCE_NOISE = 1.0;
+    public static final double DEFAULT_DISPLACEMENT_NOISE = 1e-7;
+    public static final double DEFAULT_VELOCITY_NOISE = 1e-4;
+    private static final int MAX_ITERATIONS = 100;
+
+    private final BearingModel bearingModel;
+    private double maxDisplacement = DEFAULT_MAX_DISPLACEMENT;
+    private double maxVelocity = DEFAULT_MAX_VELOCITY;
+    private double forceNoise = DEFAULT_FORCE_NOISE;
+    private double displacementNoise = DEFAULT_DISPLACEMENT_NOISE;
+    private double velocityNoise = DEFAULT_VELOCITY_NOISE;
+    /// Period and model version of the current design; NaN before the first update
+    private double designPeriod = Double.NaN;
+    private long designVersion;
+    private final double[] gain = new double[2];
+    private KalmanFilter filter;
+    private final double[] measurement = new double[2];
+    private final double[] input = new double[1];
+    private double lastForce;
+
+    public LqrController(BearingModel bearingModel) {
+        this.bearingModel = bearingModel;
+    }
+
+    @Override
+    public double update(double measuredDisplacement, double measuredVelocity, double dt) {
+        if (Double.isNaN(measuredDisplacement) || Double.isNaN(measuredVelocity)) {
+            return 0.0;
+        }
+        if (dt != designPeriod || bearingModel.getVersion() != designVersion) {
+            design(dt);
+        }
+        input[0] = lastForce;
+        filter.predict(input);
+        measurement[0] = measuredDisplacement;
+        measurement[1] = measuredVelocity;
+        filter.correct(measurement);
+        double[] estimate = filter.getState();
+        double force = -(gain[0] * estimate[0] + gain[1] * estimate[1]);
+        lastForce = clamp(force, -ControlSystem.MAX_FORCE, ControlSystem.MAX_FORCE);
+        return lastForce;
+    }
+
+    private void design(double dt) {
+        if (!(dt > 0)) {
+            throw new IllegalArgumentException("Control period must be positive: " + dt);
+        }
+        long version = bearingModel.getVersion();
+        StateSpaceModel model = StateSpaceModel.linearize(bearingModel);
+        double[] ad = new double[4];
+        double[] bd = new double[2];
+        model.discretize(dt, ad, bd);
+        double[] q = {1.0 / (maxDisplacement * maxDisplacement), 0.0, 0.0, 1.0 / (maxVelocity * maxVelocity)};
+        double r = 1.0 / (ControlSystem.MAX_FORCE * ControlSystem.MAX_FORCE);
+        double[] riccati = solveRiccati(ad, bd, q, r);
+        /// K = (R + Bᵀ·P·B)⁻¹ · Bᵀ·P·A
+        double[] pb = new double[2];
+        Matrices.multiplyVector(riccati, bd, pb, 2, 2);
+        double denominator = r + bd[0] * pb[0] + bd[1] * pb[1];
+        for (int j = 0; j < 2; j++) {
+            gain[j] = (pb[0] * ad[j] + pb[1] * ad[2 + j]) / denominator;
+        }
+        double variance = forceNoise * forceNoise;
+        double[] processNoise = {
+                bd[0] * bd[0] * variance, bd[0] * bd[1] * variance,
+                bd[1] * bd[0] * variance, bd[1] * bd[1] * variance};
+        double[] sensorNoise = {displacementNoise * displacementNoise, 0.0, 0.0, velocityNoise * velocityNoise};
+        double[] initialCovariance = {1e-6, 0.0, 0.0, 1e-2};
+        KalmanFilter designed = new KalmanFilter(ad, bd, Matrices.identity(2), processNoise, sensorNoise,
+                initialCovariance, 2, 2, 1);
+        if (filter != null) {
+            designed.copyStateFrom(filter);
+        }
+        filter = designed;
+        designPeriod = dt;
+        designVersion = version;
+    }
+
+    /// Stabilizing solution P of P = Aᵀ·P·A - Aᵀ·P·B·(R + Bᵀ·P·B)⁻¹·Bᵀ·P·A + Q for one input, by
+    /// doubling: A(k+1) = A·W⁻¹·A, G(k+1) = G + A·W⁻¹·G·Aᵀ, H(k+1) = H + Aᵀ·H·W⁻¹·A with
+    /// W = I + G·H, starting from G = B·R⁻¹·Bᵀ and H = Q; H converges to P.
+    static double[] solveRiccati(double[] ad, double[] bd, double[] q, double r) {
+        int n = bd.length;
+        double[] a = ad.clone();
+        double[] g = new double[n * n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                g[i * n + j] = bd[i] * bd[j] / r;
+            }
+        }
+        double[] h = q.clone();
+        double[] product = new double[n * n];
+        double[] winvA = new double[n * n];
+        double[] winvG = new double[n * n];
+        for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+            double[] w = Matrices.identity(n);
+            Matrices.multiply(g, h, product, n, n, n);
+            for (int i = 0; i < w.length; i++) {
+                w[i] += product[i];
+            }
+            double[] winv = Matrices.inverse(w, n);
+            Matrices.multiply(winv, a, winvA, n, n, n);
+            Matrices.multiply(winv, g, winvG, n, n, n);
+            double[] nextA = new double[n * n];
+            Matrices.multiply(a, winvA, nextA, n, n, n);
+            double[] nextG = new double[n * n];
+            Matrices.multiply(a, winvG, product, n, n, n);
+            Matrices.multiplyTransposed(product, a, nextG, n, n, n);
+            double[] nextH = new double[n * n];
+            Matrices.multiply(h, winvA, product, n, n, n);
+            Matrices.transposeMultiply(a, product, nextH, n, n, n);
+            double change = 0.0;
+            double size = 0.0;
+            for (int i = 0; i < n * n; i++) {
+                nextG[i] += g[i];
+                nextH[i] += h[i];
+                change = Math.max(change, Math.abs(nextH[i] - h[i]));
+                size = Math.max(size, Math.abs(nextH[i]));
+            }
+            Matrices.symmetrize(nextG, n);
+            Matrices.symmetrize(nextH, n);
+            a = nextA;
+            g = nextG;
+            h = nextH;
+            if (change <= 1e-13 * size) {
+                return h;
+            }
+        }
+        throw new IllegalStateException("Riccati iteration did not converge");
+    }
+
+    @Override
+    public void reset() {
+        if (filter != null) {
+            filter.reset();
+        }
+        lastForce = 0.0;
+    }
+
+    @Override
+    public String getName() {
+        return "LQR";
+    }
+
+    /// Bryson's rule limits: displacement (m) and velocity (m/s) that cost as much as full force
+    public void setWeights(double maxDisplacement, double maxVelocity) {
+        if (!(maxDisplacement > 0) || !(maxVelocity > 0)) {
+            throw new IllegalArgumentException("LQR limits must be positive");
+        }
+        this.maxDisplacement = maxDisplacement;
+        this.maxVelocity = maxVelocity;
+        designPeriod = Double.NaN;
+    }
+
+    /// Force disturbance (N) and sensor noise (m, m/s) standard deviations seen by the filter
+    public void setNoise(double forceNoise, double displacementNoise, double velocityNoise) {
+        if (!(forceNoise > 0) || !(displacementNoise > 0) || !(velocityNoise > 0)) {
+            throw new IllegalArgumentException("Noise levels must be positive");
+        }
+        this.forceNoise = forceNoise;
+        this.displacementNoise = displacementNoise;
+        this.velocityNoise = velocityNoise;
+        designPeriod = Double.NaN;
+    }
+
+    /// Design period, then estimate and covariance, and the last force command
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        out.writeDouble(designPeriod);
+        if (!Double.isNaN(designPeriod)) {
+            filter.writeState(out);
+        }
+        out.writeDouble(lastForce);
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        double period = in.readDouble();
+        if (!Double.isNaN(period)) {
+            design(period);
+            filter.readState(in);
+        }
+        lastForce = in.readDouble();
+    }
+
+    private double clamp(double value, double min, double max) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return min;
+        }
+        return Math.max(min, Math.min(max, value));
+    }
+
+    /// State feedback gain K of u = -K·x, for the current design (zero before the first update)
+    public double getGain(int index) { return gain[index]; }
+    public double getDesignPeriod() { return designPeriod; }
+    public double getMaxDisplacement() { return maxDisplacement; }
+    public double getMaxVelocity() { return maxVelocity; }
+    /// Filter of the current design, or null before the first update
+    public KalmanFilter getFilter() { return filter; }
+}
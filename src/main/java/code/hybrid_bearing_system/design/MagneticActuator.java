@@ -0,0 +1,246 @@
+package code.hybrid_bearing_system.design;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/// Differential pair of electromagnets acting on the rotor along the displacement axis. The upper
+/// magnet sees air gap nominalGap - x and coil current bias + control, the lower one nominalGap + x
+/// and bias - control; the net force is the difference. The pair's net force and mean flux are
+/// tabulated once over displacement × control current, from a saturating magnetic circuit model or
+/// a user-supplied single-magnet map, and cached on disk by parameter hash, so the step loop does
+/// one bilinear lookup per force evaluation.
+public final class MagneticActuator {
+    /// Bump when the circuit model or grid layout changes so stale cache files are ignored
+    private static final int MODEL_VERSION = 1;
+    private static final double MU0 = 4 * Math.PI * 1e-7;
+    /// Rotor travel the tables must cover; PhysicsEngine clamps displacement to ±0.01 m
+    private static final double TRAVEL = 0.01;
+    private static final int DISPLACEMENT_POINTS = 257;
+    private static final int CURRENT_POINTS = 129;
+
+    private final double turns;
+    private final double poleArea;
+    private final double nominalGap;
+    private final double biasCurrent;
+    private final double maxCurrent;
+    private final double ironPathLength;
+    private final double relativePermeability;
+    private final double saturationFlux;
+    /// User-supplied single-magnet map over air gap × coil current, or null for the circuit model
+    private final ForceMap singleMagnet;
+    /// Net force and mean flux of the pair over displacement × control current
+    private final ForceMap map;
+    private final double currentGain;
+    private final double negativeStiffness;
+
+    private static volatile MagneticActuator standard;
+
+    /// Builds the actuator, loading its force map from cacheDirectory when a table for the same
+    /// parameters exists there, otherwise generating and caching it. A null directory disables caching.
+    public MagneticActuator(double turns, double poleArea, double nominalGap, double biasCurrent, double maxCurrent,
+                            double ironPathLength, double relativePermeability, double saturationFlux,
+                            Path cacheDirectory) {
+        this(turns, poleArea, nominalGap, biasCurrent, maxCurrent, ironPathLength, relativePermeability, saturationFlux,
+                cacheDirectory, null);
+    }
+
+    private MagneticActuator(double turns, double poleArea, double nominalGap, double biasCurrent, double maxCurrent,
+                             double ironPathLength, double relativePermeability, double saturationFlux,
+                             Path cacheDirectory, ForceMap suppliedMap) {
+        if (!(turns > 0) || !(poleArea > 0) || !(nominalGap > TRAVEL) || !(ironPathLength >= 0)
+                || !(relativePermeability > 0) || !(saturationFlux > 0)) {
+            throw new IllegalArgumentException("Actuator needs positive turns, pole area, permeability and saturation flux,"
+                    + " and a nominal gap larger than the rotor travel of " + TRAVEL + " m");
+        }
+        if (!(biasCurrent >= 0) || !(maxCurrent > biasCurrent)) {
+            throw new IllegalArgumentException("Actuator needs 0 <= bias current < max current");
+        }
+        this.turns = turns;
+        this.poleArea = poleArea;
+        this.nominalGap = nominalGap;
+        this.biasCurrent = biasCurrent;
+        this.maxCurrent = maxCurrent;
+        this.ironPathLength = ironPathLength;
+        this.relativePermeability = relativePermeability;
+        this.saturationFlux = saturationFlux;
+        this.singleMagnet = suppliedMap;
+        this.map = suppliedMap != null ? generate() : loadOrGenerate(cacheDirectory);
+        /// Linearized gains at the centered, bias-only operating point: F ≈ ki·i + ks·x
+        double h = 1e-6;
+        this.currentGain = (force(0.0, h) - force(0.0, -h)) / (2 * h);
+        this.negativeStiffness = (force(h, 0.0) - force(-h, 0.0)) / (2 * h);
+    }
+
+    /// Default actuator, built on first use and cached under cacheDirectory()
+    public static MagneticActuator standard() {
+        MagneticActuator actuator = standard;
+        if (actuator == null) {
+            synchronized (MagneticActuator.class) {
+                actuator = standard;
+                if (actuator == null) {
+                    actuator = new MagneticActuator(800, 0.01, 0.015, 5.0, 10.0, 0.2, 4000, 1.5, cacheDirectory());
+                    standard = actuator;
+                }
+            }
+        }
+        return actuator;
+    }
+
+    /// Same geometry and currents as this actuator, but with a user-supplied single-magnet force map.
+    public MagneticActuator withForceMap(ForceMap suppliedMap) {
+        return new MagneticActuator(turns, poleArea, nominalGap, biasCurrent, maxCurrent, ironPathLength,
+                relativePermeability, saturationFlux, null, suppliedMap);
+    }
+
+    /// Directory for generated tables: the hybrid.bearing.cache system property, or
+    /// ~/.hybrid_bearing/cache
+    public static Path cacheDirectory() {
+        String configured = System.getProperty("hybrid.bearing.cache");
+        if (configured != null && !configured.isBlank()) {
+            return Path.of(configured);
+        }
+        return Path.of(System.getProperty("user.home"), ".hybrid_bearing", "cache");
+    }
+
+    /// Net upward force (N) for rotor displacement x (m, positive toward the upper magnet) and
+    /// control current (A) added to the upper coil and subtracted from the lower one.
+    public double force(double displacement, double controlCurrent) {
+        return map.force(displacement, controlCurrent);
+    }
+
+    /// Mean air gap flux density (T) of the two magnets
+    public double fluxDensity(double displacement, double controlCurrent) {
+        return map.fluxDensity(displacement, controlCurrent);
+    }
+
+    /// Control current that would produce the requested force at the centered operating point,
+    /// limited to what the coils can carry.
+    public double controlCurrentFor(double force) {
+        double current = force / currentGain;
+        double limit = getMaxControlCurrent();
+        return current < -limit ? -limit : (current > limit ? limit : current);
+    }
+
+    /// Flux density (T) of one magnet from its magnetic circuit: N·i = 2·g·B/μ0 + l_fe·H_fe(B), with
+    /// the iron following a Frohlich curve H_fe = B / (μ0·μr·(1 - B/B_sat)). Solved by bisection.
+    public double solveFluxDensity(double gap, double current) {
+        double mmf = turns * Math.max(current, 0.0);
+        if (mmf == 0.0) {
+            return 0.0;
+        }
+        double low = 0.0;
+        double high = saturationFlux;
+        for (int i = 0; i < 60; i++) {
+            double b = 0.5 * (low + high);
+            double required = 2 * gap * b / MU0
+                    + ironPathLength * b / (MU0 * relativePermeability * (1 - b / saturationFlux));
+            if (required > mmf) {
+                high = b;
+            } else {
+                low = b;
+            }
+        }
+        return 0.5 * (low + high);
+    }
+
+    /// Force of one magnet (N): F = B²·A / μ0 from the circuit model, or the supplied map
+    public double solveForce(double gap, double current) {
+        if (singleMagnet != null) {
+            return singleMagnet.force(gap, current);
+        }
+        double b = solveFluxDensity(gap, current);
+        return b * b * poleArea / MU0;
+    }
+
+    private double solveSingleFlux(double gap, double current) {
+        return singleMagnet != null ? singleMagnet.fluxDensity(gap, current) : solveFluxDensity(gap, current);
+    }
+
+    /// Net force of the pair solved from the single-magnet model, without the table
+    public double solvePairForce(double displacement, double controlCurrent) {
+        return solveForce(nominalGap - displacement, biasCurrent + controlCurrent)
+                - solveForce(nominalGap + displacement, biasCurrent - controlCurrent);
+    }
+
+    private ForceMap loadOrGenerate(Path cacheDirectory) {
+        Path file = cacheDirectory != null ? cacheDirectory.resolve("forcemap-" + parameterHash() + ".bin") : null;
+        if (file != null && Files.isRegularFile(file)) {
+            try {
+                return ForceMap.load(file);
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("Ignoring unreadable force map cache " + file + ": " + e.getMessage());
+            }
+        }
+        ForceMap generated = generate();
+        if (file != null) {
+            try {
+                Files.createDirectories(cacheDirectory);
+                Path temporary = Files.createTempFile(cacheDirectory, "forcemap", ".tmp");
+                generated.save(temporary);
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                System.err.println("Could not cache force map in " + cacheDirectory + ": " + e.getMessage());
+            }
+        }
+        return generated;
+    }
+
+    private ForceMap generate() {
+        double limit = getMaxControlCurrent();
+        double[] force = new double[DISPLACEMENT_POINTS * CURRENT_POINTS];
+        double[] flux = new double[force.length];
+        for (int d = 0; d < DISPLACEMENT_POINTS; d++) {
+            double displacement = -TRAVEL + 2 * TRAVEL * d / (DISPLACEMENT_POINTS - 1);
+            for (int c = 0; c < CURRENT_POINTS; c++) {
+                double current = -limit + 2 * limit * c / (CURRENT_POINTS - 1);
+                double upperGap = nominalGap - displacement;
+                double lowerGap = nominalGap + displacement;
+                force[d * CURRENT_POINTS + c] = solvePairForce(displacement, current);
+                flux[d * CURRENT_POINTS + c] = 0.5 * (solveSingleFlux(upperGap, biasCurrent + current)
+                        + solveSingleFlux(lowerGap, biasCurrent - current));
+            }
+        }
+        return new ForceMap(-TRAVEL, TRAVEL, -limit, limit, DISPLACEMENT_POINTS, CURRENT_POINTS, force, flux);
+    }
+
+    /// SHA-256 over the model version, grid size and every parameter, as hex
+    private String parameterHash() {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(MODEL_VERSION);
+            out.writeInt(DISPLACEMENT_POINTS);
+            out.writeInt(CURRENT_POINTS);
+            out.writeDouble(TRAVEL);
+            for (double value : new double[] {turns, poleArea, nominalGap, biasCurrent, maxCurrent, ironPathLength,
+                    relativePermeability, saturationFlux}) {
+                out.writeDouble(value);
+            }
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes.toByteArray());
+            StringBuilder hex = new StringBuilder();
+            for (int i = 0; i < 16; i++) {
+                hex.append(String.format("%02x", digest[i]));
+            }
+            return hex.toString();
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot hash actuator parameters", e);
+        }
+    }
+
+    public ForceMap getForceMap() { return map; }
+    public double getNominalGap() { return nominalGap; }
+    public double getBiasCurrent() { return biasCurrent; }
+    public double getMaxCurrent() { return maxCurrent; }
+    /// Largest control current before one coil would exceed maxCurrent or drop below zero
+    public double getMaxControlCurrent() { return Math.min(maxCurrent - biasCurrent, biasCurrent); }
+    /// Force per ampere of control current at the centered operating point (N/A)
+    public double getCurrentGain() { return currentGain; }
+    /// Force per metre of displacement at bias current (N/m); positive, i.e. destabilizing
+    public double getNegativeStiffness() { return negativeStiffness; }
+}
@@ -16,6 +16,7 @@ public class Main extends Application {
 
     @Override
     public void start(Stage primaryStage) {
+        Instrumentation.start();
         SimulationManager manager = new SimulationManager();
         BorderPane root = new BorderPane();
         /// Header
@@ -0,0 +1,246 @@
+package code.hybrid_bearing_system.design;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/// Registry of bearing materials with temperature-dependent property tables, loaded from the
+/// materials.txt resource. Names and aliases are resolved to integer IDs once (getId()); lookups
+/// by ID, property and temperature are array reads plus one linear interpolation, with no string
+/// or hash operations, so they are safe to call every physics step.
+public final class MaterialDatabase {
+
+    public enum Property {
+        YOUNGS_MODULUS("Young's modulus", "GPa"),
+        THERMAL_CONDUCTIVITY("Thermal conductivity", "W/m·K"),
+        DENSITY("Density", "kg/m³"),
+        SPECIFIC_HEAT("Specific heat", "J/kg·K"),
+        POISSON_RATIO("Poisson's ratio", "");
+
+        private final String label;
+        private final String unit;
+
+        Property(String label, String unit) {
+            this.label = label;
+            this.unit = unit;
+        }
+
+        public String getLabel() { return label; }
+        public String getUnit() { return unit; }
+    }
+
+    private static final int PROPERTIES = Property.values().length;
+    public static final String DEFAULT_MATERIAL = "silicon_nitride";
+
+    private final String[] keys;
+    private final String[] names;
+    private final Map<String, Integer> ids;
+    /// Per material: first table temperature, reciprocal row spacing, row count and the values,
+    /// stored property-major (values[property * rows + row])
+    private final double[] firstTemperature;
+    private final double[] inverseSpacing;
+    private final int[] rows;
+    private final double[][] values;
+
+    private MaterialDatabase(List<Entry> entries) {
+        int count = entries.size();
+        keys = new String[count];
+        names = new String[count];
+        ids = new HashMap<>();
+        firstTemperature = new double[count];
+        inverseSpacing = new double[count];
+        rows = new int[count];
+        values = new double[count][];
+        for (int id = 0; id < count; id++) {
+            Entry entry = entries.get(id);
+            keys[id] = entry.key;
+            names[id] = entry.name != null ? entry.name : entry.key;
+            register(entry.key, id);
+            for (String alias : entry.aliases) {
+                register(alias, id);
+            }
+            int n = entry.temperatures.size();
+            if (n == 0) {
+                throw new IllegalArgumentException("Material " + entry.key + " has no property rows");
+            }
+            firstTemperature[id] = entry.temperatures.get(0);
+            double spacing = n > 1 ? entry.temperatures.get(1) - entry.temperatures.get(0) : 0.0;
+            for (int r = 1; r < n; r++) {
+                double expected = firstTemperature[id] + r * spacing;
+                if (!(spacing > 0) || Math.abs(entry.temperatures.get(r) - expected) > 1e-9 * Math.max(1.0, Math.abs(expected))) {
+                    throw new IllegalArgumentException("Temperatures of " + entry.key + " must be ascending and evenly spaced");
+                }
+            }
+            inverseSpacing[id] = n > 1 ? 1.0 / spacing : 0.0;
+            rows[id] = n;
+            values[id] = new double[PROPERTIES * n];
+            for (int r = 0; r < n; r++) {
+                double[] row = entry.rows.get(r);
+                for (int p = 0; p < PROPERTIES; p++) {
+                    values[id][p * n + r] = row[p];
+                }
+            }
+        }
+    }
+
+    private void register(String name, int id) {
+        if (ids.putIfAbsent(name.toLowerCase(Locale.ROOT), id) != null) {
+            throw new IllegalArgumentException("Duplicate material name: " + name);
+        }
+    }
+
+    /// The bundled materials.txt, loaded on first use
+    public static MaterialDatabase getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    private static class DefaultHolder {
+        static final MaterialDatabase INSTANCE = loadDefault();
+
+        private static MaterialDatabase loadDefault() {
+            try (InputStream in = MaterialDatabase.class.getResourceAsStream("materials.txt")) {
+                if (in == null) {
+                    throw new IllegalStateException("materials.txt resource not found");
+                }
+                return load(new InputStreamReader(in, StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /// Parses the materials.txt format: [id] sections with name/aliases lines and rows of
+    /// temperature (°C) followed by one value per Property, in declaration order.
+    public static MaterialDatabase load(Reader source) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        Entry current = null;
+        BufferedReader reader = new BufferedReader(source);
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            int comment = line.indexOf('#');
+            String text = (comment >= 0 ? line.substring(0, comment) : line).trim();
+            if (text.isEmpty()) {
+                continue;
+            }
+            if (text.startsWith("[") && text.endsWith("]")) {
+                current = new Entry(text.substring(1, text.length() - 1).trim());
+                entries.add(current);
+            } else if (current == null) {
+                throw new IllegalArgumentException("Line " + lineNumber + ": expected [material] section");
+            } else if (text.indexOf('=') > 0) {
+                String key = text.substring(0, text.indexOf('=')).trim();
+                String value = text.substring(text.indexOf('=') + 1).trim();
+                switch (key) {
+                    case "name":
+                        current.name = value;
+                        break;
+                    case "aliases":
+                        for (String alias : value.split(",")) {
+                            if (!alias.isBlank()) {
+                                current.aliases.add(alias.trim());
+                            }
+                        }
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Line " + lineNumber + ": unknown key " + key);
+                }
+            } else {
+                String[] fields = text.split("\\s+");
+                if (fields.length != PROPERTIES + 1) {
+                    throw new IllegalArgumentException("Line " + lineNumber + ": expected temperature and "
+                            + PROPERTIES + " property values");
+                }
+                double[] row = new double[PROPERTIES];
+                try {
+                    current.temperatures.add(Double.parseDouble(fields[0]));
+                    for (int p = 0; p < PROPERTIES; p++) {
+                        row[p] = Double.parseDouble(fields[p + 1]);
+                    }
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Line " + lineNumber + ": invalid number in " + text);
+                }
+                current.rows.add(row);
+            }
+        }
+        if (entries.isEmpty()) {
+            throw new IllegalArgumentException("No materials defined");
+        }
+        return new MaterialDatabase(entries);
+    }
+
+    /// Resolves a material id or alias (case-insensitive) to its ID. Do this once, not per step.
+    public int getId(String name) {
+        int id = findId(name);
+        if (id < 0) {
+            throw new IllegalArgumentException("Unknown material: " + name + " (known: " + String.join(", ", keys) + ")");
+        }
+        return id;
+    }
+
+    /// Like getId(), but returns -1 for unknown names
+    public int findId(String name) {
+        if (name == null) {
+            return -1;
+        }
+        Integer id = ids.get(name.trim().toLowerCase(Locale.ROOT));
+        return id != null ? id : -1;
+    }
+
+    /// Property value at the given temperature (°C), linearly interpolated between table rows
+    /// and held constant beyond the first and last rows.
+    public double get(int id, Property property, double temperature) {
+        int n = rows[id];
+        double[] table = values[id];
+        int base = property.ordinal() * n;
+        double position = (temperature - firstTemperature[id]) * inverseSpacing[id];
+        if (!(position > 0)) {
+            return table[base];
+        }
+        if (position >= n - 1) {
+            return table[base + n - 1];
+        }
+        int row = (int) position;
+        double fraction = position - row;
+        return table[base + row] + fraction * (table[base + row + 1] - table[base + row]);
+    }
+
+    /// Table rows of one property, lowest temperature first, for callers that interpolate
+    /// themselves: row r is at getFirstTemperature(id) + r / getInverseTemperatureSpacing(id).
+    public double[] getTable(int id, Property property) {
+        int n = rows[id];
+        return Arrays.copyOfRange(values[id], property.ordinal() * n, property.ordinal() * n + n);
+    }
+
+    public int size() { return keys.length; }
+    public double getFirstTemperature(int id) { return firstTemperature[id]; }
+    /// Rows per °C; 0 for a material with a single row
+    public double getInverseTemperatureSpacing(int id) { return inverseSpacing[id]; }
+    public String getKey(int id) { return keys[id]; }
+    public String getName(int id) { return names[id]; }
+    public List<String> getKeys() { return Collections.unmodifiableList(Arrays.asList(keys)); }
+
+    private static class Entry {
+        final String key;
+        String name;
+        final List<String> aliases = new ArrayList<>();
+        final List<Double> temperatures = new ArrayList<>();
+        final List<double[]> rows = new ArrayList<>();
+
+        Entry(String key) {
+            this.key = key;
+        }
+    }
+}
@@ -1,27 +1,34 @@
 package code.hybrid_bearing_system.design;
 
+/// Room-temperature (20 °C) lookups by material name, backed by MaterialDatabase. Names are
+/// resolved on every call, so per-step code should resolve an ID once and use
+/// MaterialDatabase.get() instead. Unknown names keep the old generic defaults.
 public class MaterialProperties {
+    private static final double ROOM_TEMPERATURE = 20.0;
+
     public static double getYoungsModulus(String material) {
-        switch (material.toLowerCase()) {
-            case "ceramic": return 380.0;
-            case "steel": return 200.0;
-            default: return 300.0;
-        }
+        return lookup(material, MaterialDatabase.Property.YOUNGS_MODULUS, 300.0);
     }
 
     public static double getThermalConductivity(String material) {
-        switch (material.toLowerCase()) {
-            case "ceramic": return 30.0;
-            case "steel": return 50.0;
-            default: return 40.0;
-        }
+        return lookup(material, MaterialDatabase.Property.THERMAL_CONDUCTIVITY, 40.0);
     }
 
     public static double getDensity(String material) {
-        switch (material.toLowerCase()) {
-            case "ceramic": return 3200;
-            case "steel": return 7850;
-            default: return 5000;
-        }
+        return lookup(material, MaterialDatabase.Property.DENSITY, 5000);
+    }
+
+    public static double getSpecificHeat(String material) {
+        return lookup(material, MaterialDatabase.Property.SPECIFIC_HEAT, 500);
+    }
+
+    public static double getPoissonRatio(String material) {
+        return lookup(material, MaterialDatabase.Property.POISSON_RATIO, 0.3);
+    }
+
+    private static double lookup(String material, MaterialDatabase.Property property, double defaultValue) {
+        MaterialDatabase database = MaterialDatabase.getDefault();
+        int id = database.findId(material);
+        return id >= 0 ? database.get(id, property, ROOM_TEMPERATURE) : defaultValue;
     }
-}
\ No newline at end of file
+}
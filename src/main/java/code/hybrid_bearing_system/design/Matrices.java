@@ -0,0 +1,200 @@
+package code.hybrid_bearing_system.design;
+
+/// Dense matrix kernels on row-major primitive arrays with the dimensions passed explicitly, for
+/// the small state-space matrices of the estimators and controllers. The kernels write into
+/// caller-supplied arrays and allocate nothing; an output must not alias an input.
+/// inverse() and exponential() are for offline design and do allocate.
+public final class Matrices {
+    private Matrices() {
+    }
+
+    /// c (n×m) = a (n×k) · b (k×m)
+    public static void multiply(double[] a, double[] b, double[] c, int n, int k, int m) {
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < m; j++) {
+                double sum = 0.0;
+                for (int l = 0; l < k; l++) {
+                    sum += a[i * k + l] * b[l * m + j];
+                }
+                c[i * m + j] = sum;
+            }
+        }
+    }
+
+    /// c (n×m) = a (n×k) · bᵀ, with b stored as m×k
+    public static void multiplyTransposed(double[] a, double[] b, double[] c, int n, int k, int m) {
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < m; j++) {
+                double sum = 0.0;
+                for (int l = 0; l < k; l++) {
+                    sum += a[i * k + l] * b[j * k + l];
+                }
+                c[i * m + j] = sum;
+            }
+        }
+    }
+
+    /// c (n×m) = aᵀ · b, with a stored as k×n and b as k×m
+    public static void transposeMultiply(double[] a, double[] b, double[] c, int k, int n, int m) {
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < m; j++) {
+                double sum = 0.0;
+                for (int l = 0; l < k; l++) {
+                    sum += a[l * n + i] * b[l * m + j];
+                }
+                c[i * m + j] = sum;
+            }
+        }
+    }
+
+    /// y (n) = a (n×k) · x (k)
+    public static void multiplyVector(double[] a, double[] x, double[] y, int n, int k) {
+        for (int i = 0; i < n; i++) {
+            double sum = 0.0;
+            for (int l = 0; l < k; l++) {
+                sum += a[i * k + l] * x[l];
+            }
+            y[i] = sum;
+        }
+    }
+
+    /// a (n×n) = (a + aᵀ) / 2, removing the asymmetry rounding leaves in covariance updates
+    public static void symmetrize(double[] a, int n) {
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                double mean = 0.5 * (a[i * n + j] + a[j * n + i]);
+                a[i * n + j] = mean;
+                a[j * n + i] = mean;
+            }
+        }
+    }
+
+    /// Overwrites the symmetric positive definite s (n×n) with its lower Cholesky factor and then
+    /// b (n×m) with s⁻¹·b. Returns false, leaving b partly solved, if s is not positive definite.
+    public static boolean choleskySolve(double[] s, double[] b, int n, int m) {
+        for (int j = 0; j < n; j++) {
+            double diagonal = s[j * n + j];
+            for (int l = 0; l < j; l++) {
+                diagonal -= s[j * n + l] * s[j * n + l];
+            }
+            if (!(diagonal > 0)) {
+                return false;
+            }
+            diagonal = Math.sqrt(diagonal);
+            s[j * n + j] = diagonal;
+            for (int i = j + 1; i < n; i++) {
+                double value = s[i * n + j];
+                for (int l = 0; l < j; l++) {
+                    value -= s[i * n + l] * s[j * n + l];
+                }
+                s[i * n + j] = value / diagonal;
+            }
+        }
+        for (int c = 0; c < m; c++) {
+            for (int i = 0; i < n; i++) {
+                double value = b[i * m + c];
+                for (int l = 0; l < i; l++) {
+                    value -= s[i * n + l] * b[l * m + c];
+                }
+                b[i * m + c] = value / s[i * n + i];
+            }
+            for (int i = n - 1; i >= 0; i--) {
+                double value = b[i * m + c];
+                for (int l = i + 1; l < n; l++) {
+                    value -= s[l * n + i] * b[l * m + c];
+                }
+                b[i * m + c] = value / s[i * n + i];
+            }
+        }
+        return true;
+    }
+
+    /// New n×n identity
+    public static double[] identity(int n) {
+        double[] identity = new double[n * n];
+        for (int i = 0; i < n; i++) {
+            identity[i * n + i] = 1.0;
+        }
+        return identity;
+    }
+
+    /// Inverse of a (n×n) by Gauss-Jordan elimination with partial pivoting
+    public static double[] inverse(double[] a, int n) {
+        double[] work = a.clone();
+        double[] inverse = identity(n);
+        for (int column = 0; column < n; column++) {
+            int pivot = column;
+            for (int row = column + 1; row < n; row++) {
+                if (Math.abs(work[row * n + column]) > Math.abs(work[pivot * n + column])) {
+                    pivot = row;
+                }
+            }
+            if (work[pivot * n + column] == 0.0) {
+                throw new IllegalArgumentException("Matrix is singular");
+            }
+            swapRows(work, column, pivot, n);
+            swapRows(inverse, column, pivot, n);
+            double scale = 1.0 / work[column * n + column];
+            for (int j = 0; j < n; j++) {
+                work[column * n + j] *= scale;
+                inverse[column * n + j] *= scale;
+            }
+            for (int row = 0; row < n; row++) {
+                double factor = work[row * n + column];
+                if (row == column || factor == 0.0) {
+                    continue;
+                }
+                for (int j = 0; j < n; j++) {
+                    work[row * n + j] -= factor * work[column * n + j];
+                    inverse[row * n + j] -= factor * inverse[column * n + j];
+                }
+            }
+        }
+        return inverse;
+    }
+
+    private static void swapRows(double[] a, int first, int second, int n) {
+        if (first == second) {
+            return;
+        }
+        for (int j = 0; j < n; j++) {
+            double value = a[first * n + j];
+            a[first * n + j] = a[second * n + j];
+            a[second * n + j] = value;
+        }
+    }
+
+    /// e^a for a (n×n) by scaling and squaring: a Taylor series of a / 2^s, squared s times
+    public static double[] exponential(double[] a, int n) {
+        double norm = 0.0;
+        for (int i = 0; i < n; i++) {
+            double row = 0.0;
+            for (int j = 0; j < n; j++) {
+                row += Math.abs(a[i * n + j]);
+            }
+            norm = Math.max(norm, row);
+        }
+        int squarings = norm > 0.5 ? (int) Math.ceil(Math.log(norm / 0.5) / Math.log(2)) : 0;
+        double scale = Math.scalb(1.0, -squarings);
+        double[] term = identity(n);
+        double[] result = identity(n);
+        double[] next = new double[n * n];
+        double[] scaled = new double[n * n];
+        for (int i = 0; i < scaled.length; i++) {
+            scaled[i] = a[i] * scale;
+        }
+        /// With the norm at most 1/2, 16 terms are accurate to double precision
+        for (int k = 1; k <= 16; k++) {
+            multiply(term, scaled, next, n, n, n);
+            for (int i = 0; i < next.length; i++) {
+                term[i] = next[i] / k;
+                result[i] += term[i];
+            }
+        }
+        for (int s = 0; s < squarings; s++) {
+            multiply(result, result, next, n, n, n);
+            System.arraycopy(next, 0, result, 0, next.length);
+        }
+        return result;
+    }
+}
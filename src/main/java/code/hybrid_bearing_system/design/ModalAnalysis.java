@@ -1,6 +1,12 @@
 package code.hybrid_bearing_system.design;
 
 public class ModalAnalysis {
+    /// Lanczos shift λ = -(2π·1 Hz)², just below zero so that free-free rigid body modes keep
+    /// K - σM nonsingular
+    private static final double SHIFT = -4 * Math.PI * Math.PI;
+
+    private final LanczosEigenSolver solver = new LanczosEigenSolver();
+
     public double calculateResonanceFrequency(double stiffness, double mass) {
         if (mass <= 0 || stiffness <= 0) {
             return 0.0;
@@ -17,6 +23,24 @@ public class ModalAnalysis {
         return modes;
     }
 
+    /// Lowest natural frequencies (Hz) of the finite-element rotor at rest. Both bending planes
+    /// are identical at rest, so every frequency belongs to a pair of orthogonal modes and is
+    /// listed once.
+    public double[] calculateVibrationModes(RotorModel rotor, int count) {
+        LanczosEigenSolver.Result modes = solveModes(rotor, count);
+        double[] frequencies = new double[modes.getCount()];
+        for (int i = 0; i < frequencies.length; i++) {
+            frequencies[i] = Math.sqrt(Math.max(modes.getEigenvalue(i), 0.0)) / (2 * Math.PI);
+        }
+        return frequencies;
+    }
+
+    /// Lowest count planar modes at rest: eigenvalues ω² (rad²/s²) and M-normalized shapes over
+    /// the [w, w'] DOFs of every node
+    public LanczosEigenSolver.Result solveModes(RotorModel rotor, int count) {
+        return solver.solve(rotor.planarStiffnessMatrix(), rotor.planarMassMatrix(), SHIFT, count);
+    }
+
     public double calculateCriticalSpeed(double stiffness, double mass) {
         return 60 * calculateResonanceFrequency(stiffness, mass);
     }
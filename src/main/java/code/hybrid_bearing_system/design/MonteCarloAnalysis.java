@@ -0,0 +1,246 @@
+package code.hybrid_bearing_system.design;
+
+import java.util.Properties;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/// Propagates manufacturing and operating tolerances through the simulation. Every sample draws
+/// load, Young's modulus, rotor mass and spindle speed around the nominal job, runs the closed
+/// loop to the end and adds its RunSummary to streaming statistics; no sample or trajectory is
+/// kept, so memory does not grow with the sample count.
+///
+/// Samples are split into a fixed binary tree of blocks. Each split hands the left half a
+/// SplittableRandom.split() of its parent's generator and the right half the parent itself, and
+/// partial statistics are merged back in the same tree order, so a given seed produces identical
+/// results on any number of threads.
+public class MonteCarloAnalysis {
+    /// Largest block of samples run sequentially by one fork/join task
+    private static final int SAMPLES_PER_TASK = 64;
+    /// Draws are truncated at this many standard deviations
+    private static final double TRUNCATION = 3.0;
+
+    public enum Output {
+        PEAK_DISPLACEMENT("PeakDisplacement", "m") {
+            @Override
+            public double read(RunSummary summary) { return summary.getPeakDisplacement(); }
+        },
+        FINAL_TEMPERATURE("FinalTemperature", "°C") {
+            @Override
+            public double read(RunSummary summary) { return summary.getFinalTemperature(); }
+        },
+        ENERGY_LOSS("EnergyLoss", "J") {
+            @Override
+            public double read(RunSummary summary) { return summary.getEnergyLoss(); }
+        },
+        PEAK_STRESS("PeakStress", "Pa") {
+            @Override
+            public double read(RunSummary summary) { return summary.getPeakStress(); }
+        };
+
+        private final String label;
+        private final String unit;
+
+        Output(String label, String unit) {
+            this.label = label;
+            this.unit = unit;
+        }
+
+        public abstract double read(RunSummary summary);
+
+        public String getLabel() { return label; }
+        public String getUnit() { return unit; }
+    }
+
+    private SimulationJob nominal = new SimulationJob();
+    /// Relative standard deviations of the sampled parameters
+    private double loadTolerance = 0.05;
+    private double modulusTolerance = 0.02;
+    private double massTolerance = 0.01;
+    private double speedTolerance = 0.01;
+    private long samples = 1000;
+    private long seed = 1;
+    private volatile boolean cancelled;
+
+    /// Reads the nominal job from the SimulationJob keys plus samples, seed and the relative
+    /// standard deviations loadTolerance, modulusTolerance, massTolerance and speedTolerance.
+    public static MonteCarloAnalysis fromProperties(Properties properties) {
+        MonteCarloAnalysis analysis = new MonteCarloAnalysis();
+        analysis.setNominal(SimulationJob.fromProperties(properties));
+        analysis.setSamples(parseLong(properties, "samples", analysis.samples));
+        analysis.setSeed(parseLong(properties, "seed", analysis.seed));
+        analysis.setTolerances(parse(properties, "loadTolerance", analysis.loadTolerance),
+                parse(properties, "modulusTolerance", analysis.modulusTolerance),
+                parse(properties, "massTolerance", analysis.massTolerance),
+                parse(properties, "speedTolerance", analysis.speedTolerance));
+        return analysis;
+    }
+
+    private static double parse(Properties properties, String key, double defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid numeric value for " + key + ": " + value);
+        }
+    }
+
+    private static long parseLong(Properties properties, String key, long defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid integer value for " + key + ": " + value);
+        }
+    }
+
+    /// Runs every sample and returns statistics per Output, indexed by ordinal.
+    public Result run(int parallelism) {
+        cancelled = false;
+        AtomicLong completed = new AtomicLong();
+        long start = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, parallelism));
+        StreamingStatistics[] statistics;
+        try {
+            statistics = pool.invoke(new SampleRange(0, samples, new SplittableRandom(seed), completed));
+        } finally {
+            pool.shutdown();
+        }
+        return new Result(statistics, completed.get(), completed.get() * nominal.getStepCount(),
+                System.nanoTime() - start, pool.getParallelism());
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /// Simulates one sample with parameters drawn from random.
+    private RunSummary simulate(SplittableRandom random) {
+        SimulationLoop loop = nominal.createLoop();
+        BearingModel model = loop.getBearingModel();
+        model.setLoad(draw(random, nominal.getLoad(), loadTolerance));
+        model.setYoungsModulus(draw(random, nominal.getYoungsModulus(), modulusTolerance));
+        model.setMass(draw(random, nominal.getMass(), massTolerance));
+        model.setSpindleSpeed(draw(random, nominal.getSpindleSpeed(), speedTolerance));
+        return RunSummary.simulate(loop, nominal.getStepCount());
+    }
+
+    /// Normal draw around the nominal value, resampled beyond TRUNCATION standard deviations so
+    /// that a tolerance below 1 / TRUNCATION keeps every parameter positive.
+    private static double draw(SplittableRandom random, double nominal, double tolerance) {
+        double z;
+        do {
+            z = random.nextGaussian();
+        } while (Math.abs(z) > TRUNCATION);
+        return nominal * (1 + tolerance * z);
+    }
+
+    private class SampleRange extends RecursiveTask<StreamingStatistics[]> {
+        private static final long serialVersionUID = 1L;
+        private final long from;
+        private final long to;
+        /// Fork/join tasks are Serializable by inheritance but never serialized
+        private final transient SplittableRandom random;
+        private final AtomicLong completed;
+
+        SampleRange(long from, long to, SplittableRandom random, AtomicLong completed) {
+            this.from = from;
+            this.to = to;
+            this.random = random;
+            this.completed = completed;
+        }
+
+        @Override
+        protected StreamingStatistics[] compute() {
+            if (to - from <= SAMPLES_PER_TASK) {
+                StreamingStatistics[] statistics = newStatistics();
+                for (long i = from; i < to && !cancelled; i++) {
+                    RunSummary summary = simulate(random);
+                    for (Output output : Output.values()) {
+                        statistics[output.ordinal()].add(output.read(summary));
+                    }
+                    completed.incrementAndGet();
+                }
+                return statistics;
+            }
+            long middle = (from + to) >>> 1;
+            SampleRange left = new SampleRange(from, middle, random.split(), completed);
+            SampleRange right = new SampleRange(middle, to, random, completed);
+            left.fork();
+            StreamingStatistics[] rightStatistics = right.compute();
+            StreamingStatistics[] statistics = left.join();
+            for (int o = 0; o < statistics.length; o++) {
+                statistics[o].merge(rightStatistics[o]);
+            }
+            return statistics;
+        }
+    }
+
+    private static StreamingStatistics[] newStatistics() {
+        StreamingStatistics[] statistics = new StreamingStatistics[Output.values().length];
+        for (int o = 0; o < statistics.length; o++) {
+            statistics[o] = new StreamingStatistics();
+        }
+        return statistics;
+    }
+
+    public static class Result {
+        private final StreamingStatistics[] statistics;
+        private final long samples;
+        private final long steps;
+        private final long elapsedNanos;
+        private final int parallelism;
+
+        Result(StreamingStatistics[] statistics, long samples, long steps, long elapsedNanos, int parallelism) {
+            this.statistics = statistics;
+            this.samples = samples;
+            this.steps = steps;
+            this.elapsedNanos = elapsedNanos;
+            this.parallelism = parallelism;
+        }
+
+        public StreamingStatistics get(Output output) { return statistics[output.ordinal()]; }
+        public double getSamplesPerSecond() { return elapsedNanos > 0 ? samples * 1e9 / elapsedNanos : 0.0; }
+        public double getStepsPerSecond() { return elapsedNanos > 0 ? steps * 1e9 / elapsedNanos : 0.0; }
+        public long getSamples() { return samples; }
+        public long getElapsedNanos() { return elapsedNanos; }
+        public int getParallelism() { return parallelism; }
+    }
+
+    public SimulationJob getNominal() { return nominal; }
+    public void setNominal(SimulationJob nominal) { this.nominal = nominal; }
+    public long getSamples() { return samples; }
+    public void setSamples(long samples) {
+        if (samples < 1) {
+            throw new IllegalArgumentException("At least one sample is required: " + samples);
+        }
+        this.samples = samples;
+    }
+    public long getSeed() { return seed; }
+    public void setSeed(long seed) { this.seed = seed; }
+    public double getLoadTolerance() { return loadTolerance; }
+    public double getModulusTolerance() { return modulusTolerance; }
+    public double getMassTolerance() { return massTolerance; }
+    public double getSpeedTolerance() { return speedTolerance; }
+    public void setTolerances(double load, double modulus, double mass, double speed) {
+        this.loadTolerance = checkTolerance(load, "load");
+        this.modulusTolerance = checkTolerance(modulus, "modulus");
+        this.massTolerance = checkTolerance(mass, "mass");
+        this.speedTolerance = checkTolerance(speed, "speed");
+    }
+
+    private static double checkTolerance(double tolerance, String name) {
+        if (!(tolerance >= 0) || !(tolerance < 1 / TRUNCATION)) {
+            throw new IllegalArgumentException("The " + name + " tolerance must be at least 0 and below "
+                    + String.format("%.3f", 1 / TRUNCATION) + ": " + tolerance);
+        }
+        return tolerance;
+    }
+}
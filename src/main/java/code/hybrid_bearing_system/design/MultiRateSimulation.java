@@ -0,0 +1,198 @@
+package code.hybrid_bearing_system.design;
+
+import java.util.Properties;
+
+/// Multi-rate co-simulation of one bearing. Instead of sharing PhysicsEngine's single step, rotor
+/// mechanics and actuator, controller and temperature each advance at their own period: the
+/// mechanics is subcycled at a step fine enough to resolve the rotor's natural frequency, the
+/// controller samples it and holds its force for one control period (a digital controller's
+/// zero-order hold), and the temperature is updated at coarse intervals.
+///
+/// Periods are whole multiples of the mechanical step and are driven by one step counter, so the
+/// subsystems stay aligned over runs of any length. In each step the mechanics goes first, the
+/// controller then samples the state it reached, and a thermal update receives the heat the
+/// mechanics generated over the whole interval. That is the exact integral of the fast signal
+/// rather than a sample of it, so no energy is lost between rates. Temperature does not act on
+/// the rotor dynamics in this model, so the fast side needs no input from the slow one.
+///
+/// Subcycling at a fixed step saves only the controller and thermal updates, while the fine rotor
+/// integration dominates either way. So fromProperties makes the mechanics adaptive unless an
+/// integrator is given: the control force is held over a control period, so the mechanical step
+/// defaults to the control period and Dormand-Prince covers each period in as few internal steps
+/// as its tolerances allow, a single one once the rotor is at rest. Friction losses are then
+/// sampled once per control period, while the displacement statistics still see every
+/// DEFAULT_MECHANICAL_STEP: they are read off the integrator's continuous extension inside each
+/// accepted step, so a peak between two control updates is not missed.
+///
+/// The single-node thermal update is explicit, so its interval must stay below twice the thermal
+/// time constant; the constructor checks this at ambient temperature. A job's ThermalNetwork steps
+/// implicitly and takes thermal steps of any length.
+public class MultiRateSimulation {
+    public static final double DEFAULT_MECHANICAL_STEP = 2e-5;
+    public static final double DEFAULT_CONTROL_PERIOD = 1e-3;
+    public static final double DEFAULT_THERMAL_STEP = 1.0;
+
+    private final SimulationJob job;
+    private final BearingModel bearingModel;
+    private final PhysicsEngine physicsEngine;
+    private final ControlSystem controlSystem;
+    private final double mechanicalStep;
+    /// Mechanical steps per control period and per thermal update
+    private final int controlRatio;
+    private final int thermalRatio;
+    private long stepCount;
+    private long controlUpdates;
+    private long thermalUpdates;
+    /// Heat (J) generated by the mechanics since the last thermal update
+    private double pendingHeat;
+    private double peakDisplacement;
+    private double squaredDisplacement;
+    private long displacementSamples;
+    /// Set when the displacement statistics come from the adaptive integrator's dense output
+    private final boolean denseSampling;
+    private final double[] denseState = new double[2];
+
+    /// Model, integrator and gains come from the job; its time step and step count are not used.
+    public MultiRateSimulation(SimulationJob job, double mechanicalStep, double controlPeriod, double thermalStep) {
+        if (!(mechanicalStep > 0)) {
+            throw new IllegalArgumentException("Mechanical step must be positive: " + mechanicalStep);
+        }
+        this.job = job;
+        this.mechanicalStep = mechanicalStep;
+        this.controlRatio = ratio("Control period", controlPeriod, mechanicalStep);
+        this.thermalRatio = ratio("Thermal step", thermalStep, mechanicalStep);
+        SimulationLoop loop = job.createLoop();
+        this.bearingModel = loop.getBearingModel();
+        this.physicsEngine = loop.getPhysicsEngine();
+        this.controlSystem = loop.getControlSystem();
+        double limit = 2 * physicsEngine.getThermalTimeConstant();
+        if (physicsEngine.getThermalNetwork() == null && thermalStep >= limit) {
+            throw new IllegalArgumentException(String.format(
+                    "Thermal step %.4g s is unstable for this bearing; it must be below %.3g s", thermalStep, limit));
+        }
+        denseSampling = mechanicalStep > DEFAULT_MECHANICAL_STEP
+                && physicsEngine.getIntegrator() instanceof DormandPrinceIntegrator;
+        if (denseSampling) {
+            ((DormandPrinceIntegrator) physicsEngine.getIntegrator()).setObserver(this::sampleAcceptedStep);
+        }
+    }
+
+    /// Reads the SimulationJob keys plus mechanicalStep, controlPeriod and thermalStep (s). The
+    /// integrator defaults to dopri5, and for dopri5 the mechanical step to the control period.
+    public static MultiRateSimulation fromProperties(Properties properties) {
+        SimulationJob job = SimulationJob.fromProperties(properties);
+        if (properties.getProperty("integrator") == null) {
+            job.setIntegrator(IntegratorType.DORMAND_PRINCE);
+        }
+        double controlPeriod = parse(properties, "controlPeriod", DEFAULT_CONTROL_PERIOD);
+        double mechanicalStep = job.getIntegrator() == IntegratorType.DORMAND_PRINCE ? controlPeriod : DEFAULT_MECHANICAL_STEP;
+        return new MultiRateSimulation(job, parse(properties, "mechanicalStep", mechanicalStep), controlPeriod,
+                parse(properties, "thermalStep", DEFAULT_THERMAL_STEP));
+    }
+
+    private static double parse(Properties properties, String key, double defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid numeric value for " + key + ": " + value);
+        }
+    }
+
+    private static int ratio(String name, double period, double mechanicalStep) {
+        double ratio = period / mechanicalStep;
+        long steps = Math.round(ratio);
+        if (!(period > 0) || steps < 1 || steps > Integer.MAX_VALUE || Math.abs(ratio - steps) > 1e-6 * steps) {
+            throw new IllegalArgumentException(name + " must be a whole multiple of the mechanical step "
+                    + mechanicalStep + " s: " + period);
+        }
+        return (int) steps;
+    }
+
+    /// Fresh simulation of the same job with every subsystem at the mechanical step, at most
+    /// DEFAULT_MECHANICAL_STEP and with fixed-step RK4 if the mechanics is adaptive: the uniform
+    /// fine-step reference this one is measured against
+    public MultiRateSimulation uniform() {
+        double step = Math.min(mechanicalStep, DEFAULT_MECHANICAL_STEP);
+        MultiRateSimulation uniform = new MultiRateSimulation(job, step, step, step);
+        if (job.getIntegrator() == IntegratorType.DORMAND_PRINCE) {
+            uniform.physicsEngine.setIntegrator(IntegratorType.RK4.create());
+        }
+        return uniform;
+    }
+
+    /// Fresh simulation of the same job at the same rates
+    public MultiRateSimulation copy() {
+        return new MultiRateSimulation(job, mechanicalStep, getControlPeriod(), getThermalStep());
+    }
+
+    /// Advances the mechanics by one step, then the controller and the temperature when their
+    /// period ends with it.
+    public void step() {
+        pendingHeat += physicsEngine.advanceMechanics(mechanicalStep);
+        stepCount++;
+        double displacement = physicsEngine.getRotorDisplacement();
+        if (!denseSampling) {
+            sampleDisplacement(displacement);
+        }
+        if (stepCount % controlRatio == 0) {
+            double force = controlSystem.update(displacement, physicsEngine.getRotorVelocity(), getControlPeriod());
+            physicsEngine.applyControlForce(force);
+            controlUpdates++;
+        }
+        if (stepCount % thermalRatio == 0) {
+            double period = getThermalStep();
+            physicsEngine.advanceThermal(pendingHeat / period, period);
+            pendingHeat = 0.0;
+            thermalUpdates++;
+        }
+    }
+
+    /// Samples the displacement on the DEFAULT_MECHANICAL_STEP grid of the integrator's clock
+    /// inside a step it just accepted; the slack keeps rounding of the step end from dropping the
+    /// grid point that ends the step
+    private void sampleAcceptedStep(DormandPrinceIntegrator integrator) {
+        double end = integrator.getLastStepStart() + integrator.getLastStepSize() + 1e-6 * DEFAULT_MECHANICAL_STEP;
+        while ((displacementSamples + 1) * DEFAULT_MECHANICAL_STEP <= end) {
+            integrator.interpolate((displacementSamples + 1) * DEFAULT_MECHANICAL_STEP, denseState);
+            sampleDisplacement(denseState[0]);
+        }
+    }
+
+    private void sampleDisplacement(double displacement) {
+        peakDisplacement = Math.max(peakDisplacement, Math.abs(displacement));
+        squaredDisplacement += displacement * displacement;
+        displacementSamples++;
+    }
+
+    /// Mechanical steps covering the job's duration
+    public long getDurationSteps() {
+        return Math.max(1, Math.round(job.getDuration() / mechanicalStep));
+    }
+
+    /// Mechanical steps between output rows: the job's sample spacing, sampleInterval × timeStep
+    public long getSampleSteps() {
+        return Math.max(1, Math.round(job.getSampleInterval() * job.getTimeStep() / mechanicalStep));
+    }
+
+    public SimulationJob getJob() { return job; }
+    public BearingModel getBearingModel() { return bearingModel; }
+    public PhysicsEngine getPhysicsEngine() { return physicsEngine; }
+    public ControlSystem getControlSystem() { return controlSystem; }
+    public double getMechanicalStep() { return mechanicalStep; }
+    public double getControlPeriod() { return controlRatio * mechanicalStep; }
+    public double getThermalStep() { return thermalRatio * mechanicalStep; }
+    public double getTime() { return stepCount * mechanicalStep; }
+    public long getStepCount() { return stepCount; }
+    public long getControlUpdates() { return controlUpdates; }
+    public long getThermalUpdates() { return thermalUpdates; }
+    /// Largest |displacement| (m) at any sample so far: every mechanical step, or every
+    /// DEFAULT_MECHANICAL_STEP of an adaptive run
+    public double getPeakDisplacement() { return peakDisplacement; }
+    public double getRmsDisplacement() {
+        return displacementSamples > 0 ? Math.sqrt(squaredDisplacement / displacementSamples) : 0.0;
+    }
+}
@@ -0,0 +1,64 @@
+package code.hybrid_bearing_system.design;
+
+/// Physics quantities that can be recorded by headless runs.
+public enum OutputChannel {
+    DISPLACEMENT("Displacement") {
+        @Override
+        public double read(PhysicsEngine physics) { return physics.getRotorDisplacement(); }
+    },
+    VELOCITY("Velocity") {
+        @Override
+        public double read(PhysicsEngine physics) { return physics.getRotorVelocity(); }
+    },
+    FRICTION("Friction") {
+        @Override
+        public double read(PhysicsEngine physics) { return physics.getFrictionForce(); }
+    },
+    ENERGY_LOSS("EnergyLoss") {
+        @Override
+        public double read(PhysicsEngine physics) { return physics.getEnergyLoss(); }
+    },
+    TEMPERATURE("Temperature") {
+        @Override
+        public double read(PhysicsEngine physics) { return physics.getTemperature(); }
+    },
+    STRESS("Stress") {
+        @Override
+        public double read(PhysicsEngine physics) { return physics.getStress(); }
+    },
+    MAGNETIC_FIELD("MagneticField") {
+        @Override
+        public double read(PhysicsEngine physics) { return physics.getMagneticFieldStrength(); }
+    },
+    CONTROL_FORCE("ControlForce") {
+        @Override
+        public double read(PhysicsEngine physics) { return physics.getControlForce(); }
+    },
+    CONTROL_CURRENT("ControlCurrent") {
+        @Override
+        public double read(PhysicsEngine physics) { return physics.getControlCurrent(); }
+    };
+
+    private final String label;
+
+    OutputChannel(String label) {
+        this.label = label;
+    }
+
+    public abstract double read(PhysicsEngine physics);
+
+    public String getLabel() {
+        return label;
+    }
+
+    /// Accepts either the enum name ("ENERGY_LOSS") or the CSV label ("EnergyLoss"), case-insensitively.
+    public static OutputChannel parse(String name) {
+        String key = name.trim();
+        for (OutputChannel channel : values()) {
+            if (channel.name().equalsIgnoreCase(key) || channel.label.equalsIgnoreCase(key)) {
+                return channel;
+            }
+        }
+        throw new IllegalArgumentException("Unknown output channel: " + name);
+    }
+}
@@ -0,0 +1,272 @@
+package code.hybrid_bearing_system.design;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/// Expands a grid over bearing type, speed, load, modulus and PID gains into independent cases
+/// and runs them on a work-stealing fork/join pool. Every case builds its own model, engine and
+/// controller, so workers share no mutable state.
+public class ParameterSweep {
+    private List<String> bearingTypes = List.of("Hybrid");
+    private double[] spindleSpeeds = {10000};
+    private double[] loads = {500};
+    private double[] youngsModuli = {380};
+    private double[] kpValues = {1000.0};
+    private double[] kiValues = {10.0};
+    private double[] kdValues = {50.0};
+    private double duration = 1.0;
+    private IntegratorType integrator = IntegratorType.RK4;
+    private ControllerType controller = ControllerType.PID;
+    /// Cache consulted before simulating a case, or null to simulate every case
+    private ResultCache cache;
+    private volatile boolean cancelled;
+
+    /// Reads the same keys as SimulationJob, except that every numeric key and bearingType
+    /// may hold several values: "a,b,c" or an evenly spaced range "start:end:count".
+    public static ParameterSweep fromProperties(Properties properties) {
+        ParameterSweep sweep = new ParameterSweep();
+        String types = properties.getProperty("bearingType");
+        if (types != null && !types.isBlank()) {
+            sweep.setBearingTypes(parseBearingTypes(types));
+        }
+        sweep.spindleSpeeds = values(properties, "spindleSpeed", sweep.spindleSpeeds);
+        sweep.loads = values(properties, "load", sweep.loads);
+        sweep.youngsModuli = values(properties, "youngsModulus", sweep.youngsModuli);
+        sweep.kpValues = values(properties, "kp", sweep.kpValues);
+        sweep.kiValues = values(properties, "ki", sweep.kiValues);
+        sweep.kdValues = values(properties, "kd", sweep.kdValues);
+        String integrator = properties.getProperty("integrator");
+        if (integrator != null && !integrator.isBlank()) {
+            sweep.setIntegrator(IntegratorType.parse(integrator));
+        }
+        String controller = properties.getProperty("controller");
+        if (controller != null && !controller.isBlank()) {
+            sweep.setController(ControllerType.parse(controller));
+        }
+        String duration = properties.getProperty("duration");
+        if (duration != null && !duration.isBlank()) {
+            sweep.setDuration(parseValues(duration)[0]);
+        }
+        return sweep;
+    }
+
+    private static double[] values(Properties properties, String key, double[] defaults) {
+        String spec = properties.getProperty(key);
+        if (spec == null || spec.isBlank()) {
+            return defaults;
+        }
+        try {
+            return parseValues(spec);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid values for " + key + ": " + e.getMessage());
+        }
+    }
+
+    public static List<String> parseBearingTypes(String spec) {
+        List<String> types = new ArrayList<>();
+        for (String type : spec.split(",")) {
+            types.add(SimulationJob.checkBearingType(type.trim()));
+        }
+        return types;
+    }
+
+    public static double[] parseValues(String spec) {
+        String trimmed = spec.trim();
+        if (trimmed.contains(":")) {
+            String[] parts = trimmed.split(":");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Range must be start:end:count: " + spec);
+            }
+            double start = Double.parseDouble(parts[0].trim());
+            double end = Double.parseDouble(parts[1].trim());
+            int count = Integer.parseInt(parts[2].trim());
+            if (count < 1) {
+                throw new IllegalArgumentException("Range count must be at least 1: " + spec);
+            }
+            double[] values = new double[count];
+            for (int i = 0; i < count; i++) {
+                values[i] = count == 1 ? start : start + (end - start) * i / (count - 1);
+            }
+            return values;
+        }
+        String[] parts = trimmed.split(",");
+        double[] values = new double[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            values[i] = Double.parseDouble(parts[i].trim());
+        }
+        return values;
+    }
+
+    public int getCaseCount() {
+        long count = (long) bearingTypes.size() * spindleSpeeds.length * loads.length * youngsModuli.length
+                * kpValues.length * kiValues.length * kdValues.length;
+        if (count > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Sweep grid too large: " + count + " cases");
+        }
+        return (int) count;
+    }
+
+    /// Decodes a case index into its grid coordinates (last dimension varies fastest).
+    public SimulationJob getCase(int index) {
+        SimulationJob job = new SimulationJob();
+        int remainder = index;
+        job.setKd(kdValues[remainder % kdValues.length]);
+        remainder /= kdValues.length;
+        job.setKi(kiValues[remainder % kiValues.length]);
+        remainder /= kiValues.length;
+        job.setKp(kpValues[remainder % kpValues.length]);
+        remainder /= kpValues.length;
+        job.setYoungsModulus(youngsModuli[remainder % youngsModuli.length]);
+        remainder /= youngsModuli.length;
+        job.setLoad(loads[remainder % loads.length]);
+        remainder /= loads.length;
+        job.setSpindleSpeed(spindleSpeeds[remainder % spindleSpeeds.length]);
+        remainder /= spindleSpeeds.length;
+        job.setBearingType(bearingTypes.get(remainder));
+        job.setDuration(duration);
+        job.setIntegrator(integrator);
+        job.setController(controller);
+        return job;
+    }
+
+    /// Simulates one case, or takes it from the cache when one is set.
+    public SweepResult runCase(int index) {
+        SimulationJob job = getCase(index);
+        long start = System.nanoTime();
+        String key = cache != null ? ResultCache.key(job, 0) : null;
+        ResultCache.Entry cached = key != null ? cache.get(key) : null;
+        if (cached != null) {
+            return new SweepResult(index, job, cached.getSummary(), System.nanoTime() - start, false);
+        }
+        RunSummary summary = cache != null ? cache.summarize(job) : RunSummary.simulate(job);
+        return new SweepResult(index, job, summary, System.nanoTime() - start, true);
+    }
+
+    /// Runs every case and hands each result to the sink as soon as it finishes.
+    /// The sink is called concurrently from worker threads and must be thread-safe.
+    /// Steps are counted only for cases that were integrated, not for those taken from the cache.
+    public Statistics run(int parallelism, Consumer<SweepResult> sink) {
+        cancelled = false;
+        AtomicLong completed = new AtomicLong();
+        AtomicLong cachedCases = new AtomicLong();
+        AtomicLong steps = new AtomicLong();
+        Consumer<SweepResult> counted = result -> {
+            if (result.isSimulated()) {
+                steps.addAndGet(result.getSummary().getSteps());
+            } else {
+                cachedCases.incrementAndGet();
+            }
+            sink.accept(result);
+        };
+        long start = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, parallelism));
+        try {
+            pool.invoke(new CaseRange(0, getCaseCount(), counted, completed));
+        } finally {
+            pool.shutdown();
+        }
+        return new Statistics(completed.get(), cachedCases.get(), steps.get(), System.nanoTime() - start, pool.getParallelism());
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    private class CaseRange extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int from;
+        private final int to;
+        /// Fork/join tasks are Serializable by inheritance but never serialized
+        private final transient Consumer<SweepResult> sink;
+        private final AtomicLong completed;
+
+        CaseRange(int from, int to, Consumer<SweepResult> sink, AtomicLong completed) {
+            this.from = from;
+            this.to = to;
+            this.sink = sink;
+            this.completed = completed;
+        }
+
+        @Override
+        protected void compute() {
+            if (cancelled) {
+                return;
+            }
+            if (to - from == 1) {
+                sink.accept(runCase(from));
+                completed.incrementAndGet();
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new CaseRange(from, middle, sink, completed), new CaseRange(middle, to, sink, completed));
+        }
+    }
+
+    public static class Statistics {
+        private final long cases;
+        private final long cachedCases;
+        private final long steps;
+        private final long elapsedNanos;
+        private final int parallelism;
+
+        Statistics(long cases, long cachedCases, long steps, long elapsedNanos, int parallelism) {
+            this.cases = cases;
+            this.cachedCases = cachedCases;
+            this.steps = steps;
+            this.elapsedNanos = elapsedNanos;
+            this.parallelism = parallelism;
+        }
+
+        public double getCasesPerSecond() { return elapsedNanos > 0 ? cases * 1e9 / elapsedNanos : 0.0; }
+        public double getStepsPerSecond() { return elapsedNanos > 0 ? steps * 1e9 / elapsedNanos : 0.0; }
+        public long getCases() { return cases; }
+        /// Cases whose summary came from the cache; their steps are not in getStepsPerSecond()
+        public long getCachedCases() { return cachedCases; }
+        public long getSteps() { return steps; }
+        public long getElapsedNanos() { return elapsedNanos; }
+        public int getParallelism() { return parallelism; }
+    }
+
+    public List<String> getBearingTypes() { return bearingTypes; }
+    public void setBearingTypes(List<String> bearingTypes) {
+        if (bearingTypes.isEmpty()) {
+            throw new IllegalArgumentException("At least one bearing type is required");
+        }
+        List<String> checked = new ArrayList<>();
+        for (String type : bearingTypes) {
+            checked.add(SimulationJob.checkBearingType(type));
+        }
+        this.bearingTypes = List.copyOf(checked);
+    }
+    public double[] getSpindleSpeeds() { return spindleSpeeds.clone(); }
+    public void setSpindleSpeeds(double... spindleSpeeds) { this.spindleSpeeds = nonEmpty(spindleSpeeds, "spindle speed"); }
+    public double[] getLoads() { return loads.clone(); }
+    public void setLoads(double... loads) { this.loads = nonEmpty(loads, "load"); }
+    public double[] getYoungsModuli() { return youngsModuli.clone(); }
+    public void setYoungsModuli(double... youngsModuli) { this.youngsModuli = nonEmpty(youngsModuli, "Young's modulus"); }
+    public void setKpValues(double... kpValues) { this.kpValues = nonEmpty(kpValues, "Kp"); }
+    public void setKiValues(double... kiValues) { this.kiValues = nonEmpty(kiValues, "Ki"); }
+    public void setKdValues(double... kdValues) { this.kdValues = nonEmpty(kdValues, "Kd"); }
+    public ResultCache getCache() { return cache; }
+    public void setCache(ResultCache cache) { this.cache = cache; }
+    public IntegratorType getIntegrator() { return integrator; }
+    public void setIntegrator(IntegratorType integrator) { this.integrator = integrator; }
+    public ControllerType getController() { return controller; }
+    public void setController(ControllerType controller) { this.controller = controller; }
+    public double getDuration() { return duration; }
+    public void setDuration(double duration) {
+        this.duration = SimulationJob.checkDuration(duration);
+    }
+
+    private static double[] nonEmpty(double[] values, String name) {
+        if (values.length == 0) {
+            throw new IllegalArgumentException("At least one " + name + " value is required");
+        }
+        return values.clone();
+    }
+}
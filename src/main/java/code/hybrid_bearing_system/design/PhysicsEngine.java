@@ -1,6 +1,16 @@
 package code.hybrid_bearing_system.design;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 public class PhysicsEngine {
+    public static final double TIME_STEP = 0.01;
+    /// Heat path to ambient (20 °C): convection coefficient (W/m²·K), surface area (m²) and
+    /// conduction length (m)
+    private static final double CONVECTION_COEFFICIENT = 25.0;
+    private static final double SURFACE_AREA = 0.01;
+    private static final double CONDUCTION_LENGTH = 0.01;
     private double rotorDisplacement = 0.0;
     private double rotorVelocity = 0.0;
     private double frictionForce = 0.0;
@@ -11,103 +21,199 @@ public class PhysicsEngine {
     private BearingModel bearingModel;
     private ModalAnalysis modalAnalysis;
     private double controlForce = 0.0;
+    /// Coil current the actuator needs for the commanded control force (tabulated actuators only)
+    private double controlCurrent = 0.0;
+    private MagneticActuator actuator;
+    /// Closed-form coil force plus the control force, constant over a step
+    private double stepForce = 0.0;
+    private Integrator integrator = new RungeKutta4Integrator();
+    /// Multi-node thermal network that replaces the single temperature node, or null
+    private ThermalNetwork thermalNetwork;
+    /// Rolling-element load distribution that replaces the contact-circle stress, or null
+    private LoadDistribution loadDistribution;
+    /// Period of one update() call, i.e. the control and sampling interval. Fixed-step integrators
+    /// take one step per period; adaptive ones subdivide it as their tolerances require.
+    private double timeStep = TIME_STEP;
+    /// Preallocated [displacement, velocity] buffer handed to the integrator every step
+    private final double[] state = new double[2];
+    private final StateDerivative dynamics = this::dynamics;
+    /// Cached derived constants, refreshed when the model's version changes
+    private BearingProfile profile;
 
     public PhysicsEngine(BearingModel bearingModel) {
         this.bearingModel = bearingModel;
+        this.profile = bearingModel.getProfile();
+        this.actuator = profile.getActuator();
         modalAnalysis = new ModalAnalysis();
     }
 
-    public void update() {
-        double dt = 0.01;
-        // Update system state using 4th-order Runge-Kutta integration
-        // k1-k4 represent intermediate calculations for numerical integration
-        // This provides higher accuracy than Euler integration for dynamic systems
-        double[] k1 = dynamics(rotorDisplacement, rotorVelocity);
-        double[] k2 = dynamics(rotorDisplacement + dt * k1[0] / 2, rotorVelocity + dt * k1[1] / 2);
-        double[] k3 = dynamics(rotorDisplacement + dt * k2[0] / 2, rotorVelocity + dt * k2[1] / 2);
-        double[] k4 = dynamics(rotorDisplacement + dt * k3[0], rotorVelocity + dt * k3[1]);
-        /// Weighted average of k1-k4 for final state update
-        double newDisplacement = rotorDisplacement + (dt / 6) * (k1[0] + 2 * k2[0] + 2 * k3[0] + k4[0]);
-        double newVelocity = rotorVelocity + (dt / 6) * (k1[1] + 2 * k2[1] + 2 * k3[1] + k4[1]);
-        rotorDisplacement = clamp(newDisplacement, -0.01, 0.01);
-        rotorVelocity = clamp(newVelocity, -10.0, 10.0);
-        double contactRadius = 0.01;
-        /// Hertzian contact stress calculation
-        /// Assumes circular contact area with radius 0.01m
-        /// Effective modulus accounts for material properties (E) and Poisson's ratio (ν=0.3)
-        double effectiveModulus = bearingModel.getYoungsModulus() * 1e9 / (1 - 0.3 * 0.3);
-        double contactForce = bearingModel.getLoad();
-        double contactArea = Math.PI * Math.pow(contactRadius, 2);
-        frictionForce = clamp(0.05 * contactForce * (bearingModel.getSpindleSpeed() / 10000), 0, 1000);
-
-        stress = clamp(contactForce / contactArea, 0, 1e9);
+    public void setIntegrator(Integrator integrator) {
+        this.integrator = integrator;
+    }
 
-        energyLoss += frictionForce * Math.abs(rotorVelocity) * dt;
-        if (bearingModel.getBearingType().equals("Magnetic") || bearingModel.getBearingType().equals("Hybrid")) {
-            energyLoss += clamp(calculateEddyCurrentLoss(), 0, 1000);
+    public Integrator getIntegrator() {
+        return integrator;
+    }
+
+    /// Installs a thermal network (null for the single node). The reported temperature becomes
+    /// its sensor node's, and heat is split over the nodes by their shares.
+    public void setThermalNetwork(ThermalNetwork thermalNetwork) {
+        this.thermalNetwork = thermalNetwork;
+        temperature = thermalNetwork != null ? clamp(thermalNetwork.getSensorTemperature(), 20.0, 500.0) : 20.0;
+    }
+
+    public ThermalNetwork getThermalNetwork() {
+        return thermalNetwork;
+    }
+
+    /// Installs a load distribution solver (null for the contact-circle estimate). On bearings
+    /// with rolling elements the stress becomes the highest Hertzian contact pressure, solved every
+    /// step for the static load plus the bearing's elastic and damping reaction.
+    public void setLoadDistribution(LoadDistribution loadDistribution) {
+        this.loadDistribution = loadDistribution;
+        if (loadDistribution != null) {
+            loadDistribution.setEffectiveModulus(profile.getEffectiveModulus());
         }
-        energyLoss = clamp(energyLoss, 0, 1e6);
-        /// Heat generation from friction (Q = F_friction * v)
-        double heatGeneration = frictionForce * Math.abs(rotorVelocity);
-        if (bearingModel.getBearingType().equals("Magnetic") || bearingModel.getBearingType().equals("Hybrid")) {
-            /// Additional eddy current losses for magnetic bearings
-            heatGeneration += clamp(0.1 * magneticFieldStrength * magneticFieldStrength, 0, 1000);
-        }
-        double heatDissipation = calculateHeatDissipation();
-        /// Temperature change: ΔT = (Q_in - Q_out) / (m*c_p)
-        temperature += (heatGeneration - heatDissipation) * dt / (bearingModel.getSpecificHeat() * bearingModel.getMass());
-        temperature = clamp(temperature, 20.0, 500.0);
+    }
 
-        if (bearingModel.getBearingType().equals("Magnetic") || bearingModel.getBearingType().equals("Hybrid")) {
-            magneticFieldStrength = clamp(calculateMagneticField(), 0, 10.0);
-        } else {
-            magneticFieldStrength = 0.0;
+    public LoadDistribution getLoadDistribution() {
+        return loadDistribution;
+    }
+
+    public void setTimeStep(double timeStep) {
+        if (!(timeStep > 0)) {
+            throw new IllegalArgumentException("Time step must be positive: " + timeStep);
         }
+        this.timeStep = timeStep;
     }
 
-    private double[] dynamics(double displacement, double velocity) {
-        double mass = bearingModel.getMass();
-        double stiffness = clamp(bearingModel.getYoungsModulus() * 1e9 * 0.01, 1e6, 1e9);
-        double damping = 0.05 * Math.sqrt(stiffness * mass);
-        double gyroscopicForce = clamp(0.01 * bearingModel.getSpindleSpeed() * velocity, -1000, 1000);
-        double acceleration = (-stiffness * displacement - damping * velocity + calculateMagneticForce() + controlForce - gyroscopicForce) / mass;
-        if (Double.isNaN(acceleration) || Double.isInfinite(acceleration)) {
-            acceleration = 0.0;
+    public double getTimeStep() {
+        return timeStep;
+    }
+
+    public void update() {
+        if (!Instrumentation.ENABLED) {
+            advance();
+            return;
         }
-        return new double[]{velocity, clamp(acceleration, -1000, 1000)};
+        long start = System.nanoTime();
+        advance();
+        Instrumentation.PHYSICS_UPDATE.recordSince(start);
     }
 
-    private double calculateMagneticForce() {
-        if (bearingModel.getBearingType().equals("Magnetic") || bearingModel.getBearingType().equals("Hybrid")) {
-            double current = 10.0;
-            double turns = 100;
-            double radius = 0.05;
-            double mu0 = 4 * Math.PI * 1e-7;
-            magneticFieldStrength = mu0 * turns * current / (2 * radius);
-            double force = magneticFieldStrength * current * 0.01;
-            return clamp(force, -1000, 1000);
+    private void advance() {
+        double dt = timeStep;
+        moveRotor(dt);
+        /// Eddy current losses in the actuator (zero for ceramic bearings); eddyLoss() is the
+        /// energy of one TIME_STEP, so scale it to the configured step
+        energyLoss += BearingProfile.eddyLoss(magneticFieldStrength) * (dt / TIME_STEP);
+        energyLoss = clamp(energyLoss, 0, 1e6);
+        advanceThermal(heatGeneration(), dt);
+    }
+
+    /// Mechanical substep of a multi-rate run (see MultiRateSimulation): rotor motion, field and
+    /// losses over dt at the held control force, leaving the temperature alone. Returns the heat
+    /// (J) generated during the substep.
+    double advanceMechanics(double dt) {
+        moveRotor(dt);
+        /// eddyLoss() is the energy of one TIME_STEP; scale it to the substep
+        energyLoss += BearingProfile.eddyLoss(magneticFieldStrength) * (dt / TIME_STEP);
+        energyLoss = clamp(energyLoss, 0, 1e6);
+        return heatGeneration() * dt;
+    }
+
+    /// Temperature change over dt for a mean heat generation (W): ΔT = (Q_in - Q_out) / (m*c_p),
+    /// or an implicit step of the thermal network when one is installed
+    void advanceThermal(double heatGeneration, double dt) {
+        if (thermalNetwork != null) {
+            thermalNetwork.distributeHeat(heatGeneration);
+            thermalNetwork.step(dt);
+            temperature = clamp(thermalNetwork.getSensorTemperature(), 20.0, 500.0);
+            return;
         }
-        return 0.0;
+        double heatDissipation = calculateHeatDissipation(profile);
+        temperature += (heatGeneration - heatDissipation) * dt / profile.getHeatCapacity();
+        temperature = clamp(temperature, 20.0, 500.0);
     }
 
-    private double calculateMagneticField() {
-        return magneticFieldStrength;
+    /// Time constant (s) of the single node's decay towards ambient at the current temperature
+    double getThermalTimeConstant() {
+        double conductance = CONVECTION_COEFFICIENT * SURFACE_AREA
+                + profile.getThermalConductivity(temperature) * SURFACE_AREA / CONDUCTION_LENGTH;
+        return profile.getHeatCapacity() / conductance;
     }
 
-    private double calculateEddyCurrentLoss() {
-        double resistivity = 1e-6;
-        double volume = 0.001;
-        double loss = (magneticFieldStrength * magneticFieldStrength * volume) / resistivity * 0.01;
-        return clamp(loss, 0, 1000);
+    private void moveRotor(double dt) {
+        if (bearingModel.getVersion() != profile.getVersion()) {
+            profile = bearingModel.getProfile();
+            actuator = profile.getActuator();
+            if (loadDistribution != null) {
+                loadDistribution.setEffectiveModulus(profile.getEffectiveModulus());
+            }
+        }
+        BearingProfile p = profile;
+        /// With a tabulated actuator the control force command becomes a coil current once per
+        /// step, and the force map gives the force at every integrator stage. The closed-form coil
+        /// adds a constant force, so the stages share one sum.
+        controlCurrent = actuator != null ? actuator.controlCurrentFor(controlForce) : 0.0;
+        stepForce = p.getMagneticForce() + controlForce;
+        /// Advance rotor motion with the selected integrator (RK4 by default); the integrator
+        /// works in place on the preallocated state buffer so a step allocates nothing
+        state[0] = rotorDisplacement;
+        state[1] = rotorVelocity;
+        integrator.step(dynamics, state, dt);
+        rotorDisplacement = clamp(state[0], -0.01, 0.01);
+        rotorVelocity = clamp(state[1], -10.0, 10.0);
+        /// Contact friction and Hertzian contact stress depend only on load, speed and
+        /// material, so they come precomputed from the bearing profile
+        frictionForce = p.getFrictionForce();
+        stress = p.getStress();
+        if (loadDistribution != null && p.hasRollingElements()) {
+            loadDistribution.solve(getBearingLoad(), 0.0);
+            stress = clamp(loadDistribution.getMaxPressure(), 0, 1e11);
+        }
+
+        if (actuator != null) {
+            magneticFieldStrength = clamp(actuator.fluxDensity(rotorDisplacement, controlCurrent), 0, 10.0);
+        } else {
+            magneticFieldStrength = p.getFieldStrength();
+        }
+
+        energyLoss += frictionForce * Math.abs(rotorVelocity) * dt;
+    }
+
+    /// Heat generation from friction (Q = F_friction * v) plus eddy current heating
+    private double heatGeneration() {
+        return frictionForce * Math.abs(rotorVelocity) + BearingProfile.eddyHeat(magneticFieldStrength);
     }
 
-    private double calculateHeatDissipation() {
+    private void dynamics(double[] y, double[] derivative) {
+        BearingProfile p = profile;
+        double displacement = y[0];
+        double velocity = y[1];
+        double gyroscopicForce = clamp(p.getGyroscopicCoefficient() * velocity, -1000, 1000);
+        /// A tabulated actuator acts through its force map (bias, negative stiffness, saturation
+        /// and current limits); otherwise the closed-form coil's constant and the control force act
+        double actuatorForce = actuator != null ? actuator.force(displacement, controlCurrent) : stepForce;
+        double acceleration = (-p.getStiffness() * displacement - p.getDamping() * velocity + actuatorForce - gyroscopicForce) / p.getMass();
+        if (Double.isNaN(acceleration) || Double.isInfinite(acceleration)) {
+            acceleration = 0.0;
+        }
+        derivative[0] = velocity;
+        derivative[1] = clamp(acceleration, -1000, 1000);
+    }
+
+    private double calculateHeatDissipation(BearingProfile p) {
         /// Heat dissipation via convection and conduction
-        double convectionCoefficient = 25.0;
-        double surfaceArea = 0.01;
-        double thermalConductivity = MaterialProperties.getThermalConductivity("ceramic");
-        double conduction = thermalConductivity * surfaceArea * (temperature - 20.0) / 0.01;
-        return clamp(convectionCoefficient * surfaceArea * (temperature - 20.0) + conduction, 0, 10000);
+        double conduction = p.getThermalConductivity(temperature) * SURFACE_AREA * (temperature - 20.0) / CONDUCTION_LENGTH;
+        return clamp(CONVECTION_COEFFICIENT * SURFACE_AREA * (temperature - 20.0) + conduction, 0, 10000);
+    }
+
+    /// Places the rotor at a displacement (m) and velocity (m/s), e.g. to start a disturbance
+    /// rejection run from an offset; values are limited like those of a step.
+    public void setRotorState(double displacement, double velocity) {
+        rotorDisplacement = clamp(displacement, -0.01, 0.01);
+        rotorVelocity = clamp(velocity, -10.0, 10.0);
     }
 
     public void applyControlForce(double force) {
@@ -123,6 +229,82 @@ public class PhysicsEngine {
         magneticFieldStrength = 0.0;
         stress = 0.0;
         controlForce = 0.0;
+        controlCurrent = 0.0;
+        stepForce = 0.0;
+        integrator.reset();
+        if (loadDistribution != null) {
+            loadDistribution.reset();
+        }
+        if (thermalNetwork != null) {
+            thermalNetwork.reset();
+            temperature = clamp(thermalNetwork.getSensorTemperature(), 20.0, 500.0);
+        }
+    }
+
+    /// Complete step-to-step state in SimulationCheckpoint order, as exact bit patterns, ending
+    /// with the thermal network's node count (0 without one) and state, then the load distribution's
+    /// warm start if there is one. The profile and actuator are derived from the BearingModel and
+    /// are not written.
+    void writeState(DataOutput out) throws IOException {
+        out.writeDouble(timeStep);
+        out.writeDouble(rotorDisplacement);
+        out.writeDouble(rotorVelocity);
+        out.writeDouble(frictionForce);
+        out.writeDouble(energyLoss);
+        out.writeDouble(temperature);
+        out.writeDouble(magneticFieldStrength);
+        out.writeDouble(stress);
+        out.writeDouble(controlForce);
+        out.writeDouble(controlCurrent);
+        double[] history = integrator.getHistory();
+        out.writeInt(history.length);
+        for (double value : history) {
+            out.writeDouble(value);
+        }
+        out.writeInt(thermalNetwork != null ? thermalNetwork.getNodeCount() : 0);
+        if (thermalNetwork != null) {
+            thermalNetwork.writeState(out);
+        }
+        out.writeBoolean(loadDistribution != null);
+        if (loadDistribution != null) {
+            out.writeDouble(loadDistribution.getDisplacementX());
+            out.writeDouble(loadDistribution.getDisplacementY());
+        }
+    }
+
+    void readState(DataInput in) throws IOException {
+        setTimeStep(in.readDouble());
+        rotorDisplacement = in.readDouble();
+        rotorVelocity = in.readDouble();
+        frictionForce = in.readDouble();
+        energyLoss = in.readDouble();
+        temperature = in.readDouble();
+        magneticFieldStrength = in.readDouble();
+        stress = in.readDouble();
+        controlForce = in.readDouble();
+        controlCurrent = in.readDouble();
+        double[] history = new double[in.readInt()];
+        for (int i = 0; i < history.length; i++) {
+            history[i] = in.readDouble();
+        }
+        integrator.setHistory(history);
+        int nodes = in.readInt();
+        int expected = thermalNetwork != null ? thermalNetwork.getNodeCount() : 0;
+        if (nodes != expected) {
+            throw new IllegalArgumentException("Checkpoint has a thermal network of " + nodes
+                    + " nodes but the simulation uses " + expected);
+        }
+        if (thermalNetwork != null) {
+            thermalNetwork.readState(in);
+        }
+        if (in.readBoolean() != (loadDistribution != null)) {
+            throw new IllegalArgumentException(loadDistribution != null
+                    ? "Checkpoint was taken without a load distribution but the simulation uses one"
+                    : "Checkpoint was taken with a load distribution but the simulation has none");
+        }
+        if (loadDistribution != null) {
+            loadDistribution.setDisplacement(in.readDouble(), in.readDouble());
+        }
     }
 
     private double clamp(double value, double min, double max) {
@@ -139,4 +321,12 @@ public class PhysicsEngine {
     public double getTemperature() { return temperature; }
     public double getMagneticFieldStrength() { return magneticFieldStrength; }
     public double getStress() { return stress; }
+    /// Radial load (N) on the rolling elements: the static load plus the bearing's elastic and
+    /// damping reaction at the current state. Zero for a magnetic bearing, whose rotor floats.
+    public double getBearingLoad() {
+        BearingProfile p = profile;
+        return p.hasRollingElements() ? p.getLoad() + p.getStiffness() * rotorDisplacement + p.getDamping() * rotorVelocity : 0.0;
+    }
+    public double getControlForce() { return controlForce; }
+    public double getControlCurrent() { return controlCurrent; }
 }
\ No newline at end of file
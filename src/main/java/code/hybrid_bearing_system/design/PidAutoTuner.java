@@ -0,0 +1,391 @@
+package code.hybrid_bearing_system.design;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/// Searches Kp/Ki/Kd by differential evolution (DE/rand/1/bin) on closed-loop disturbance
+/// rejection: each candidate runs the job's loop from the rotor displaced by offset and is
+/// scored on settling time, overshoot, control effort and RMS displacement.
+///
+/// Every cost term only grows as a run proceeds (the last time outside the settling band, the
+/// largest overshoot so far, and effort and squared displacement integrated over the fixed
+/// horizon), so the running cost is a lower bound on the final one. DE keeps a trial only if it
+/// beats the member it would replace, so a trial is aborted as soon as its running cost exceeds
+/// that member's cost; this saves most of the simulation without changing the search.
+///
+/// Trials of a generation are created sequentially from the seed and evaluated in parallel, so a
+/// seed gives the same gains on any number of threads.
+///
+/// Fixed-step integrators evaluate candidates at no more than MAX_EVALUATION_STEP: at the
+/// dashboard's 10 ms RK4 step the displaced rotor runs into its clamp whatever the gains, every
+/// candidate costs the same and the search would return arbitrary gains. The nominal gains are
+/// kept unless the best candidate is at least MIN_IMPROVEMENT cheaper.
+public class PidAutoTuner {
+    /// Band around zero, relative to the offset, that the rotor must stay in to count as settled
+    private static final double SETTLING_BAND = 0.02;
+    /// Coarsest step at which fixed-step integrators resolve the closed-loop response
+    public static final double MAX_EVALUATION_STEP = 1e-4;
+    /// Relative cost reduction below which the nominal gains are kept
+    public static final double MIN_IMPROVEMENT = 0.01;
+    private static final double[] LOWER = {0.0, 0.0, 0.0};
+    private static final double[] UPPER = {ControlSystem.MAX_KP, ControlSystem.MAX_KI, ControlSystem.MAX_KD};
+
+    private SimulationJob nominal = new SimulationJob();
+    private double offset = 1e-3;
+    private int population = 20;
+    private int generations = 30;
+    private double differentialWeight = 0.6;
+    private double crossoverRate = 0.9;
+    private long seed = 1;
+    private double settlingWeight = 1.0;
+    private double overshootWeight = 1.0;
+    private double effortWeight = 0.1;
+    private double rmsWeight = 1.0;
+
+    /// Evaluates a generation's candidates, possibly in parallel, returning scores in order.
+    /// AnalysisScheduler.Context::computeAll fits.
+    @FunctionalInterface
+    public interface Evaluator {
+        List<Score> evaluateAll(List<Callable<Score>> candidates) throws Exception;
+    }
+
+    /// Reads the plant and starting gains from the SimulationJob keys (duration is the horizon of
+    /// each evaluation, 2 s unless given) plus population, generations, seed, offset (m) and the
+    /// cost weights settlingWeight, overshootWeight, effortWeight and rmsWeight.
+    public static PidAutoTuner fromProperties(Properties properties) {
+        PidAutoTuner tuner = new PidAutoTuner();
+        SimulationJob nominal = SimulationJob.fromProperties(properties);
+        if (properties.getProperty("duration") == null) {
+            nominal.setDuration(2.0);
+        }
+        tuner.setNominal(nominal);
+        tuner.setOffset(parse(properties, "offset", tuner.offset));
+        tuner.setSearch((int) parse(properties, "population", tuner.population),
+                (int) parse(properties, "generations", tuner.generations));
+        tuner.setSeed((long) parse(properties, "seed", tuner.seed));
+        tuner.setWeights(parse(properties, "settlingWeight", tuner.settlingWeight),
+                parse(properties, "overshootWeight", tuner.overshootWeight),
+                parse(properties, "effortWeight", tuner.effortWeight),
+                parse(properties, "rmsWeight", tuner.rmsWeight));
+        return tuner;
+    }
+
+    private static double parse(Properties properties, String key, double defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid numeric value for " + key + ": " + value);
+        }
+    }
+
+    /// Runs the search on a fork/join pool of the given size.
+    public Result run(int parallelism) {
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, parallelism));
+        try {
+            return run(candidates -> {
+                List<Score> scores = new ArrayList<>(candidates.size());
+                for (Future<Score> future : pool.invokeAll(candidates)) {
+                    scores.add(future.get());
+                }
+                return scores;
+            }, pool.getParallelism());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Tuning interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /// Runs the search with candidates evaluated by evaluator; parallelism is only reported.
+    public Result run(Evaluator evaluator, int parallelism) throws Exception {
+        long start = System.nanoTime();
+        SplittableRandom random = new SplittableRandom(seed);
+        double[][] members = new double[population][];
+        /// The nominal gains take part, so the result is never worse than the current tuning
+        members[0] = new double[] {nominal.getKp(), nominal.getKi(), nominal.getKd()};
+        for (int i = 1; i < population; i++) {
+            members[i] = new double[3];
+            for (int d = 0; d < 3; d++) {
+                members[i][d] = LOWER[d] + random.nextDouble() * (UPPER[d] - LOWER[d]);
+            }
+        }
+        List<Callable<Score>> candidates = new ArrayList<>();
+        for (double[] member : members) {
+            candidates.add(() -> evaluate(member[0], member[1], member[2], Double.POSITIVE_INFINITY));
+        }
+        Score[] scores = evaluator.evaluateAll(candidates).toArray(new Score[0]);
+        Score nominalScore = scores[0];
+        long evaluations = population;
+        long aborted = 0;
+        long steps = 0;
+        for (Score score : scores) {
+            steps += score.getSteps();
+        }
+        double[] history = new double[generations + 1];
+        history[0] = best(scores).getCost();
+        for (int g = 1; g <= generations; g++) {
+            candidates.clear();
+            for (int i = 0; i < population; i++) {
+                double[] trial = trial(members, i, random);
+                double limit = scores[i].getCost();
+                candidates.add(() -> evaluate(trial[0], trial[1], trial[2], limit));
+            }
+            List<Score> trials = evaluator.evaluateAll(candidates);
+            for (int i = 0; i < population; i++) {
+                Score trial = trials.get(i);
+                evaluations++;
+                steps += trial.getSteps();
+                if (trial.isAborted()) {
+                    aborted++;
+                } else if (trial.getCost() < scores[i].getCost()) {
+                    scores[i] = trial;
+                    members[i] = new double[] {trial.getKp(), trial.getKi(), trial.getKd()};
+                }
+            }
+            history[g] = best(scores).getCost();
+        }
+        Score best = best(scores);
+        boolean improved = best.getCost() < (1 - MIN_IMPROVEMENT) * nominalScore.getCost();
+        return new Result(improved ? best : nominalScore, nominalScore, improved, history, evaluations, aborted, steps,
+                evaluations * getEvaluationStepCount(), System.nanoTime() - start, parallelism);
+    }
+
+    private static Score best(Score[] scores) {
+        Score best = scores[0];
+        for (Score score : scores) {
+            if (score.getCost() < best.getCost()) {
+                best = score;
+            }
+        }
+        return best;
+    }
+
+    /// Mutant a + F·(b - c) of three other distinct members, crossed over with member i and
+    /// reflected back into the gain bounds
+    private double[] trial(double[][] members, int i, SplittableRandom random) {
+        int a;
+        int b;
+        int c;
+        do {
+            a = random.nextInt(population);
+        } while (a == i);
+        do {
+            b = random.nextInt(population);
+        } while (b == i || b == a);
+        do {
+            c = random.nextInt(population);
+        } while (c == i || c == a || c == b);
+        int forced = random.nextInt(3);
+        double[] trial = members[i].clone();
+        for (int d = 0; d < 3; d++) {
+            if (d == forced || random.nextDouble() < crossoverRate) {
+                double value = members[a][d] + differentialWeight * (members[b][d] - members[c][d]);
+                if (value < LOWER[d]) {
+                    value = LOWER[d] + (LOWER[d] - value) % (UPPER[d] - LOWER[d]);
+                } else if (value > UPPER[d]) {
+                    value = UPPER[d] - (value - UPPER[d]) % (UPPER[d] - LOWER[d]);
+                }
+                trial[d] = value;
+            }
+        }
+        return trial;
+    }
+
+    /// Scores one set of gains, stopping as soon as the running cost exceeds limit.
+    public Score evaluate(double kp, double ki, double kd, double limit) {
+        SimulationLoop loop = nominal.createLoop();
+        ControlSystem controlSystem = loop.getControlSystem();
+        controlSystem.setKp(kp);
+        controlSystem.setKi(ki);
+        controlSystem.setKd(kd);
+        PhysicsEngine physics = loop.getPhysicsEngine();
+        physics.setTimeStep(getEvaluationStep());
+        physics.setRotorState(offset, 0.0);
+        long steps = getEvaluationStepCount();
+        double dt = physics.getTimeStep();
+        double horizon = steps * dt;
+        double scale = Math.abs(offset);
+        double band = SETTLING_BAND * scale;
+        double direction = Math.signum(offset);
+        double settlingTime = 0.0;
+        double overshoot = 0.0;
+        double effort = 0.0;
+        double squares = 0.0;
+        double cost = 0.0;
+        for (long i = 0; i < steps; i++) {
+            loop.step();
+            double x = physics.getRotorDisplacement();
+            double u = physics.getControlForce() / ControlSystem.MAX_FORCE;
+            if (!Double.isFinite(x) || !Double.isFinite(u)) {
+                return new Score(kp, ki, kd, Double.POSITIVE_INFINITY, horizon, overshoot, effort, Double.NaN, i + 1,
+                        true);
+            }
+            if (Math.abs(x) > band) {
+                settlingTime = (i + 1) * dt;
+            }
+            overshoot = Math.max(overshoot, -direction * x / scale);
+            effort += u * u * dt;
+            squares += x * x * dt;
+            cost = settlingWeight * settlingTime / horizon + overshootWeight * overshoot
+                    + effortWeight * effort / horizon + rmsWeight * Math.sqrt(squares / horizon) / scale;
+            if (cost > limit) {
+                return new Score(kp, ki, kd, cost, settlingTime, overshoot, effort / horizon,
+                        Math.sqrt(squares / horizon), i + 1, true);
+            }
+        }
+        return new Score(kp, ki, kd, cost, settlingTime, overshoot, effort / horizon, Math.sqrt(squares / horizon),
+                steps, false);
+    }
+
+    /// Cost and closed-loop metrics of one candidate; partial for aborted ones
+    public static class Score {
+        private final double kp;
+        private final double ki;
+        private final double kd;
+        private final double cost;
+        private final double settlingTime;
+        private final double overshoot;
+        private final double effort;
+        private final double rmsDisplacement;
+        private final long steps;
+        private final boolean aborted;
+
+        Score(double kp, double ki, double kd, double cost, double settlingTime, double overshoot, double effort,
+              double rmsDisplacement, long steps, boolean aborted) {
+            this.kp = kp;
+            this.ki = ki;
+            this.kd = kd;
+            this.cost = cost;
+            this.settlingTime = settlingTime;
+            this.overshoot = overshoot;
+            this.effort = effort;
+            this.rmsDisplacement = rmsDisplacement;
+            this.steps = steps;
+            this.aborted = aborted;
+        }
+
+        public double getKp() { return kp; }
+        public double getKi() { return ki; }
+        public double getKd() { return kd; }
+        public double getCost() { return cost; }
+        /// Time (s) after which the rotor stays within the settling band
+        public double getSettlingTime() { return settlingTime; }
+        /// Largest excursion past zero, relative to the offset
+        public double getOvershoot() { return overshoot; }
+        /// Mean squared control force relative to the controller's force limit
+        public double getEffort() { return effort; }
+        /// RMS displacement (m) over the horizon
+        public double getRmsDisplacement() { return rmsDisplacement; }
+        public long getSteps() { return steps; }
+        public boolean isAborted() { return aborted; }
+    }
+
+    public static class Result {
+        private final Score best;
+        private final Score nominal;
+        private final boolean improved;
+        private final double[] history;
+        private final long evaluations;
+        private final long aborted;
+        private final long steps;
+        private final long fullSteps;
+        private final long elapsedNanos;
+        private final int parallelism;
+
+        Result(Score best, Score nominal, boolean improved, double[] history, long evaluations, long aborted, long steps,
+               long fullSteps, long elapsedNanos, int parallelism) {
+            this.best = best;
+            this.nominal = nominal;
+            this.improved = improved;
+            this.history = history;
+            this.evaluations = evaluations;
+            this.aborted = aborted;
+            this.steps = steps;
+            this.fullSteps = fullSteps;
+            this.elapsedNanos = elapsedNanos;
+            this.parallelism = parallelism;
+        }
+
+        /// Best candidate, or the nominal gains when no candidate improved on them
+        public Score getBest() { return best; }
+        public Score getNominal() { return nominal; }
+        /// Whether the best candidate costs at least MIN_IMPROVEMENT less than the nominal gains
+        public boolean isImproved() { return improved; }
+        /// Best cost after the initial population (index 0) and after every generation
+        public double[] getHistory() { return history.clone(); }
+        public long getEvaluations() { return evaluations; }
+        public long getAbortedEvaluations() { return aborted; }
+        public long getSteps() { return steps; }
+        /// Fraction of the simulation steps that early termination skipped
+        public double getSavedFraction() { return fullSteps > 0 ? 1.0 - (double) steps / fullSteps : 0.0; }
+        public long getElapsedNanos() { return elapsedNanos; }
+        public int getParallelism() { return parallelism; }
+    }
+
+    public SimulationJob getNominal() { return nominal; }
+    public void setNominal(SimulationJob nominal) {
+        if (nominal.getController() != ControllerType.PID) {
+            throw new IllegalArgumentException("Auto-tuning needs the PID controller, not " + nominal.getController().getKey());
+        }
+        this.nominal = nominal;
+    }
+    /// Step of the candidate runs: the nominal one, refined to MAX_EVALUATION_STEP for fixed-step integrators
+    public double getEvaluationStep() {
+        if (nominal.getIntegrator() == IntegratorType.DORMAND_PRINCE) {
+            return nominal.getTimeStep();
+        }
+        return Math.min(nominal.getTimeStep(), MAX_EVALUATION_STEP);
+    }
+    public long getEvaluationStepCount() {
+        return Math.round(nominal.getDuration() / getEvaluationStep());
+    }
+    public double getOffset() { return offset; }
+    public void setOffset(double offset) {
+        if (!(Math.abs(offset) > 0) || Math.abs(offset) > 0.01) {
+            throw new IllegalArgumentException("Offset must be non-zero and within the 10 mm clearance: " + offset);
+        }
+        this.offset = offset;
+    }
+    public int getPopulation() { return population; }
+    public int getGenerations() { return generations; }
+    public void setSearch(int population, int generations) {
+        if (population < 4 || generations < 0) {
+            throw new IllegalArgumentException("Differential evolution needs a population of at least 4 and "
+                    + "a non-negative number of generations");
+        }
+        this.population = population;
+        this.generations = generations;
+    }
+    public long getSeed() { return seed; }
+    public void setSeed(long seed) { this.seed = seed; }
+    public void setWeights(double settlingWeight, double overshootWeight, double effortWeight, double rmsWeight) {
+        if (!(settlingWeight >= 0) || !(overshootWeight >= 0) || !(effortWeight >= 0) || !(rmsWeight >= 0)) {
+            throw new IllegalArgumentException("Cost weights must not be negative");
+        }
+        this.settlingWeight = settlingWeight;
+        this.overshootWeight = overshootWeight;
+        this.effortWeight = effortWeight;
+        this.rmsWeight = rmsWeight;
+    }
+}
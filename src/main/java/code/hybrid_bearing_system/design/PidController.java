@@ -0,0 +1,106 @@
+package code.hybrid_bearing_system.design;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/// PID on the displacement error, fed by a scalar Kalman-style smoother of the measurements. The
+/// displacement and velocity estimates share one variance, so this is a blend of prediction and
+/// measurement rather than a full state estimator (see KalmanFilter).
+public class PidController implements Controller {
+    private double kp = 1000.0;
+    private double ki = 10.0;
+    private double kd = 50.0;
+    private double integral = 0.0;
+    private double previousError = 0.0;
+    private double estimatedDisplacement = 0.0;
+    private double estimatedVelocity = 0.0;
+    private double covariance = 1.0;
+    private double processNoise = 0.01;
+    private double measurementNoise = 0.1;
+
+    @Override
+    public double update(double measuredDisplacement, double measuredVelocity, double dt) {
+        if (Double.isNaN(measuredDisplacement) || Double.isNaN(measuredVelocity)) {
+            return 0.0;
+        }
+
+        double predictedDisplacement = estimatedDisplacement + dt * estimatedVelocity;
+        double predictedCovariance = covariance + processNoise;
+        double kalmanGain = predictedCovariance / (predictedCovariance + measurementNoise);
+        estimatedDisplacement = predictedDisplacement + kalmanGain * (measuredDisplacement - predictedDisplacement);
+        estimatedVelocity = estimatedVelocity + kalmanGain * (measuredVelocity - estimatedVelocity);
+        covariance = (1 - kalmanGain) * predictedCovariance;
+
+        double setpoint = 0.0;
+        double error = clamp(setpoint - estimatedDisplacement, -0.01, 0.01);
+        if (Math.abs(error) > 0.005) {
+            integral = 0.0;
+        }
+        integral += error * dt;
+        integral = clamp(integral, -100, 100);
+        double derivative = clamp((error - previousError) / dt, -100, 100);
+        previousError = error;
+
+        double control = kp * error + ki * integral + kd * derivative;
+        return clamp(control, -ControlSystem.MAX_FORCE, ControlSystem.MAX_FORCE);
+    }
+
+    @Override
+    public void reset() {
+        integral = 0.0;
+        previousError = 0.0;
+        estimatedDisplacement = 0.0;
+        estimatedVelocity = 0.0;
+        covariance = 1.0;
+    }
+
+    @Override
+    public String getName() {
+        return "PID";
+    }
+
+    public void setKp(double kp) {
+        this.kp = clamp(kp, 0, ControlSystem.MAX_KP);
+    }
+    public void setKi(double ki) {
+        this.ki = clamp(ki, 0, ControlSystem.MAX_KI);
+    }
+    public void setKd(double kd) {
+        this.kd = clamp(kd, 0, ControlSystem.MAX_KD);
+    }
+
+    public double getKp() { return kp; }
+    public double getKi() { return ki; }
+    public double getKd() { return kd; }
+
+    /// Gains, estimate and PID memory
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        for (double value : new double[] {kp, ki, kd, integral, previousError, estimatedDisplacement,
+                estimatedVelocity, covariance, processNoise, measurementNoise}) {
+            out.writeDouble(value);
+        }
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        kp = in.readDouble();
+        ki = in.readDouble();
+        kd = in.readDouble();
+        integral = in.readDouble();
+        previousError = in.readDouble();
+        estimatedDisplacement = in.readDouble();
+        estimatedVelocity = in.readDouble();
+        covariance = in.readDouble();
+        processNoise = in.readDouble();
+        measurementNoise = in.readDouble();
+    }
+
+    private double clamp(double value, double min, double max) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return min;
+        }
+        return Math.max(min, Math.min(max, value));
+    }
+}
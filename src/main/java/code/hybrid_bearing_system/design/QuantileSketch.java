@@ -0,0 +1,166 @@
+package code.hybrid_bearing_system.design;
+
+/// Mergeable quantile sketch with bounded relative error. Values are counted in logarithmic
+/// buckets (bucket i holds magnitudes in (γ^(i-1), γ^i]), so any quantile is returned within
+/// relativeAccuracy of a value that was actually added. Memory depends on the spread of the
+/// data, not on how many values were added, and merging two sketches just adds bucket counts,
+/// so the result of a merge does not depend on how the values were split between them.
+public final class QuantileSketch {
+    /// Magnitudes below this count as zero; magnitudes above MAX_MAGNITUDE are clamped to it
+    private static final double MIN_MAGNITUDE = 1e-12;
+    private static final double MAX_MAGNITUDE = 1e12;
+
+    private final double relativeAccuracy;
+    private final double gamma;
+    private final double inverseLogGamma;
+    private final Buckets positive = new Buckets();
+    private final Buckets negative = new Buckets();
+    private long zeroCount;
+
+    public QuantileSketch(double relativeAccuracy) {
+        if (!(relativeAccuracy > 0) || !(relativeAccuracy < 1)) {
+            throw new IllegalArgumentException("Relative accuracy must be between 0 and 1: " + relativeAccuracy);
+        }
+        this.relativeAccuracy = relativeAccuracy;
+        this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.inverseLogGamma = 1.0 / Math.log(gamma);
+    }
+
+    /// Adds a finite value; NaN and infinities are ignored.
+    public void add(double value) {
+        if (!Double.isFinite(value)) {
+            return;
+        }
+        double magnitude = Math.abs(value);
+        if (magnitude < MIN_MAGNITUDE) {
+            zeroCount++;
+        } else if (value > 0) {
+            positive.add(index(magnitude));
+        } else {
+            negative.add(index(magnitude));
+        }
+    }
+
+    public void merge(QuantileSketch other) {
+        if (other.gamma != gamma) {
+            throw new IllegalArgumentException("Cannot merge sketches with different accuracy");
+        }
+        positive.merge(other.positive);
+        negative.merge(other.negative);
+        zeroCount += other.zeroCount;
+    }
+
+    private int index(double magnitude) {
+        return (int) Math.ceil(Math.log(Math.min(magnitude, MAX_MAGNITUDE)) * inverseLogGamma);
+    }
+
+    /// Midpoint (in relative terms) of bucket i, within relativeAccuracy of every value in it
+    private double value(int index) {
+        return 2 * Math.pow(gamma, index) / (gamma + 1);
+    }
+
+    public long getCount() {
+        return negative.total + zeroCount + positive.total;
+    }
+
+    /// Value at quantile q (0 = minimum, 1 = maximum), or NaN when the sketch is empty
+    public double quantile(double q) {
+        if (!(q >= 0) || !(q <= 1)) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1: " + q);
+        }
+        long count = getCount();
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long rank = (long) Math.floor(q * (count - 1));
+        /// Ascending order: negative buckets from the largest magnitude down, zeros, then positive
+        long seen = 0;
+        for (int b = negative.counts.length - 1; b >= 0; b--) {
+            seen += negative.counts[b];
+            if (seen > rank) {
+                return -value(negative.offset + b);
+            }
+        }
+        seen += zeroCount;
+        if (seen > rank) {
+            return 0.0;
+        }
+        for (int b = 0; b < positive.counts.length; b++) {
+            seen += positive.counts[b];
+            if (seen > rank) {
+                return value(positive.offset + b);
+            }
+        }
+        return value(positive.offset + positive.counts.length - 1);
+    }
+
+    /// Counts per equal-width bin over [low, high], each bucket counted at its representative
+    /// value; values outside the range go to the first or last bin.
+    public long[] histogram(double low, double high, int bins) {
+        if (bins < 1) {
+            throw new IllegalArgumentException("Histogram needs at least one bin: " + bins);
+        }
+        long[] histogram = new long[bins];
+        double width = high > low ? (high - low) / bins : 1.0;
+        for (int b = 0; b < negative.counts.length; b++) {
+            addToBin(histogram, -value(negative.offset + b), negative.counts[b], low, width);
+        }
+        addToBin(histogram, 0.0, zeroCount, low, width);
+        for (int b = 0; b < positive.counts.length; b++) {
+            addToBin(histogram, value(positive.offset + b), positive.counts[b], low, width);
+        }
+        return histogram;
+    }
+
+    private static void addToBin(long[] histogram, double value, long count, double low, double width) {
+        if (count == 0) {
+            return;
+        }
+        int bin = (int) Math.floor((value - low) / width);
+        histogram[bin < 0 ? 0 : (bin >= histogram.length ? histogram.length - 1 : bin)] += count;
+    }
+
+    public double getRelativeAccuracy() { return relativeAccuracy; }
+
+    /// Dense counts over the contiguous bucket index range seen so far
+    private static class Buckets {
+        long[] counts = new long[0];
+        int offset;
+        long total;
+
+        void add(int index) {
+            cover(index, index);
+            counts[index - offset]++;
+            total++;
+        }
+
+        void merge(Buckets other) {
+            if (other.total == 0) {
+                return;
+            }
+            cover(other.offset, other.offset + other.counts.length - 1);
+            for (int b = 0; b < other.counts.length; b++) {
+                counts[other.offset - offset + b] += other.counts[b];
+            }
+            total += other.total;
+        }
+
+        private void cover(int low, int high) {
+            if (counts.length == 0) {
+                counts = new long[high - low + 1];
+                offset = low;
+                return;
+            }
+            int end = offset + counts.length - 1;
+            if (low >= offset && high <= end) {
+                return;
+            }
+            int newOffset = Math.min(offset, low);
+            int newEnd = Math.max(end, high);
+            long[] grown = new long[newEnd - newOffset + 1];
+            System.arraycopy(counts, 0, grown, offset - newOffset, counts.length);
+            counts = grown;
+            offset = newOffset;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package code.hybrid_bearing_system.design;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/// Streaming rainflow cycle counter (the four-point method of ASTM E1049), fed one sample at a
+/// time. Samples are quantized to levels equal steps between min and max, values outside being
+/// clamped, so a change smaller than one step never starts a cycle.
+///
+/// Turning points go on a residue stack. Whenever the inner range of its last four points B-C is
+/// no larger than either neighbour, A-B and C-D, B-C is a closed cycle: it is counted by range
+/// and B and C are removed. What stays on the stack has ranges that grow and then shrink, at
+/// most one per level each way, so the stack never holds more than 2 × levels points however
+/// long the signal runs. Its consecutive pairs count as half cycles, as at the end of a finite
+/// history. Memory is the stack plus one counter per range, fixed at construction.
+public class RainflowCounter {
+    private final double min;
+    private final double max;
+    private final int levels;
+    private final double width;
+    /// Level of every turning point still open, oldest first; the last one may still move
+    private final int[] residue;
+    private int residueSize;
+    /// Closed cycles by range in levels
+    private final long[] fullCycles;
+    private long totalFullCycles;
+
+    public RainflowCounter(double min, double max, int levels) {
+        if (!(max > min) || Double.isInfinite(max - min)) {
+            throw new IllegalArgumentException("Rainflow range must be finite with max above min: " + min + ", " + max);
+        }
+        if (levels < 2) {
+            throw new IllegalArgumentException("Rainflow counting needs at least 2 levels: " + levels);
+        }
+        this.min = min;
+        this.max = max;
+        this.levels = levels;
+        this.width = (max - min) / (levels - 1);
+        residue = new int[2 * levels + 2];
+        fullCycles = new long[levels];
+    }
+
+    public void add(double value) {
+        int level = quantize(value);
+        if (residueSize == 0) {
+            residue[residueSize++] = level;
+            return;
+        }
+        int last = residue[residueSize - 1];
+        if (level == last) {
+            return;
+        }
+        if (residueSize >= 2 && (last - residue[residueSize - 2] > 0) == (level - last > 0)) {
+            /// Still moving the same way: the open turning point moves with the signal
+            residue[residueSize - 1] = level;
+        } else {
+            residue[residueSize++] = level;
+        }
+        while (residueSize >= 4) {
+            int a = residue[residueSize - 4];
+            int b = residue[residueSize - 3];
+            int c = residue[residueSize - 2];
+            int d = residue[residueSize - 1];
+            int range = Math.abs(c - b);
+            if (range > Math.abs(b - a) || range > Math.abs(d - c)) {
+                break;
+            }
+            fullCycles[range]++;
+            totalFullCycles++;
+            residue[residueSize - 3] = d;
+            residueSize -= 2;
+        }
+    }
+
+    private int quantize(double value) {
+        if (Double.isNaN(value)) {
+            return residueSize > 0 ? residue[residueSize - 1] : 0;
+        }
+        double position = (Math.max(min, Math.min(max, value)) - min) / width;
+        return Math.min(levels - 1, (int) (position + 0.5));
+    }
+
+    public void reset() {
+        residueSize = 0;
+        Arrays.fill(fullCycles, 0);
+        totalFullCycles = 0;
+    }
+
+    /// Residue, then the closed cycle counts of the ranges that have any
+    void writeState(DataOutput out) throws IOException {
+        out.writeInt(residueSize);
+        for (int i = 0; i < residueSize; i++) {
+            out.writeInt(residue[i]);
+        }
+        int ranges = 0;
+        for (long count : fullCycles) {
+            ranges += count > 0 ? 1 : 0;
+        }
+        out.writeInt(ranges);
+        for (int range = 0; range < levels; range++) {
+            if (fullCycles[range] > 0) {
+                out.writeInt(range);
+                out.writeLong(fullCycles[range]);
+            }
+        }
+    }
+
+    void readState(DataInput in) throws IOException {
+        reset();
+        int size = in.readInt();
+        if (size < 0 || size > residue.length) {
+            throw new IOException("Invalid rainflow residue size " + size);
+        }
+        for (int i = 0; i < size; i++) {
+            residue[i] = readLevel(in);
+        }
+        residueSize = size;
+        int ranges = in.readInt();
+        for (int i = 0; i < ranges; i++) {
+            int range = readLevel(in);
+            long count = in.readLong();
+            fullCycles[range] = count;
+            totalFullCycles += count;
+        }
+    }
+
+    private int readLevel(DataInput in) throws IOException {
+        int level = in.readInt();
+        if (level < 0 || level >= levels) {
+            throw new IOException("Rainflow level " + level + " outside 0.." + (levels - 1));
+        }
+        return level;
+    }
+
+    /// Cycles of the given range in levels: closed ones plus half of each residue pair
+    public double getCycles(int range) {
+        double cycles = fullCycles[range];
+        for (int i = 1; i < residueSize; i++) {
+            if (Math.abs(residue[i] - residue[i - 1]) == range) {
+                cycles += 0.5;
+            }
+        }
+        return cycles;
+    }
+
+    /// Closed cycles plus half of each residue pair
+    public double getCycleCount() {
+        return totalFullCycles + 0.5 * Math.max(0, residueSize - 1);
+    }
+
+    public long getFullCycleCount() { return totalFullCycles; }
+    public long getFullCycles(int range) { return fullCycles[range]; }
+    /// Signal range of a range in levels
+    public double getRange(int range) { return range * width; }
+    public int getLevels() { return levels; }
+    public double getLevelWidth() { return width; }
+    public double getMin() { return min; }
+    public double getMax() { return max; }
+    public int getResidueSize() { return residueSize; }
+    /// Quantized value of a residue point, oldest first
+    public double getResidue(int index) { return min + residue[index] * width; }
+}
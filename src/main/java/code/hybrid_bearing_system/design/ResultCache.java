@@ -0,0 +1,409 @@
+package code.hybrid_bearing_system.design;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/// Content-addressed cache of simulated runs. The key is a SHA-256 of a canonical encoding of
+/// everything that determines a run's outcome (bearing parameters, gains, integrator settings,
+/// time step and step count), so equal configurations hit however they were built; fields that
+/// cannot change the result, such as output files or tolerances of fixed-step integrators, are
+/// left out.
+///
+/// Entries hold the RunSummary and, when requested, a trajectory of every OutputChannel sampled
+/// every N steps. Memory is an LRU bounded by entry bytes; every entry is also written to one
+/// file per key under the cache directory, which survives restarts and is pruned oldest-first
+/// when it outgrows its budget. Jobs with a tabulated actuator are not cached.
+public final class ResultCache {
+    /// Bump whenever the physics or control model or the key encoding changes, so results of
+    /// older builds are ignored. 2: every controller is named in the key; 3: thermal networks;
+    /// 4: load distributions; 5: the closed-form actuator is the default again.
+    public static final int MODEL_VERSION = 5;
+    private static final int MAGIC = 0x48425243;
+    private static final int FORMAT_VERSION = 1;
+    private static final String SUFFIX = ".hbr";
+    /// Rough per-entry overhead of the map node, key string and summary objects
+    private static final long ENTRY_OVERHEAD = 256;
+
+    private static volatile ResultCache defaultCache;
+
+    private final long maxMemoryBytes;
+    private final Path directory;
+    private final long maxDiskBytes;
+    /// Access-ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<String, Entry> memory = new LinkedHashMap<>(64, 0.75f, true);
+    private long memoryBytes;
+    /// Bytes under directory, measured on first write
+    private long diskBytes = -1;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /// Cache with the given memory budget and an optional disk tier (directory may be null).
+    public ResultCache(long maxMemoryBytes, Path directory, long maxDiskBytes) {
+        if (maxMemoryBytes < 0 || maxDiskBytes < 0) {
+            throw new IllegalArgumentException("Cache budgets must not be negative");
+        }
+        this.maxMemoryBytes = maxMemoryBytes;
+        this.directory = directory;
+        this.maxDiskBytes = maxDiskBytes;
+    }
+
+    /// Shared cache: 64 MB in memory and 256 MB under MagneticActuator.cacheDirectory()/results
+    public static ResultCache getDefault() {
+        ResultCache cache = defaultCache;
+        if (cache == null) {
+            synchronized (ResultCache.class) {
+                cache = defaultCache;
+                if (cache == null) {
+                    cache = new ResultCache(64L << 20, MagneticActuator.cacheDirectory().resolve("results"), 256L << 20);
+                    defaultCache = cache;
+                }
+            }
+        }
+        return cache;
+    }
+
+    /// Canonical key of a job's run with a trajectory every trajectoryInterval steps (0 for
+    /// summary only), or null when the job cannot be cached.
+    public static String key(SimulationJob job, int trajectoryInterval) {
+        if (job.getActuator() != null) {
+            return null;
+        }
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(MODEL_VERSION);
+            out.writeUTF(job.getBearingType());
+            out.writeUTF(job.getMaterial());
+            writeValue(out, job.getSpindleSpeed());
+            writeValue(out, job.getLoad());
+            writeValue(out, job.getYoungsModulus());
+            writeValue(out, job.getMass());
+            writeValue(out, job.getKp());
+            writeValue(out, job.getKi());
+            writeValue(out, job.getKd());
+            out.writeUTF(job.getIntegrator().name());
+            if (job.getIntegrator() == IntegratorType.DORMAND_PRINCE) {
+                writeValue(out, job.getRelativeTolerance());
+                writeValue(out, job.getAbsoluteTolerance());
+            }
+            out.writeUTF(job.getController().name());
+            /// Runs with a thermal network add it, by the definition's sorted entries
+            if (job.getThermalNetwork() != null) {
+                Properties definition = job.getThermalDefinition();
+                out.writeUTF(definition == null ? "bearing" : "file");
+                if (definition != null) {
+                    for (String name : new TreeSet<>(definition.stringPropertyNames())) {
+                        out.writeUTF(name);
+                        out.writeUTF(definition.getProperty(name).trim());
+                    }
+                }
+            }
+            LoadDistribution loads = job.getLoadDistribution();
+            if (loads != null) {
+                out.writeUTF("loads");
+                out.writeInt(loads.getBallCount());
+                writeValue(out, loads.getBallDiameter());
+                writeValue(out, loads.getPitchDiameter());
+                writeValue(out, loads.getContactAngle());
+                writeValue(out, loads.getClearance());
+            }
+            writeValue(out, job.getTimeStep());
+            out.writeLong(job.getStepCount());
+            out.writeInt(trajectoryInterval);
+            if (trajectoryInterval > 0) {
+                for (OutputChannel channel : OutputChannel.values()) {
+                    out.writeUTF(channel.getLabel());
+                }
+            }
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes.toByteArray());
+            StringBuilder hex = new StringBuilder(64);
+            for (byte b : digest) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /// Writes -0.0 as 0.0 so the two spellings of zero share a key
+    private static void writeValue(DataOutputStream out, double value) throws IOException {
+        out.writeDouble(value + 0.0);
+    }
+
+    /// Summary of the job's run, simulated only if no tier holds it
+    public RunSummary summarize(SimulationJob job) {
+        return getOrCompute(job, 0).getSummary();
+    }
+
+    /// Cached entry for the job, or the freshly simulated and stored one
+    public Entry getOrCompute(SimulationJob job, int trajectoryInterval) {
+        if (trajectoryInterval < 0) {
+            throw new IllegalArgumentException("Trajectory interval must not be negative: " + trajectoryInterval);
+        }
+        String key = key(job, trajectoryInterval);
+        if (key != null) {
+            Entry cached = get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        misses.incrementAndGet();
+        Entry computed = simulate(job, trajectoryInterval);
+        if (key != null) {
+            put(key, computed);
+        }
+        return computed;
+    }
+
+    /// Entry for a key from memory, then disk; null when neither holds it.
+    public Entry get(String key) {
+        synchronized (this) {
+            Entry entry = memory.get(key);
+            if (entry != null) {
+                hits.incrementAndGet();
+                return entry;
+            }
+        }
+        Entry entry = readFile(key);
+        if (entry != null) {
+            diskHits.incrementAndGet();
+            remember(key, entry);
+        }
+        return entry;
+    }
+
+    private void put(String key, Entry entry) {
+        remember(key, entry);
+        writeFile(key, entry);
+    }
+
+    private synchronized void remember(String key, Entry entry) {
+        if (entry.getSizeBytes() > maxMemoryBytes) {
+            return;
+        }
+        Entry previous = memory.put(key, entry);
+        if (previous != null) {
+            memoryBytes -= previous.getSizeBytes();
+        }
+        memoryBytes += entry.getSizeBytes();
+        Iterator<Entry> eldest = memory.values().iterator();
+        while (memoryBytes > maxMemoryBytes && eldest.hasNext()) {
+            memoryBytes -= eldest.next().getSizeBytes();
+            eldest.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    private static Entry simulate(SimulationJob job, int trajectoryInterval) {
+        SimulationLoop loop = job.createLoop();
+        long steps = job.getStepCount();
+        RunSummary.Accumulator accumulator = new RunSummary.Accumulator();
+        OutputChannel[] channels = OutputChannel.values();
+        long values = trajectoryInterval > 0 ? steps / trajectoryInterval * channels.length : 0;
+        if (values > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Trajectory of " + values + " values is too long; sample less often");
+        }
+        double[] trajectory = new double[(int) values];
+        int position = 0;
+        for (long i = 0; i < steps; i++) {
+            loop.step();
+            accumulator.observe(loop.getPhysicsEngine());
+            if (trajectoryInterval > 0 && (i + 1) % trajectoryInterval == 0) {
+                for (OutputChannel channel : channels) {
+                    trajectory[position++] = channel.read(loop.getPhysicsEngine());
+                }
+            }
+        }
+        return new Entry(accumulator.finish(loop.getPhysicsEngine()), trajectoryInterval, trajectory);
+    }
+
+    private Entry readFile(String key) {
+        if (directory == null) {
+            return null;
+        }
+        Path file = directory.resolve(key + SUFFIX);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            byte[] data = Files.readAllBytes(file);
+            if (data.length < Long.BYTES) {
+                throw new IOException("truncated");
+            }
+            CRC32 crc = new CRC32();
+            crc.update(data, 0, data.length - Long.BYTES);
+            if (crc.getValue() != ByteBuffer.wrap(data, data.length - Long.BYTES, Long.BYTES).getLong()) {
+                throw new IOException("checksum mismatch");
+            }
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION || !in.readUTF().equals(key)) {
+                throw new IOException("not a result of this format");
+            }
+            RunSummary summary = new RunSummary(in.readLong(), in.readDouble(), in.readDouble(), in.readDouble(),
+                    in.readDouble(), in.readDouble(), in.readDouble());
+            int interval = in.readInt();
+            double[] trajectory = new double[in.readInt()];
+            for (int i = 0; i < trajectory.length; i++) {
+                trajectory[i] = in.readDouble();
+            }
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            return new Entry(summary, interval, trajectory);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Ignoring unreadable cached result " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeFile(String key, Entry entry) {
+        if (directory == null || maxDiskBytes == 0) {
+            return;
+        }
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream((int) Math.min(entry.getSizeBytes(), 1 << 20));
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeUTF(key);
+            RunSummary summary = entry.getSummary();
+            out.writeLong(summary.getSteps());
+            for (double value : new double[] {summary.getPeakDisplacement(), summary.getRmsDisplacement(),
+                    summary.getFinalTemperature(), summary.getEnergyLoss(), summary.getPeakStress(),
+                    summary.getFrictionForce()}) {
+                out.writeDouble(value);
+            }
+            out.writeInt(entry.trajectoryInterval);
+            out.writeInt(entry.trajectory.length);
+            for (double value : entry.trajectory) {
+                out.writeDouble(value);
+            }
+            out.flush();
+            CRC32 crc = new CRC32();
+            crc.update(bytes.toByteArray());
+            out.writeLong(crc.getValue());
+            byte[] data = bytes.toByteArray();
+            if (data.length > maxDiskBytes) {
+                return;
+            }
+            Files.createDirectories(directory);
+            Path temporary = Files.createTempFile(directory, "result", ".tmp");
+            Files.write(temporary, data);
+            Path file = directory.resolve(key + SUFFIX);
+            try {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            pruneDisk(data.length);
+        } catch (IOException e) {
+            System.err.println("Could not cache result in " + directory + ": " + e.getMessage());
+        }
+    }
+
+    /// Deletes the least recently used files once the directory exceeds its budget
+    private synchronized void pruneDisk(long added) throws IOException {
+        if (diskBytes < 0) {
+            diskBytes = 0;
+            for (Path file : resultFiles()) {
+                diskBytes += Files.size(file);
+            }
+        } else {
+            diskBytes += added;
+        }
+        if (diskBytes <= maxDiskBytes) {
+            return;
+        }
+        List<Path> files = resultFiles();
+        Map<Path, FileTime> times = new HashMap<>();
+        for (Path file : files) {
+            times.put(file, Files.getLastModifiedTime(file));
+        }
+        files.sort(Comparator.comparing(times::get));
+        /// Prune to 90 % so the next few writes do not rescan the directory
+        for (int i = 0; i < files.size() && diskBytes > maxDiskBytes * 9 / 10; i++) {
+            Path file = files.get(i);
+            long size = Files.size(file);
+            if (Files.deleteIfExists(file)) {
+                diskBytes -= size;
+            }
+        }
+    }
+
+    private List<Path> resultFiles() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        return files;
+    }
+
+    /// Empties the memory tier; disk files are kept
+    public synchronized void clearMemory() {
+        memory.clear();
+        memoryBytes = 0;
+    }
+
+    /// One-line hit/miss summary
+    public String summary() {
+        return String.format("Result cache: %d memory hits, %d disk hits, %d misses, %d evictions, %d entries (%.1f MB)",
+                getHits(), getDiskHits(), getMisses(), getEvictions(), getEntryCount(), getMemoryBytes() / 1e6);
+    }
+
+    public static final class Entry {
+        private final RunSummary summary;
+        private final int trajectoryInterval;
+        /// Row-major samples, one row of OutputChannel.values() every trajectoryInterval steps
+        private final double[] trajectory;
+
+        Entry(RunSummary summary, int trajectoryInterval, double[] trajectory) {
+            this.summary = summary;
+            this.trajectoryInterval = trajectoryInterval;
+            this.trajectory = trajectory;
+        }
+
+        public RunSummary getSummary() { return summary; }
+        /// Steps between trajectory samples, 0 when no trajectory was recorded
+        public int getTrajectoryInterval() { return trajectoryInterval; }
+        public int getSampleCount() { return trajectory.length / OutputChannel.values().length; }
+        /// Value of channel at sample (taken after (sample + 1) · interval steps)
+        public double getSample(int sample, OutputChannel channel) {
+            return trajectory[sample * OutputChannel.values().length + channel.ordinal()];
+        }
+        long getSizeBytes() { return ENTRY_OVERHEAD + 8L * trajectory.length; }
+    }
+
+    public long getHits() { return hits.get(); }
+    public long getDiskHits() { return diskHits.get(); }
+    public long getMisses() { return misses.get(); }
+    public long getEvictions() { return evictions.get(); }
+    public synchronized int getEntryCount() { return memory.size(); }
+    public synchronized long getMemoryBytes() { return memoryBytes; }
+    public Path getDirectory() { return directory; }
+}
@@ -0,0 +1,231 @@
+package code.hybrid_bearing_system.design;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/// Finite-element model of a flexible rotor: a shaft of Euler-Bernoulli beam elements with
+/// translational and rotary inertia, rigid disks and isotropic bearings attached at nodes.
+/// Every node has four degrees of freedom, ordered [x, x', y, y'] (lateral deflection and slope
+/// in the two bending planes), so nodes along the shaft give banded matrices of half-bandwidth 7.
+/// Bearings are isotropic, so at rest both planes are identical and the planar matrices
+/// (two DOFs per node) give every natural frequency once. Spin couples the planes through the
+/// skew-symmetric gyroscopic matrix.
+public class RotorModel {
+    public static final int DOFS_PER_NODE = 4;
+    public static final String DEFAULT_SHAFT_MATERIAL = "steel_52100";
+
+    private final double youngsModulus;
+    private final double density;
+    private final List<Double> nodePositions = new ArrayList<>(List.of(0.0));
+    private final List<double[]> elements = new ArrayList<>();
+    private final List<double[]> disks = new ArrayList<>();
+    private final List<double[]> bearings = new ArrayList<>();
+
+    /// Shaft material: Young's modulus (Pa) and density (kg/m³)
+    public RotorModel(double youngsModulus, double density) {
+        if (!(youngsModulus > 0) || !(density > 0)) {
+            throw new IllegalArgumentException("Shaft modulus and density must be positive");
+        }
+        this.youngsModulus = youngsModulus;
+        this.density = density;
+    }
+
+    /// Default spindle for the bearing model: a 400 mm long, 40 mm diameter steel shaft in
+    /// the given number of elements, the rotor mass as a 100 mm disk at mid-span and one bearing
+    /// with the model's stiffness and damping 50 mm from each end.
+    public static RotorModel standard(BearingModel model, int elements) {
+        MaterialDatabase materials = MaterialDatabase.getDefault();
+        int steel = materials.getId(DEFAULT_SHAFT_MATERIAL);
+        RotorModel rotor = new RotorModel(materials.get(steel, MaterialDatabase.Property.YOUNGS_MODULUS, 20.0) * 1e9,
+                materials.get(steel, MaterialDatabase.Property.DENSITY, 20.0));
+        rotor.addShaft(0.4, 0.04, 0.0, elements);
+        double diskRadius = 0.05;
+        double mass = model.getMass();
+        rotor.addDisk(0.2, mass, 0.5 * mass * diskRadius * diskRadius, 0.25 * mass * diskRadius * diskRadius);
+        BearingProfile profile = model.getProfile();
+        rotor.addBearing(0.05, profile.getStiffness(), profile.getDamping());
+        rotor.addBearing(0.35, profile.getStiffness(), profile.getDamping());
+        return rotor;
+    }
+
+    /// Appends a uniform shaft section of the given length (m) and diameters (m), split into
+    /// equal elements.
+    public void addShaft(double length, double outerDiameter, double innerDiameter, int elementCount) {
+        if (!(length > 0) || !(outerDiameter > innerDiameter) || !(innerDiameter >= 0) || elementCount < 1) {
+            throw new IllegalArgumentException("Shaft section needs positive length, outer > inner diameter"
+                    + " and at least one element");
+        }
+        double area = Math.PI / 4 * (outerDiameter * outerDiameter - innerDiameter * innerDiameter);
+        double areaMoment = Math.PI / 64 * (Math.pow(outerDiameter, 4) - Math.pow(innerDiameter, 4));
+        double elementLength = length / elementCount;
+        for (int e = 0; e < elementCount; e++) {
+            elements.add(new double[] {elementLength, area, areaMoment});
+            nodePositions.add(nodePositions.get(nodePositions.size() - 1) + elementLength);
+        }
+    }
+
+    /// Rigid disk at the node nearest position (m): mass (kg), polar and diametral inertia (kg·m²)
+    public void addDisk(double position, double mass, double polarInertia, double diametralInertia) {
+        if (!(mass >= 0) || !(polarInertia >= 0) || !(diametralInertia >= 0)) {
+            throw new IllegalArgumentException("Disk mass and inertias must not be negative");
+        }
+        disks.add(new double[] {position, mass, polarInertia, diametralInertia});
+    }
+
+    /// Isotropic bearing at the node nearest position (m): stiffness (N/m) and damping (N·s/m)
+    /// acting on both lateral directions
+    public void addBearing(double position, double stiffness, double damping) {
+        if (!(stiffness >= 0) || !(damping >= 0)) {
+            throw new IllegalArgumentException("Bearing stiffness and damping must not be negative");
+        }
+        bearings.add(new double[] {position, stiffness, damping});
+    }
+
+    public int nearestNode(double position) {
+        int best = 0;
+        for (int i = 1; i < nodePositions.size(); i++) {
+            if (Math.abs(nodePositions.get(i) - position) < Math.abs(nodePositions.get(best) - position)) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    /// Mass matrix of one bending plane, DOFs [w, w'] per node
+    public BandMatrix planarMassMatrix() {
+        BandMatrix mass = new BandMatrix(2 * getNodeCount(), 3, 3);
+        for (int e = 0; e < elements.size(); e++) {
+            double[] element = elements.get(e);
+            double l = element[0];
+            addElement(mass, e, translationalMass(l), density * element[1] * l / 420);
+            addElement(mass, e, rotaryMass(l), density * element[2] / (30 * l));
+        }
+        for (double[] disk : disks) {
+            int node = nearestNode(disk[0]);
+            mass.add(2 * node, 2 * node, disk[1]);
+            mass.add(2 * node + 1, 2 * node + 1, disk[3]);
+        }
+        return mass;
+    }
+
+    /// Stiffness matrix of one bending plane, including the bearings
+    public BandMatrix planarStiffnessMatrix() {
+        BandMatrix stiffness = new BandMatrix(2 * getNodeCount(), 3, 3);
+        for (int e = 0; e < elements.size(); e++) {
+            double[] element = elements.get(e);
+            double l = element[0];
+            addElement(stiffness, e, bending(l), youngsModulus * element[2] / (l * l * l));
+        }
+        for (double[] bearing : bearings) {
+            int node = nearestNode(bearing[0]);
+            stiffness.add(2 * node, 2 * node, bearing[1]);
+        }
+        return stiffness;
+    }
+
+    /// Bearing damping of one bending plane
+    public BandMatrix planarDampingMatrix() {
+        BandMatrix damping = new BandMatrix(2 * getNodeCount(), 3, 3);
+        for (double[] bearing : bearings) {
+            int node = nearestNode(bearing[0]);
+            damping.add(2 * node, 2 * node, bearing[2]);
+        }
+        return damping;
+    }
+
+    /// Polar inertia coupling of one plane per rad/s of spin: the shaft's polar rotary inertia
+    /// (twice the diametral one for a round section) and the disks' polar inertia
+    public BandMatrix planarGyroscopicMatrix() {
+        BandMatrix gyroscopic = new BandMatrix(2 * getNodeCount(), 3, 3);
+        for (int e = 0; e < elements.size(); e++) {
+            double[] element = elements.get(e);
+            double l = element[0];
+            addElement(gyroscopic, e, rotaryMass(l), 2 * density * element[2] / (30 * l));
+        }
+        for (double[] disk : disks) {
+            int node = nearestNode(disk[0]);
+            gyroscopic.add(2 * node + 1, 2 * node + 1, disk[2]);
+        }
+        return gyroscopic;
+    }
+
+    public BandMatrix massMatrix() { return bothPlanes(planarMassMatrix()); }
+    public BandMatrix stiffnessMatrix() { return bothPlanes(planarStiffnessMatrix()); }
+    public BandMatrix dampingMatrix() { return bothPlanes(planarDampingMatrix()); }
+
+    /// Skew-symmetric gyroscopic matrix G per rad/s of spin, so that M·q'' + (C + Ω·G)·q' + K·q = 0
+    public BandMatrix gyroscopicMatrix() {
+        BandMatrix planar = planarGyroscopicMatrix();
+        int nodes = getNodeCount();
+        BandMatrix gyroscopic = new BandMatrix(DOFS_PER_NODE * nodes, 7, 7);
+        for (int i = 0; i < 2 * nodes; i++) {
+            for (int j = Math.max(0, i - 3); j <= Math.min(2 * nodes - 1, i + 3); j++) {
+                double value = planar.get(i, j);
+                if (value != 0.0) {
+                    gyroscopic.add(fullIndex(i, 0), fullIndex(j, 1), value);
+                    gyroscopic.add(fullIndex(i, 1), fullIndex(j, 0), -value);
+                }
+            }
+        }
+        return gyroscopic;
+    }
+
+    private BandMatrix bothPlanes(BandMatrix planar) {
+        int nodes = getNodeCount();
+        BandMatrix full = new BandMatrix(DOFS_PER_NODE * nodes, 7, 7);
+        for (int i = 0; i < 2 * nodes; i++) {
+            for (int j = Math.max(0, i - 3); j <= Math.min(2 * nodes - 1, i + 3); j++) {
+                double value = planar.get(i, j);
+                if (value != 0.0) {
+                    full.add(fullIndex(i, 0), fullIndex(j, 0), value);
+                    full.add(fullIndex(i, 1), fullIndex(j, 1), value);
+                }
+            }
+        }
+        return full;
+    }
+
+    /// Planar DOF index (2·node + local) to the full index of the given plane (0 = x, 1 = y)
+    static int fullIndex(int planarIndex, int plane) {
+        return DOFS_PER_NODE * (planarIndex / 2) + 2 * plane + planarIndex % 2;
+    }
+
+    private static void addElement(BandMatrix matrix, int element, double[][] pattern, double factor) {
+        int first = 2 * element;
+        for (int i = 0; i < 4; i++) {
+            for (int j = 0; j < 4; j++) {
+                matrix.add(first + i, first + j, factor * pattern[i][j]);
+            }
+        }
+    }
+
+    private static double[][] bending(double l) {
+        return new double[][] {
+                {12, 6 * l, -12, 6 * l},
+                {6 * l, 4 * l * l, -6 * l, 2 * l * l},
+                {-12, -6 * l, 12, -6 * l},
+                {6 * l, 2 * l * l, -6 * l, 4 * l * l}};
+    }
+
+    private static double[][] translationalMass(double l) {
+        return new double[][] {
+                {156, 22 * l, 54, -13 * l},
+                {22 * l, 4 * l * l, 13 * l, -3 * l * l},
+                {54, 13 * l, 156, -22 * l},
+                {-13 * l, -3 * l * l, -22 * l, 4 * l * l}};
+    }
+
+    private static double[][] rotaryMass(double l) {
+        return new double[][] {
+                {36, 3 * l, -36, 3 * l},
+                {3 * l, 4 * l * l, -3 * l, -l * l},
+                {-36, -3 * l, 36, -3 * l},
+                {3 * l, -l * l, -3 * l, 4 * l * l}};
+    }
+
+    public int getNodeCount() { return nodePositions.size(); }
+    public int getElementCount() { return elements.size(); }
+    public int getDegreesOfFreedom() { return DOFS_PER_NODE * getNodeCount(); }
+    public double getNodePosition(int node) { return nodePositions.get(node); }
+    public double getLength() { return nodePositions.get(nodePositions.size() - 1); }
+}
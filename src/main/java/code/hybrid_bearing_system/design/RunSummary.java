@@ -0,0 +1,67 @@
+package code.hybrid_bearing_system.design;
+
+/// Scalar outcome of one simulated run, collected step by step without keeping the trajectory.
+public class RunSummary {
+    private final long steps;
+    private final double peakDisplacement;
+    private final double rmsDisplacement;
+    private final double finalTemperature;
+    private final double energyLoss;
+    private final double peakStress;
+    private final double frictionForce;
+
+    public RunSummary(long steps, double peakDisplacement, double rmsDisplacement, double finalTemperature,
+                      double energyLoss, double peakStress, double frictionForce) {
+        this.steps = steps;
+        this.peakDisplacement = peakDisplacement;
+        this.rmsDisplacement = rmsDisplacement;
+        this.finalTemperature = finalTemperature;
+        this.energyLoss = energyLoss;
+        this.peakStress = peakStress;
+        this.frictionForce = frictionForce;
+    }
+
+    /// Runs the job's closed loop for its full duration and summarises it.
+    public static RunSummary simulate(SimulationJob job) {
+        return simulate(job.createLoop(), job.getStepCount());
+    }
+
+    /// Steps an already configured loop and summarises it.
+    public static RunSummary simulate(SimulationLoop loop, long steps) {
+        Accumulator accumulator = new Accumulator();
+        for (long i = 0; i < steps; i++) {
+            loop.step();
+            accumulator.observe(loop.getPhysicsEngine());
+        }
+        return accumulator.finish(loop.getPhysicsEngine());
+    }
+
+    public static class Accumulator {
+        private long steps;
+        private double peakDisplacement;
+        private double sumSquares;
+        private double peakStress;
+
+        public void observe(PhysicsEngine physics) {
+            double displacement = physics.getRotorDisplacement();
+            peakDisplacement = Math.max(peakDisplacement, Math.abs(displacement));
+            sumSquares += displacement * displacement;
+            peakStress = Math.max(peakStress, physics.getStress());
+            steps++;
+        }
+
+        public RunSummary finish(PhysicsEngine physics) {
+            double rms = steps > 0 ? Math.sqrt(sumSquares / steps) : 0.0;
+            return new RunSummary(steps, peakDisplacement, rms, physics.getTemperature(),
+                    physics.getEnergyLoss(), peakStress, physics.getFrictionForce());
+        }
+    }
+
+    public long getSteps() { return steps; }
+    public double getPeakDisplacement() { return peakDisplacement; }
+    public double getRmsDisplacement() { return rmsDisplacement; }
+    public double getFinalTemperature() { return finalTemperature; }
+    public double getEnergyLoss() { return energyLoss; }
+    public double getPeakStress() { return peakStress; }
+    public double getFrictionForce() { return frictionForce; }
+}
@@ -0,0 +1,44 @@
+package code.hybrid_bearing_system.design;
+
+/// Classic 4th-order Runge-Kutta with preallocated stage buffers.
+public class RungeKutta4Integrator implements Integrator {
+    private double[] k1 = new double[0];
+    private double[] k2 = new double[0];
+    private double[] k3 = new double[0];
+    private double[] k4 = new double[0];
+    private double[] stage = new double[0];
+
+    @Override
+    public void step(StateDerivative system, double[] state, double dt) {
+        int n = state.length;
+        if (k1.length != n) {
+            k1 = new double[n];
+            k2 = new double[n];
+            k3 = new double[n];
+            k4 = new double[n];
+            stage = new double[n];
+        }
+        system.evaluate(state, k1);
+        for (int i = 0; i < n; i++) {
+            stage[i] = state[i] + dt * k1[i] / 2;
+        }
+        system.evaluate(stage, k2);
+        for (int i = 0; i < n; i++) {
+            stage[i] = state[i] + dt * k2[i] / 2;
+        }
+        system.evaluate(stage, k3);
+        for (int i = 0; i < n; i++) {
+            stage[i] = state[i] + dt * k3[i];
+        }
+        system.evaluate(stage, k4);
+        /// Weighted average of k1-k4 for final state update
+        for (int i = 0; i < n; i++) {
+            state[i] = state[i] + (dt / 6) * (k1[i] + 2 * k2[i] + 2 * k3[i] + k4[i]);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "RK4";
+    }
+}
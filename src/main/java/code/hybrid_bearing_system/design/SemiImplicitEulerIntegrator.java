@@ -0,0 +1,26 @@
+package code.hybrid_bearing_system.design;
+
+/// Symplectic (semi-implicit) Euler: velocities are updated from the current accelerations first,
+/// then positions advance with the new velocities. One derivative evaluation per step.
+public class SemiImplicitEulerIntegrator implements Integrator {
+    private double[] derivative = new double[0];
+
+    @Override
+    public void step(StateDerivative system, double[] state, double dt) {
+        int n = state.length;
+        if (derivative.length != n) {
+            derivative = new double[n];
+        }
+        int half = n / 2;
+        system.evaluate(state, derivative);
+        for (int i = 0; i < half; i++) {
+            state[half + i] += dt * derivative[half + i];
+            state[i] += dt * state[half + i];
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "Semi-implicit Euler";
+    }
+}
@@ -0,0 +1,153 @@
+package code.hybrid_bearing_system.design;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/// Complete simulation state in a versioned binary format, captured between steps. Doubles are
+/// stored as exact bit patterns, so a loop restored from a checkpoint continues bit for bit as
+/// the original would have.
+///
+/// Layout (big-endian): magic "HBCK", format version, step count, simulated time, integrator
+/// name, tabulated actuator flag, controller type, then SimulationLoop.writeState() and a CRC-32 of
+/// everything before it. Version 2 added the controller type, version 3 the thermal network state,
+/// version 4 the load distribution's warm start, version 5 the fatigue accumulators and their
+/// stress full scale. A tabulated actuator is not stored and must be installed again before restore().
+public final class SimulationCheckpoint {
+    public static final int MAGIC = 0x4842434B;
+    public static final int VERSION = 5;
+
+    private final byte[] data;
+    private final long stepCount;
+    private final double time;
+    private final String integratorName;
+    private final boolean customActuator;
+    private final ControllerType controllerType;
+
+    private SimulationCheckpoint(byte[] data) throws IOException {
+        if (data.length < 8 + Long.BYTES) {
+            throw new IOException("Checkpoint is truncated");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length - Long.BYTES);
+        if (crc.getValue() != ByteBuffer.wrap(data, data.length - Long.BYTES, Long.BYTES).getLong()) {
+            throw new IOException("Checkpoint checksum mismatch");
+        }
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a simulation checkpoint");
+        }
+        int version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported checkpoint version " + version + " (expected " + VERSION + ")");
+        }
+        this.data = data;
+        this.stepCount = in.readLong();
+        this.time = in.readDouble();
+        this.integratorName = in.readUTF();
+        this.customActuator = in.readBoolean();
+        try {
+            this.controllerType = ControllerType.parse(in.readUTF());
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage());
+        }
+    }
+
+    /// Captures the loop's state; call between steps on the thread that runs the loop.
+    public static SimulationCheckpoint capture(SimulationLoop loop) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(loop.getStepCount());
+            out.writeDouble(loop.getTime());
+            out.writeUTF(loop.getPhysicsEngine().getIntegrator().getName());
+            out.writeBoolean(loop.getBearingModel().hasCustomActuator());
+            out.writeUTF(loop.getControlSystem().getControllerType().getKey());
+            loop.writeState(out);
+            out.flush();
+            CRC32 crc = new CRC32();
+            crc.update(bytes.toByteArray());
+            out.writeLong(crc.getValue());
+            return new SimulationCheckpoint(bytes.toByteArray());
+        } catch (IOException e) {
+            /// Only in-memory streams are involved
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /// Restores the loop to this checkpoint. The loop must use the same integrator and controller,
+    /// and a tabulated actuator exactly when the checkpointed one did.
+    public void restore(SimulationLoop loop) {
+        String integrator = loop.getPhysicsEngine().getIntegrator().getName();
+        if (!integrator.equals(integratorName)) {
+            throw new IllegalArgumentException("Checkpoint was taken with integrator " + integratorName
+                    + " but the simulation uses " + integrator);
+        }
+        ControllerType controller = loop.getControlSystem().getControllerType();
+        if (controller != controllerType) {
+            throw new IllegalArgumentException("Checkpoint was taken with the " + controllerType.getKey()
+                    + " controller but the simulation uses " + controller.getKey());
+        }
+        if (customActuator != loop.getBearingModel().hasCustomActuator()) {
+            throw new IllegalArgumentException(customActuator
+                    ? "Checkpoint was taken with a tabulated actuator; install it before restoring"
+                    : "Checkpoint was taken with the closed-form actuator but a tabulated one is installed");
+        }
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        try {
+            in.skipNBytes(8 + Long.BYTES + Double.BYTES);
+            in.readUTF();
+            in.readBoolean();
+            in.readUTF();
+            loop.readState(in);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Corrupt checkpoint: " + e.getMessage());
+        }
+    }
+
+    /// Writes to a sibling temporary file, forces it to disk and renames it over path, so path
+    /// always holds either the previous or the new checkpoint in full.
+    public void write(Path path) throws IOException {
+        Path absolute = path.toAbsolutePath();
+        Path temporary = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        try {
+            Files.move(temporary, absolute, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, absolute, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /// Reads and validates a checkpoint file; IOException if it is not a readable checkpoint of
+    /// this format version.
+    public static SimulationCheckpoint read(Path path) throws IOException {
+        return new SimulationCheckpoint(Files.readAllBytes(path));
+    }
+
+    public long getStepCount() { return stepCount; }
+    public double getTime() { return time; }
+    public String getIntegratorName() { return integratorName; }
+    public boolean hasCustomActuator() { return customActuator; }
+    public ControllerType getControllerType() { return controllerType; }
+    public int getSize() { return data.length; }
+}
@@ -1,6 +1,7 @@
 package code.hybrid_bearing_system.design;
 
 import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.*;
@@ -9,31 +10,53 @@ import javafx.scene.layout.VBox;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.paint.Color;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
 
 public class SimulationDashboard {
+    private static final Path CHECKPOINT_FILE = Path.of("simulation.hbc");
+    /// Simulated seconds between background checkpoints while running
+    private static final double CHECKPOINT_INTERVAL = 60.0;
+
     private VBox pane;
     private Canvas dashboardCanvas;
+    private SimulationLoop simulationLoop;
+    private SimulationRunner simulationRunner;
     private PhysicsEngine physicsEngine;
     private Visualization2D visualization2D;
     private ControlSystem controlSystem;
     private DataExporter dataExporter;
     private BearingModel bearingModel;
     private AnimationTimer timer;
-    private double time;
+    private TelemetryRecorder telemetryRecorder;
+    private Path lastTelemetryFile;
+    private CheckpointWriter checkpointWriter;
     private Label statusLabel;
     private Slider kpSlider, kiSlider, kdSlider;
+    private ComboBox<ControllerType> controllerCombo;
+    private AnalysisScheduler analysisScheduler;
+    private AnalysisScheduler.Job<?> tuneJob;
+    private PidAutoTuner.Score tunedGains;
+    private Label tuneLabel;
+    private Button applyTunedButton;
 
-    public SimulationDashboard(BearingModel bearingModel, PhysicsEngine physicsEngine,
-                               ControlSystem controlSystem, DataExporter dataExporter) {
+    public SimulationDashboard(BearingModel bearingModel, SimulationLoop simulationLoop, DataExporter dataExporter,
+            AnalysisScheduler analysisScheduler) {
         this.bearingModel = bearingModel;
-        this.physicsEngine = physicsEngine;
-        this.controlSystem = controlSystem;
+        this.analysisScheduler = analysisScheduler;
+        this.simulationLoop = simulationLoop;
+        this.physicsEngine = simulationLoop.getPhysicsEngine();
+        this.controlSystem = simulationLoop.getControlSystem();
         this.dataExporter = dataExporter;
         pane = new VBox(10);
         pane.setPadding(new Insets(10));
         pane.setStyle("-fx-background-color: #1E1E1E;");
         visualization2D = new Visualization2D();
-        time = 0.0;
+        simulationRunner = new SimulationRunner(simulationLoop);
 
         /// Dashboard
         TitledPane dashboardPane = new TitledPane();
@@ -60,7 +83,48 @@ public class SimulationDashboard {
         controlsGrid.add(startButton, 0, 0);
         controlsGrid.add(stopButton, 1, 0);
         controlsGrid.add(resetButton, 2, 0);
-        controlsGrid.add(statusLabel, 0, 1, 3, 1);
+        ComboBox<String> speedCombo = new ComboBox<>();
+        speedCombo.getItems().addAll("Real time", "10x", "100x", "Max");
+        speedCombo.setValue("Real time");
+        speedCombo.setTooltip(new Tooltip("Simulated time per wall-clock time in time-based mode"));
+        speedCombo.setOnAction(e -> {
+            switch (speedCombo.getValue()) {
+                case "10x":
+                    simulationRunner.setTimeScale(10.0);
+                    break;
+                case "100x":
+                    simulationRunner.setTimeScale(100.0);
+                    break;
+                case "Max":
+                    simulationRunner.setTimeScale(Double.POSITIVE_INFINITY);
+                    break;
+                default:
+                    simulationRunner.setTimeScale(1.0);
+                    break;
+            }
+        });
+        ComboBox<String> stepsCombo = new ComboBox<>();
+        stepsCombo.getItems().addAll("Time-based", "1 / frame", "5 / frame", "10 / frame", "50 / frame");
+        stepsCombo.setValue("Time-based");
+        stepsCombo.setTooltip(new Tooltip("Lock a fixed number of physics steps to each rendered frame"));
+        stepsCombo.setOnAction(e -> {
+            String value = stepsCombo.getValue();
+            simulationRunner.setStepsPerFrame(value.equals("Time-based") ? 0 : Integer.parseInt(value.split(" ")[0]));
+        });
+        controlsGrid.add(new Label("Speed:"), 0, 1);
+        controlsGrid.add(speedCombo, 1, 1);
+        controlsGrid.add(new Label("Physics Steps:"), 0, 2);
+        controlsGrid.add(stepsCombo, 1, 2);
+        Button exportButton = new Button("Export CSV");
+        exportButton.setTooltip(new Tooltip("Convert the last recorded telemetry file to simulation_data.csv"));
+        exportButton.setOnAction(e -> exportTelemetry());
+        controlsGrid.add(exportButton, 2, 1);
+        Button restoreButton = new Button("Restore Checkpoint");
+        restoreButton.setTooltip(new Tooltip("Resume from " + CHECKPOINT_FILE + ", written every "
+                + (int) CHECKPOINT_INTERVAL + " simulated seconds and on stop"));
+        restoreButton.setOnAction(e -> restoreCheckpoint());
+        controlsGrid.add(restoreButton, 2, 2);
+        controlsGrid.add(statusLabel, 0, 3, 3, 1);
         controlsPane.setContent(controlsGrid);
 
         /// PID tuning
@@ -75,7 +139,8 @@ public class SimulationDashboard {
         kpSlider.setShowTickMarks(true);
         Label kpLabel = new Label("Kp: 1000");
         kpSlider.valueProperty().addListener((obs, oldVal, newVal) -> {
-            controlSystem.setKp(newVal.doubleValue());
+            double gain = newVal.doubleValue();
+            simulationRunner.execute(() -> controlSystem.setKp(gain));
             kpLabel.setText("Kp: " + String.format("%.0f", newVal.doubleValue()));
         });
         kiSlider = new Slider(0, 50, 10);
@@ -83,7 +148,8 @@ public class SimulationDashboard {
         kiSlider.setShowTickMarks(true);
         Label kiLabel = new Label("Ki: 10");
         kiSlider.valueProperty().addListener((obs, oldVal, newVal) -> {
-            controlSystem.setKi(newVal.doubleValue());
+            double gain = newVal.doubleValue();
+            simulationRunner.execute(() -> controlSystem.setKi(gain));
             kiLabel.setText("Ki: " + String.format("%.0f", newVal.doubleValue()));
         });
         kdSlider = new Slider(0, 100, 50);
@@ -91,7 +157,8 @@ public class SimulationDashboard {
         kdSlider.setShowTickMarks(true);
         Label kdLabel = new Label("Kd: 50");
         kdSlider.valueProperty().addListener((obs, oldVal, newVal) -> {
-            controlSystem.setKd(newVal.doubleValue());
+            double gain = newVal.doubleValue();
+            simulationRunner.execute(() -> controlSystem.setKd(gain));
             kdLabel.setText("Kd: " + String.format("%.0f", newVal.doubleValue()));
         });
         pidGrid.add(new Label("Proportional Gain:"), 0, 0);
@@ -103,21 +170,47 @@ public class SimulationDashboard {
         pidGrid.add(new Label("Derivative Gain:"), 0, 2);
         pidGrid.add(kdLabel, 1, 2);
         pidGrid.add(kdSlider, 2, 2);
+        Button tuneButton = new Button("Auto-Tune");
+        tuneButton.setTooltip(new Tooltip("Search the gains for the fastest, smallest response to a 1 mm rotor"
+                + " offset on the current configuration"));
+        tuneButton.setOnAction(e -> autoTune());
+        applyTunedButton = new Button("Apply Tuned Gains");
+        applyTunedButton.setDisable(true);
+        applyTunedButton.setOnAction(e -> applyTunedGains());
+        tuneLabel = new Label("");
+        pidGrid.add(tuneButton, 0, 3);
+        pidGrid.add(applyTunedButton, 1, 3);
+        pidGrid.add(tuneLabel, 2, 3);
+        controllerCombo = new ComboBox<>();
+        controllerCombo.getItems().addAll(ControllerType.values());
+        controllerCombo.setValue(controlSystem.getControllerType());
+        controllerCombo.setTooltip(new Tooltip("PID uses the gains above; LQR is designed from the linearized bearing"
+                + " and estimates its state with a Kalman filter"));
+        controllerCombo.setOnAction(e -> {
+            ControllerType type = controllerCombo.getValue();
+            simulationRunner.execute(() -> controlSystem.setControllerType(type, bearingModel));
+        });
+        pidGrid.add(new Label("Controller:"), 0, 4);
+        pidGrid.add(controllerCombo, 1, 4);
         pidPane.setContent(pidGrid);
         pane.getChildren().addAll(dashboardPane, controlsPane, pidPane);
     }
 
     public void startSimulation() {
         if (timer == null) {
+            startTelemetry();
+            checkpointWriter = new CheckpointWriter(CHECKPOINT_FILE);
+            simulationLoop.setCheckpointWriter(checkpointWriter, CHECKPOINT_INTERVAL);
+            simulationRunner.start();
+            /// The timer only renders; physics runs on the runner's own thread
             timer = new AnimationTimer() {
                 @Override
                 public void handle(long now) {
-                    updateSimulation();
-                    renderDashboard();
-                    time += 0.01;
-                    if (time >= 1.0) {
-                        dataExporter.exportToCSV(physicsEngine, "simulation_data.csv");
-                        time = 0.0;
+                    long start = Instrumentation.ENABLED ? System.nanoTime() : 0L;
+                    simulationRunner.requestFrame();
+                    renderDashboard(simulationRunner.getSnapshot());
+                    if (Instrumentation.ENABLED) {
+                        Instrumentation.frameRendered(now, System.nanoTime() - start);
                     }
                 }
             };
@@ -127,39 +220,211 @@ public class SimulationDashboard {
     }
 
     public void stopSimulation() {
+        stopSimulation(true);
+    }
+
+    /// Stops the timer and the runner; finalCheckpoint also saves the stopped state
+    private void stopSimulation(boolean finalCheckpoint) {
         if (timer != null) {
             timer.stop();
             timer = null;
+            simulationRunner.stop();
+            stopTelemetry();
+            stopCheckpoints(finalCheckpoint);
             statusLabel.setText("Simulation Stopped");
         }
     }
 
+    /// Writes a final checkpoint of the stopped simulation if asked and shuts the writer down once
+    /// pending writes are done
+    private void stopCheckpoints(boolean finalCheckpoint) {
+        simulationLoop.setCheckpointWriter(null, 0);
+        try {
+            if (finalCheckpoint) {
+                checkpointWriter.offer(SimulationCheckpoint.capture(simulationLoop));
+            }
+            checkpointWriter.close();
+        } catch (UncheckedIOException e) {
+            System.err.println(e.getMessage() + ": " + e.getCause().getMessage());
+        }
+        checkpointWriter = null;
+    }
+
+    private void restoreCheckpoint() {
+        /// Without the final checkpoint, which would replace the one about to be restored
+        stopSimulation(false);
+        SimulationCheckpoint checkpoint;
+        try {
+            checkpoint = SimulationCheckpoint.read(CHECKPOINT_FILE);
+        } catch (IOException e) {
+            statusLabel.setText("Cannot read checkpoint: " + e.getMessage());
+            return;
+        }
+        try {
+            simulationRunner.execute(() -> {
+                controlSystem.setControllerType(checkpoint.getControllerType(), bearingModel);
+                checkpoint.restore(simulationLoop);
+            });
+        } catch (IllegalArgumentException e) {
+            statusLabel.setText("Cannot restore checkpoint: " + e.getMessage());
+            return;
+        }
+        controllerCombo.setValue(checkpoint.getControllerType());
+        /// Slider listeners write the gains back; ones outside a slider's range end up clamped to it
+        kpSlider.setValue(controlSystem.getKp());
+        kiSlider.setValue(controlSystem.getKi());
+        kdSlider.setValue(controlSystem.getKd());
+        visualization2D.reset();
+        statusLabel.setText(String.format("Restored checkpoint at %.1f s", checkpoint.getTime()));
+        renderDashboard(simulationRunner.getSnapshot());
+    }
+
+    /// Tunes the gains of the current configuration in the background; a second click cancels.
+    private void autoTune() {
+        if (tuneJob != null && !tuneJob.isDone()) {
+            tuneJob.cancel();
+            return;
+        }
+        PidAutoTuner tuner = new PidAutoTuner();
+        SimulationJob job = SimulationJob.of(bearingModel, controlSystem);
+        job.setTimeStep(physicsEngine.getTimeStep());
+        job.setDuration(2.0);
+        job.setController(ControllerType.PID);
+        tuner.setNominal(job);
+        tuneLabel.setText("Tuning...");
+        tuneJob = analysisScheduler.submit("tune", AnalysisScheduler.Priority.NORMAL,
+                context -> {
+                    int[] generation = {0};
+                    return tuner.run(candidates -> {
+                        context.setMessage("generation " + generation[0]++ + " of " + tuner.getGenerations());
+                        return context.computeAll(candidates);
+                    }, analysisScheduler.getComputeThreads());
+                },
+                new AnalysisScheduler.Listener<PidAutoTuner.Result>() {
+                    @Override
+                    public void progress(double fraction, String message) {
+                        tuneLabel.setText("Tuning... " + message);
+                    }
+
+                    @Override
+                    public void succeeded(PidAutoTuner.Result result) {
+                        if (!result.isImproved()) {
+                            tunedGains = null;
+                            applyTunedButton.setDisable(true);
+                            tuneLabel.setText(String.format("No improvement on the current gains (cost %.4g)",
+                                    result.getNominal().getCost()));
+                            return;
+                        }
+                        tunedGains = result.getBest();
+                        applyTunedButton.setDisable(false);
+                        tuneLabel.setText(String.format("Kp %.0f, Ki %.1f, Kd %.1f: settles in %.2f s, cost %.4g"
+                                + " (%d of %d candidates stopped early)", tunedGains.getKp(), tunedGains.getKi(),
+                                tunedGains.getKd(), tunedGains.getSettlingTime(), tunedGains.getCost(),
+                                result.getAbortedEvaluations(), result.getEvaluations()));
+                    }
+
+                    @Override
+                    public void failed(Throwable error) {
+                        tuneLabel.setText("Tuning failed: " + error.getMessage());
+                    }
+
+                    @Override
+                    public void cancelled() {
+                        tuneLabel.setText("Tuning cancelled");
+                    }
+                });
+    }
+
+    /// Slider listeners pass the tuned gains on to the running controller
+    private void applyTunedGains() {
+        if (tunedGains != null) {
+            kpSlider.setValue(tunedGains.getKp());
+            kiSlider.setValue(tunedGains.getKi());
+            kdSlider.setValue(tunedGains.getKd());
+        }
+    }
+
+    /// Every physics step is recorded to a new binary telemetry file per run
+    private void startTelemetry() {
+        Path file = Path.of("telemetry_" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".hbt");
+        try {
+            telemetryRecorder = new TelemetryRecorder(file, Arrays.asList(OutputChannel.values()));
+            lastTelemetryFile = file;
+            simulationRunner.setTelemetryRecorder(telemetryRecorder);
+        } catch (IOException e) {
+            telemetryRecorder = null;
+            System.err.println("Error opening telemetry file: " + e.getMessage());
+        }
+    }
+
+    private void stopTelemetry() {
+        if (telemetryRecorder != null) {
+            simulationRunner.setTelemetryRecorder(null);
+            try {
+                telemetryRecorder.close();
+            } catch (IOException e) {
+                System.err.println("Error writing telemetry: " + e.getMessage());
+            }
+            telemetryRecorder = null;
+        }
+    }
+
+    private void exportTelemetry() {
+        Path source = lastTelemetryFile;
+        if (source == null) {
+            statusLabel.setText("No telemetry recorded yet");
+            return;
+        }
+        if (telemetryRecorder != null) {
+            statusLabel.setText("Stop the simulation before exporting");
+            return;
+        }
+        statusLabel.setText("Exporting " + source + "...");
+        Thread exporter = new Thread(() -> {
+            String message;
+            try {
+                long samples = dataExporter.convertTelemetryToCSV(source, Path.of("simulation_data.csv"));
+                message = String.format("Exported %d samples to simulation_data.csv", samples);
+            } catch (IOException e) {
+                message = "Error exporting CSV: " + e.getMessage();
+            }
+            String status = message;
+            Platform.runLater(() -> statusLabel.setText(status));
+        }, "csv-export");
+        exporter.setDaemon(true);
+        exporter.start();
+    }
+
     public void resetSimulation() {
         stopSimulation();
-        physicsEngine.reset();
+        simulationRunner.execute(simulationLoop::reset);
         visualization2D.reset();
-        time = 0.0;
         statusLabel.setText("Simulation Reset");
-        renderDashboard();
-    }
-
-    private void updateSimulation() {
-        physicsEngine.update();
-        double controlForce = controlSystem.update(physicsEngine.getRotorDisplacement(), physicsEngine.getRotorVelocity());
-        physicsEngine.applyControlForce(controlForce);
+        renderDashboard(simulationRunner.getSnapshot());
     }
 
-    private void renderDashboard() {
+    private void renderDashboard(SimulationSnapshot snapshot) {
         GraphicsContext gc = dashboardCanvas.getGraphicsContext2D();
         gc.setFill(Color.web("#1E1E1E"));
         gc.fillRect(0, 0, dashboardCanvas.getWidth(), dashboardCanvas.getHeight());
 
-        visualization2D.drawFrictionGauge(gc, physicsEngine.getFrictionForce());
-        visualization2D.drawEnergyLossGauge(gc, physicsEngine.getEnergyLoss());
-        visualization2D.drawTemperatureGauge(gc, physicsEngine.getTemperature());
-        visualization2D.drawRotorDynamics(gc, physicsEngine.getRotorDisplacement());
-        visualization2D.drawMagneticField(gc, physicsEngine.getMagneticFieldStrength());
-        visualization2D.drawStressMap(gc, physicsEngine.getStress());
+        visualization2D.drawFrictionGauge(gc, snapshot.getFrictionForce());
+        visualization2D.drawEnergyLossGauge(gc, snapshot.getEnergyLoss());
+        visualization2D.drawTemperatureGauge(gc, snapshot.getTemperature());
+        visualization2D.drawRotorDynamics(gc, snapshot.getRotorDisplacement());
+        visualization2D.drawMagneticField(gc, snapshot.getMagneticFieldStrength());
+        visualization2D.drawStressMap(gc, snapshot.getStress());
+        visualization2D.drawTimingReadout(gc, snapshot.getTime(), snapshot.getRealTimeFactor(), snapshot.getStepsPerSecond());
+        visualization2D.drawFatigueReadout(gc, snapshot.getFatigueDamage(), snapshot.getStressCycleLife(),
+                snapshot.getEquivalentLoad(), snapshot.getModifiedRatingLife());
+        if (snapshot.getSpectrum() != null) {
+            visualization2D.drawSpectrum(gc, snapshot.getSpectrum());
+        }
+        TelemetryRecorder recorder = telemetryRecorder;
+        if (recorder != null) {
+            visualization2D.drawTelemetryReadout(gc, recorder.getRecordedSamples(), recorder.getDroppedSamples(),
+                    recorder.getBackpressureEvents());
+        }
     }
 
     public VBox getPane() {
@@ -0,0 +1,384 @@
+package code.hybrid_bearing_system.design;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+/// Description of one headless run: bearing configuration, controller and PID gains, duration and recorded channels.
+public class SimulationJob {
+    private String bearingType = "Hybrid";
+    private double spindleSpeed = 10000;
+    private double load = 500;
+    private double youngsModulus = 380;
+    private double mass = 1.0;
+    private double kp = 1000.0;
+    private double ki = 10.0;
+    private double kd = 50.0;
+    private double duration = 10.0;
+    private String material = MaterialDatabase.DEFAULT_MATERIAL;
+    /// Tabulated actuator (the standard one or built from a user-supplied force map), or null for
+    /// the closed-form coil
+    private MagneticActuator actuator = null;
+    private IntegratorType integrator = IntegratorType.RK4;
+    private ControllerType controller = ControllerType.PID;
+    /// Thermal network: null for the single node, "bearing" for ThermalNetwork.forBearing() or a
+    /// network definition file, read once into thermalDefinition
+    private String thermalNetwork = null;
+    private Properties thermalDefinition = null;
+    /// Rolling-element load distribution whose geometry each loop copies, or null
+    private LoadDistribution loadDistribution = null;
+    /// Rolling-element geometry for the fatigue estimate, the load distribution's when there is one
+    private LoadDistribution geometry = new LoadDistribution();
+    /// Load and stress levels of the fatigue accumulators; 0, the default, disables them
+    /// (FatigueLife.DEFAULT_LEVELS suits most runs)
+    private int fatigueLevels = 0;
+    private double contamination = FatigueLife.DEFAULT_CONTAMINATION;
+    private double viscosityRatio = FatigueLife.DEFAULT_VISCOSITY_RATIO;
+    private double timeStep = PhysicsEngine.TIME_STEP;
+    private double relativeTolerance = 1e-6;
+    private double absoluteTolerance = 1e-9;
+    private List<OutputChannel> outputChannels = new ArrayList<>();
+    private String outputFile = null;
+    private String telemetryFile = null;
+    private int sampleInterval = 1;
+    /// Headless runs analyze the spectrum only on request; the dashboard always does
+    private int spectrumWindow = 0;
+    private String checkpointFile = null;
+    private double checkpointInterval = 60.0;
+    private String restoreFile = null;
+
+    public static SimulationJob fromProperties(Properties properties) {
+        SimulationJob job = new SimulationJob();
+        job.setBearingType(properties.getProperty("bearingType", job.bearingType));
+        job.setSpindleSpeed(parse(properties, "spindleSpeed", job.spindleSpeed));
+        job.setLoad(parse(properties, "load", job.load));
+        job.setYoungsModulus(parse(properties, "youngsModulus", job.youngsModulus));
+        job.setMass(parse(properties, "mass", job.mass));
+        job.setKp(parse(properties, "kp", job.kp));
+        job.setKi(parse(properties, "ki", job.ki));
+        job.setKd(parse(properties, "kd", job.kd));
+        job.setDuration(parse(properties, "duration", job.duration));
+        job.setMaterial(properties.getProperty("material", job.material));
+        String actuator = properties.getProperty("actuator", "closedForm").trim();
+        if (actuator.equals("tabulated")) {
+            job.setActuator(MagneticActuator.standard());
+        } else if (!actuator.equals("closedForm")) {
+            throw new IllegalArgumentException("Unknown actuator: " + actuator + " (closedForm or tabulated)");
+        }
+        String forceMap = properties.getProperty("forceMap");
+        if (forceMap != null && !forceMap.isBlank()) {
+            try {
+                job.setActuator(MagneticActuator.standard().withForceMap(ForceMap.fromCsv(Path.of(forceMap.trim()))));
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Cannot read force map " + forceMap + ": " + e.getMessage());
+            }
+        }
+        job.setTimeStep(parse(properties, "timeStep", job.timeStep));
+        job.setTolerances(parse(properties, "rtol", job.relativeTolerance), parse(properties, "atol", job.absoluteTolerance));
+        String integrator = properties.getProperty("integrator");
+        if (integrator != null && !integrator.isBlank()) {
+            job.setIntegrator(IntegratorType.parse(integrator));
+        }
+        String controller = properties.getProperty("controller");
+        if (controller != null && !controller.isBlank()) {
+            job.setController(ControllerType.parse(controller));
+        }
+        job.setThermalNetwork(properties.getProperty("thermalNetwork"));
+        LoadDistribution geometry = LoadDistribution.fromProperties(properties);
+        job.setGeometry(geometry);
+        if (Boolean.parseBoolean(properties.getProperty("loadDistribution", "false").trim())) {
+            job.setLoadDistribution(geometry);
+        }
+        job.setFatigueLevels((int) parse(properties, "fatigueLevels", job.fatigueLevels));
+        job.setContamination(parse(properties, "contamination", job.contamination));
+        job.setViscosityRatio(parse(properties, "viscosityRatio", job.viscosityRatio));
+        job.setSampleInterval((int) parse(properties, "sampleInterval", job.sampleInterval));
+        job.setSpectrumWindow((int) parse(properties, "spectrumWindow", job.spectrumWindow));
+        job.setOutputFile(properties.getProperty("output"));
+        job.setTelemetryFile(properties.getProperty("telemetry"));
+        job.setCheckpointFile(properties.getProperty("checkpoint"));
+        job.setCheckpointInterval(parse(properties, "checkpointInterval", job.checkpointInterval));
+        job.setRestoreFile(properties.getProperty("restore"));
+        String channels = properties.getProperty("channels");
+        if (channels != null && !channels.isBlank()) {
+            List<OutputChannel> parsed = new ArrayList<>();
+            for (String name : channels.split(",")) {
+                parsed.add(OutputChannel.parse(name));
+            }
+            job.setOutputChannels(parsed);
+        }
+        return job;
+    }
+
+    /// Job reproducing a live model and controller: bearing parameters, actuator, controller type
+    /// and PID gains.
+    /// Duration, integrator and outputs keep their defaults.
+    public static SimulationJob of(BearingModel bearingModel, ControlSystem controlSystem) {
+        SimulationJob job = new SimulationJob();
+        job.setBearingType(bearingModel.getBearingType());
+        job.setSpindleSpeed(bearingModel.getSpindleSpeed());
+        job.setLoad(bearingModel.getLoad());
+        job.setYoungsModulus(bearingModel.getYoungsModulus());
+        job.setMass(bearingModel.getMass());
+        job.setMaterial(bearingModel.getMaterial());
+        if (bearingModel.hasCustomActuator()) {
+            job.setActuator(bearingModel.getActuator());
+        }
+        job.setKp(controlSystem.getKp());
+        job.setKi(controlSystem.getKi());
+        job.setKd(controlSystem.getKd());
+        job.setController(controlSystem.getControllerType());
+        return job;
+    }
+
+    private static double parse(Properties properties, String key, double defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid numeric value for " + key + ": " + value);
+        }
+    }
+
+    public void applyTo(BearingModel bearingModel) {
+        bearingModel.setBearingType(bearingType);
+        bearingModel.setSpindleSpeed(spindleSpeed);
+        bearingModel.setLoad(load);
+        bearingModel.setYoungsModulus(youngsModulus);
+        bearingModel.setMass(mass);
+        bearingModel.setMaterial(material);
+        if (actuator != null) {
+            bearingModel.setActuator(actuator);
+        }
+    }
+
+    public void applyTo(ControlSystem controlSystem) {
+        controlSystem.setKp(kp);
+        controlSystem.setKi(ki);
+        controlSystem.setKd(kd);
+    }
+
+    /// Builds an independent model, engine and controller configured for this job.
+    public SimulationLoop createLoop() {
+        BearingModel bearingModel = new BearingModel();
+        applyTo(bearingModel);
+        SimulationLoop loop = new SimulationLoop(bearingModel);
+        loop.getPhysicsEngine().setTimeStep(timeStep);
+        loop.getPhysicsEngine().setIntegrator(createIntegrator());
+        applyTo(loop.getControlSystem());
+        loop.getControlSystem().setControllerType(controller, bearingModel);
+        loop.getPhysicsEngine().setThermalNetwork(createThermalNetwork(bearingModel.getProfile()));
+        if (loadDistribution != null) {
+            loop.getPhysicsEngine().setLoadDistribution(loadDistribution.copy());
+        }
+        return loop;
+    }
+
+    /// Fresh thermal network for this job, or null for the single-node model
+    public ThermalNetwork createThermalNetwork(BearingProfile profile) {
+        if (thermalNetwork == null) {
+            return null;
+        }
+        return thermalDefinition != null ? ThermalNetwork.fromProperties(thermalDefinition) : ThermalNetwork.forBearing(profile);
+    }
+
+    /// Fresh fatigue accumulators for this job's geometry, counting stress up to
+    /// FatigueLife.stressFullScale() of the bearing, or null when fatigueLevels is 0
+    public FatigueLife createFatigueLife(BearingProfile profile) {
+        if (fatigueLevels == 0) {
+            return null;
+        }
+        FatigueLife fatigue = new FatigueLife(geometry, fatigueLevels,
+                FatigueLife.stressFullScale(geometry, profile, loadDistribution != null));
+        fatigue.setContamination(contamination);
+        fatigue.setViscosityRatio(viscosityRatio);
+        return fatigue;
+    }
+
+    public Integrator createIntegrator() {
+        if (integrator == IntegratorType.DORMAND_PRINCE) {
+            return new DormandPrinceIntegrator(relativeTolerance, absoluteTolerance);
+        }
+        return integrator.create();
+    }
+
+    static String checkBearingType(String bearingType) {
+        return BearingType.parse(bearingType).getLabel();
+    }
+
+    static double checkDuration(double duration) {
+        if (!(duration > 0)) {
+            throw new IllegalArgumentException("Duration must be positive: " + duration);
+        }
+        return duration;
+    }
+
+    public long getStepCount() {
+        return Math.round(duration / timeStep);
+    }
+
+    public String getBearingType() { return bearingType; }
+    public void setBearingType(String bearingType) {
+        this.bearingType = checkBearingType(bearingType);
+    }
+    public double getSpindleSpeed() { return spindleSpeed; }
+    public void setSpindleSpeed(double spindleSpeed) { this.spindleSpeed = spindleSpeed; }
+    public double getLoad() { return load; }
+    public void setLoad(double load) { this.load = load; }
+    public double getYoungsModulus() { return youngsModulus; }
+    public void setYoungsModulus(double youngsModulus) { this.youngsModulus = youngsModulus; }
+    public double getMass() { return mass; }
+    public void setMass(double mass) {
+        if (!(mass > 0)) {
+            throw new IllegalArgumentException("Rotor mass must be positive: " + mass);
+        }
+        this.mass = mass;
+    }
+    public String getMaterial() { return material; }
+    public void setMaterial(String material) {
+        this.material = MaterialDatabase.getDefault().getKey(MaterialDatabase.getDefault().getId(material));
+    }
+    public MagneticActuator getActuator() { return actuator; }
+    public void setActuator(MagneticActuator actuator) { this.actuator = actuator; }
+    public double getKp() { return kp; }
+    public void setKp(double kp) { this.kp = kp; }
+    public double getKi() { return ki; }
+    public void setKi(double ki) { this.ki = ki; }
+    public double getKd() { return kd; }
+    public void setKd(double kd) { this.kd = kd; }
+    public double getDuration() { return duration; }
+    public void setDuration(double duration) {
+        this.duration = checkDuration(duration);
+    }
+    public IntegratorType getIntegrator() { return integrator; }
+    public void setIntegrator(IntegratorType integrator) { this.integrator = integrator; }
+    public ControllerType getController() { return controller; }
+    public void setController(ControllerType controller) { this.controller = controller; }
+    /// Thermal network: null for the single node, "bearing" or a definition file path
+    public String getThermalNetwork() { return thermalNetwork; }
+    /// Definition read from the thermal network file, or null for none or the bearing default
+    public Properties getThermalDefinition() { return thermalDefinition; }
+    public void setThermalNetwork(String thermalNetwork) {
+        if (thermalNetwork == null || thermalNetwork.isBlank()) {
+            this.thermalNetwork = null;
+            this.thermalDefinition = null;
+            return;
+        }
+        String name = thermalNetwork.trim();
+        Properties definition = null;
+        if (!name.equals("bearing")) {
+            definition = new Properties();
+            try (Reader reader = Files.newBufferedReader(Path.of(name))) {
+                definition.load(reader);
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Cannot read thermal network " + name + ": " + e.getMessage());
+            }
+            /// Fail on a bad definition now rather than in every createLoop()
+            ThermalNetwork.fromProperties(definition);
+        }
+        this.thermalNetwork = name;
+        this.thermalDefinition = definition;
+    }
+    /// Geometry of the rolling-element load distribution, or null for the contact-circle stress
+    public LoadDistribution getLoadDistribution() { return loadDistribution; }
+    public void setLoadDistribution(LoadDistribution loadDistribution) {
+        this.loadDistribution = loadDistribution;
+        if (loadDistribution != null) {
+            geometry = loadDistribution;
+        }
+    }
+    public LoadDistribution getGeometry() { return geometry; }
+    public void setGeometry(LoadDistribution geometry) {
+        if (geometry == null) {
+            throw new IllegalArgumentException("Rolling-element geometry must not be null");
+        }
+        this.geometry = geometry;
+    }
+    /// Levels of the rainflow and load spectrum counters in headless runs, 0 to disable them
+    public int getFatigueLevels() { return fatigueLevels; }
+    public void setFatigueLevels(int fatigueLevels) {
+        if (fatigueLevels != 0 && fatigueLevels < 2) {
+            throw new IllegalArgumentException("Fatigue levels must be 0 or at least 2: " + fatigueLevels);
+        }
+        this.fatigueLevels = fatigueLevels;
+    }
+    public double getContamination() { return contamination; }
+    public void setContamination(double contamination) {
+        if (!(contamination >= 0) || contamination > 1) {
+            throw new IllegalArgumentException("Contamination factor must be between 0 and 1: " + contamination);
+        }
+        this.contamination = contamination;
+    }
+    public double getViscosityRatio() { return viscosityRatio; }
+    public void setViscosityRatio(double viscosityRatio) {
+        if (!(viscosityRatio > 0) || Double.isInfinite(viscosityRatio)) {
+            throw new IllegalArgumentException("Viscosity ratio must be positive: " + viscosityRatio);
+        }
+        this.viscosityRatio = viscosityRatio;
+    }
+    public double getTimeStep() { return timeStep; }
+    public void setTimeStep(double timeStep) {
+        if (!(timeStep > 0)) {
+            throw new IllegalArgumentException("Time step must be positive: " + timeStep);
+        }
+        this.timeStep = timeStep;
+    }
+    public double getRelativeTolerance() { return relativeTolerance; }
+    public double getAbsoluteTolerance() { return absoluteTolerance; }
+    public void setTolerances(double relativeTolerance, double absoluteTolerance) {
+        if (!(relativeTolerance > 0) || !(absoluteTolerance > 0)) {
+            throw new IllegalArgumentException("Tolerances must be positive");
+        }
+        this.relativeTolerance = relativeTolerance;
+        this.absoluteTolerance = absoluteTolerance;
+    }
+    public List<OutputChannel> getOutputChannels() { return Collections.unmodifiableList(outputChannels); }
+    public void setOutputChannels(List<OutputChannel> outputChannels) { this.outputChannels = new ArrayList<>(outputChannels); }
+    public String getOutputFile() { return outputFile; }
+    public void setOutputFile(String outputFile) { this.outputFile = outputFile; }
+    /// Binary telemetry file that receives every step on all channels, or null
+    public String getTelemetryFile() { return telemetryFile; }
+    public void setTelemetryFile(String telemetryFile) {
+        this.telemetryFile = telemetryFile == null || telemetryFile.isBlank() ? null : telemetryFile;
+    }
+    /// Checkpoint file rewritten every checkpointInterval simulated seconds and at the end, or null
+    public String getCheckpointFile() { return checkpointFile; }
+    public void setCheckpointFile(String checkpointFile) {
+        this.checkpointFile = checkpointFile == null || checkpointFile.isBlank() ? null : checkpointFile;
+    }
+    public double getCheckpointInterval() { return checkpointInterval; }
+    public void setCheckpointInterval(double checkpointInterval) {
+        if (!(checkpointInterval > 0)) {
+            throw new IllegalArgumentException("Checkpoint interval must be positive: " + checkpointInterval);
+        }
+        this.checkpointInterval = checkpointInterval;
+    }
+    /// Checkpoint to resume from, or null to start at rest; duration still counts from time zero
+    public String getRestoreFile() { return restoreFile; }
+    public void setRestoreFile(String restoreFile) {
+        this.restoreFile = restoreFile == null || restoreFile.isBlank() ? null : restoreFile;
+    }
+    /// Samples per spectrum analyzer window in headless runs, 0 to disable the analyzer
+    public int getSpectrumWindow() { return spectrumWindow; }
+    public void setSpectrumWindow(int spectrumWindow) {
+        if (spectrumWindow != 0 && (spectrumWindow < 16 || Integer.bitCount(spectrumWindow) != 1)) {
+            throw new IllegalArgumentException("Spectrum window must be 0 or a power of two of at least 16: " + spectrumWindow);
+        }
+        this.spectrumWindow = spectrumWindow;
+    }
+    public int getSampleInterval() { return sampleInterval; }
+    public void setSampleInterval(int sampleInterval) {
+        if (sampleInterval < 1) {
+            throw new IllegalArgumentException("Sample interval must be at least 1: " + sampleInterval);
+        }
+        this.sampleInterval = sampleInterval;
+    }
+}
@@ -0,0 +1,137 @@
+package code.hybrid_bearing_system.design;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/// Closed physics/control loop shared by the dashboard and headless runs.
+/// Holds no JavaFX references so it can be driven from any thread or entry point.
+public class SimulationLoop {
+    private final BearingModel bearingModel;
+    private final PhysicsEngine physicsEngine;
+    private final ControlSystem controlSystem;
+    private SpectrumAnalyzer spectrumAnalyzer;
+    private FatigueLife fatigueLife;
+    private CheckpointWriter checkpointWriter;
+    private long checkpointInterval;
+    private long nextCheckpointStep;
+    private double time = 0.0;
+    private long stepCount = 0;
+
+    public SimulationLoop(BearingModel bearingModel) {
+        this(bearingModel, new PhysicsEngine(bearingModel), new ControlSystem());
+    }
+
+    public SimulationLoop(BearingModel bearingModel, PhysicsEngine physicsEngine, ControlSystem controlSystem) {
+        this.bearingModel = bearingModel;
+        this.physicsEngine = physicsEngine;
+        this.controlSystem = controlSystem;
+    }
+
+    public void step() {
+        physicsEngine.update();
+        double controlForce = controlSystem.update(physicsEngine.getRotorDisplacement(), physicsEngine.getRotorVelocity(),
+                physicsEngine.getTimeStep());
+        physicsEngine.applyControlForce(controlForce);
+        if (spectrumAnalyzer != null) {
+            spectrumAnalyzer.setSpindleFrequency(bearingModel.getSpindleSpeed() / 60.0);
+            spectrumAnalyzer.add(physicsEngine.getRotorDisplacement());
+        }
+        if (fatigueLife != null) {
+            fatigueLife.setEffectiveModulus(bearingModel.getProfile().getEffectiveModulus());
+            fatigueLife.setSpindleSpeed(bearingModel.getSpindleSpeed());
+            fatigueLife.add(physicsEngine.getStress(), physicsEngine.getBearingLoad(), physicsEngine.getTimeStep());
+        }
+        stepCount++;
+        time = stepCount * physicsEngine.getTimeStep();
+        if (checkpointWriter != null && stepCount >= nextCheckpointStep) {
+            checkpointWriter.offer(SimulationCheckpoint.capture(this));
+            nextCheckpointStep = stepCount + checkpointInterval;
+        }
+    }
+
+    public void reset() {
+        physicsEngine.reset();
+        if (spectrumAnalyzer != null) {
+            spectrumAnalyzer.reset();
+        }
+        if (fatigueLife != null) {
+            fatigueLife.reset();
+        }
+        time = 0.0;
+        stepCount = 0;
+        nextCheckpointStep = checkpointInterval;
+    }
+
+    /// Model parameters, engine and controller state and the step count, in SimulationCheckpoint
+    /// order, then the fatigue accumulators as a length-prefixed block (length 0 without them)
+    void writeState(DataOutput out) throws IOException {
+        bearingModel.writeParameters(out);
+        physicsEngine.writeState(out);
+        controlSystem.writeState(out);
+        out.writeLong(stepCount);
+        if (fatigueLife == null) {
+            out.writeInt(0);
+        } else {
+            ByteArrayOutputStream block = new ByteArrayOutputStream();
+            fatigueLife.writeState(new DataOutputStream(block));
+            out.writeInt(block.size());
+            out.write(block.toByteArray());
+        }
+    }
+
+    /// Reads what writeState() wrote. The spectrum analyzer is a diagnostic and restarts empty.
+    /// Fatigue accumulated before the checkpoint carries over when both sides count it; a loop
+    /// without a FatigueLife skips it and one restored from a checkpoint without it starts empty.
+    void readState(DataInput in) throws IOException {
+        bearingModel.readParameters(in);
+        physicsEngine.readState(in);
+        controlSystem.readState(in);
+        stepCount = in.readLong();
+        int length = in.readInt();
+        if (length < 0) {
+            throw new IOException("Invalid fatigue state length " + length);
+        }
+        byte[] fatigue = new byte[length];
+        in.readFully(fatigue);
+        if (fatigueLife != null) {
+            if (fatigue.length > 0) {
+                fatigueLife.readState(new DataInputStream(new ByteArrayInputStream(fatigue)));
+            } else {
+                fatigueLife.reset();
+            }
+        }
+        time = stepCount * physicsEngine.getTimeStep();
+        if (spectrumAnalyzer != null) {
+            spectrumAnalyzer.reset();
+        }
+        nextCheckpointStep = stepCount + checkpointInterval;
+    }
+
+    public BearingModel getBearingModel() { return bearingModel; }
+    public PhysicsEngine getPhysicsEngine() { return physicsEngine; }
+    public ControlSystem getControlSystem() { return controlSystem; }
+    /// Analyzer fed with the rotor displacement after every step, or null for none
+    public SpectrumAnalyzer getSpectrumAnalyzer() { return spectrumAnalyzer; }
+    public void setSpectrumAnalyzer(SpectrumAnalyzer spectrumAnalyzer) { this.spectrumAnalyzer = spectrumAnalyzer; }
+    /// Fatigue accumulators fed with the contact stress and bearing load after every step, or null
+    public FatigueLife getFatigueLife() { return fatigueLife; }
+    public void setFatigueLife(FatigueLife fatigueLife) { this.fatigueLife = fatigueLife; }
+    /// Hands a checkpoint to the writer every interval simulated seconds; null stops checkpointing.
+    public void setCheckpointWriter(CheckpointWriter checkpointWriter, double intervalSeconds) {
+        if (checkpointWriter != null && !(intervalSeconds > 0)) {
+            throw new IllegalArgumentException("Checkpoint interval must be positive: " + intervalSeconds);
+        }
+        this.checkpointWriter = checkpointWriter;
+        checkpointInterval = checkpointWriter == null ? 0
+                : Math.max(1, Math.round(intervalSeconds / physicsEngine.getTimeStep()));
+        nextCheckpointStep = stepCount + checkpointInterval;
+    }
+    public CheckpointWriter getCheckpointWriter() { return checkpointWriter; }
+    public double getTime() { return time; }
+    public long getStepCount() { return stepCount; }
+}
@@ -1,22 +1,35 @@
 package code.hybrid_bearing_system.design;
 
+import javafx.application.Platform;
+
 public class SimulationManager {
     private ConfigurationPanel configPanel;
     private SimulationDashboard simDashboard;
     private AnalysisPanel analysisPanel;
     private BearingModel bearingModel;
+    private SimulationLoop simulationLoop;
     private PhysicsEngine physicsEngine;
     private ControlSystem controlSystem;
     private DataExporter dataExporter;
+    /// Shared by the dashboard's auto-tuner and the analysis panel, so their jobs queue by priority
+    private AnalysisScheduler analysisScheduler;
 
     public SimulationManager() {
         bearingModel = new BearingModel();
         physicsEngine = new PhysicsEngine(bearingModel);
         controlSystem = new ControlSystem();
+        simulationLoop = new SimulationLoop(bearingModel, physicsEngine, controlSystem);
+        simulationLoop.setSpectrumAnalyzer(new SpectrumAnalyzer(1.0 / physicsEngine.getTimeStep()));
+        /// The dashboard's stress is load over contact area; twice that of the default 500 N covers
+        /// the configuration panel's loads up to 1000 N
+        LoadDistribution geometry = new LoadDistribution();
+        simulationLoop.setFatigueLife(new FatigueLife(geometry,
+                FatigueLife.stressFullScale(geometry, bearingModel.getProfile(), false)));
         dataExporter = new DataExporter();
+        analysisScheduler = new AnalysisScheduler(Runtime.getRuntime().availableProcessors(), Platform::runLater);
         configPanel = new ConfigurationPanel(bearingModel, this);
-        simDashboard = new SimulationDashboard(bearingModel, physicsEngine, controlSystem, dataExporter);
-        analysisPanel = new AnalysisPanel(bearingModel, physicsEngine);
+        simDashboard = new SimulationDashboard(bearingModel, simulationLoop, dataExporter, analysisScheduler);
+        analysisPanel = new AnalysisPanel(bearingModel, physicsEngine, controlSystem, analysisScheduler);
     }
 
     public void startSimulation() {
@@ -28,8 +41,8 @@ public class SimulationManager {
     }
 
     public void resetSimulation() {
+        /// The dashboard resets the whole loop, physics included, on the simulation thread
         simDashboard.resetSimulation();
-        physicsEngine.reset();
     }
 
     public ConfigurationPanel getConfigurationPanel() {
@@ -0,0 +1,199 @@
+package code.hybrid_bearing_system.design;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/// Runs the physics/control loop on a dedicated thread, independent of the render frame rate.
+/// In time-based mode a fixed-step accumulator advances simulated time at timeScale x wall time
+/// (infinite for as fast as possible). In frame-locked mode exactly stepsPerFrame steps are run
+/// for every requestFrame() call. After each batch an immutable snapshot is published through an
+/// AtomicReference, which the FX thread reads without locking. Changes to the loop's objects
+/// (gains, reset) should be passed through execute() so they run between steps on this thread.
+public class SimulationRunner {
+    /// Upper bound on steps per batch so a stall cannot trigger an endless catch-up spiral
+    private static final int MAX_STEPS_PER_BATCH = 10_000;
+    /// How often the real-time factor and step rate are re-measured
+    private static final long RATE_WINDOW_NANOS = 500_000_000L;
+
+    private final SimulationLoop loop;
+    private final AtomicReference<SimulationSnapshot> snapshot = new AtomicReference<>();
+    private final ConcurrentLinkedQueue<Runnable> commands = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingFrames = new AtomicInteger();
+    private volatile double timeScale = 1.0;
+    private volatile int stepsPerFrame = 0;
+    private volatile boolean running;
+    private volatile Thread thread;
+    private volatile TelemetryRecorder telemetryRecorder;
+    private double realTimeFactor;
+    private double stepsPerSecond;
+
+    public SimulationRunner(SimulationLoop loop) {
+        this.loop = loop;
+        publish();
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::run, "physics");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        thread = null;
+        drainCommands();
+        publish();
+    }
+
+    /// Runs the task on the physics thread between steps, or immediately when stopped.
+    public synchronized void execute(Runnable task) {
+        if (!running) {
+            task.run();
+            publish();
+            return;
+        }
+        commands.add(task);
+        LockSupport.unpark(thread);
+    }
+
+    /// Signals one rendered frame; in frame-locked mode the physics thread then runs stepsPerFrame steps.
+    public void requestFrame() {
+        if (stepsPerFrame > 0 && running) {
+            pendingFrames.incrementAndGet();
+            LockSupport.unpark(thread);
+        }
+    }
+
+    private void run() {
+        long dtNanos = Math.max(1, Math.round(loop.getPhysicsEngine().getTimeStep() * 1e9));
+        double accumulator = 0.0;
+        long last = System.nanoTime();
+        long windowStart = last;
+        double windowSimStart = loop.getTime();
+        long windowStepStart = loop.getStepCount();
+        while (running) {
+            drainCommands();
+            int batch;
+            long now = System.nanoTime();
+            if (stepsPerFrame > 0) {
+                batch = pendingFrames.getAndSet(0) * stepsPerFrame;
+                accumulator = 0.0;
+            } else if (Double.isInfinite(timeScale)) {
+                batch = 1000;
+                accumulator = 0.0;
+            } else {
+                dtNanos = Math.max(1, Math.round(loop.getPhysicsEngine().getTimeStep() * 1e9));
+                accumulator += (now - last) * timeScale;
+                batch = (int) Math.min(MAX_STEPS_PER_BATCH, accumulator / dtNanos);
+                accumulator -= (double) batch * dtNanos;
+                if (accumulator > (double) MAX_STEPS_PER_BATCH * dtNanos) {
+                    /// Too far behind to catch up: drop the backlog instead of spiralling
+                    accumulator = 0.0;
+                }
+            }
+            last = now;
+            TelemetryRecorder recorder = telemetryRecorder;
+            for (int i = 0; i < batch && running; i++) {
+                loop.step();
+                if (recorder != null) {
+                    recorder.record(loop.getTime(), loop.getPhysicsEngine());
+                }
+            }
+            if (now - windowStart >= RATE_WINDOW_NANOS) {
+                double wall = (now - windowStart) / 1e9;
+                realTimeFactor = (loop.getTime() - windowSimStart) / wall;
+                stepsPerSecond = (loop.getStepCount() - windowStepStart) / wall;
+                windowStart = now;
+                windowSimStart = loop.getTime();
+                windowStepStart = loop.getStepCount();
+            }
+            if (batch > 0) {
+                publish();
+            }
+            if (stepsPerFrame > 0) {
+                if (pendingFrames.get() == 0 && commands.isEmpty()) {
+                    LockSupport.parkNanos(this, 50_000_000L);
+                }
+            } else if (!Double.isInfinite(timeScale)) {
+                /// Sleep until the next step is due
+                long wait = (long) ((dtNanos - accumulator) / timeScale);
+                if (wait > 0 && commands.isEmpty()) {
+                    LockSupport.parkNanos(this, Math.min(wait, 50_000_000L));
+                }
+            }
+        }
+    }
+
+    private void drainCommands() {
+        Runnable command;
+        while ((command = commands.poll()) != null) {
+            command.run();
+        }
+    }
+
+    private void publish() {
+        snapshot.set(new SimulationSnapshot(loop, realTimeFactor, stepsPerSecond));
+    }
+
+    /// Latest published state; safe to call from any thread.
+    public SimulationSnapshot getSnapshot() {
+        return snapshot.get();
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /// Simulated seconds per wall-clock second in time-based mode; Double.POSITIVE_INFINITY runs flat out.
+    public void setTimeScale(double timeScale) {
+        if (!(timeScale > 0)) {
+            throw new IllegalArgumentException("Time scale must be positive: " + timeScale);
+        }
+        this.timeScale = timeScale;
+    }
+
+    public double getTimeScale() {
+        return timeScale;
+    }
+
+    /// Steps per rendered frame; 0 selects time-based stepping.
+    public void setStepsPerFrame(int stepsPerFrame) {
+        if (stepsPerFrame < 0) {
+            throw new IllegalArgumentException("Steps per frame must not be negative: " + stepsPerFrame);
+        }
+        pendingFrames.set(0);
+        this.stepsPerFrame = stepsPerFrame;
+    }
+
+    public int getStepsPerFrame() {
+        return stepsPerFrame;
+    }
+
+    /// Records every step into the given recorder, or stops recording when null.
+    public void setTelemetryRecorder(TelemetryRecorder telemetryRecorder) {
+        this.telemetryRecorder = telemetryRecorder;
+    }
+
+    public TelemetryRecorder getTelemetryRecorder() {
+        return telemetryRecorder;
+    }
+
+    public SimulationLoop getLoop() {
+        return loop;
+    }
+}
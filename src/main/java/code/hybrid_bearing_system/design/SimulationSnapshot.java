@@ -0,0 +1,74 @@
+package code.hybrid_bearing_system.design;
+
+/// Immutable copy of the simulation state, published by the physics thread for the renderer.
+public final class SimulationSnapshot {
+    private final double time;
+    private final long stepCount;
+    private final double rotorDisplacement;
+    private final double rotorVelocity;
+    private final double frictionForce;
+    private final double energyLoss;
+    private final double temperature;
+    private final double magneticFieldStrength;
+    private final double stress;
+    private final double controlForce;
+    private final double realTimeFactor;
+    private final double stepsPerSecond;
+    private final SpectrumAnalyzer.Spectrum spectrum;
+    private final double fatigueDamage;
+    private final double stressCycleLife;
+    private final double equivalentLoad;
+    private final double modifiedRatingLife;
+
+    public SimulationSnapshot(SimulationLoop loop, double realTimeFactor, double stepsPerSecond) {
+        PhysicsEngine physics = loop.getPhysicsEngine();
+        this.time = loop.getTime();
+        this.stepCount = loop.getStepCount();
+        this.rotorDisplacement = physics.getRotorDisplacement();
+        this.rotorVelocity = physics.getRotorVelocity();
+        this.frictionForce = physics.getFrictionForce();
+        this.energyLoss = physics.getEnergyLoss();
+        this.temperature = physics.getTemperature();
+        this.magneticFieldStrength = physics.getMagneticFieldStrength();
+        this.stress = physics.getStress();
+        this.controlForce = physics.getControlForce();
+        this.realTimeFactor = realTimeFactor;
+        this.stepsPerSecond = stepsPerSecond;
+        this.spectrum = loop.getSpectrumAnalyzer() != null ? loop.getSpectrumAnalyzer().getSpectrum() : null;
+        FatigueLife fatigue = loop.getFatigueLife();
+        if (fatigue != null) {
+            this.fatigueDamage = fatigue.getDamage();
+            this.stressCycleLife = fatigue.getStressCycleLife();
+            this.equivalentLoad = fatigue.getEquivalentLoad();
+            this.modifiedRatingLife = fatigue.toSeconds(fatigue.getModifiedRatingLife());
+        } else {
+            this.fatigueDamage = Double.NaN;
+            this.stressCycleLife = Double.NaN;
+            this.equivalentLoad = Double.NaN;
+            this.modifiedRatingLife = Double.NaN;
+        }
+    }
+
+    public double getTime() { return time; }
+    public long getStepCount() { return stepCount; }
+    public double getRotorDisplacement() { return rotorDisplacement; }
+    public double getRotorVelocity() { return rotorVelocity; }
+    public double getFrictionForce() { return frictionForce; }
+    public double getEnergyLoss() { return energyLoss; }
+    public double getTemperature() { return temperature; }
+    public double getMagneticFieldStrength() { return magneticFieldStrength; }
+    public double getStress() { return stress; }
+    public double getControlForce() { return controlForce; }
+    public double getRealTimeFactor() { return realTimeFactor; }
+    public double getStepsPerSecond() { return stepsPerSecond; }
+    /// Latest rotor vibration spectrum, or null before the first analyzer frame
+    public SpectrumAnalyzer.Spectrum getSpectrum() { return spectrum; }
+    /// Miner damage of the rainflow-counted stress cycles so far, or NaN without a FatigueLife
+    public double getFatigueDamage() { return fatigueDamage; }
+    /// Stress-cycle life (s) at the damage rate so far, or NaN without a FatigueLife
+    public double getStressCycleLife() { return stressCycleLife; }
+    /// Equivalent dynamic load P (N) of the radial load spectrum, or NaN without a FatigueLife
+    public double getEquivalentLoad() { return equivalentLoad; }
+    /// Modified rating life L10m (s) at the current spindle speed, or NaN without a FatigueLife
+    public double getModifiedRatingLife() { return modifiedRatingLife; }
+}
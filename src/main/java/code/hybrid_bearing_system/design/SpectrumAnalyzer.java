@@ -0,0 +1,350 @@
+package code.hybrid_bearing_system.design;
+
+import java.util.Arrays;
+
+/// Streaming vibration spectrum of one signal, normally the rotor displacement, fed one sample
+/// per physics step. Two stages share the input:
+///
+/// - A sliding-window FFT: the last windowSize samples are kept in a ring buffer and, every
+///   windowSize / 2 samples (50 % overlap, where Hann windows sum to a constant), are detrended,
+///   windowed and transformed with an in-place radix-2 real FFT. The O(N log N) transform every
+///   N / 2 samples is O(log N) per sample.
+///   Each frame yields an amplitude spectrum and its largest peaks.
+/// - Goertzel trackers pinned to the spindle frequency and its harmonics, each updated in O(1)
+///   per sample over Hann-windowed blocks of windowSize samples. Harmonics above the Nyquist
+///   frequency are tracked at their aliased frequency and flagged.
+///
+/// All buffers are allocated up front; add() never allocates. getSpectrum() returns an
+/// immutable copy for other threads, built at most once per FFT frame.
+public class SpectrumAnalyzer {
+    public static final int DEFAULT_WINDOW = 256;
+    public static final int DEFAULT_HARMONICS = 4;
+    public static final int MAX_PEAKS = 5;
+
+    private final int windowSize;
+    private final int hopSize;
+    private final double sampleRate;
+    private final double[] window;
+    private final double windowSum;
+    private final double[] ring;
+    private int ringPosition;
+    private long samples;
+    private int sinceFrame;
+
+    /// FFT work arrays, twiddles and the bit-reversal permutation
+    private final double[] real;
+    private final double[] imaginary;
+    private final double[] cosines;
+    private final double[] sines;
+    private final int[] bitReversed;
+
+    /// Latest frame: amplitude per bin and the largest local maxima, strongest first
+    private final double[] amplitudes;
+    private final double[] peakFrequencies = new double[MAX_PEAKS];
+    private final double[] peakAmplitudes = new double[MAX_PEAKS];
+    private final int[] peakBins = new int[MAX_PEAKS];
+    private int peakCount;
+    private long frames;
+
+    /// Goertzel trackers for harmonics 1..n of the spindle frequency
+    private double spindleFrequency = Double.NaN;
+    private final double[] harmonicFrequencies;
+    private final double[] trackedFrequencies;
+    private final double[] coefficients;
+    private final double[] state1;
+    private final double[] state2;
+    private final double[] harmonicAmplitudes;
+    private int blockPosition;
+
+    private Spectrum published;
+
+    public SpectrumAnalyzer(double sampleRate) {
+        this(DEFAULT_WINDOW, sampleRate, DEFAULT_HARMONICS);
+    }
+
+    public SpectrumAnalyzer(int windowSize, double sampleRate, int harmonics) {
+        if (windowSize < 16 || Integer.bitCount(windowSize) != 1) {
+            throw new IllegalArgumentException("Spectrum window must be a power of two of at least 16: " + windowSize);
+        }
+        if (!(sampleRate > 0)) {
+            throw new IllegalArgumentException("Sample rate must be positive: " + sampleRate);
+        }
+        if (harmonics < 0) {
+            throw new IllegalArgumentException("Harmonic count must not be negative: " + harmonics);
+        }
+        this.windowSize = windowSize;
+        this.hopSize = windowSize / 2;
+        this.sampleRate = sampleRate;
+        window = new double[windowSize];
+        double sum = 0.0;
+        for (int i = 0; i < windowSize; i++) {
+            window[i] = 0.5 - 0.5 * Math.cos(2 * Math.PI * i / windowSize);
+            sum += window[i];
+        }
+        windowSum = sum;
+        ring = new double[windowSize];
+        real = new double[windowSize / 2];
+        imaginary = new double[windowSize / 2];
+        cosines = new double[windowSize / 2];
+        sines = new double[windowSize / 2];
+        for (int i = 0; i < windowSize / 2; i++) {
+            cosines[i] = Math.cos(2 * Math.PI * i / windowSize);
+            sines[i] = -Math.sin(2 * Math.PI * i / windowSize);
+        }
+        bitReversed = new int[windowSize / 2];
+        int bits = Integer.numberOfTrailingZeros(windowSize / 2);
+        for (int i = 0; i < windowSize / 2; i++) {
+            bitReversed[i] = Integer.reverse(i) >>> (32 - bits);
+        }
+        amplitudes = new double[windowSize / 2 + 1];
+        harmonicFrequencies = new double[harmonics];
+        trackedFrequencies = new double[harmonics];
+        coefficients = new double[harmonics];
+        state1 = new double[harmonics];
+        state2 = new double[harmonics];
+        harmonicAmplitudes = new double[harmonics];
+    }
+
+    /// Retunes the harmonic trackers; does nothing when the frequency (Hz) is unchanged.
+    public void setSpindleFrequency(double frequency) {
+        if (frequency == spindleFrequency) {
+            return;
+        }
+        spindleFrequency = frequency;
+        double nyquist = sampleRate / 2;
+        for (int h = 0; h < harmonicFrequencies.length; h++) {
+            double f = (h + 1) * frequency;
+            /// Fold into [0, fs/2] to get the frequency a sampled signal shows
+            double folded = f - sampleRate * Math.floor(f / sampleRate);
+            if (folded > nyquist) {
+                folded = sampleRate - folded;
+            }
+            harmonicFrequencies[h] = f;
+            trackedFrequencies[h] = folded;
+            coefficients[h] = 2 * Math.cos(2 * Math.PI * folded / sampleRate);
+            harmonicAmplitudes[h] = 0.0;
+        }
+        restartBlock();
+    }
+
+    private void restartBlock() {
+        for (int h = 0; h < state1.length; h++) {
+            state1[h] = 0.0;
+            state2[h] = 0.0;
+        }
+        blockPosition = 0;
+    }
+
+    public void add(double sample) {
+        ring[ringPosition] = sample;
+        ringPosition = (ringPosition + 1) & (windowSize - 1);
+        samples++;
+        if (++sinceFrame >= hopSize && samples >= windowSize) {
+            sinceFrame = 0;
+            transform();
+        }
+        if (harmonicFrequencies.length > 0 && !Double.isNaN(spindleFrequency)) {
+            track(sample);
+        }
+    }
+
+    private void track(double sample) {
+        double weighted = sample * window[blockPosition];
+        for (int h = 0; h < state1.length; h++) {
+            double s = weighted + coefficients[h] * state1[h] - state2[h];
+            state2[h] = state1[h];
+            state1[h] = s;
+        }
+        if (++blockPosition == windowSize) {
+            for (int h = 0; h < state1.length; h++) {
+                double s1 = state1[h];
+                double s2 = state2[h];
+                double magnitude = Math.sqrt(Math.max(s1 * s1 + s2 * s2 - coefficients[h] * s1 * s2, 0.0));
+                /// A harmonic aliased onto DC shows as the block mean rather than a sinusoid
+                harmonicAmplitudes[h] = (trackedFrequencies[h] == 0.0 ? 1.0 : 2.0) * magnitude / windowSum;
+            }
+            restartBlock();
+        }
+    }
+
+    /// Real FFT of the window through one complex FFT of half the length: even samples go in the
+    /// real parts and odd samples in the imaginary parts, and the two interleaved spectra are
+    /// separated afterwards.
+    private void transform() {
+        int half = windowSize / 2;
+        double mean = 0.0;
+        for (int i = 0; i < windowSize; i++) {
+            mean += ring[i];
+        }
+        mean /= windowSize;
+        /// Oldest sample first, detrended and windowed, packed in pairs in bit-reversed order
+        for (int n = 0; n < half; n++) {
+            int j = bitReversed[n];
+            int i = 2 * n;
+            real[j] = (ring[(ringPosition + i) & (windowSize - 1)] - mean) * window[i];
+            imaginary[j] = (ring[(ringPosition + i + 1) & (windowSize - 1)] - mean) * window[i + 1];
+        }
+        for (int size = 2; size <= half; size <<= 1) {
+            int span = size >> 1;
+            int stride = windowSize / size;
+            for (int start = 0; start < half; start += size) {
+                for (int k = 0; k < span; k++) {
+                    double wr = cosines[k * stride];
+                    double wi = sines[k * stride];
+                    int even = start + k;
+                    int odd = even + span;
+                    double tr = wr * real[odd] - wi * imaginary[odd];
+                    double ti = wr * imaginary[odd] + wi * real[odd];
+                    real[odd] = real[even] - tr;
+                    imaginary[odd] = imaginary[even] - ti;
+                    real[even] += tr;
+                    imaginary[even] += ti;
+                }
+            }
+        }
+        double scale = 2.0 / windowSum;
+        amplitudes[0] = scale * Math.abs(real[0] + imaginary[0]);
+        amplitudes[half] = scale * Math.abs(real[0] - imaginary[0]);
+        for (int k = 1; k < half; k++) {
+            /// X[k] = E + W^k O with E, O the spectra of the even and odd samples
+            double a = real[k];
+            double b = imaginary[k];
+            double c = real[half - k];
+            double d = imaginary[half - k];
+            double er = 0.5 * (a + c);
+            double ei = 0.5 * (b - d);
+            double or = 0.5 * (b + d);
+            double oi = -0.5 * (a - c);
+            double wr = cosines[k];
+            double wi = sines[k];
+            double xr = er + wr * or - wi * oi;
+            double xi = ei + wr * oi + wi * or;
+            amplitudes[k] = scale * Math.sqrt(xr * xr + xi * xi);
+        }
+        findPeaks();
+        frames++;
+    }
+
+    /// Keeps the MAX_PEAKS largest local maxima, then refines only those by parabolic
+    /// interpolation of the log amplitude around each maximum.
+    private void findPeaks() {
+        peakCount = 0;
+        for (int k = 1; k < amplitudes.length - 1; k++) {
+            double centre = amplitudes[k];
+            if (!(centre > amplitudes[k - 1]) || !(centre >= amplitudes[k + 1])) {
+                continue;
+            }
+            if (peakCount == MAX_PEAKS && centre <= peakAmplitudes[MAX_PEAKS - 1]) {
+                continue;
+            }
+            int slot = peakCount < MAX_PEAKS ? peakCount++ : MAX_PEAKS - 1;
+            while (slot > 0 && peakAmplitudes[slot - 1] < centre) {
+                peakAmplitudes[slot] = peakAmplitudes[slot - 1];
+                peakBins[slot] = peakBins[slot - 1];
+                slot--;
+            }
+            peakAmplitudes[slot] = centre;
+            peakBins[slot] = k;
+        }
+        double binWidth = sampleRate / windowSize;
+        for (int p = 0; p < peakCount; p++) {
+            int k = peakBins[p];
+            double a = Math.log(Math.max(amplitudes[k - 1], Double.MIN_NORMAL));
+            double b = Math.log(amplitudes[k]);
+            double c = Math.log(Math.max(amplitudes[k + 1], Double.MIN_NORMAL));
+            double denominator = a - 2 * b + c;
+            double offset = denominator < 0 ? 0.5 * (a - c) / denominator : 0.0;
+            peakFrequencies[p] = (k + offset) * binWidth;
+            peakAmplitudes[p] = Math.exp(b - 0.25 * (a - c) * offset);
+        }
+    }
+
+    public void reset() {
+        for (int i = 0; i < windowSize; i++) {
+            ring[i] = 0.0;
+        }
+        for (int k = 0; k < amplitudes.length; k++) {
+            amplitudes[k] = 0.0;
+        }
+        for (int h = 0; h < harmonicAmplitudes.length; h++) {
+            harmonicAmplitudes[h] = 0.0;
+        }
+        ringPosition = 0;
+        samples = 0;
+        sinceFrame = 0;
+        peakCount = 0;
+        frames = 0;
+        restartBlock();
+        published = null;
+    }
+
+    /// Immutable copy of the latest frame and tracker amplitudes, or null before the first
+    /// frame. The copy is reused until the next frame is computed.
+    public Spectrum getSpectrum() {
+        if (frames == 0) {
+            return null;
+        }
+        Spectrum spectrum = published;
+        if (spectrum == null || spectrum.frame != frames) {
+            spectrum = new Spectrum(this);
+            published = spectrum;
+        }
+        return spectrum;
+    }
+
+    public int getWindowSize() { return windowSize; }
+    public int getHopSize() { return hopSize; }
+    public double getSampleRate() { return sampleRate; }
+    public double getBinWidth() { return sampleRate / windowSize; }
+    public long getFrameCount() { return frames; }
+    public int getPeakCount() { return peakCount; }
+    public double getPeakFrequency(int peak) { return peakFrequencies[peak]; }
+    public double getPeakAmplitude(int peak) { return peakAmplitudes[peak]; }
+    public int getHarmonicCount() { return harmonicFrequencies.length; }
+    public double getSpindleFrequency() { return spindleFrequency; }
+    /// Harmonic h (0-based, i.e. (h + 1) x spindle) in Hz before aliasing
+    public double getHarmonicFrequency(int h) { return harmonicFrequencies[h]; }
+    /// Frequency at which harmonic h appears in the sampled signal
+    public double getTrackedFrequency(int h) { return trackedFrequencies[h]; }
+    public boolean isAliased(int h) { return harmonicFrequencies[h] > sampleRate / 2; }
+    public double getHarmonicAmplitude(int h) { return harmonicAmplitudes[h]; }
+
+    /// One published analyzer frame, safe to read from any thread.
+    public static final class Spectrum {
+        private final long frame;
+        private final double binWidth;
+        private final double nyquist;
+        private final double[] amplitudes;
+        private final double[] peakFrequencies;
+        private final double[] peakAmplitudes;
+        private final double[] harmonicFrequencies;
+        private final double[] trackedFrequencies;
+        private final double[] harmonicAmplitudes;
+
+        private Spectrum(SpectrumAnalyzer analyzer) {
+            frame = analyzer.frames;
+            binWidth = analyzer.getBinWidth();
+            nyquist = analyzer.sampleRate / 2;
+            amplitudes = analyzer.amplitudes.clone();
+            peakFrequencies = Arrays.copyOf(analyzer.peakFrequencies, analyzer.peakCount);
+            peakAmplitudes = Arrays.copyOf(analyzer.peakAmplitudes, analyzer.peakCount);
+            harmonicFrequencies = analyzer.harmonicFrequencies.clone();
+            trackedFrequencies = analyzer.trackedFrequencies.clone();
+            harmonicAmplitudes = analyzer.harmonicAmplitudes.clone();
+        }
+
+        public long getFrame() { return frame; }
+        public double getBinWidth() { return binWidth; }
+        public double getNyquistFrequency() { return nyquist; }
+        public int getBinCount() { return amplitudes.length; }
+        public double getAmplitude(int bin) { return amplitudes[bin]; }
+        public int getPeakCount() { return peakFrequencies.length; }
+        public double getPeakFrequency(int peak) { return peakFrequencies[peak]; }
+        public double getPeakAmplitude(int peak) { return peakAmplitudes[peak]; }
+        public int getHarmonicCount() { return harmonicFrequencies.length; }
+        public double getHarmonicFrequency(int h) { return harmonicFrequencies[h]; }
+        public double getTrackedFrequency(int h) { return trackedFrequencies[h]; }
+        public boolean isAliased(int h) { return harmonicFrequencies[h] > nyquist; }
+        public double getHarmonicAmplitude(int h) { return harmonicAmplitudes[h]; }
+    }
+}
@@ -0,0 +1,8 @@
+package code.hybrid_bearing_system.design;
+
+/// Right-hand side of a first-order system y' = f(y). Implementations write f(state) into the
+/// caller's derivative buffer and must not allocate.
+@FunctionalInterface
+public interface StateDerivative {
+    void evaluate(double[] state, double[] derivative);
+}
@@ -0,0 +1,74 @@
+package code.hybrid_bearing_system.design;
+
+/// Continuous linear model dx/dt = A·x + B·u with n states and p inputs, row-major.
+/// linearize() gives the bearing's rotor about the centred rest position: state [displacement,
+/// velocity], input the control force command.
+public final class StateSpaceModel {
+    /// Finite-difference steps for the actuator's force map: displacement (m) and force (N)
+    private static final double DISPLACEMENT_STEP = 1e-6;
+    private static final double FORCE_STEP = 1.0;
+
+    private final int states;
+    private final int inputs;
+    private final double[] a;
+    private final double[] b;
+
+    public StateSpaceModel(double[] a, double[] b, int states, int inputs) {
+        if (a.length != states * states || b.length != states * inputs) {
+            throw new IllegalArgumentException("Expected A of " + states + "x" + states + " and B of "
+                    + states + "x" + inputs);
+        }
+        this.states = states;
+        this.inputs = inputs;
+        this.a = a.clone();
+        this.b = b.clone();
+    }
+
+    /// Rotor on bearing stiffness, damping and the gyroscopic term, clamps ignored. A tabulated
+    /// actuator adds its negative stiffness, and a command reaches the rotor through the force
+    /// map's current gain; both come from the map at the centre. The closed-form coil's constant
+    /// force only shifts the rest position.
+    public static StateSpaceModel linearize(BearingModel bearingModel) {
+        BearingProfile profile = bearingModel.getProfile();
+        double stiffness = profile.getStiffness();
+        double inputGain = 1.0;
+        MagneticActuator actuator = profile.getActuator();
+        if (actuator != null) {
+            stiffness -= (actuator.force(DISPLACEMENT_STEP, 0.0) - actuator.force(-DISPLACEMENT_STEP, 0.0))
+                    / (2 * DISPLACEMENT_STEP);
+            inputGain = (actuator.force(0.0, actuator.controlCurrentFor(FORCE_STEP))
+                    - actuator.force(0.0, actuator.controlCurrentFor(-FORCE_STEP))) / (2 * FORCE_STEP);
+        }
+        double inverseMass = profile.getInverseMass();
+        double[] a = {
+                0.0, 1.0,
+                -stiffness * inverseMass, -(profile.getDamping() + profile.getGyroscopicCoefficient()) * inverseMass};
+        double[] b = {0.0, inputGain * inverseMass};
+        return new StateSpaceModel(a, b, 2, 1);
+    }
+
+    /// Zero-order-hold discretization over dt: Ad = e^(A·dt) and Bd = ∫ e^(A·s) ds · B over one
+    /// period, both read off the exponential of the augmented matrix [A B; 0 0]·dt.
+    public void discretize(double dt, double[] ad, double[] bd) {
+        int size = states + inputs;
+        double[] augmented = new double[size * size];
+        for (int i = 0; i < states; i++) {
+            for (int j = 0; j < states; j++) {
+                augmented[i * size + j] = a[i * states + j] * dt;
+            }
+            for (int j = 0; j < inputs; j++) {
+                augmented[i * size + states + j] = b[i * inputs + j] * dt;
+            }
+        }
+        double[] exponential = Matrices.exponential(augmented, size);
+        for (int i = 0; i < states; i++) {
+            System.arraycopy(exponential, i * size, ad, i * states, states);
+            System.arraycopy(exponential, i * size + states, bd, i * inputs, inputs);
+        }
+    }
+
+    public int getStates() { return states; }
+    public int getInputs() { return inputs; }
+    public double[] getA() { return a.clone(); }
+    public double[] getB() { return b.clone(); }
+}
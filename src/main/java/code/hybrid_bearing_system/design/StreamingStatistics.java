@@ -0,0 +1,82 @@
+package code.hybrid_bearing_system.design;
+
+/// Online summary of a stream of values in constant memory: count, Welford mean and variance,
+/// minimum, maximum and a QuantileSketch for quantiles and histograms. Partial summaries built
+/// on different threads are combined with merge() (Chan et al.'s pairwise update); merging in
+/// the same order always gives bit-identical results.
+public class StreamingStatistics {
+    /// Quantiles are accurate to 0.1 % of the value
+    public static final double QUANTILE_ACCURACY = 0.001;
+
+    private long count;
+    private double mean;
+    private double sumSquaredDeviations;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private long invalid;
+    private final QuantileSketch sketch = new QuantileSketch(QUANTILE_ACCURACY);
+
+    /// Adds a value; NaN and infinities are only counted as invalid.
+    public void add(double value) {
+        if (!Double.isFinite(value)) {
+            invalid++;
+            return;
+        }
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        sumSquaredDeviations += delta * (value - mean);
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        sketch.add(value);
+    }
+
+    public void merge(StreamingStatistics other) {
+        invalid += other.invalid;
+        if (other.count == 0) {
+            return;
+        }
+        if (count == 0) {
+            count = other.count;
+            mean = other.mean;
+            sumSquaredDeviations = other.sumSquaredDeviations;
+        } else {
+            long total = count + other.count;
+            double delta = other.mean - mean;
+            mean += delta * other.count / total;
+            sumSquaredDeviations += other.sumSquaredDeviations + delta * delta * ((double) count * other.count / total);
+            count = total;
+        }
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        sketch.merge(other.sketch);
+    }
+
+    /// Sample variance (n - 1 denominator), 0 for fewer than two values
+    public double getVariance() {
+        return count > 1 ? sumSquaredDeviations / (count - 1) : 0.0;
+    }
+
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    /// Sketch quantile, clamped to the exact minimum and maximum
+    public double getQuantile(double q) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        return Math.max(min, Math.min(max, sketch.quantile(q)));
+    }
+
+    /// Counts per equal-width bin between the observed minimum and maximum
+    public long[] histogram(int bins) {
+        return sketch.histogram(min, max, bins);
+    }
+
+    public long getCount() { return count; }
+    public long getInvalidCount() { return invalid; }
+    public double getMean() { return count > 0 ? mean : Double.NaN; }
+    public double getMin() { return count > 0 ? min : Double.NaN; }
+    public double getMax() { return count > 0 ? max : Double.NaN; }
+}
@@ -0,0 +1,47 @@
+package code.hybrid_bearing_system.design;
+
+/// Splits every requested interval into a fixed number of equal steps of another integrator.
+public class SubsteppingIntegrator implements Integrator {
+    private final Integrator inner;
+    private final int substeps;
+
+    public SubsteppingIntegrator(Integrator inner, int substeps) {
+        if (substeps < 1) {
+            throw new IllegalArgumentException("Substeps must be at least 1: " + substeps);
+        }
+        this.inner = inner;
+        this.substeps = substeps;
+    }
+
+    @Override
+    public void step(StateDerivative system, double[] state, double dt) {
+        double h = dt / substeps;
+        for (int i = 0; i < substeps; i++) {
+            inner.step(system, state, h);
+        }
+    }
+
+    @Override
+    public void reset() {
+        inner.reset();
+    }
+
+    @Override
+    public double[] getHistory() {
+        return inner.getHistory();
+    }
+
+    @Override
+    public void setHistory(double[] history) {
+        inner.setHistory(history);
+    }
+
+    @Override
+    public String getName() {
+        return inner.getName() + " x" + substeps;
+    }
+
+    public int getSubsteps() {
+        return substeps;
+    }
+}
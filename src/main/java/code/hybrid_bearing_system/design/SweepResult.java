@@ -0,0 +1,41 @@
+package code.hybrid_bearing_system.design;
+
+/// One finished case of a parameter sweep.
+public class SweepResult {
+    public static final String CSV_HEADER = "Case,BearingType,SpindleSpeed,Load,YoungsModulus,Kp,Ki,Kd,"
+            + "PeakDisplacement,RmsDisplacement,FinalTemperature,EnergyLoss,PeakStress,Friction,WallTimeMs";
+
+    private final int caseIndex;
+    private final SimulationJob job;
+    private final RunSummary summary;
+    private final long elapsedNanos;
+    /// False when the summary came from a ResultCache instead of being integrated
+    private final boolean simulated;
+
+    public SweepResult(int caseIndex, SimulationJob job, RunSummary summary, long elapsedNanos) {
+        this(caseIndex, job, summary, elapsedNanos, true);
+    }
+
+    public SweepResult(int caseIndex, SimulationJob job, RunSummary summary, long elapsedNanos, boolean simulated) {
+        this.caseIndex = caseIndex;
+        this.job = job;
+        this.summary = summary;
+        this.elapsedNanos = elapsedNanos;
+        this.simulated = simulated;
+    }
+
+    public String toCsvRow() {
+        return caseIndex + "," + job.getBearingType() + "," + job.getSpindleSpeed() + "," + job.getLoad() + ","
+                + job.getYoungsModulus() + "," + job.getKp() + "," + job.getKi() + "," + job.getKd() + ","
+                + summary.getPeakDisplacement() + "," + summary.getRmsDisplacement() + ","
+                + summary.getFinalTemperature() + "," + summary.getEnergyLoss() + ","
+                + summary.getPeakStress() + "," + summary.getFrictionForce() + ","
+                + String.format("%.3f", elapsedNanos / 1e6);
+    }
+
+    public int getCaseIndex() { return caseIndex; }
+    public SimulationJob getJob() { return job; }
+    public RunSummary getSummary() { return summary; }
+    public long getElapsedNanos() { return elapsedNanos; }
+    public boolean isSimulated() { return simulated; }
+}
@@ -0,0 +1,192 @@
+package code.hybrid_bearing_system.design;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/// Records one sample per physics step without blocking the simulation. The simulation thread copies
+/// the sample into a bounded single-producer/single-consumer ring of primitive doubles; a background
+/// writer drains it in large blocks to a binary columnar file through a FileChannel. When the ring is
+/// full the sample is dropped and counted rather than stalling the producer.
+///
+/// File layout (big-endian): int magic "HBTL", int version, int column count, per column a short
+/// length and UTF-8 label; then blocks of [int sample count][column 0 values][column 1 values]...
+/// Column 0 is always simulated time. DataExporter.convertTelemetryToCSV() turns a file into CSV.
+public class TelemetryRecorder implements AutoCloseable {
+    public static final int MAGIC = 0x4842544C;
+    public static final int VERSION = 1;
+    private static final long FLUSH_INTERVAL_NANOS = 100_000_000L;
+    private static final long IDLE_PARK_NANOS = 1_000_000L;
+
+    private final OutputChannel[] channels;
+    private final int width;
+    private final int capacity;
+    private final int mask;
+    private final int blockSize;
+    private final double[] ring;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private final FileChannel file;
+    private final ByteBuffer blockBuffer;
+    private final Thread writer;
+    private volatile boolean closing;
+    private volatile IOException writeFailure;
+
+    /// Producer-side state, touched only by the recording thread
+    private long cachedTail;
+    private final long highWaterMark;
+    private volatile long recordedSamples;
+    private volatile long droppedSamples;
+    private volatile long backpressureEvents;
+
+    /// Writer-side counters
+    private volatile long writtenSamples;
+    private volatile long writtenBytes;
+    private volatile long writtenBlocks;
+
+    public TelemetryRecorder(Path path, List<OutputChannel> channels) throws IOException {
+        this(path, channels, 1 << 16, 4096);
+    }
+
+    /// capacity is rounded up to a power of two; blockSize is the number of samples per written block.
+    public TelemetryRecorder(Path path, List<OutputChannel> channels, int capacity, int blockSize) throws IOException {
+        if (channels.isEmpty()) {
+            throw new IllegalArgumentException("At least one channel is required");
+        }
+        this.channels = channels.toArray(new OutputChannel[0]);
+        this.width = this.channels.length + 1;
+        this.capacity = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = this.capacity - 1;
+        this.blockSize = Math.max(1, Math.min(blockSize, this.capacity));
+        this.highWaterMark = this.capacity - this.capacity / 4;
+        this.ring = new double[this.capacity * width];
+        this.blockBuffer = ByteBuffer.allocateDirect(Integer.BYTES + this.blockSize * width * Double.BYTES);
+        this.file = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        writeHeader();
+        writer = new Thread(this::drainLoop, "telemetry-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    private void writeHeader() throws IOException {
+        int size = 3 * Integer.BYTES;
+        byte[][] labels = new byte[width][];
+        for (int c = 0; c < width; c++) {
+            labels[c] = (c == 0 ? "Time" : channels[c - 1].getLabel()).getBytes(StandardCharsets.UTF_8);
+            size += Short.BYTES + labels[c].length;
+        }
+        ByteBuffer header = ByteBuffer.allocate(size);
+        header.putInt(MAGIC).putInt(VERSION).putInt(width);
+        for (byte[] label : labels) {
+            header.putShort((short) label.length).put(label);
+        }
+        header.flip();
+        writeFully(header);
+    }
+
+    /// Called from the simulation thread after each step. Never blocks; returns false if the sample was dropped.
+    public boolean record(double time, PhysicsEngine physics) {
+        long position = head.get();
+        if (position - cachedTail >= capacity) {
+            cachedTail = tail.get();
+            if (position - cachedTail >= capacity) {
+                droppedSamples++;
+                return false;
+            }
+        }
+        int base = (int) (position & mask) * width;
+        ring[base] = time;
+        for (int c = 0; c < channels.length; c++) {
+            ring[base + 1 + c] = channels[c].read(physics);
+        }
+        head.lazySet(position + 1);
+        recordedSamples++;
+        if (position + 1 - cachedTail >= highWaterMark) {
+            cachedTail = tail.get();
+            if (position + 1 - cachedTail >= highWaterMark) {
+                backpressureEvents++;
+            }
+        }
+        return true;
+    }
+
+    private void drainLoop() {
+        long lastFlush = System.nanoTime();
+        while (true) {
+            long available = head.get() - tail.get();
+            long now = System.nanoTime();
+            boolean finishing = closing;
+            if (available >= blockSize || (available > 0 && (finishing || now - lastFlush >= FLUSH_INTERVAL_NANOS))) {
+                try {
+                    writeBlock((int) Math.min(available, blockSize));
+                } catch (IOException e) {
+                    writeFailure = e;
+                    return;
+                }
+                lastFlush = now;
+            } else if (finishing) {
+                return;
+            } else {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    /// Transposes the next count samples into column-major order and writes them as one block.
+    private void writeBlock(int count) throws IOException {
+        long start = tail.get();
+        blockBuffer.clear();
+        blockBuffer.putInt(count);
+        for (int c = 0; c < width; c++) {
+            for (int i = 0; i < count; i++) {
+                blockBuffer.putDouble(ring[(int) ((start + i) & mask) * width + c]);
+            }
+        }
+        tail.lazySet(start + count);
+        blockBuffer.flip();
+        int bytes = blockBuffer.remaining();
+        writeFully(blockBuffer);
+        writtenSamples += count;
+        writtenBytes += bytes;
+        writtenBlocks++;
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            file.write(buffer);
+        }
+    }
+
+    /// Flushes every recorded sample and closes the file.
+    @Override
+    public void close() throws IOException {
+        closing = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        file.close();
+        if (writeFailure != null) {
+            throw writeFailure;
+        }
+    }
+
+    public long getRecordedSamples() { return recordedSamples; }
+    public long getDroppedSamples() { return droppedSamples; }
+    /// Number of samples recorded while the ring was at least three-quarters full.
+    public long getBackpressureEvents() { return backpressureEvents; }
+    public long getWrittenSamples() { return writtenSamples; }
+    public long getWrittenBytes() { return writtenBytes; }
+    public long getWrittenBlocks() { return writtenBlocks; }
+    public long getPendingSamples() { return head.get() - tail.get(); }
+    public int getCapacity() { return capacity; }
+}
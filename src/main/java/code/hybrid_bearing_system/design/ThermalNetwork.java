@@ -0,0 +1,458 @@
+package code.hybrid_bearing_system.design;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.TreeSet;
+
+/// Lumped thermal network: nodes with heat capacities C, joined to each other and to a fixed
+/// ambient temperature by conductances, so that C·dT/dt = -L·T + G_ambient·T_ambient + q with L the
+/// network's conductance matrix. Heat generated by the bearing is split over the nodes by fixed
+/// shares, and one sensor node gives the temperature the simulation reports.
+///
+/// Steps are implicit and stable at any length: backward Euler for the first step after a reset, a
+/// parameter change or a new step length, BDF2 (second order) after that. Both system matrices are
+/// symmetric positive definite and banded once the nodes are renumbered by reverse Cuthill-McKee.
+/// Each gets a banded Cholesky factorization once per parameter or step change, so a step is a
+/// right-hand side and a forward and back substitution that allocate nothing. Conductances are constant; they do not follow the
+/// material's temperature dependence.
+public class ThermalNetwork {
+    public static final double DEFAULT_AMBIENT_TEMPERATURE = 20.0;
+    /// Heat path of the bearing's single-node model, reused for the default network: convection
+    /// coefficient (W/m²·K), surface area (m²) and conduction length (m)
+    private static final double CONVECTION_COEFFICIENT = 25.0;
+    private static final double SURFACE_AREA = 0.01;
+    private static final double CONDUCTION_LENGTH = 0.01;
+
+    private final List<String> names = new ArrayList<>();
+    private double[] capacity = new double[8];
+    private double[] ambientConductance = new double[8];
+    private double[] heatShare = new double[8];
+    private int[] linkFrom = new int[8];
+    private int[] linkTo = new int[8];
+    private double[] linkConductance = new double[8];
+    private int linkCount;
+    private int sensor;
+    private double ambientTemperature = DEFAULT_AMBIENT_TEMPERATURE;
+
+    private double[] temperature = new double[0];
+    private double[] previous = new double[0];
+    private double[] heatInput = new double[0];
+    /// Whether previous holds the temperatures one step of lastStep back, so BDF2 can be used
+    private boolean hasPrevious;
+    private double lastStep = Double.NaN;
+
+    /// Compiled form, rebuilt after any parameter change: order[k] is the node at band position k
+    private boolean compiled;
+    private int[] order;
+    private int[] position;
+    private int bandwidth;
+    private double[] rhs;
+    /// Factorizations of C/dt + L (backward Euler) and 1.5·C/dt + L (BDF2) for factorizedStep
+    private double factorizedStep = Double.NaN;
+    private BandMatrix.Cholesky backwardEuler;
+    private BandMatrix.Cholesky bdf2;
+
+    /// Default network of a bearing: inner ring, rolling elements, outer ring, shaft, housing,
+    /// actuator coil and lubricant. The rotor's thermal mass (see BearingProfile.getHeatCapacity())
+    /// is split over the rings, balls and shaft; the housing carries the single-node model's path to
+    /// ambient. Friction heat enters at the contacts and the lubricant, eddy heating (magnetic and
+    /// hybrid bearings) at the coil. The outer ring is the sensor node.
+    public static ThermalNetwork forBearing(BearingProfile profile) {
+        double rotor = profile.getHeatCapacity();
+        double conduction = profile.getThermalConductivity(DEFAULT_AMBIENT_TEMPERATURE) * SURFACE_AREA / CONDUCTION_LENGTH;
+        double convection = CONVECTION_COEFFICIENT * SURFACE_AREA;
+        ThermalNetwork network = new ThermalNetwork();
+        int inner = network.addNode("innerRing", 0.25 * rotor);
+        int balls = network.addNode("balls", 0.10 * rotor);
+        int outer = network.addNode("outerRing", 0.25 * rotor);
+        int shaft = network.addNode("shaft", 0.40 * rotor);
+        int housing = network.addNode("housing", 2000.0);
+        int coil = network.addNode("coil", 400.0);
+        int lubricant = network.addNode("lubricant", 50.0);
+        network.connect(inner, balls, 0.5 * conduction);
+        network.connect(balls, outer, 0.5 * conduction);
+        network.connect(inner, shaft, 2.0 * conduction);
+        network.connect(outer, housing, 2.0 * conduction);
+        network.connect(coil, housing, 5.0);
+        network.connect(lubricant, balls, 2.0);
+        network.connect(lubricant, inner, 1.0);
+        network.connect(lubricant, outer, 1.0);
+        network.connectAmbient(housing, conduction + convection);
+        network.connectAmbient(shaft, convection);
+        boolean magnetic = profile.isMagnetic();
+        network.setHeatShare(balls, 0.3);
+        network.setHeatShare(inner, 0.2);
+        network.setHeatShare(outer, 0.2);
+        network.setHeatShare(lubricant, magnetic ? 0.1 : 0.3);
+        network.setHeatShare(coil, magnetic ? 0.2 : 0.0);
+        network.setSensor(outer);
+        return network;
+    }
+
+    /// User-defined network. Keys, with node names of letters, digits and underscores:
+    ///
+    ///     node.<name>=<heat capacity, J/K>
+    ///     link.<name>.<name>=<conductance, W/K>
+    ///     ambient.<name>=<conductance to ambient, W/K>
+    ///     heat.<name>=<relative share of the generated heat>
+    ///     sensor=<name>
+    ///     ambientTemperature=<°C>
+    ///
+    /// Nodes are numbered in name order. Heat shares are normalized to sum to one; the sensor
+    /// defaults to the first node.
+    public static ThermalNetwork fromProperties(Properties properties) {
+        ThermalNetwork network = new ThermalNetwork();
+        String ambient = properties.getProperty("ambientTemperature");
+        if (ambient != null && !ambient.isBlank()) {
+            network.setAmbientTemperature(parse(properties, "ambientTemperature"));
+        }
+        TreeSet<String> keys = new TreeSet<>(properties.stringPropertyNames());
+        for (String key : keys) {
+            if (key.startsWith("node.")) {
+                network.addNode(key.substring(5), parse(properties, key));
+            }
+        }
+        if (network.getNodeCount() == 0) {
+            throw new IllegalArgumentException("Thermal network defines no node.<name> entries");
+        }
+        double shareTotal = 0.0;
+        for (String key : keys) {
+            if (key.startsWith("link.")) {
+                String[] ends = key.substring(5).split("\\.");
+                if (ends.length != 2) {
+                    throw new IllegalArgumentException("Expected link.<name>.<name>: " + key);
+                }
+                network.connect(network.getNode(ends[0]), network.getNode(ends[1]), parse(properties, key));
+            } else if (key.startsWith("ambient.")) {
+                network.connectAmbient(network.getNode(key.substring(8)), parse(properties, key));
+            } else if (key.startsWith("heat.")) {
+                double share = parse(properties, key);
+                network.setHeatShare(network.getNode(key.substring(5)), share);
+                shareTotal += share;
+            } else if (!key.startsWith("node.") && !key.equals("sensor") && !key.equals("ambientTemperature")) {
+                throw new IllegalArgumentException("Unknown thermal network key: " + key);
+            }
+        }
+        if (!(shareTotal > 0)) {
+            throw new IllegalArgumentException("Thermal network needs at least one positive heat.<name> share");
+        }
+        for (int i = 0; i < network.getNodeCount(); i++) {
+            network.heatShare[i] /= shareTotal;
+        }
+        String sensor = properties.getProperty("sensor");
+        if (sensor != null && !sensor.isBlank()) {
+            network.setSensor(network.getNode(sensor.trim()));
+        }
+        return network;
+    }
+
+    private static double parse(Properties properties, String key) {
+        String value = properties.getProperty(key);
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid numeric value for " + key + ": " + value);
+        }
+    }
+
+    /// Adds a node at the ambient temperature and returns its index.
+    public int addNode(String name, double heatCapacity) {
+        if (name == null || !name.matches("[A-Za-z0-9_]+")) {
+            throw new IllegalArgumentException("Node names may contain only letters, digits and underscores: " + name);
+        }
+        if (names.contains(name)) {
+            throw new IllegalArgumentException("Duplicate thermal node: " + name);
+        }
+        if (!(heatCapacity > 0) || Double.isInfinite(heatCapacity)) {
+            throw new IllegalArgumentException("Heat capacity of " + name + " must be positive: " + heatCapacity);
+        }
+        int node = names.size();
+        if (node == capacity.length) {
+            int size = 2 * node;
+            capacity = Arrays.copyOf(capacity, size);
+            ambientConductance = Arrays.copyOf(ambientConductance, size);
+            heatShare = Arrays.copyOf(heatShare, size);
+        }
+        names.add(name);
+        capacity[node] = heatCapacity;
+        temperature = Arrays.copyOf(temperature, node + 1);
+        temperature[node] = ambientTemperature;
+        previous = Arrays.copyOf(previous, node + 1);
+        heatInput = new double[node + 1];
+        changed();
+        return node;
+    }
+
+    /// Conductance (W/K) between two nodes; links between the same pair add up.
+    public void connect(int first, int second, double conductance) {
+        checkNode(first);
+        checkNode(second);
+        if (first == second) {
+            throw new IllegalArgumentException("Cannot link node " + names.get(first) + " to itself");
+        }
+        checkConductance(conductance);
+        if (linkCount == linkFrom.length) {
+            linkFrom = Arrays.copyOf(linkFrom, 2 * linkCount);
+            linkTo = Arrays.copyOf(linkTo, 2 * linkCount);
+            linkConductance = Arrays.copyOf(linkConductance, 2 * linkCount);
+        }
+        linkFrom[linkCount] = first;
+        linkTo[linkCount] = second;
+        linkConductance[linkCount] = conductance;
+        linkCount++;
+        changed();
+    }
+
+    /// Conductance (W/K) from a node to ambient, adding to any already set
+    public void connectAmbient(int node, double conductance) {
+        checkNode(node);
+        checkConductance(conductance);
+        ambientConductance[node] += conductance;
+        changed();
+    }
+
+    /// Fraction of the heat passed to distributeHeat() that the node receives
+    public void setHeatShare(int node, double share) {
+        checkNode(node);
+        if (!(share >= 0)) {
+            throw new IllegalArgumentException("Heat share must not be negative: " + share);
+        }
+        heatShare[node] = share;
+    }
+
+    public void setSensor(int node) {
+        checkNode(node);
+        sensor = node;
+    }
+
+    /// Ambient temperature (°C); nodes added later, and all nodes after reset(), start at it
+    public void setAmbientTemperature(double ambientTemperature) {
+        if (Double.isNaN(ambientTemperature) || Double.isInfinite(ambientTemperature)) {
+            throw new IllegalArgumentException("Ambient temperature must be finite: " + ambientTemperature);
+        }
+        this.ambientTemperature = ambientTemperature;
+    }
+
+    private void checkNode(int node) {
+        if (node < 0 || node >= names.size()) {
+            throw new IllegalArgumentException("No thermal node " + node);
+        }
+    }
+
+    private static void checkConductance(double conductance) {
+        if (!(conductance >= 0) || Double.isInfinite(conductance)) {
+            throw new IllegalArgumentException("Conductance must be finite and not negative: " + conductance);
+        }
+    }
+
+    private void changed() {
+        compiled = false;
+        factorizedStep = Double.NaN;
+        hasPrevious = false;
+    }
+
+    /// Splits a total heat generation (W) over the nodes by their shares
+    public void distributeHeat(double watts) {
+        for (int i = 0; i < heatInput.length; i++) {
+            heatInput[i] = heatShare[i] * watts;
+        }
+    }
+
+    /// Heat generation (W) into one node, held until the next distributeHeat() or setHeatInput()
+    public void setHeatInput(int node, double watts) {
+        checkNode(node);
+        heatInput[node] = watts;
+    }
+
+    /// Advances all temperatures by dt (s) with the current heat inputs.
+    public void step(double dt) {
+        if (!(dt > 0)) {
+            throw new IllegalArgumentException("Thermal step must be positive: " + dt);
+        }
+        if (!compiled) {
+            compile();
+        }
+        if (dt != factorizedStep) {
+            backwardEuler = factorize(1.0, dt);
+            bdf2 = null;
+            factorizedStep = dt;
+        }
+        if (dt != lastStep) {
+            hasPrevious = false;
+        }
+        boolean secondOrder = hasPrevious;
+        if (secondOrder && bdf2 == null) {
+            bdf2 = factorize(1.5, dt);
+        }
+        /// Right-hand side in band order: C/dt·T (backward Euler) or C/dt·(2·T - T_prev/2) (BDF2),
+        /// plus the ambient and heat terms
+        int n = order.length;
+        for (int k = 0; k < n; k++) {
+            int node = order[k];
+            double history = secondOrder ? 2.0 * temperature[node] - 0.5 * previous[node] : temperature[node];
+            rhs[k] = capacity[node] / dt * history + ambientConductance[node] * ambientTemperature + heatInput[node];
+        }
+        (secondOrder ? bdf2 : backwardEuler).solve(rhs);
+        System.arraycopy(temperature, 0, previous, 0, n);
+        for (int k = 0; k < n; k++) {
+            temperature[order[k]] = rhs[k];
+        }
+        hasPrevious = true;
+        lastStep = dt;
+    }
+
+    /// Renumbers the nodes by reverse Cuthill-McKee and sizes the band for the links.
+    private void compile() {
+        int n = names.size();
+        if (n == 0) {
+            throw new IllegalStateException("Thermal network has no nodes");
+        }
+        int[] degree = new int[n];
+        for (int l = 0; l < linkCount; l++) {
+            degree[linkFrom[l]]++;
+            degree[linkTo[l]]++;
+        }
+        int[] start = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            start[i + 1] = start[i] + degree[i];
+        }
+        int[] neighbours = new int[start[n]];
+        int[] fill = Arrays.copyOf(start, n);
+        for (int l = 0; l < linkCount; l++) {
+            neighbours[fill[linkFrom[l]]++] = linkTo[l];
+            neighbours[fill[linkTo[l]]++] = linkFrom[l];
+        }
+        order = reverseCuthillMcKee(n, start, neighbours, degree);
+        position = new int[n];
+        for (int k = 0; k < n; k++) {
+            position[order[k]] = k;
+        }
+        bandwidth = 0;
+        for (int l = 0; l < linkCount; l++) {
+            bandwidth = Math.max(bandwidth, Math.abs(position[linkFrom[l]] - position[linkTo[l]]));
+        }
+        rhs = new double[n];
+        compiled = true;
+    }
+
+    /// Breadth-first numbering from a lowest-degree node of each component, visiting neighbours in
+    /// order of increasing degree, then reversed. Neighbours end up close in the numbering, which
+    /// keeps the bandwidth near the width of the graph's widest level.
+    static int[] reverseCuthillMcKee(int n, int[] start, int[] neighbours, int[] degree) {
+        int[] order = new int[n];
+        boolean[] visited = new boolean[n];
+        int count = 0;
+        while (count < n) {
+            int root = -1;
+            for (int i = 0; i < n; i++) {
+                if (!visited[i] && (root < 0 || degree[i] < degree[root])) {
+                    root = i;
+                }
+            }
+            visited[root] = true;
+            order[count++] = root;
+            for (int head = count - 1; head < count; head++) {
+                int node = order[head];
+                int first = count;
+                for (int e = start[node]; e < start[node + 1]; e++) {
+                    int next = neighbours[e];
+                    if (!visited[next]) {
+                        visited[next] = true;
+                        order[count++] = next;
+                    }
+                }
+                /// Insertion sort of the newly queued neighbours by degree; levels are small
+                for (int i = first + 1; i < count; i++) {
+                    int value = order[i];
+                    int j = i - 1;
+                    while (j >= first && degree[order[j]] > degree[value]) {
+                        order[j + 1] = order[j];
+                        j--;
+                    }
+                    order[j + 1] = value;
+                }
+            }
+        }
+        for (int i = 0, j = n - 1; i < j; i++, j--) {
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+        return order;
+    }
+
+    /// Factorization of scale·C/dt + L in band order
+    private BandMatrix.Cholesky factorize(double scale, double dt) {
+        int n = order.length;
+        BandMatrix matrix = new BandMatrix(n, bandwidth, bandwidth);
+        for (int k = 0; k < n; k++) {
+            int node = order[k];
+            matrix.add(k, k, scale * capacity[node] / dt + ambientConductance[node]);
+        }
+        for (int l = 0; l < linkCount; l++) {
+            int first = position[linkFrom[l]];
+            int second = position[linkTo[l]];
+            double conductance = linkConductance[l];
+            matrix.add(first, first, conductance);
+            matrix.add(second, second, conductance);
+            matrix.add(first, second, -conductance);
+            matrix.add(second, first, -conductance);
+        }
+        return matrix.choleskyFactorize();
+    }
+
+    /// Every node back to ambient temperature; the next step is a backward Euler step.
+    public void reset() {
+        Arrays.fill(temperature, ambientTemperature);
+        Arrays.fill(heatInput, 0.0);
+        hasPrevious = false;
+    }
+
+    /// Temperatures, the previous step's temperatures and step length for BDF2, as exact bit patterns
+    void writeState(DataOutput out) throws IOException {
+        for (double value : temperature) {
+            out.writeDouble(value);
+        }
+        for (double value : previous) {
+            out.writeDouble(value);
+        }
+        out.writeBoolean(hasPrevious);
+        out.writeDouble(lastStep);
+    }
+
+    void readState(DataInput in) throws IOException {
+        for (int i = 0; i < temperature.length; i++) {
+            temperature[i] = in.readDouble();
+        }
+        for (int i = 0; i < previous.length; i++) {
+            previous[i] = in.readDouble();
+        }
+        hasPrevious = in.readBoolean();
+        lastStep = in.readDouble();
+    }
+
+    public int getNode(String name) {
+        int node = names.indexOf(name);
+        if (node < 0) {
+            throw new IllegalArgumentException("Unknown thermal node: " + name);
+        }
+        return node;
+    }
+
+    public int getNodeCount() { return names.size(); }
+    public String getNodeName(int node) { return names.get(node); }
+    public double getTemperature(int node) { return temperature[node]; }
+    public double getHeatCapacity(int node) { return capacity[node]; }
+    public double getHeatShare(int node) { return heatShare[node]; }
+    public int getSensor() { return sensor; }
+    public double getSensorTemperature() { return temperature[sensor]; }
+    public double getAmbientTemperature() { return ambientTemperature; }
+    public int getLinkCount() { return linkCount; }
+    /// Half-bandwidth of the system matrix after reordering; 0 until the first step
+    public int getBandwidth() { return compiled ? bandwidth : 0; }
+}
@@ -0,0 +1,36 @@
+package code.hybrid_bearing_system.design;
+
+/// Velocity-Verlet. Because bearing forces depend on velocity (damping, gyroscopics), the closing
+/// acceleration is evaluated at the new positions with an Euler-predicted velocity.
+public class VelocityVerletIntegrator implements Integrator {
+    private double[] current = new double[0];
+    private double[] next = new double[0];
+    private double[] predicted = new double[0];
+
+    @Override
+    public void step(StateDerivative system, double[] state, double dt) {
+        int n = state.length;
+        if (current.length != n) {
+            current = new double[n];
+            next = new double[n];
+            predicted = new double[n];
+        }
+        int half = n / 2;
+        system.evaluate(state, current);
+        for (int i = 0; i < half; i++) {
+            double acceleration = current[half + i];
+            predicted[i] = state[i] + dt * state[half + i] + 0.5 * dt * dt * acceleration;
+            predicted[half + i] = state[half + i] + dt * acceleration;
+        }
+        system.evaluate(predicted, next);
+        for (int i = 0; i < half; i++) {
+            state[i] = predicted[i];
+            state[half + i] += 0.5 * dt * (current[half + i] + next[half + i]);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "Velocity-Verlet";
+    }
+}
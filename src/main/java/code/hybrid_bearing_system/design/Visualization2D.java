@@ -87,6 +87,78 @@ public class Visualization2D {
         gc.fillText("Stress: " + String.format("%.2f MPa", stress / 1e6), 700, 330);
     }
 
+    public void drawTimingReadout(GraphicsContext gc, double simulatedTime, double realTimeFactor, double stepsPerSecond) {
+        gc.setFill(Color.web("#AAAAAA"));
+        gc.fillText(String.format("t = %.2f s   Real-time factor: %.2fx   Physics: %.0f steps/s",
+                simulatedTime, realTimeFactor, stepsPerSecond), 10, 20);
+    }
+
+    public void drawTelemetryReadout(GraphicsContext gc, long recorded, long dropped, long backpressure) {
+        gc.setFill(dropped > 0 ? Color.web("#FF5555") : Color.web("#AAAAAA"));
+        gc.fillText(String.format("Telemetry: %d samples, %d dropped, %d backpressure", recorded, dropped, backpressure), 10, 40);
+    }
+
+    /// Lives are given in seconds and shown in hours; a NaN damage means no fatigue accumulator
+    public void drawFatigueReadout(GraphicsContext gc, double damage, double stressCycleLife,
+                                   double equivalentLoad, double modifiedRatingLife) {
+        if (Double.isNaN(damage)) {
+            return;
+        }
+        gc.setFill(Color.web("#AAAAAA"));
+        String rating = equivalentLoad > 0
+                ? String.format("P %.0f N, L10m %.4g h", equivalentLoad, modifiedRatingLife / 3600)
+                : "no rolling-element load";
+        gc.fillText(String.format("Fatigue: Miner damage %.3g, stress-cycle life %.4g h   Rating: %s",
+                damage, stressCycleLife / 3600, rating), 10, 60);
+    }
+
+    /// Rotor displacement amplitude spectrum on a log scale, with the largest peaks and the
+    /// spindle harmonic trackers listed beside it
+    public void drawSpectrum(GraphicsContext gc, SpectrumAnalyzer.Spectrum spectrum) {
+        double x = 270;
+        double y = 410;
+        double width = 300;
+        double height = 80;
+        gc.setStroke(Color.web("#555555"));
+        gc.setLineWidth(1);
+        gc.strokeRect(x, y, width, height);
+        double max = 0.0;
+        for (int k = 1; k < spectrum.getBinCount(); k++) {
+            max = Math.max(max, spectrum.getAmplitude(k));
+        }
+        if (max > 0) {
+            /// Four decades below the largest bin down to the baseline
+            double floor = max * 1e-4;
+            gc.setStroke(Color.web("#00BFFF"));
+            gc.beginPath();
+            for (int k = 1; k < spectrum.getBinCount(); k++) {
+                double level = clamp(Math.log10(Math.max(spectrum.getAmplitude(k), floor) / floor) / 4, 0, 1);
+                double px = x + width * k / (spectrum.getBinCount() - 1);
+                double py = y + height * (1 - level);
+                if (k == 1) {
+                    gc.moveTo(px, py);
+                } else {
+                    gc.lineTo(px, py);
+                }
+            }
+            gc.stroke();
+        }
+        gc.setFill(Color.WHITE);
+        gc.fillText(String.format("Vibration spectrum 0-%.0f Hz", spectrum.getNyquistFrequency()), x, y - 5);
+        double textY = y + 10;
+        for (int p = 0; p < Math.min(3, spectrum.getPeakCount()); p++) {
+            gc.fillText(String.format("%.2f Hz: %.3g mm", spectrum.getPeakFrequency(p), spectrum.getPeakAmplitude(p) * 1000),
+                    x + width + 10, textY);
+            textY += 15;
+        }
+        gc.setFill(Color.web("#AAAAAA"));
+        for (int h = 0; h < Math.min(2, spectrum.getHarmonicCount()); h++) {
+            gc.fillText(String.format("%dX%s: %.3g mm", h + 1, spectrum.isAliased(h) ? " (aliased)" : "",
+                    spectrum.getHarmonicAmplitude(h) * 1000), x + width + 10, textY);
+            textY += 15;
+        }
+    }
+
     public void reset() {
         animationAngle = 0.0;
     }
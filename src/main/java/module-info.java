@@ -1,6 +1,7 @@
 module code.hybrid_bearing_system.design.hybridbearingsystemdesign {
     requires javafx.controls;
     requires javafx.fxml;
+    requires jdk.management;
 
 
     opens code.hybrid_bearing_system.design to javafx.fxml;
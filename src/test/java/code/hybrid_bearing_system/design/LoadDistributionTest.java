@@ -0,0 +1,78 @@
+package code.hybrid_bearing_system.design;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/// The solved ball loads balance the applied force: their radial components, cos α·(cos ψj,
+/// sin ψj)·Qj, sum to it.
+class LoadDistributionTest {
+    /// Silicon nitride balls on steel, roughly; any positive modulus would do
+    private static final double EFFECTIVE_MODULUS = 2.5e11;
+
+    private static LoadDistribution distribution() {
+        LoadDistribution distribution = new LoadDistribution();
+        distribution.setEffectiveModulus(EFFECTIVE_MODULUS);
+        return distribution;
+    }
+
+    private static void assertEquilibrium(LoadDistribution distribution, double forceX, double forceY) {
+        int balls = distribution.getBallCount();
+        double cosine = Math.cos(Math.toRadians(distribution.getContactAngle()));
+        double sumX = 0.0;
+        double sumY = 0.0;
+        for (int j = 0; j < balls; j++) {
+            double azimuth = 2 * Math.PI * j / balls;
+            assertTrue(distribution.getLoad(j) >= 0.0, "ball " + j + " is in tension");
+            sumX += distribution.getLoad(j) * cosine * Math.cos(azimuth);
+            sumY += distribution.getLoad(j) * cosine * Math.sin(azimuth);
+        }
+        double force = Math.hypot(forceX, forceY);
+        assertEquals(forceX, sumX, 1e-9 * force);
+        assertEquals(forceY, sumY, 1e-9 * force);
+    }
+
+    @Test
+    void ballLoadsBalanceTheAppliedForce() {
+        for (double load : new double[] {1.0, 100.0, 1000.0, 20_000.0}) {
+            LoadDistribution distribution = distribution();
+            distribution.solve(load, 0.0);
+            assertEquilibrium(distribution, load, 0.0);
+            assertTrue(distribution.getLoadedBalls() >= 1);
+        }
+    }
+
+    @Test
+    void rotatingLoadStaysInEquilibriumFromWarmStarts() {
+        LoadDistribution distribution = distribution();
+        for (int i = 0; i <= 360; i++) {
+            double angle = Math.toRadians(i);
+            double forceX = 2000.0 * Math.cos(angle);
+            double forceY = 2000.0 * Math.sin(angle);
+            distribution.solve(forceX, forceY);
+            assertEquilibrium(distribution, forceX, forceY);
+        }
+    }
+
+    @Test
+    void zeroForceUnloadsEveryBall() {
+        LoadDistribution distribution = distribution();
+        distribution.solve(1000.0, 0.0);
+        distribution.solve(0.0, 0.0);
+        assertEquals(0, distribution.getLoadedBalls());
+        assertEquals(0.0, distribution.getMaxLoad());
+        assertEquals(0.0, distribution.getDisplacementX());
+    }
+
+    @Test
+    void loadOnOneBallAxisIsCarriedSymmetrically() {
+        LoadDistribution distribution = distribution();
+        distribution.solve(5000.0, 0.0);
+        int balls = distribution.getBallCount();
+        for (int j = 1; j < balls / 2; j++) {
+            assertEquals(distribution.getLoad(j), distribution.getLoad(balls - j), 1e-9 * distribution.getMaxLoad());
+        }
+        assertEquals(distribution.getLoad(0), distribution.getMaxLoad());
+    }
+}
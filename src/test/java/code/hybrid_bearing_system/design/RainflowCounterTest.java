@@ -0,0 +1,85 @@
+package code.hybrid_bearing_system.design;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/// Cycle counts against the worked example of ASTM E1049-85 (section 5.4.4, Fig. 6): the history
+/// -2, 1, -3, 5, -1, 3, -4, 4, -2 holds half cycles of ranges 3, 4, 6 and 9, one and a half of
+/// range 4 and one full cycle of range 8.
+class RainflowCounterTest {
+    private static final double[] HISTORY = {-2, 1, -3, 5, -1, 3, -4, 4, -2};
+
+    /// Levels one unit apart from -5 to 5, so a range in levels equals the range in units
+    private static RainflowCounter counter() {
+        return new RainflowCounter(-5, 5, 11);
+    }
+
+    private static void assertExampleCounts(RainflowCounter counter) {
+        assertEquals(0.5, counter.getCycles(3));
+        assertEquals(1.5, counter.getCycles(4));
+        assertEquals(0.0, counter.getCycles(5));
+        assertEquals(0.5, counter.getCycles(6));
+        assertEquals(0.0, counter.getCycles(7));
+        assertEquals(1.0, counter.getCycles(8));
+        assertEquals(0.5, counter.getCycles(9));
+        assertEquals(4.0, counter.getCycleCount());
+    }
+
+    @Test
+    void countsTheStandardExample() {
+        RainflowCounter counter = counter();
+        for (double value : HISTORY) {
+            counter.add(value);
+        }
+        assertExampleCounts(counter);
+        assertEquals(1, counter.getFullCycleCount());
+        assertEquals(1, counter.getFullCycles(4));
+    }
+
+    @Test
+    void samplesBetweenTurningPointsChangeNothing() {
+        RainflowCounter counter = counter();
+        counter.add(HISTORY[0]);
+        for (int i = 1; i < HISTORY.length; i++) {
+            /// Ten samples along each reversal, as a sampled signal would deliver them
+            for (int s = 1; s <= 10; s++) {
+                counter.add(HISTORY[i - 1] + (HISTORY[i] - HISTORY[i - 1]) * s / 10);
+            }
+        }
+        assertExampleCounts(counter);
+    }
+
+    @Test
+    void closedCyclesKeepTheResidueBounded() {
+        RainflowCounter counter = counter();
+        for (int i = 0; i < 100_000; i++) {
+            counter.add(i % 2 == 0 ? -3 : 3);
+        }
+        assertEquals(49_999, counter.getFullCycles(6));
+        assertEquals(49_999.5, counter.getCycles(6));
+        assertEquals(2, counter.getResidueSize());
+    }
+
+    @Test
+    void stateRoundTripsThroughCheckpointData() throws IOException {
+        RainflowCounter counter = counter();
+        RainflowCounter restored = counter();
+        for (int i = 0; i < 5; i++) {
+            counter.add(HISTORY[i]);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        counter.writeState(new DataOutputStream(bytes));
+        restored.readState(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        for (int i = 5; i < HISTORY.length; i++) {
+            restored.add(HISTORY[i]);
+        }
+        assertExampleCounts(restored);
+    }
+}
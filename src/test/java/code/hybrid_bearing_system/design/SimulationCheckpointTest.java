@@ -0,0 +1,109 @@
+package code.hybrid_bearing_system.design;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/// A loop restored from a checkpoint file continues bit for bit as the original, with every piece
+/// of state the format carries in use: tabulated actuator, adaptive integrator, thermal network,
+/// load distribution and fatigue accumulators.
+class SimulationCheckpointTest {
+    @TempDir
+    Path directory;
+
+    private static SimulationJob job() {
+        Properties properties = new Properties();
+        properties.setProperty("bearingType", "Hybrid");
+        properties.setProperty("spindleSpeed", "20000");
+        properties.setProperty("actuator", "tabulated");
+        properties.setProperty("integrator", "dopri5");
+        properties.setProperty("thermalNetwork", "bearing");
+        properties.setProperty("loadDistribution", "true");
+        properties.setProperty("fatigueLevels", "64");
+        return SimulationJob.fromProperties(properties);
+    }
+
+    private static SimulationLoop createLoop(SimulationJob job) {
+        SimulationLoop loop = job.createLoop();
+        loop.setFatigueLife(job.createFatigueLife(loop.getBearingModel().getProfile()));
+        return loop;
+    }
+
+    private static void step(SimulationLoop loop, int steps) {
+        for (int i = 0; i < steps; i++) {
+            loop.step();
+        }
+    }
+
+    @Test
+    void restoredLoopContinuesBitForBit() throws IOException {
+        SimulationJob job = job();
+        SimulationLoop original = createLoop(job);
+        original.getPhysicsEngine().setRotorState(0.001, 0.0);
+        step(original, 200);
+        Path checkpoint = directory.resolve("simulation.hbc");
+        SimulationCheckpoint.capture(original).write(checkpoint);
+        step(original, 300);
+
+        SimulationLoop restored = createLoop(job);
+        SimulationCheckpoint.read(checkpoint).restore(restored);
+        assertEquals(200, restored.getStepCount());
+        step(restored, 300);
+
+        PhysicsEngine expected = original.getPhysicsEngine();
+        PhysicsEngine actual = restored.getPhysicsEngine();
+        assertTrue(expected.getRotorDisplacement() != 0.0, "the rotor should still be moving");
+        assertEquals(expected.getRotorDisplacement(), actual.getRotorDisplacement());
+        assertEquals(expected.getTemperature(), actual.getTemperature());
+        assertEquals(expected.getEnergyLoss(), actual.getEnergyLoss());
+        /// Every value the format stores, compared through the files' bytes
+        Path expectedFile = directory.resolve("expected.hbc");
+        Path actualFile = directory.resolve("actual.hbc");
+        SimulationCheckpoint.capture(original).write(expectedFile);
+        SimulationCheckpoint.capture(restored).write(actualFile);
+        assertEquals(-1L, Files.mismatch(expectedFile, actualFile));
+    }
+
+    @Test
+    void corruptedCheckpointIsRejected() throws IOException {
+        SimulationLoop loop = createLoop(job());
+        step(loop, 10);
+        Path checkpoint = directory.resolve("simulation.hbc");
+        SimulationCheckpoint.capture(loop).write(checkpoint);
+        byte[] bytes = Files.readAllBytes(checkpoint);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(checkpoint, bytes);
+        IOException e = assertThrows(IOException.class, () -> SimulationCheckpoint.read(checkpoint));
+        assertEquals("Checkpoint checksum mismatch", e.getMessage());
+    }
+
+    @Test
+    void restoreRejectsAnotherIntegrator() throws IOException {
+        SimulationLoop loop = createLoop(job());
+        step(loop, 10);
+        SimulationCheckpoint checkpoint = SimulationCheckpoint.capture(loop);
+        SimulationJob other = job();
+        other.setIntegrator(IntegratorType.RK4);
+        assertThrows(IllegalArgumentException.class, () -> checkpoint.restore(createLoop(other)));
+    }
+
+    @Test
+    void restoreRejectsTheClosedFormActuator() {
+        SimulationLoop loop = createLoop(job());
+        step(loop, 10);
+        SimulationCheckpoint checkpoint = SimulationCheckpoint.capture(loop);
+        SimulationJob other = job();
+        other.setActuator(null);
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> checkpoint.restore(createLoop(other)));
+        assertEquals("Checkpoint was taken with a tabulated actuator; install it before restoring", e.getMessage());
+    }
+}
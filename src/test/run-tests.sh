@@ -0,0 +1,68 @@
+#!/usr/bin/env bash
+# Builds the main classes and the JUnit 5 tests in src/test/java, then runs them.
+#
+#   src/test/run-tests.sh [console launcher options...]
+#
+# Needs a JDK (javac and java on PATH, or JAVA_HOME). The JUnit console launcher and JavaFX are
+# fetched from Maven Central into build/test/lib on first use; set JAVAFX_LIB to a JavaFX SDK's
+# lib directory to use that instead. Options such as --select-class are passed to the launcher;
+# by default every test class is run.
+set -euo pipefail
+
+ROOT="$(cd "$(dirname "$0")/../.." && pwd)"
+BUILD="$ROOT/build/test"
+LIB="$BUILD/lib"
+JUNIT_VERSION=1.10.2
+JAVAFX_VERSION=21.0.5
+MAVEN=https://repo1.maven.org/maven2
+
+JAVA_BIN="${JAVA_HOME:+$JAVA_HOME/bin/}"
+
+fetch() {
+    local path="$1" file="$LIB/$(basename "$1")"
+    if [ ! -f "$file" ]; then
+        echo "Downloading $(basename "$1")"
+        curl -sSfL -o "$file.part" "$MAVEN/$path" && mv "$file.part" "$file"
+    fi
+    CLASSPATH_JARS="$CLASSPATH_JARS:$file"
+}
+
+mkdir -p "$LIB"
+CLASSPATH_JARS=""
+fetch "org/junit/platform/junit-platform-console-standalone/$JUNIT_VERSION/junit-platform-console-standalone-$JUNIT_VERSION.jar"
+
+if [ -n "${JAVAFX_LIB:-}" ]; then
+    for jar in "$JAVAFX_LIB"/*.jar; do
+        CLASSPATH_JARS="$CLASSPATH_JARS:$jar"
+    done
+else
+    case "$(uname -s)-$(uname -m)" in
+        Linux-aarch64) PLATFORM=linux-aarch64 ;;
+        Linux-*) PLATFORM=linux ;;
+        Darwin-arm64) PLATFORM=mac-aarch64 ;;
+        Darwin-*) PLATFORM=mac ;;
+        *) PLATFORM=win ;;
+    esac
+    for module in base graphics controls fxml; do
+        fetch "org/openjfx/javafx-$module/$JAVAFX_VERSION/javafx-$module-$JAVAFX_VERSION-$PLATFORM.jar"
+    done
+fi
+CLASSPATH_JARS="${CLASSPATH_JARS#:}"
+
+# The main classes go on the class path, not the module path, and the tests share their package
+rm -rf "$BUILD/classes" "$BUILD/test-classes"
+mkdir -p "$BUILD/classes" "$BUILD/test-classes"
+find "$ROOT/src/main/java" -name '*.java' ! -name module-info.java > "$BUILD/main-sources.txt"
+"${JAVA_BIN}javac" -encoding UTF-8 -cp "$CLASSPATH_JARS" -d "$BUILD/classes" @"$BUILD/main-sources.txt"
+cp -r "$ROOT/src/main/resources/." "$BUILD/classes/"
+
+find "$ROOT/src/test/java" -name '*.java' > "$BUILD/test-sources.txt"
+"${JAVA_BIN}javac" -encoding UTF-8 -cp "$BUILD/classes:$CLASSPATH_JARS" -d "$BUILD/test-classes" @"$BUILD/test-sources.txt"
+
+# Generated force maps go to a scratch cache rather than the user's
+if [ $# -eq 0 ]; then
+    set -- --scan-class-path "$BUILD/test-classes"
+fi
+exec "${JAVA_BIN}java" ${JAVA_OPTS:-} -Dhybrid.bearing.cache="$BUILD/cache" \
+    -jar "$LIB/junit-platform-console-standalone-$JUNIT_VERSION.jar" execute \
+    --class-path "$BUILD/test-classes:$BUILD/classes:$CLASSPATH_JARS" "$@"